@@ -0,0 +1,29 @@
+package com.asystems.read4u.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with JMH's usual command line, always with the GC
+ * profiler so every result carries its allocation rate. Build and run with
+ * <pre>
+ * ./mvnw -Pbenchmarks install -DskipTests
+ * ./mvnw -f read4u-benchmarks/pom.xml compile exec:exec -Dbenchmark.args="-p books=50000"
+ * </pre>
+ * Arguments select benchmarks by regular expression and override parameters
+ * and iteration counts as with the JMH main class.
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
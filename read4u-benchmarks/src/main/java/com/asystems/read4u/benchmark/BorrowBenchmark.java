@@ -0,0 +1,65 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.entity.BorrowRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout and return through BorrowService. Each measured call is paired
+ * with its opposite outside the measurement, so copies and member counters
+ * stay level however long the run.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BorrowBenchmark {
+
+    @State(Scope.Thread)
+    public static class Borrower {
+
+        long memberId;
+        Long borrowedId;
+
+        @Setup(Level.Trial)
+        public void claim(Library library) {
+            memberId = library.claimWriter();
+        }
+
+        @TearDown(Level.Invocation)
+        public void giveBack(Library library) {
+            library.borrowService.returnBook(borrowedId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Returner {
+
+        long memberId;
+        Long borrowedId;
+
+        @Setup(Level.Trial)
+        public void claim(Library library) {
+            memberId = library.claimWriter();
+        }
+
+        @Setup(Level.Invocation)
+        public void borrow(Library library) {
+            borrowedId = library.borrowService.borrowBook(memberId, library.randomStockedBook()).getId();
+        }
+    }
+
+    @Benchmark
+    public BorrowRecord borrowBook(Library library, Borrower borrower) {
+        BorrowRecord record = library.borrowService.borrowBook(borrower.memberId, library.randomStockedBook());
+        borrower.borrowedId = record.getId();
+        return record;
+    }
+
+    @Benchmark
+    public BorrowRecord returnBook(Library library, Returner returner) {
+        return library.borrowService.returnBook(returner.borrowedId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.Read4UApplication;
+import com.asystems.read4u.entity.Fine;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.service.FineLedger;
+import com.asystems.read4u.service.FineService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fine events under contention: charges, single payments and pay-alls from
+ * many threads over {@code members} members, so most events land on a member
+ * another thread is also posting to. The application runs on its own
+ * in-memory H2 database. A refused event is one whose fine another thread's
+ * pay-all settled first. When the trial ends, every balance must still equal
+ * its ledger total, and the reconciliation must find nothing to correct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class FineLedgerBenchmark {
+
+    @Param({"200"})
+    public int members;
+
+    private ConfigurableApplicationContext context;
+    private FineService fineService;
+    private List<Member> saved;
+
+    @State(Scope.Thread)
+    public static class Desk {
+
+        final SplittableRandom random = new SplittableRandom();
+        final Deque<Long> unpaid = new ArrayDeque<>();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+
+        public long refused;
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Read4UApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:fines-bench;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.hikari.maximum-pool-size=32",
+                        "--spring.jpa.show-sql=false",
+                        "--library.reactive.port=-1",
+                        "--logging.level.root=WARN",
+                        "--spring.main.banner-mode=off");
+        fineService = context.getBean(FineService.class);
+        List<Member> created = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            created.add(Member.builder().firstName("Bench").lastName(String.valueOf(i))
+                    .email("fines" + i + "@bench.read4u.test").membershipNumber("FINEBENCH" + i).build());
+        }
+        saved = context.getBean(MemberRepository.class).saveAll(created);
+    }
+
+    @TearDown(Level.Trial)
+    public void reconcile() {
+        Map<String, Object> reconciled = context.getBean(FineLedger.class).reconcile();
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long balances = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(outstanding_fines), 0) * 100 FROM members", Long.class);
+        Long ledger = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount_cents), 0) FROM fine_ledger_entries", Long.class);
+        context.close();
+        System.out.printf("balances %d cents, ledger %d cents, reconciliation %s%n", balances, ledger, reconciled);
+        if (!balances.equals(ledger) || (Long) reconciled.get("corrected") != 0) {
+            throw new IllegalStateException("Fine balances drifted from the ledger");
+        }
+    }
+
+    @Benchmark
+    public void fineEvent(Desk desk, Outcomes outcomes) {
+        Member member = saved.get(desk.random.nextInt(saved.size()));
+        int roll = desk.random.nextInt(100);
+        try {
+            if (roll < 60 || desk.unpaid.isEmpty()) {
+                BigDecimal amount = BigDecimal.valueOf(1 + desk.random.nextInt(500), 2);
+                desk.unpaid.add(fineService.createFine(member, null, amount, Fine.FineType.OTHER, "Benchmark")
+                        .getId());
+            } else if (roll < 98) {
+                fineService.payFine(desk.unpaid.poll(), "CARD");
+            } else {
+                fineService.payAllFines(member.getId(), "ONLINE");
+            }
+        } catch (RuntimeException e) {
+            outcomes.refused++;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.dto.BorrowRecordView;
+import com.asystems.read4u.dto.CursorPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A deep page of one member's borrow history, fetched by keyset cursor and
+ * by the offset query it replaces. The member has {@code history} returned
+ * loans, fifteen a day; each call reads one of the {@code window} pages
+ * ending at {@code page}, so H2 cannot answer from its result cache.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HistoryPageBenchmark {
+
+    private static final long HISTORY_ID_BASE = 3_000_000_000L;
+    private static final int SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class History {
+
+        @Param({"30000"})
+        public int history;
+
+        @Param({"1000"})
+        public int page;
+
+        @Param({"50"})
+        public int window;
+
+        long memberId;
+        // Cursors as a client walking the pages would hold them, the one before each page in the window
+        String[] cursors;
+
+        @Setup(Level.Trial)
+        public void seed(Library library) {
+            memberId = library.claimWriter();
+            library.jdbcTemplate.update("INSERT INTO borrow_records (id, book_id, member_id, borrow_date, " +
+                    "due_date, return_date, status, renewal_count, max_renewals, created_at) " +
+                    "SELECT ? + x, ?, ?, DATEADD('DAY', -30 - x / 15, CURRENT_DATE), " +
+                    "DATEADD('DAY', -30 - x / 15, CURRENT_DATE), DATEADD('DAY', -30 - x / 15, CURRENT_DATE), " +
+                    "'RETURNED', 0, 2, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(0, ? - 1) r(x)",
+                    HISTORY_ID_BASE, library.randomStockedBook(), memberId, history);
+
+            cursors = new String[window];
+            CursorPage<BorrowRecordView> current = library.borrowService.scrollBorrowHistory(memberId, null, SIZE, false);
+            for (int p = 1; p < page; p++) {
+                if (p >= page - window) {
+                    cursors[p - (page - window)] = current.getNextCursor();
+                }
+                current = library.borrowService.scrollBorrowHistory(memberId, current.getNextCursor(), SIZE, false);
+            }
+        }
+
+        int randomPage() {
+            return page - window + ThreadLocalRandom.current().nextInt(window);
+        }
+    }
+
+    @Benchmark
+    public CursorPage<BorrowRecordView> keysetPage(Library library, History history) {
+        int p = history.randomPage();
+        return library.borrowService.scrollBorrowHistory(history.memberId,
+                history.cursors[p - (history.page - history.window)], SIZE, false);
+    }
+
+    @Benchmark
+    public Page<BorrowRecordView> offsetPage(Library library, History history) {
+        return library.borrowService.getBorrowHistory(history.memberId, PageRequest.of(history.randomPage(), SIZE,
+                Sort.by(Sort.Direction.DESC, "borrowDate", "id")));
+    }
+}
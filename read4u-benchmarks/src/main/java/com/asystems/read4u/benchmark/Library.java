@@ -0,0 +1,144 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.Read4UApplication;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.service.BookSearchService;
+import com.asystems.read4u.service.BookService;
+import com.asystems.read4u.service.BorrowService;
+import com.asystems.read4u.service.ReadingHistoryService;
+import com.asystems.read4u.service.RecommendationModelService;
+import com.asystems.read4u.service.RecommendationService;
+import com.asystems.read4u.service.ReservationService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The application without a web server, over an in-memory H2 database in
+ * MySQL mode seeded with {@code books} titles and a fifth as many members,
+ * each with ten returned loans and five rated reads. The first books have no
+ * copies on the shelf and take reservations; the rest never run out.
+ */
+@State(Scope.Benchmark)
+public class Library {
+
+    private static final long SEEDED_ID_BASE = 1_000_000_000L;
+    private static final int RESERVABLE_BOOKS = 100;
+    // Members of their own for the write benchmarks, one per benchmark thread
+    private static final int WRITERS = 64;
+    private static final int LOANS_PER_MEMBER = 10;
+    private static final int READS_PER_MEMBER = 5;
+    private static final int CATEGORIES = 20;
+
+    @Param({"10000"})
+    public int books;
+
+    public BookService bookService;
+    public BorrowService borrowService;
+    public ReservationService reservationService;
+    public RecommendationService recommendationService;
+    public ReadingHistoryService readingHistoryService;
+    public BookRepository bookRepository;
+    public EntityManager entityManager;
+    public JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger writersClaimed = new AtomicInteger();
+    private ConfigurableApplicationContext context;
+    private int members;
+
+    @Setup(Level.Trial)
+    public void start() {
+        members = books / 5;
+        // Passed as arguments so they win over application.properties
+        context = new SpringApplicationBuilder(Read4UApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmarks;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--spring.main.banner-mode=off");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate);
+        // The co-borrow model has to know the seeded history to answer recommendations from memory
+        context.getBean(RecommendationModelService.class).rebuild();
+        // Built at startup before the seed, so the search index would otherwise be empty
+        context.getBean(BookSearchService.class).rebuild();
+
+        bookService = context.getBean(BookService.class);
+        borrowService = context.getBean(BorrowService.class);
+        reservationService = context.getBean(ReservationService.class);
+        recommendationService = context.getBean(RecommendationService.class);
+        readingHistoryService = context.getBean(ReadingHistoryService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public long randomMember() {
+        return SEEDED_ID_BASE + 1 + ThreadLocalRandom.current().nextInt(members);
+    }
+
+    public long randomStockedBook() {
+        return SEEDED_ID_BASE + 1 + RESERVABLE_BOOKS + ThreadLocalRandom.current().nextInt(books - RESERVABLE_BOOKS);
+    }
+
+    public long randomReservableBook() {
+        return SEEDED_ID_BASE + 1 + ThreadLocalRandom.current().nextInt(RESERVABLE_BOOKS);
+    }
+
+    public String randomCategory() {
+        return "Category " + ThreadLocalRandom.current().nextInt(CATEGORIES);
+    }
+
+    /**
+     * A member no other benchmark thread writes for, so reservations and loan
+     * limits never collide.
+     */
+    public long claimWriter() {
+        int slot = writersClaimed.getAndIncrement();
+        if (slot >= WRITERS) {
+            throw new RuntimeException("More than " + WRITERS + " benchmark threads write as members");
+        }
+        return SEEDED_ID_BASE + 1 + members + slot;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, isbn, category, total_copies, available_copies, " +
+                "borrow_count, recent_borrow_count, is_active, created_at) " +
+                "SELECT ? + x, 'Volume ' || x || ' of the ' || CASE MOD(x, 4) WHEN 0 THEN 'Harbour' " +
+                "WHEN 1 THEN 'Winter' WHEN 2 THEN 'Garden' ELSE 'River' END || ' Cycle', " +
+                "'Author ' || MOD(x, 500), CAST(9788000000000 + x AS VARCHAR), 'Category ' || MOD(x, ?), " +
+                "CASE WHEN x <= ? THEN 1 ELSE 1000000000 END, CASE WHEN x <= ? THEN 0 ELSE 1000000000 END, " +
+                "MOD(x * 37, 1000), MOD(x, 50), TRUE, DATEADD('DAY', -MOD(x, 365), CURRENT_TIMESTAMP) " +
+                "FROM SYSTEM_RANGE(1, ?) r(x)", SEEDED_ID_BASE, CATEGORIES, RESERVABLE_BOOKS, RESERVABLE_BOOKS, books);
+        jdbcTemplate.update("INSERT INTO members (id, first_name, last_name, email, membership_number, " +
+                "membership_type, max_books_allowed, current_borrowed_count, outstanding_fines, is_active, " +
+                "created_at) SELECT ? + x, 'Bench', 'Reader ' || x, 'bench' || x || '@bench.read4u.test', " +
+                "'BENCH-' || x, 'STANDARD', 1000000000, 0, 0, TRUE, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, ?) r(x)", SEEDED_ID_BASE, members + WRITERS);
+        // Multiplying by a prime scatters each member's history over the catalogue
+        jdbcTemplate.update("INSERT INTO borrow_records (id, book_id, member_id, borrow_date, due_date, " +
+                "return_date, status, renewal_count, max_renewals, created_at) " +
+                "SELECT ? + x, ? + 1 + MOD(x * 7919, ?), ? + 1 + MOD(x, ?), " +
+                "DATEADD('DAY', -MOD(x, 700) - 14, CURRENT_DATE), DATEADD('DAY', -MOD(x, 700), CURRENT_DATE), " +
+                "DATEADD('DAY', -MOD(x, 700) - 3, CURRENT_DATE), 'RETURNED', 0, 2, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, ?) r(x)", SEEDED_ID_BASE, SEEDED_ID_BASE, books, SEEDED_ID_BASE, members,
+                members * LOANS_PER_MEMBER);
+        jdbcTemplate.update("INSERT INTO reading_history (id, member_id, book_id, completed_at, rating, " +
+                "would_recommend, created_at) " +
+                "SELECT ? + x, ? + 1 + MOD(x, ?), ? + 1 + MOD(x * 104729, ?), " +
+                "DATEADD('DAY', -MOD(x, 700), CURRENT_TIMESTAMP), MOD(x, 5) + 1, MOD(x, 3) = 0, CURRENT_TIMESTAMP " +
+                "FROM SYSTEM_RANGE(1, ?) r(x)", SEEDED_ID_BASE, SEEDED_ID_BASE, members, SEEDED_ID_BASE, books,
+                members * READS_PER_MEMBER);
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,67 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.entity.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths over the seeded history: catalogue search through the index and
+ * as the database query it replaces, popular books in a category from the
+ * borrow counters and as the correlated count they replace, member
+ * recommendations and reading statistics, for a random member each call.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadPathBenchmark {
+
+    // The query findPopularBooksByCategory ran before counters were denormalised
+    private static final String CORRELATED_POPULAR_QUERY =
+            "SELECT b FROM Book b WHERE b.isActive = true AND b.category = :category " +
+            "ORDER BY (SELECT COUNT(br) FROM BorrowRecord br WHERE br.book = b) DESC";
+
+    // Matches a quarter of the titles, so the count query has real work to do
+    @Param({"winter"})
+    public String query;
+
+    @Benchmark
+    public Page<Book> searchBooks(Library library) {
+        return library.bookRepository.searchBooks(query, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<Book> searchIndex(Library library) {
+        return library.bookService.searchBooks(query, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<Book> popularInCategory(Library library) {
+        return library.bookRepository.findPopularBooksByCategory(library.randomCategory(), PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public List<Book> popularInCategoryCorrelated(Library library) {
+        return library.entityManager.createQuery(CORRELATED_POPULAR_QUERY, Book.class)
+                .setParameter("category", library.randomCategory())
+                .setMaxResults(10)
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<Book> getRecommendationsForMember(Library library) {
+        return library.recommendationService.getRecommendationsForMember(library.randomMember(), 10);
+    }
+
+    @Benchmark
+    public Map<String, Object> getMemberReadingStats(Library library) {
+        return library.readingHistoryService.getMemberReadingStats(library.randomMember());
+    }
+}
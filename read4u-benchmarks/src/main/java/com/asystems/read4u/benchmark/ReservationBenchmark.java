@@ -0,0 +1,66 @@
+package com.asystems.read4u.benchmark;
+
+import com.asystems.read4u.entity.Reservation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queueing for and leaving the hold queue of a book with no copies on the
+ * shelf. As with loans, the opposite call runs outside the measurement, so
+ * the queues keep their length.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReservationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Reserver {
+
+        long memberId;
+        Long reservationId;
+
+        @Setup(Level.Trial)
+        public void claim(Library library) {
+            memberId = library.claimWriter();
+        }
+
+        @TearDown(Level.Invocation)
+        public void withdraw(Library library) {
+            library.reservationService.cancelReservation(reservationId, memberId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Canceller {
+
+        long memberId;
+        Long reservationId;
+
+        @Setup(Level.Trial)
+        public void claim(Library library) {
+            memberId = library.claimWriter();
+        }
+
+        @Setup(Level.Invocation)
+        public void reserve(Library library) {
+            reservationId = library.reservationService.reserveBook(memberId, library.randomReservableBook()).getId();
+        }
+    }
+
+    @Benchmark
+    public Reservation reserveBook(Library library, Reserver reserver) {
+        Reservation reservation = library.reservationService.reserveBook(reserver.memberId,
+                library.randomReservableBook());
+        reserver.reservationId = reservation.getId();
+        return reservation;
+    }
+
+    @Benchmark
+    public void cancelReservation(Library library, Canceller canceller) {
+        library.reservationService.cancelReservation(canceller.reservationId, canceller.memberId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.Read4UApplication;
+import com.asystems.read4u.entity.CirculationEvent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append and relay cost of the circulation event log, over the application
+ * on its own in-memory H2 database with the scheduled relay parked. Appends
+ * are timed a transaction at a time, {@code perTransaction} events each, as
+ * a batch checkout writes them. A relay is timed from a backlog of
+ * {@code backlog} events until every consumer has caught up. In the service
+ * package, since the event log is package-private.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CirculationEventRelayBenchmark {
+
+    @Param({"20"})
+    private int perTransaction;
+
+    @Param({"500"})
+    private int batchSize;
+
+    CirculationEventLog eventLog;
+    CirculationEventRelay relay;
+    TransactionTemplate transactionTemplate;
+
+    private ConfigurableApplicationContext context;
+    private long appended;
+
+    @State(Scope.Thread)
+    public static class Backlog {
+
+        @Param({"20000"})
+        private int backlog;
+
+        @Setup(Level.Invocation)
+        public void append(CirculationEventRelayBenchmark bench) {
+            for (int i = 0; i < backlog; i += bench.perTransaction) {
+                bench.appendTransaction(Math.min(bench.perTransaction, backlog - i));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Read4UApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:events-bench;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.jpa.show-sql=false",
+                        "--library.reactive.port=-1",
+                        "--library.events.poll-ms=3600000",
+                        "--library.events.batch-size=" + batchSize,
+                        "--logging.level.root=WARN",
+                        "--spring.main.banner-mode=off");
+        eventLog = context.getBean(CirculationEventLog.class);
+        relay = context.getBean(CirculationEventRelay.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        // Brings every consumer's offset row into existence before anything is timed
+        relay.relay();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void appendTransaction() {
+        appendTransaction(perTransaction);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int relayBacklog(Backlog backlog) {
+        int delivered = 0;
+        int batch;
+        while ((batch = relay.relay()) > 0) {
+            delivered += batch;
+        }
+        return delivered;
+    }
+
+    void appendTransaction(int count) {
+        List<CirculationEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long n = appended++;
+            events.add(CirculationEvent.builder()
+                    .type(n % 2 == 0 ? CirculationEvent.EventType.BORROWED : CirculationEvent.EventType.RETURNED)
+                    .memberId(n % 2_000).bookId(n % 5_000).borrowRecordId(n / 2)
+                    .build());
+        }
+        transactionTemplate.executeWithoutResult(status -> eventLog.appendAll(events));
+    }
+}
@@ -0,0 +1,85 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput of the circulation journal by relay batch size and sync
+ * policy. Each invocation appends {@code events} records to a fresh journal,
+ * so the score is the time for that many; with the batch policy it includes
+ * one fsync per batch. Run it on the disk the journal will live on. In the
+ * service package, since the journal is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CirculationJournalBenchmark {
+
+    @Param({"20000"})
+    private int events;
+
+    @Param({"1", "100", "500"})
+    private int batchSize;
+
+    // A string, since generated benchmark code sits outside this package and cannot name the enum
+    @Param({"BATCH", "NONE"})
+    private String sync;
+
+    private List<List<CirculationEvent>> batches;
+    private Path dir;
+    private CirculationJournal journal;
+
+    @Setup(Level.Trial)
+    public void createEvents() {
+        batches = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int start = 1; start <= events; start += batchSize) {
+            List<CirculationEvent> batch = new ArrayList<>(batchSize);
+            for (long id = start; id < start + batchSize && id <= events; id++) {
+                batch.add(CirculationEvent.builder()
+                        .id(id).type(CirculationEvent.EventType.values()[(int) (id % 3)])
+                        .memberId(id % 2_000 + 1).bookId(id % 5_000 + 1).borrowRecordId(id)
+                        .occurredAt(now).build());
+            }
+            batches.add(batch);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void openJournal() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        journal = new CirculationJournal(dir, 131_072, CirculationJournal.SyncPolicy.valueOf(sync));
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteJournal() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public int append() {
+        int written = 0;
+        for (List<CirculationEvent> batch : batches) {
+            written += journal.append(batch);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,66 @@
+package com.asystems.read4u.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the inventory ledger's checkout gate by thread count and by how
+ * many books the threads spread over; one book puts every thread on the
+ * same slot. Each take of a copy is followed by its release, so counts
+ * never run out. In the service package, since the ledger is
+ * package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryLedgerBenchmark {
+
+    @Param({"1", "10000"})
+    private int books;
+
+    private InventoryLedger ledger;
+
+    @Setup(Level.Trial)
+    public void fillLedger() {
+        ledger = new InventoryLedger(books);
+        for (long bookId = 1; bookId <= books; bookId++) {
+            ledger.put(bookId, 1_000_000);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int takeAndReleaseOneThread() {
+        return takeAndRelease();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int takeAndReleaseFourThreads() {
+        return takeAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int takeAndReleaseEightThreads() {
+        return takeAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int availableEightThreads() {
+        return ledger.available(ThreadLocalRandom.current().nextInt(books) + 1);
+    }
+
+    private int takeAndRelease() {
+        long bookId = ThreadLocalRandom.current().nextInt(books) + 1;
+        int result = ledger.tryTake(bookId);
+        ledger.add(bookId, 1);
+        return result;
+    }
+}
@@ -0,0 +1,76 @@
+package com.asystems.read4u.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build time and serving latency of the co-borrow model over
+ * {@code members} readers with twenty borrows each, most of them within one
+ * genre. In the service package, since the model is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemSimilarityModelBenchmark {
+
+    private static final int PER_MEMBER = 20;
+    private static final int GENRES = 50;
+
+    @Param({"50000"})
+    private int members;
+
+    @Param({"20000"})
+    private int books;
+
+    private ItemSimilarityModel.Interactions interactions;
+    private ForkJoinPool pool;
+    private ItemSimilarityModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(5);
+        interactions = new ItemSimilarityModel.Interactions();
+        for (long member = 0; member < members; member++) {
+            int genre = random.nextInt(GENRES);
+            for (int i = 0; i < PER_MEMBER; i++) {
+                int book = random.nextDouble() < 0.8
+                        ? genre + GENRES * random.nextInt(books / GENRES)
+                        : random.nextInt(books);
+                interactions.add(member, book, 1 + random.nextInt(2));
+            }
+        }
+        pool = new ForkJoinPool();
+        model = build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public ItemSimilarityModel build() {
+        return ItemSimilarityModel.build(interactions, 50, 1000, pool);
+    }
+
+    @Benchmark
+    public long[] recommend() {
+        return model.recommend(ThreadLocalRandom.current().nextInt(members), 10);
+    }
+
+    @Benchmark
+    public long[] similar() {
+        return model.similar(ThreadLocalRandom.current().nextInt(books), 10);
+    }
+}
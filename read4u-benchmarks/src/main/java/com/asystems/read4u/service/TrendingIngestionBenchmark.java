@@ -0,0 +1,61 @@
+package com.asystems.read4u.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrow-event ingestion throughput of the trending window. Run the record
+ * benchmarks at {@code -t 1}, {@code -t 4} and {@code -t 8} to compare
+ * contention on a skewed catalogue. In the service package, since the window
+ * is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendingIngestionBenchmark {
+
+    private static final String[] CATEGORIES = {"Fiction", "Science", "History", "Children", "Computing"};
+
+    @Param({"100000"})
+    private int books;
+
+    private TrendingWindow window;
+    private long today;
+
+    @Setup
+    public void setUp() {
+        window = new TrendingWindow(30, 7);
+        today = LocalDate.now().toEpochDay();
+        for (long id = 0; id < books; id++) {
+            window.record(id, CATEGORIES[(int) (id % CATEGORIES.length)], today);
+        }
+    }
+
+    @Benchmark
+    public void recordSkewed() {
+        // Cubing a uniform draw concentrates events on a hot head of the catalogue
+        double u = ThreadLocalRandom.current().nextDouble();
+        long id = (long) (books * u * u * u);
+        window.record(id, CATEGORIES[(int) (id % CATEGORIES.length)], today);
+    }
+
+    @Benchmark
+    public void recordUniform() {
+        long id = ThreadLocalRandom.current().nextLong(books);
+        window.record(id, CATEGORIES[(int) (id % CATEGORIES.length)], today);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(1)
+    public TrendingWindow.Leaderboard rank() {
+        return window.rank(today, 100);
+    }
+}
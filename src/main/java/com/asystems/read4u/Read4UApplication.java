@@ -2,8 +2,10 @@ package com.asystems.read4u;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Read4UApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package com.asystems.read4u.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${library.cache.spec}") String spec) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager("categories", "newArrivalIds", "bookReviews");
+        caffeine.setCacheSpecification(spec);
+        caffeine.setAllowNullValues(false);
+        // Evictions from a write transaction apply on commit, so a concurrent read cannot re-cache old rows
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -0,0 +1,37 @@
+package com.asystems.read4u.config;
+
+import com.asystems.read4u.service.DataGeneratorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the synthetic dataset at startup under the {@code datagen} profile.
+ * Runners finish before the application reports ready, so the search index
+ * and recommendation model are built over the generated rows. Against a
+ * persistent database set {@code library.datagen.exit-after} to load and quit.
+ */
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DataGeneratorRunner implements ApplicationRunner {
+
+    private final DataGeneratorService dataGeneratorService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${library.datagen.exit-after:false}")
+    private boolean exitAfter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dataGeneratorService.generate();
+        if (exitAfter) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.asystems.read4u.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC access for the reactive catalogue read path, on the same database
+ * and schema the JPA side migrates and writes.
+ */
+@Configuration
+public class ReactiveCatalogueConfig {
+
+    // Owned here rather than published as a ConnectionFactory bean: Boot skips the JDBC DataSource when it sees one
+    private final ConnectionPool pool;
+
+    public ReactiveCatalogueConfig(@Value("${library.reactive.r2dbc-url:}") String r2dbcUrl,
+                                   @Value("${spring.datasource.url}") String jdbcUrl,
+                                   @Value("${spring.datasource.username:}") String username,
+                                   @Value("${spring.datasource.password:}") String password,
+                                   @Value("${library.reactive.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions
+                .parse(r2dbcUrl.isBlank() ? r2dbcUrl(jdbcUrl) : r2dbcUrl)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(0)
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient catalogueDatabaseClient() {
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    void close() {
+        pool.dispose();
+    }
+
+    // jdbc:h2:mem:librarydb -> r2dbc:h2:mem:///librarydb, jdbc:mysql://host/db -> r2dbc:mysql://host/db;
+    // anything else needs library.reactive.r2dbc-url
+    static String r2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:h2:mem:")) {
+            return "r2dbc:h2:mem:///" + jdbcUrl.substring("jdbc:h2:mem:".length());
+        }
+        if (jdbcUrl.startsWith("jdbc:")) {
+            return "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        }
+        throw new RuntimeException("Cannot derive an R2DBC URL from " + jdbcUrl);
+    }
+}
@@ -0,0 +1,69 @@
+package com.asystems.read4u.config;
+
+import com.asystems.read4u.controller.ReactiveBookRoutes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server for the reactive catalogue read path, on its own port
+ * next to Tomcat. Its event loops are sized to the cores rather than to the
+ * number of requests in flight.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveCatalogueServer {
+
+    private final ReactiveBookRoutes reactiveBookRoutes;
+    private final ObjectMapper objectMapper;
+
+    @Value("${library.reactive.port:8081}")
+    private int port;
+
+    private volatile DisposableServer server;
+
+    // Follows the servlet server up, so contexts on a mock servlet environment bind nothing
+    @EventListener
+    void start(ServletWebServerInitializedEvent event) {
+        if (port < 0 || server != null || event.getApplicationContext().getServerNamespace() != null) {
+            return;
+        }
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(reactiveBookRoutes.routes(), strategies);
+        server = HttpServer.create().port(port).handle(new ReactorHttpHandlerAdapter(handler)).bindNow();
+        log.info("Reactive catalogue read path listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    /**
+     * Bound port, or -1 while the server is not running.
+     */
+    public int getPort() {
+        return server == null ? -1 : server.port();
+    }
+}
@@ -1,7 +1,17 @@
 package com.asystems.read4u.controller;
 
+import com.asystems.read4u.dto.BookDetail;
+import com.asystems.read4u.dto.BookRatingSummary;
+import com.asystems.read4u.dto.BookReviewView;
+import com.asystems.read4u.dto.BookSummary;
+import com.asystems.read4u.dto.CursorPage;
+import com.asystems.read4u.dto.Suggestion;
 import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.service.BookRatingStatsService;
 import com.asystems.read4u.service.BookService;
+import com.asystems.read4u.service.BookSuggestionService;
+import com.asystems.read4u.service.ReadingHistoryService;
+import com.asystems.read4u.service.RecommendationModelService;
 import com.asystems.read4u.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -10,6 +20,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/books")
@@ -18,44 +29,81 @@ public class BookController {
 
     private final BookService bookService;
     private final RecommendationService recommendationService;
+    private final BookSuggestionService bookSuggestionService;
+    private final RecommendationModelService recommendationModelService;
+    private final ReadingHistoryService readingHistoryService;
+    private final BookRatingStatsService bookRatingStatsService;
 
     @GetMapping
-    public ResponseEntity<Page<Book>> getAllBooks(Pageable pageable) {
+    public ResponseEntity<Page<BookSummary>> getAllBooks(Pageable pageable) {
         return ResponseEntity.ok(bookService.getAllBooks(pageable));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<BookSummary>> scrollBooks(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(bookService.scrollBooks(after, size, includeTotal));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBook(@PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+    public ResponseEntity<BookDetail> getBook(@PathVariable Long id) {
+        return ResponseEntity.ok(BookDetail.from(bookService.getBookById(id)));
+    }
+
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<CursorPage<BookReviewView>> getReviews(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(readingHistoryService.scrollBookReviews(id, after, size));
+    }
+
+    @GetMapping("/{id}/ratings")
+    public ResponseEntity<BookRatingSummary> getRatings(@PathVariable Long id) {
+        return ResponseEntity.ok(bookRatingStatsService.getSummary(id));
+    }
+
+    @PostMapping("/ratings/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRatings() {
+        return ResponseEntity.ok(bookRatingStatsService.rebuild());
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
+    public ResponseEntity<BookDetail> getBookByIsbn(@PathVariable String isbn) {
         return ResponseEntity.ok(bookService.getBookByIsbn(isbn));
     }
 
     @PostMapping
-    public ResponseEntity<Book> createBook(@RequestBody Book book) {
-        return ResponseEntity.ok(bookService.createBook(book));
+    public ResponseEntity<BookDetail> createBook(@RequestBody Book book) {
+        return ResponseEntity.ok(BookDetail.from(bookService.createBook(book)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @RequestBody Book book) {
-        return ResponseEntity.ok(bookService.updateBook(id, book));
+    public ResponseEntity<BookDetail> updateBook(@PathVariable Long id, @RequestBody Book book) {
+        return ResponseEntity.ok(BookDetail.from(bookService.updateBook(id, book)));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<Book>> searchBooks(@RequestParam String q, Pageable pageable) {
-        return ResponseEntity.ok(bookService.searchBooks(q, pageable));
+    public ResponseEntity<Page<BookSummary>> searchBooks(@RequestParam String q, Pageable pageable) {
+        return ResponseEntity.ok(bookService.searchBooks(q, pageable).map(BookSummary::from));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookSuggestionService.suggest(prefix, limit));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<Book>> getBooksByCategory(@PathVariable String category, Pageable pageable) {
+    public ResponseEntity<Page<BookSummary>> getBooksByCategory(@PathVariable String category, Pageable pageable) {
         return ResponseEntity.ok(bookService.getBooksByCategory(category, pageable));
     }
 
     @GetMapping("/available")
-    public ResponseEntity<Page<Book>> getAvailableBooks(Pageable pageable) {
+    public ResponseEntity<Page<BookSummary>> getAvailableBooks(Pageable pageable) {
         return ResponseEntity.ok(bookService.getAvailableBooks(pageable));
     }
 
@@ -65,29 +113,47 @@ public class BookController {
     }
 
     @GetMapping("/new-arrivals")
-    public ResponseEntity<List<Book>> getNewArrivals(@RequestParam(defaultValue = "30") int days) {
-        return ResponseEntity.ok(bookService.getNewArrivals(days));
+    public ResponseEntity<List<BookSummary>> getNewArrivals(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(summaries(bookService.getNewArrivals(days)));
     }
 
     @GetMapping("/popular/{category}")
-    public ResponseEntity<List<Book>> getPopularByCategory(
+    public ResponseEntity<List<BookSummary>> getPopularByCategory(
             @PathVariable String category,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean recent) {
+        return ResponseEntity.ok(bookService.getPopularBooksByCategory(category, limit, recent));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<BookSummary>> getTrendingBooks(
+            @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(bookService.getPopularBooksByCategory(category, limit));
+        return ResponseEntity.ok(summaries(recommendationService.getTrendingBooks(category, limit)));
+    }
+
+    @GetMapping("/recommendations/model")
+    public ResponseEntity<Map<String, Object>> getRecommendationModelStats() {
+        return ResponseEntity.ok(recommendationModelService.getStats());
+    }
+
+    @PostMapping("/recommendations/model")
+    public ResponseEntity<Map<String, Object>> rebuildRecommendationModel() {
+        return ResponseEntity.ok(recommendationModelService.rebuild());
     }
 
     @GetMapping("/recommendations/{memberId}")
-    public ResponseEntity<List<Book>> getRecommendations(
+    public ResponseEntity<List<BookSummary>> getRecommendations(
             @PathVariable Long memberId,
             @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(recommendationService.getRecommendationsForMember(memberId, limit));
+        return ResponseEntity.ok(summaries(recommendationService.getRecommendationsForMember(memberId, limit)));
     }
 
     @GetMapping("/{id}/similar")
-    public ResponseEntity<List<Book>> getSimilarBooks(
+    public ResponseEntity<List<BookSummary>> getSimilarBooks(
             @PathVariable Long id,
             @RequestParam(defaultValue = "5") int limit) {
-        return ResponseEntity.ok(recommendationService.getSimilarBooks(id, limit));
+        return ResponseEntity.ok(summaries(recommendationService.getSimilarBooks(id, limit)));
     }
 
     @PatchMapping("/{id}/inventory")
@@ -101,4 +167,9 @@ public class BookController {
         bookService.deactivateBook(id);
         return ResponseEntity.ok().build();
     }
+
+    // These lists come out of the entity cache, so they are mapped here rather than projected in SQL
+    private static List<BookSummary> summaries(List<Book> books) {
+        return books.stream().map(BookSummary::from).toList();
+    }
 }
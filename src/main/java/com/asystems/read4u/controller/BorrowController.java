@@ -1,13 +1,21 @@
 package com.asystems.read4u.controller;
 
-import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.dto.BatchResult;
+import com.asystems.read4u.dto.BorrowRecordView;
+import com.asystems.read4u.dto.BorrowRequest;
+import com.asystems.read4u.dto.CursorPage;
 import com.asystems.read4u.service.BorrowService;
+import com.asystems.read4u.service.CirculationEventRelay;
+import com.asystems.read4u.service.JournalEventConsumer;
+import com.asystems.read4u.service.OverdueSweepService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -17,50 +25,96 @@ import java.util.Map;
 public class BorrowController {
 
     private final BorrowService borrowService;
+    private final OverdueSweepService overdueSweepService;
+    private final CirculationEventRelay circulationEventRelay;
+    private final ObjectProvider<JournalEventConsumer> journalEventConsumer;
 
     @PostMapping
-    public ResponseEntity<BorrowRecord> borrowBook(
+    public ResponseEntity<BorrowRecordView> borrowBook(
             @RequestParam Long memberId,
             @RequestParam Long bookId) {
-        return ResponseEntity.ok(borrowService.borrowBook(memberId, bookId));
+        return ResponseEntity.ok(BorrowRecordView.from(borrowService.borrowBook(memberId, bookId)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> borrowBooks(@RequestBody List<BorrowRequest> requests) {
+        return ResponseEntity.ok(borrowService.borrowBooks(requests));
+    }
+
+    @PostMapping("/returns/batch")
+    public ResponseEntity<BatchResult> returnBooks(@RequestBody List<Long> borrowRecordIds) {
+        return ResponseEntity.ok(borrowService.returnBooks(borrowRecordIds));
     }
 
     @PostMapping("/{id}/return")
-    public ResponseEntity<BorrowRecord> returnBook(@PathVariable Long id) {
-        return ResponseEntity.ok(borrowService.returnBook(id));
+    public ResponseEntity<BorrowRecordView> returnBook(@PathVariable Long id) {
+        return ResponseEntity.ok(BorrowRecordView.from(borrowService.returnBook(id)));
     }
 
     @PostMapping("/{id}/renew")
-    public ResponseEntity<BorrowRecord> renewBook(@PathVariable Long id) {
-        return ResponseEntity.ok(borrowService.renewBook(id));
+    public ResponseEntity<BorrowRecordView> renewBook(@PathVariable Long id) {
+        return ResponseEntity.ok(BorrowRecordView.from(borrowService.renewBook(id)));
     }
 
     @GetMapping("/member/{memberId}/current")
-    public ResponseEntity<List<BorrowRecord>> getCurrentBorrows(@PathVariable Long memberId) {
+    public ResponseEntity<List<BorrowRecordView>> getCurrentBorrows(@PathVariable Long memberId) {
         return ResponseEntity.ok(borrowService.getCurrentBorrows(memberId));
     }
 
     @GetMapping("/member/{memberId}/history")
-    public ResponseEntity<Page<BorrowRecord>> getBorrowHistory(
+    public ResponseEntity<Page<BorrowRecordView>> getBorrowHistory(
             @PathVariable Long memberId,
             Pageable pageable) {
         return ResponseEntity.ok(borrowService.getBorrowHistory(memberId, pageable));
     }
 
+    @GetMapping("/member/{memberId}/history/cursor")
+    public ResponseEntity<CursorPage<BorrowRecordView>> scrollBorrowHistory(
+            @PathVariable Long memberId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(borrowService.scrollBorrowHistory(memberId, after, size, includeTotal));
+    }
+
     @GetMapping("/overdue")
-    public ResponseEntity<List<BorrowRecord>> getOverdueBooks() {
+    public ResponseEntity<List<BorrowRecordView>> getOverdueBooks() {
         return ResponseEntity.ok(borrowService.getOverdueBooks());
     }
 
+    @GetMapping("/overdue/sweep")
+    public ResponseEntity<Map<String, Object>> getOverdueSweepStats() {
+        return ResponseEntity.ok(overdueSweepService.getStats());
+    }
+
+    @PostMapping("/overdue/sweep")
+    public ResponseEntity<Map<String, Object>> runOverdueSweep() {
+        return ResponseEntity.ok(overdueSweepService.sweep());
+    }
+
+    @GetMapping("/events/offsets")
+    public ResponseEntity<Map<String, Object>> getEventOffsets() {
+        return ResponseEntity.ok(circulationEventRelay.getOffsets());
+    }
+
+    @GetMapping("/journal/replay")
+    public ResponseEntity<Map<String, Object>> replayJournal() {
+        JournalEventConsumer journal = journalEventConsumer.getIfAvailable();
+        if (journal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(journal.replay());
+    }
+
     @GetMapping("/member/{memberId}/overdue")
-    public ResponseEntity<List<BorrowRecord>> getOverdueByMember(@PathVariable Long memberId) {
+    public ResponseEntity<List<BorrowRecordView>> getOverdueByMember(@PathVariable Long memberId) {
         return ResponseEntity.ok(borrowService.getOverdueByMember(memberId));
     }
 
     @PostMapping("/{id}/lost")
     public ResponseEntity<Void> markAsLost(
             @PathVariable Long id,
-            @RequestParam Double replacementCost) {
+            @RequestParam BigDecimal replacementCost) {
         borrowService.markAsLost(id, replacementCost);
         return ResponseEntity.ok().build();
     }
@@ -1,5 +1,6 @@
 package com.asystems.read4u.controller;
 
+import com.asystems.read4u.dto.*;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.service.*;
 import lombok.RequiredArgsConstructor;
@@ -18,52 +19,62 @@ public class MemberController {
 
     private final MemberService memberService;
     private final FineService fineService;
+    private final FineLedger fineLedger;
     private final ReservationService reservationService;
     private final WishlistService wishlistService;
     private final ReadingHistoryService readingHistoryService;
+    private final MemberReadingStatsService memberReadingStatsService;
 
     @GetMapping
-    public ResponseEntity<Page<Member>> getAllMembers(Pageable pageable) {
+    public ResponseEntity<Page<MemberSummary>> getAllMembers(Pageable pageable) {
         return ResponseEntity.ok(memberService.getAllMembers(pageable));
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<MemberSummary>> scrollMembers(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(memberService.scrollMembers(after, size, includeTotal));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Member> getMember(@PathVariable Long id) {
-        return ResponseEntity.ok(memberService.getMemberById(id));
+    public ResponseEntity<MemberDetail> getMember(@PathVariable Long id) {
+        return ResponseEntity.ok(MemberDetail.from(memberService.getMemberById(id)));
     }
 
     @PostMapping
-    public ResponseEntity<Member> registerMember(@RequestBody Member member) {
-        return ResponseEntity.ok(memberService.registerMember(member));
+    public ResponseEntity<MemberDetail> registerMember(@RequestBody Member member) {
+        return ResponseEntity.ok(MemberDetail.from(memberService.registerMember(member)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Member> updateMember(@PathVariable Long id, @RequestBody Member member) {
-        return ResponseEntity.ok(memberService.updateMember(id, member));
+    public ResponseEntity<MemberDetail> updateMember(@PathVariable Long id, @RequestBody Member member) {
+        return ResponseEntity.ok(MemberDetail.from(memberService.updateMember(id, member)));
     }
 
     @PostMapping("/{id}/upgrade")
-    public ResponseEntity<Member> upgradeMembership(
+    public ResponseEntity<MemberDetail> upgradeMembership(
             @PathVariable Long id,
             @RequestParam Member.MembershipType type) {
-        return ResponseEntity.ok(memberService.upgradeMembership(id, type));
+        return ResponseEntity.ok(MemberDetail.from(memberService.upgradeMembership(id, type)));
     }
 
     @PostMapping("/{id}/renew")
-    public ResponseEntity<Member> renewMembership(
+    public ResponseEntity<MemberDetail> renewMembership(
             @PathVariable Long id,
             @RequestParam(defaultValue = "1") int years) {
-        return ResponseEntity.ok(memberService.renewMembership(id, years));
+        return ResponseEntity.ok(MemberDetail.from(memberService.renewMembership(id, years)));
     }
 
     // Fines
     @GetMapping("/{id}/fines")
-    public ResponseEntity<List<Fine>> getFines(@PathVariable Long id) {
+    public ResponseEntity<List<FineView>> getFines(@PathVariable Long id) {
         return ResponseEntity.ok(fineService.getAllFines(id));
     }
 
     @GetMapping("/{id}/fines/unpaid")
-    public ResponseEntity<List<Fine>> getUnpaidFines(@PathVariable Long id) {
+    public ResponseEntity<List<FineView>> getUnpaidFines(@PathVariable Long id) {
         return ResponseEntity.ok(fineService.getUnpaidFines(id));
     }
 
@@ -75,30 +86,35 @@ public class MemberController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/fines/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileFines() {
+        return ResponseEntity.ok(fineLedger.reconcile());
+    }
+
     // Reservations
     @GetMapping("/{id}/reservations")
-    public ResponseEntity<List<Reservation>> getReservations(@PathVariable Long id) {
+    public ResponseEntity<List<ReservationView>> getReservations(@PathVariable Long id) {
         return ResponseEntity.ok(reservationService.getMemberReservations(id));
     }
 
     @GetMapping("/{id}/reservations/available")
-    public ResponseEntity<List<Reservation>> getAvailableReservations(@PathVariable Long id) {
+    public ResponseEntity<List<ReservationView>> getAvailableReservations(@PathVariable Long id) {
         return ResponseEntity.ok(reservationService.getAvailableReservations(id));
     }
 
     // Wishlist
     @GetMapping("/{id}/wishlist")
-    public ResponseEntity<List<WishlistItem>> getWishlist(@PathVariable Long id) {
+    public ResponseEntity<List<WishlistItemView>> getWishlist(@PathVariable Long id) {
         return ResponseEntity.ok(wishlistService.getWishlist(id));
     }
 
     @PostMapping("/{id}/wishlist")
-    public ResponseEntity<WishlistItem> addToWishlist(
+    public ResponseEntity<WishlistItemView> addToWishlist(
             @PathVariable Long id,
             @RequestParam Long bookId,
             @RequestParam(required = false) String notes,
             @RequestParam(required = false) Integer priority) {
-        return ResponseEntity.ok(wishlistService.addToWishlist(id, bookId, notes, priority));
+        return ResponseEntity.ok(WishlistItemView.from(wishlistService.addToWishlist(id, bookId, notes, priority)));
     }
 
     @DeleteMapping("/{id}/wishlist/{bookId}")
@@ -111,24 +127,39 @@ public class MemberController {
 
     // Reading History
     @GetMapping("/{id}/reading-history")
-    public ResponseEntity<Page<ReadingHistory>> getReadingHistory(
+    public ResponseEntity<Page<ReadingHistoryView>> getReadingHistory(
             @PathVariable Long id,
             Pageable pageable) {
         return ResponseEntity.ok(readingHistoryService.getMemberHistory(id, pageable));
     }
 
+    @GetMapping("/{id}/reading-history/cursor")
+    public ResponseEntity<CursorPage<ReadingHistoryView>> scrollReadingHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(readingHistoryService.scrollMemberHistory(id, after, size, includeTotal));
+    }
+
     @PostMapping("/{id}/reading-history")
-    public ResponseEntity<ReadingHistory> addToReadingHistory(
+    public ResponseEntity<ReadingHistoryView> addToReadingHistory(
             @PathVariable Long id,
             @RequestParam Long bookId,
             @RequestParam(required = false) Integer rating,
             @RequestParam(required = false) String review,
             @RequestParam(required = false) Boolean wouldRecommend) {
-        return ResponseEntity.ok(readingHistoryService.addToHistory(id, bookId, rating, review, wouldRecommend));
+        return ResponseEntity.ok(ReadingHistoryView.from(
+                readingHistoryService.addToHistory(id, bookId, rating, review, wouldRecommend)));
     }
 
     @GetMapping("/{id}/reading-stats")
     public ResponseEntity<Map<String, Object>> getReadingStats(@PathVariable Long id) {
         return ResponseEntity.ok(readingHistoryService.getMemberReadingStats(id));
     }
+
+    @PostMapping("/reading-stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildReadingStats() {
+        return ResponseEntity.ok(memberReadingStatsService.rebuild());
+    }
 }
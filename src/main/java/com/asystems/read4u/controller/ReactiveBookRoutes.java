@@ -0,0 +1,82 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.dto.BookSummary;
+import com.asystems.read4u.service.ReactiveCatalogueService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Catalogue reads of BookController on the reactive read path, under the same
+ * paths. A page comes back as a JSON array, in (title, id) order. Accepting
+ * application/x-ndjson streams one book per line instead, and without a size
+ * the stream covers the whole result.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveBookRoutes {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final ReactiveCatalogueService reactiveCatalogueService;
+
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/books", request -> respond(request,
+                        reactiveCatalogueService.getAllBooks(pageable(request))))
+                .GET("/api/books/search", request -> respond(request,
+                        reactiveCatalogueService.searchBooks(requiredParam(request, "q"), pageable(request))))
+                .GET("/api/books/category/{category}", request -> respond(request,
+                        reactiveCatalogueService.getBooksByCategory(request.pathVariable("category"),
+                                pageable(request))))
+                .GET("/api/books/available", request -> respond(request,
+                        reactiveCatalogueService.getAvailableBooks(pageable(request))))
+                .build();
+    }
+
+    private Mono<ServerResponse> respond(ServerRequest request, Flux<BookSummary> books) {
+        MediaType type = isStreaming(request) ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(type).body(books, BookSummary.class);
+    }
+
+    private Pageable pageable(ServerRequest request) {
+        Integer size = request.queryParam("size").map(value -> intParam("size", value)).orElse(null);
+        if (size == null && isStreaming(request)) {
+            return Pageable.unpaged();
+        }
+        int page = request.queryParam("page").map(value -> intParam("page", value)).orElse(0);
+        return PageRequest.of(Math.max(page, 0),
+                size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, maxPageSize)));
+    }
+
+    private static boolean isStreaming(ServerRequest request) {
+        return request.headers().accept().stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+    }
+
+    private static String requiredParam(ServerRequest request, String name) {
+        return request.queryParam(name)
+                .orElseThrow(() -> new ServerWebInputException("Required parameter '" + name + "' is not present"));
+    }
+
+    private static int intParam(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Parameter '" + name + "' is not a number: " + value);
+        }
+    }
+}
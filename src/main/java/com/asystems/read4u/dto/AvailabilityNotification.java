@@ -0,0 +1,22 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityNotification {
+
+    private Long wishlistItemId;
+
+    private Long memberId;
+
+    private String email;
+
+    private String firstName;
+
+    private Long bookId;
+
+    private String bookTitle;
+}
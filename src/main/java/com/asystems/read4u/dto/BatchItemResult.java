@@ -0,0 +1,26 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResult {
+
+    private int index;
+
+    private boolean success;
+
+    private Long borrowRecordId;
+
+    private String error;
+
+    public static BatchItemResult succeeded(int index, Long borrowRecordId) {
+        return new BatchItemResult(index, true, borrowRecordId, null);
+    }
+
+    public static BatchItemResult failed(int index, Long borrowRecordId, String error) {
+        return new BatchItemResult(index, false, borrowRecordId, error);
+    }
+}
@@ -0,0 +1,23 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchResult {
+
+    private int succeeded;
+
+    private int failed;
+
+    private List<BatchItemResult> items;
+
+    public static BatchResult of(List<BatchItemResult> items) {
+        int succeeded = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        return new BatchResult(succeeded, items.size() - succeeded, items);
+    }
+}
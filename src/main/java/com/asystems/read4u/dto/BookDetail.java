@@ -0,0 +1,58 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Book;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookDetail {
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private String description;
+
+    private String publisher;
+
+    private LocalDate publishedDate;
+
+    private String category;
+
+    private String language;
+
+    private Integer pageCount;
+
+    private String coverImageUrl;
+
+    private Integer totalCopies;
+
+    private Integer availableCopies;
+
+    private String shelfLocation;
+
+    private Long borrowCount;
+
+    private Boolean isActive;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public static BookDetail from(Book book) {
+        return new BookDetail(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                book.getDescription(), book.getPublisher(), book.getPublishedDate(), book.getCategory(),
+                book.getLanguage(), book.getPageCount(), book.getCoverImageUrl(), book.getTotalCopies(),
+                book.getAvailableCopies(), book.getShelfLocation(), book.getBorrowCount(),
+                book.getIsActive(), book.getCreatedAt(), book.getUpdatedAt());
+    }
+}
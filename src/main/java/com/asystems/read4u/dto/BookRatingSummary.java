@@ -0,0 +1,28 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.BookRatingStats;
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookRatingSummary {
+
+    private Long bookId;
+
+    private Long ratingCount;
+
+    private Double averageRating;
+
+    // Number of ratings for each star value, 1 to 5
+    private Map<Integer, Long> histogram;
+
+    public static BookRatingSummary from(BookRatingStats stats) {
+        Double average = stats.getAverageRating();
+        return new BookRatingSummary(stats.getBookId(), stats.getRatingCount(),
+                average != null ? Math.round(average * 10.0) / 10.0 : null, stats.getHistogram());
+    }
+}
@@ -0,0 +1,26 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookReviewView {
+
+    private Long id;
+
+    private Long memberId;
+
+    private String memberFirstName;
+
+    private LocalDateTime completedAt;
+
+    private Integer rating;
+
+    private String review;
+
+    private Boolean wouldRecommend;
+}
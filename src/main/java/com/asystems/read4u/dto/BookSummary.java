@@ -0,0 +1,39 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Book;
+import lombok.*;
+
+/**
+ * Book row for list responses. Field order is the constructor order used by
+ * the JPQL constructor queries in BookRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookSummary {
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private String isbn;
+
+    private String category;
+
+    private String coverImageUrl;
+
+    private Integer totalCopies;
+
+    private Integer availableCopies;
+
+    private Long borrowCount;
+
+    public static BookSummary from(Book book) {
+        return new BookSummary(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                book.getCategory(), book.getCoverImageUrl(), book.getTotalCopies(),
+                book.getAvailableCopies(), book.getBorrowCount());
+    }
+}
@@ -0,0 +1,48 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.BorrowRecord;
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BorrowRecordView {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private Long memberId;
+
+    private LocalDate borrowDate;
+
+    private LocalDate dueDate;
+
+    private LocalDate returnDate;
+
+    private BorrowRecord.BorrowStatus status;
+
+    private Integer renewalCount;
+
+    private Integer maxRenewals;
+
+    private BigDecimal fineAmount;
+
+    private Boolean finePaid;
+
+    public static BorrowRecordView from(BorrowRecord record) {
+        // The title is only filled in when the book is already loaded; a proxy is never initialised here
+        String bookTitle = Hibernate.isInitialized(record.getBook()) ? record.getBook().getTitle() : null;
+        return new BorrowRecordView(record.getId(), record.getBook().getId(), bookTitle,
+                record.getMember().getId(), record.getBorrowDate(), record.getDueDate(), record.getReturnDate(),
+                record.getStatus(), record.getRenewalCount(), record.getMaxRenewals(), record.getFineAmount(),
+                record.getFinePaid());
+    }
+}
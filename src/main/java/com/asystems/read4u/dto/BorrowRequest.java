@@ -0,0 +1,14 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BorrowRequest {
+
+    private Long memberId;
+
+    private Long bookId;
+}
@@ -0,0 +1,22 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One keyset page. Pass nextCursor back as "after" to continue; it is null
+ * on the last page. The total is only filled in when it was asked for.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+
+    private Long total;
+}
@@ -0,0 +1,32 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Fine;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FineView {
+
+    private Long id;
+
+    private Long borrowRecordId;
+
+    private BigDecimal amount;
+
+    private Fine.FineType fineType;
+
+    private String description;
+
+    private Boolean isPaid;
+
+    private LocalDateTime paidAt;
+
+    private String paymentMethod;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,56 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Member;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberDetail {
+
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private String phone;
+
+    private String address;
+
+    private LocalDate dateOfBirth;
+
+    private String membershipNumber;
+
+    private Member.MembershipType membershipType;
+
+    private LocalDate membershipStartDate;
+
+    private LocalDate membershipExpiryDate;
+
+    private Integer maxBooksAllowed;
+
+    private Integer currentBorrowedCount;
+
+    private BigDecimal outstandingFines;
+
+    private Boolean isActive;
+
+    private LocalDateTime createdAt;
+
+    public static MemberDetail from(Member member) {
+        return new MemberDetail(member.getId(), member.getFirstName(), member.getLastName(),
+                member.getEmail(), member.getPhone(), member.getAddress(), member.getDateOfBirth(),
+                member.getMembershipNumber(), member.getMembershipType(), member.getMembershipStartDate(),
+                member.getMembershipExpiryDate(), member.getMaxBooksAllowed(),
+                member.getCurrentBorrowedCount(), member.getOutstandingFines(), member.getIsActive(),
+                member.getCreatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Member;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberSummary {
+
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private String membershipNumber;
+
+    private Member.MembershipType membershipType;
+
+    private LocalDate membershipExpiryDate;
+
+    private Integer currentBorrowedCount;
+
+    private BigDecimal outstandingFines;
+
+    private Boolean isActive;
+}
@@ -0,0 +1,35 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.ReadingHistory;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadingHistoryView {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private String bookAuthor;
+
+    private LocalDateTime completedAt;
+
+    private Integer rating;
+
+    private String review;
+
+    private Boolean wouldRecommend;
+
+    public static ReadingHistoryView from(ReadingHistory history) {
+        return new ReadingHistoryView(history.getId(), history.getBook().getId(), history.getBook().getTitle(),
+                history.getBook().getAuthor(), history.getCompletedAt(), history.getRating(),
+                history.getReview(), history.getWouldRecommend());
+    }
+}
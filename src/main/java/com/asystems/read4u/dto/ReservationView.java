@@ -0,0 +1,29 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.Reservation;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationView {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private LocalDateTime reservationDate;
+
+    private LocalDateTime expiryDate;
+
+    private LocalDateTime notifiedAt;
+
+    private Reservation.ReservationStatus status;
+
+    private Integer queuePosition;
+}
@@ -0,0 +1,22 @@
+package com.asystems.read4u.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Suggestion {
+
+    private String text;
+
+    private SuggestionType type;
+
+    private Long bookId;
+
+    private long popularity;
+
+    public enum SuggestionType {
+        TITLE, AUTHOR
+    }
+}
@@ -0,0 +1,37 @@
+package com.asystems.read4u.dto;
+
+import com.asystems.read4u.entity.WishlistItem;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WishlistItemView {
+
+    private Long id;
+
+    private Long bookId;
+
+    private String bookTitle;
+
+    private String bookAuthor;
+
+    private Integer availableCopies;
+
+    private String notes;
+
+    private Integer priority;
+
+    private Boolean notifyWhenAvailable;
+
+    private LocalDateTime addedAt;
+
+    public static WishlistItemView from(WishlistItem item) {
+        return new WishlistItemView(item.getId(), item.getBook().getId(), item.getBook().getTitle(),
+                item.getBook().getAuthor(), item.getBook().getAvailableCopies(), item.getNotes(),
+                item.getPriority(), item.getNotifyWhenAvailable(), item.getAddedAt());
+    }
+}
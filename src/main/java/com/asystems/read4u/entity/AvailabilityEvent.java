@@ -0,0 +1,32 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "availability_events", indexes = {
+        @Index(name = "idx_availability_events_claimed", columnList = "claimed_by")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(length = 36)
+    private String claimedBy;
+
+    private LocalDateTime claimedAt;
+}
@@ -2,13 +2,23 @@ package com.asystems.read4u.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_category_popularity", columnList = "category, is_active, borrow_count"),
+        @Index(name = "idx_books_category_recent_popularity", columnList = "category, is_active, recent_borrow_count"),
+        @Index(name = "idx_books_popularity", columnList = "is_active, borrow_count"),
+        @Index(name = "idx_books_title_keyset", columnList = "is_active, title, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +62,18 @@ public class Book {
 
     private String shelfLocation;
 
+    // All-time checkouts, bumped by the same statement that claims a copy
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long borrowCount = 0L;
+
+    // Checkouts in the rolling popularity window, rebuilt nightly by PopularityRollupService
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer recentBorrowCount = 0;
+
     @Builder.Default
     private Boolean isActive = true;
 
@@ -0,0 +1,84 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Entity
+@Table(name = "book_rating_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookRatingStats {
+
+    @Id
+    private Long bookId;
+
+    @Builder.Default
+    private Long ratingCount = 0L;
+
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "stars_1")
+    @Builder.Default
+    private Long stars1 = 0L;
+
+    @Column(name = "stars_2")
+    @Builder.Default
+    private Long stars2 = 0L;
+
+    @Column(name = "stars_3")
+    @Builder.Default
+    private Long stars3 = 0L;
+
+    @Column(name = "stars_4")
+    @Builder.Default
+    private Long stars4 = 0L;
+
+    @Column(name = "stars_5")
+    @Builder.Default
+    private Long stars5 = 0L;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public void changeRating(Integer oldRating, Integer newRating) {
+        addRating(oldRating, -1);
+        addRating(newRating, 1);
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void addRating(Integer rating, long count) {
+        if (rating == null) {
+            return;
+        }
+        ratingCount += count;
+        ratingSum += count * rating;
+        switch (rating) {
+            case 1 -> stars1 += count;
+            case 2 -> stars2 += count;
+            case 3 -> stars3 += count;
+            case 4 -> stars4 += count;
+            case 5 -> stars5 += count;
+            default -> throw new IllegalArgumentException("Rating out of range: " + rating);
+        }
+    }
+
+    public Double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : null;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(1, stars1);
+        histogram.put(2, stars2);
+        histogram.put(3, stars3);
+        histogram.put(4, stars4);
+        histogram.put(5, stars5);
+        return histogram;
+    }
+}
@@ -2,11 +2,16 @@ package com.asystems.read4u.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "borrow_records")
+@Table(name = "borrow_records", indexes = {
+        @Index(name = "idx_borrow_records_borrow_date", columnList = "borrow_date, book_id"),
+        @Index(name = "idx_borrow_records_member_history", columnList = "member_id, borrow_date DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,7 +19,8 @@ import java.time.LocalDateTime;
 public class BorrowRecord {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrow_records_seq")
+    @SequenceGenerator(name = "borrow_records_seq", sequenceName = "borrow_records_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,7 +49,8 @@ public class BorrowRecord {
     @Builder.Default
     private Integer maxRenewals = 2;
 
-    private Double fineAmount;
+    @Column(precision = 12, scale = 2)
+    private BigDecimal fineAmount;
 
     private Boolean finePaid;
 
@@ -54,8 +61,12 @@ public class BorrowRecord {
         BORROWED, RETURNED, OVERDUE, LOST
     }
 
+    public boolean isOnLoan() {
+        return status == BorrowStatus.BORROWED || status == BorrowStatus.OVERDUE;
+    }
+
     public boolean isOverdue() {
-        return status == BorrowStatus.BORROWED && LocalDate.now().isAfter(dueDate);
+        return isOnLoan() && LocalDate.now().isAfter(dueDate);
     }
 
     public long getDaysOverdue() {
@@ -0,0 +1,36 @@
+package com.asystems.read4u.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Converter
+public class CategoryCountsConverter implements AttributeConverter<Map<String, Long>, String> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<TreeMap<String, Long>> TYPE = new TypeReference<>() {
+    };
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, Long> counts) {
+        try {
+            return MAPPER.writeValueAsString(counts != null ? counts : Map.of());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to write category counts", e);
+        }
+    }
+
+    @Override
+    public Map<String, Long> convertToEntityAttribute(String json) {
+        try {
+            return json != null ? MAPPER.readValue(json, TYPE) : new TreeMap<>();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read category counts", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "circulation_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CirculationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private EventType type;
+
+    private Long memberId;
+
+    private Long bookId;
+
+    private Long borrowRecordId;
+
+    private Long reservationId;
+
+    private Long fineId;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime occurredAt = LocalDateTime.now();
+
+    // The circulation journal stores ordinals, so new types go at the end
+    public enum EventType {
+        BORROWED, RETURNED, RENEWED, LOST,
+        RESERVED, RESERVATION_CANCELLED,
+        FINE_CHARGED, FINE_PAID, FINE_WAIVED,
+        RESERVATION_READY, RESERVATION_FULFILLED, RESERVATION_EXPIRED
+    }
+
+    public static CirculationEvent loan(EventType type, BorrowRecord record) {
+        return CirculationEvent.builder().type(type)
+                .memberId(record.getMember().getId()).bookId(record.getBook().getId())
+                .borrowRecordId(record.getId())
+                .build();
+    }
+
+    public static CirculationEvent reservation(EventType type, Reservation reservation) {
+        return CirculationEvent.builder().type(type)
+                .memberId(reservation.getMember().getId()).bookId(reservation.getBook().getId())
+                .reservationId(reservation.getId())
+                .build();
+    }
+
+    public static CirculationEvent fine(EventType type, Fine fine) {
+        BorrowRecord record = fine.getBorrowRecord();
+        return CirculationEvent.builder().type(type)
+                .memberId(fine.getMember().getId())
+                .bookId(record != null ? record.getBook().getId() : null)
+                .borrowRecordId(record != null ? record.getId() : null)
+                .fineId(fine.getId()).amount(fine.getAmount())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "event_consumer_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventConsumerOffset {
+
+    @Id
+    @Column(length = 100)
+    private String consumer;
+
+    @Builder.Default
+    private Long lastEventId = 0L;
+
+    @Builder.Default
+    private Long deliveredCount = 0L;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
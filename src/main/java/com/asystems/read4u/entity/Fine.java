@@ -2,6 +2,8 @@ package com.asystems.read4u.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -24,8 +26,8 @@ public class Fine {
     @JoinColumn(name = "borrow_record_id")
     private BorrowRecord borrowRecord;
 
-    @Column(nullable = false)
-    private Double amount;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
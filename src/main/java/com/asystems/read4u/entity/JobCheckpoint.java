@@ -0,0 +1,34 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String jobName;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Builder.Default
+    private Long lastProcessedId = 0L;
+
+    @Builder.Default
+    private Long processedCount = 0L;
+
+    @Builder.Default
+    private Boolean completed = false;
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
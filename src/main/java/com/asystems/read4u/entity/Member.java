@@ -2,13 +2,21 @@ package com.asystems.read4u.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "members")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "members")
+@Table(name = "members", indexes = {
+        @Index(name = "idx_members_last_name_keyset", columnList = "last_name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,8 +60,10 @@ public class Member {
     @Builder.Default
     private Integer currentBorrowedCount = 0;
 
+    // Moved only by the fine ledger's increments, never written back from the entity
+    @Column(precision = 12, scale = 2, updatable = false)
     @Builder.Default
-    private Double outstandingFines = 0.0;
+    private BigDecimal outstandingFines = BigDecimal.ZERO;
 
     @Builder.Default
     private Boolean isActive = true;
@@ -0,0 +1,70 @@
+package com.asystems.read4u.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Entity
+@Table(name = "member_reading_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberReadingStats {
+
+    @Id
+    private Long memberId;
+
+    @Builder.Default
+    private Long booksRead = 0L;
+
+    @Builder.Default
+    private Long ratedCount = 0L;
+
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Builder.Default
+    private Long recommendedCount = 0L;
+
+    // Counted under the book's category when it was read
+    @Convert(converter = CategoryCountsConverter.class)
+    @Column(length = 4000, nullable = false)
+    @Builder.Default
+    private Map<String, Long> categoryCounts = new TreeMap<>();
+
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public void addRead(String category, Integer rating, boolean recommended) {
+        booksRead++;
+        addReview(rating, recommended, 1);
+        // Replaced rather than changed in place, so the converted column is always seen as dirty
+        Map<String, Long> counts = new TreeMap<>(categoryCounts);
+        counts.merge(category, 1L, Long::sum);
+        categoryCounts = counts;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void changeReview(Integer oldRating, boolean oldRecommended, Integer newRating, boolean newRecommended) {
+        addReview(oldRating, oldRecommended, -1);
+        addReview(newRating, newRecommended, 1);
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Double getAverageRating() {
+        return ratedCount > 0 ? (double) ratingSum / ratedCount : null;
+    }
+
+    private void addReview(Integer rating, boolean recommended, int sign) {
+        if (rating != null) {
+            ratedCount += sign;
+            ratingSum += (long) sign * rating;
+        }
+        if (recommended) {
+            recommendedCount += sign;
+        }
+    }
+}
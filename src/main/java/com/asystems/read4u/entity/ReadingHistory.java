@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reading_history")
+@Table(name = "reading_history", indexes = {
+        @Index(name = "idx_reading_history_member_completed", columnList = "member_id, completed_at DESC, id DESC"),
+        @Index(name = "idx_reading_history_book_completed", columnList = "book_id, completed_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
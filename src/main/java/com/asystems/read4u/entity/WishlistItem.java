@@ -34,4 +34,6 @@ public class WishlistItem {
 
     @Builder.Default
     private LocalDateTime addedAt = LocalDateTime.now();
+
+    private LocalDateTime notifiedAt;
 }
@@ -0,0 +1,35 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.AvailabilityEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AvailabilityEventRepository extends JpaRepository<AvailabilityEvent, Long> {
+
+    // Only when the return brought the first copy back; the count was already bumped in this transaction
+    @Modifying
+    @Query(value = "INSERT INTO availability_events (book_id, created_at) " +
+           "SELECT id, :now FROM books WHERE id = :bookId AND available_copies = 1", nativeQuery = true)
+    int insertIfFirstCopy(@Param("bookId") Long bookId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT e.id FROM AvailabilityEvent e WHERE e.claimedAt IS NULL OR e.claimedAt < :expired ORDER BY e.id")
+    List<Long> findClaimableIds(@Param("expired") LocalDateTime expired, Pageable pageable);
+
+    // Re-checks the lease, so of two dispatchers that read the same ids only one takes each event
+    @Modifying
+    @Query("UPDATE AvailabilityEvent e SET e.claimedBy = :token, e.claimedAt = :now " +
+           "WHERE e.id IN :ids AND (e.claimedAt IS NULL OR e.claimedAt < :expired)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("expired") LocalDateTime expired);
+
+    List<AvailabilityEvent> findByClaimedBy(String claimedBy);
+}
@@ -0,0 +1,25 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.BookRatingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookRatingStatsRepository extends JpaRepository<BookRatingStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookRatingStats s WHERE s.bookId = :bookId")
+    Optional<BookRatingStats> findByIdForUpdate(@Param("bookId") Long bookId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookRatingStats s WHERE s.bookId > :afterId ORDER BY s.bookId")
+    List<BookRatingStats> findAfterForUpdate(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -1,25 +1,60 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.BookDetail;
+import com.asystems.read4u.dto.BookSummary;
 import com.asystems.read4u.entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
+
+    // Constructor expressions for the REST read model; see BookSummary and BookDetail
+    String SUMMARY = "new com.asystems.read4u.dto.BookSummary(b.id, b.title, b.author, b.isbn, b.category, " +
+            "b.coverImageUrl, b.totalCopies, b.availableCopies, b.borrowCount)";
+
+    String DETAIL = "new com.asystems.read4u.dto.BookDetail(b.id, b.title, b.author, b.isbn, b.description, " +
+            "b.publisher, b.publishedDate, b.category, b.language, b.pageCount, b.coverImageUrl, b.totalCopies, " +
+            "b.availableCopies, b.shelfLocation, b.borrowCount, b.isActive, b.createdAt, b.updatedAt)";
 
     Optional<Book> findByIsbn(String isbn);
 
-    Page<Book> findByIsActiveTrue(Pageable pageable);
+    @Query("SELECT " + DETAIL + " FROM Book b WHERE b.isbn = :isbn")
+    Optional<BookDetail> findDetailByIsbn(@Param("isbn") String isbn);
+
+    @Query(value = "SELECT " + SUMMARY + " FROM Book b WHERE b.isActive = true",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.isActive = true")
+    Page<BookSummary> findActiveSummaries(Pageable pageable);
+
+    // Keyset pages over (title, id); the first page has no position to seek past
+    @Query("SELECT " + SUMMARY + " FROM Book b WHERE b.isActive = true ORDER BY b.title, b.id")
+    List<BookSummary> findActiveSummariesFirst(Pageable pageable);
+
+    @Query("SELECT " + SUMMARY + " FROM Book b WHERE b.isActive = true " +
+           "AND b.title >= :title AND (b.title > :title OR b.id > :id) ORDER BY b.title, b.id")
+    List<BookSummary> findActiveSummariesAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
 
-    Page<Book> findByCategory(String category, Pageable pageable);
+    long countByIsActiveTrue();
+
+    @Query(value = "SELECT " + SUMMARY + " FROM Book b WHERE b.category = :category",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.category = :category")
+    Page<BookSummary> findSummariesByCategory(@Param("category") String category, Pageable pageable);
 
     @Query("SELECT b FROM Book b WHERE b.isActive = true AND " +
            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -27,16 +62,77 @@ public interface BookRepository extends JpaRepository<Book, Long> {
            "LOWER(b.isbn) LIKE LOWER(CONCAT('%', :query, '%')))")
     Page<Book> searchBooks(@Param("query") String query, Pageable pageable);
 
-    @Query("SELECT b FROM Book b WHERE b.isActive = true AND b.availableCopies > 0")
-    Page<Book> findAvailableBooks(Pageable pageable);
+    @Query("SELECT b FROM Book b WHERE b.isActive = true AND b.id > :afterId ORDER BY b.id")
+    List<Book> findActiveAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT b.id, b.title, b.author FROM Book b WHERE b.isActive = true AND b.id > :afterId ORDER BY b.id")
+    List<Object[]> findActiveTitlesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT " + SUMMARY + " FROM Book b WHERE b.isActive = true AND b.availableCopies > 0",
+           countQuery = "SELECT COUNT(b) FROM Book b WHERE b.isActive = true AND b.availableCopies > 0")
+    Page<BookSummary> findAvailableSummaries(Pageable pageable);
 
+    @Cacheable("categories")
     @Query("SELECT DISTINCT b.category FROM Book b WHERE b.isActive = true ORDER BY b.category")
     List<String> findAllCategories();
 
     @Query("SELECT b FROM Book b WHERE b.isActive = true AND b.createdAt >= :since ORDER BY b.createdAt DESC")
     List<Book> findNewArrivals(@Param("since") java.time.LocalDateTime since);
 
-    @Query("SELECT b FROM Book b WHERE b.isActive = true AND b.category = :category " +
-           "ORDER BY (SELECT COUNT(br) FROM BorrowRecord br WHERE br.book = b) DESC")
+    @Query("SELECT b.id FROM Book b WHERE b.isActive = true AND b.createdAt >= :since ORDER BY b.createdAt DESC")
+    List<Long> findNewArrivalIdsSince(@Param("since") java.time.LocalDateTime since);
+
+    // Ids rather than entities are cached so availability always comes from the entity cache
+    @Cacheable(value = "newArrivalIds", key = "#days")
+    default List<Long> findNewArrivalIds(int days) {
+        return findNewArrivalIdsSince(java.time.LocalDateTime.now().minusDays(days));
+    }
+
+    @Query("SELECT b FROM Book b WHERE b.category = :category AND b.isActive = true " +
+           "ORDER BY b.borrowCount DESC, b.id")
     List<Book> findPopularBooksByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.category = :category AND b.isActive = true " +
+           "ORDER BY b.recentBorrowCount DESC, b.id")
+    List<Book> findRecentlyPopularBooksByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.isActive = true ORDER BY b.borrowCount DESC, b.id")
+    List<Book> findPopularBooks(Pageable pageable);
+
+    @Query("SELECT " + SUMMARY + " FROM Book b WHERE b.category = :category AND b.isActive = true " +
+           "ORDER BY b.borrowCount DESC, b.id")
+    List<BookSummary> findPopularSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    @Query("SELECT " + SUMMARY + " FROM Book b WHERE b.category = :category AND b.isActive = true " +
+           "ORDER BY b.recentBorrowCount DESC, b.id")
+    List<BookSummary> findRecentlyPopularSummariesByCategory(@Param("category") String category, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Native with their own query space so a checkout evicts one cached book, not the region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "book_counters"))
+    @Query(value = "UPDATE books SET available_copies = available_copies - 1, " +
+           "borrow_count = borrow_count + 1, recent_borrow_count = recent_borrow_count + 1 " +
+           "WHERE id = :id AND available_copies > 0",
+           nativeQuery = true)
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "book_counters"))
+    @Query(value = "UPDATE books SET available_copies = available_copies + 1 WHERE id = :id",
+           nativeQuery = true)
+    int incrementAvailableCopies(@Param("id") Long id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "book_counters"))
+    @Query(value = "UPDATE books SET total_copies = total_copies - 1 WHERE id = :id AND total_copies > 0",
+           nativeQuery = true)
+    int decrementTotalCopies(@Param("id") Long id);
 }
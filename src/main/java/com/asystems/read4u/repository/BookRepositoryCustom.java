@@ -0,0 +1,14 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.Book;
+
+import java.util.List;
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Loads books by id through the second-level cache, querying only the
+     * misses. Results keep the order of the ids; unknown ids are skipped.
+     */
+    List<Book> findAllByIdCached(List<Long> ids);
+}
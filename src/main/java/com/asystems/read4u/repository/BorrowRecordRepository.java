@@ -1,36 +1,90 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.BorrowRecordView;
 import com.asystems.read4u.entity.BorrowRecord;
 import com.asystems.read4u.entity.Member;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
 
+    String VIEW = "new com.asystems.read4u.dto.BorrowRecordView(br.id, b.id, b.title, br.member.id, " +
+            "br.borrowDate, br.dueDate, br.returnDate, br.status, br.renewalCount, br.maxRenewals, " +
+            "br.fineAmount, br.finePaid)";
+
     List<BorrowRecord> findByMemberAndStatus(Member member, BorrowRecord.BorrowStatus status);
 
-    Page<BorrowRecord> findByMember(Member member, Pageable pageable);
+    List<BorrowRecord> findByMemberAndStatusIn(Member member, Collection<BorrowRecord.BorrowStatus> statuses);
+
+    @Query("SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b " +
+           "WHERE br.member.id = :memberId AND br.status IN :statuses ORDER BY br.dueDate, br.id")
+    List<BorrowRecordView> findViewsByMemberAndStatusIn(
+            @Param("memberId") Long memberId, @Param("statuses") Collection<BorrowRecord.BorrowStatus> statuses);
+
+    @Query(value = "SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b WHERE br.member.id = :memberId",
+           countQuery = "SELECT COUNT(br) FROM BorrowRecord br WHERE br.member.id = :memberId")
+    Page<BorrowRecordView> findViewsByMember(@Param("memberId") Long memberId, Pageable pageable);
+
+    // Keyset pages over (borrowDate, id), newest first. The redundant <= bound lets the index
+    // range-scan start at the cursor, and ordering by the fixed member id as well lets the
+    // database read that index in order instead of sorting the rest of the history
+    @Query("SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b WHERE br.member.id = :memberId " +
+           "ORDER BY br.member.id, br.borrowDate DESC, br.id DESC")
+    List<BorrowRecordView> findViewsByMemberFirst(@Param("memberId") Long memberId, Pageable pageable);
+
+    @Query("SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b WHERE br.member.id = :memberId " +
+           "AND br.borrowDate <= :borrowDate AND (br.borrowDate < :borrowDate OR br.id < :id) " +
+           "ORDER BY br.member.id, br.borrowDate DESC, br.id DESC")
+    List<BorrowRecordView> findViewsByMemberAfter(@Param("memberId") Long memberId,
+                                                  @Param("borrowDate") LocalDate borrowDate,
+                                                  @Param("id") Long id, Pageable pageable);
+
+    long countByMemberId(Long memberId);
 
-    @Query("SELECT br FROM BorrowRecord br WHERE br.status = 'BORROWED' AND br.dueDate < :today")
-    List<BorrowRecord> findOverdueBooks(@Param("today") LocalDate today);
+    @Query("SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b " +
+           "WHERE br.status IN ('BORROWED', 'OVERDUE') AND br.dueDate < :today ORDER BY br.dueDate, br.id")
+    List<BorrowRecordView> findOverdueViews(@Param("today") LocalDate today);
 
-    @Query("SELECT br FROM BorrowRecord br WHERE br.member = :member AND br.status = 'BORROWED' AND br.dueDate < :today")
-    List<BorrowRecord> findOverdueByMember(@Param("member") Member member, @Param("today") LocalDate today);
+    @Query("SELECT " + VIEW + " FROM BorrowRecord br JOIN br.book b " +
+           "WHERE br.member.id = :memberId AND br.status IN ('BORROWED', 'OVERDUE') AND br.dueDate < :today " +
+           "ORDER BY br.dueDate, br.id")
+    List<BorrowRecordView> findOverdueViewsByMember(@Param("memberId") Long memberId, @Param("today") LocalDate today);
 
-    @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.member = :member AND br.status = 'BORROWED'")
+    @Query("SELECT br FROM BorrowRecord br WHERE br.status IN ('BORROWED', 'OVERDUE') AND br.dueDate < :today " +
+           "AND br.id > :afterId ORDER BY br.id")
+    List<BorrowRecord> findOverdueAfter(@Param("today") LocalDate today, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(br), MIN(br.dueDate) FROM BorrowRecord br WHERE br.status = 'BORROWED' AND br.dueDate < :today")
+    List<Object[]> getUnsweptOverdueStats(@Param("today") LocalDate today);
+
+    @Query("SELECT COUNT(br) FROM BorrowRecord br WHERE br.member = :member AND br.status IN ('BORROWED', 'OVERDUE')")
     int countCurrentBorrowsByMember(@Param("member") Member member);
 
-    @Query("SELECT br FROM BorrowRecord br WHERE br.book.id = :bookId AND br.member.id = :memberId AND br.status = 'BORROWED'")
+    @Query("SELECT br FROM BorrowRecord br WHERE br.book.id = :bookId AND br.member.id = :memberId AND br.status IN ('BORROWED', 'OVERDUE')")
     java.util.Optional<BorrowRecord> findActiveBorrowByBookAndMember(@Param("bookId") Long bookId, @Param("memberId") Long memberId);
 
     @Query("SELECT DISTINCT br.book.category, COUNT(br) FROM BorrowRecord br WHERE br.member = :member GROUP BY br.book.category ORDER BY COUNT(br) DESC")
     List<Object[]> findFavoriteCategoriesByMember(@Param("member") Member member);
+
+    @Query("SELECT br.book.id, COUNT(br) FROM BorrowRecord br GROUP BY br.book.id")
+    List<Object[]> countBorrowsByBook();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT br FROM BorrowRecord br WHERE br.id = :id")
+    java.util.Optional<BorrowRecord> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT br FROM BorrowRecord br WHERE br.id IN :ids ORDER BY br.id")
+    List<BorrowRecord> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
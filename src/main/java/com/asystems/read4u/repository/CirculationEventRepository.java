@@ -0,0 +1,24 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CirculationEventRepository extends JpaRepository<CirculationEvent, Long> {
+
+    List<CirculationEvent> findByMemberIdOrderById(Long memberId);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CirculationEvent e")
+    long findLastId();
+
+    @Modifying
+    @Query("DELETE FROM CirculationEvent e WHERE e.id <= :upToId AND e.occurredAt < :before")
+    int deleteDelivered(@Param("upToId") Long upToId, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,9 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.EventConsumerOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventConsumerOffsetRepository extends JpaRepository<EventConsumerOffset, String> {
+}
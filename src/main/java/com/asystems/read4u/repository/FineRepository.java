@@ -1,23 +1,42 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.FineView;
 import com.asystems.read4u.entity.Fine;
 import com.asystems.read4u.entity.Member;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FineRepository extends JpaRepository<Fine, Long> {
 
     List<Fine> findByMemberAndIsPaidFalse(Member member);
 
+    @Query("SELECT f.member.id FROM Fine f WHERE f.id = :id")
+    Optional<Long> findMemberIdById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Fine f SET f.isPaid = true, f.paidAt = :paidAt, f.paymentMethod = :paymentMethod " +
+           "WHERE f.member.id = :memberId AND f.isPaid = false")
+    int settleUnpaid(@Param("memberId") Long memberId, @Param("paidAt") LocalDateTime paidAt,
+                     @Param("paymentMethod") String paymentMethod);
+
     List<Fine> findByMember(Member member);
 
+    @Query("SELECT new com.asystems.read4u.dto.FineView(f.id, f.borrowRecord.id, f.amount, f.fineType, " +
+           "f.description, f.isPaid, f.paidAt, f.paymentMethod, f.createdAt) FROM Fine f " +
+           "WHERE f.member.id = :memberId AND (:unpaidOnly = false OR f.isPaid = false) ORDER BY f.createdAt DESC")
+    List<FineView> findViewsByMember(@Param("memberId") Long memberId, @Param("unpaidOnly") boolean unpaidOnly);
+
     @Query("SELECT SUM(f.amount) FROM Fine f WHERE f.member = :member AND f.isPaid = false")
-    Double getTotalUnpaidFines(@Param("member") Member member);
+    BigDecimal getTotalUnpaidFines(@Param("member") Member member);
 
     @Query("SELECT f FROM Fine f WHERE f.isPaid = false ORDER BY f.createdAt DESC")
     List<Fine> findAllUnpaidFines();
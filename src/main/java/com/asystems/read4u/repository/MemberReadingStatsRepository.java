@@ -0,0 +1,20 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.entity.MemberReadingStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MemberReadingStatsRepository extends JpaRepository<MemberReadingStats, Long> {
+
+    // A locking read, so on MySQL it sees the latest committed counts rather than the transaction's snapshot
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MemberReadingStats s WHERE s.memberId = :memberId")
+    Optional<MemberReadingStats> findByIdForUpdate(@Param("memberId") Long memberId);
+}
@@ -1,11 +1,21 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.MemberSummary;
 import com.asystems.read4u.entity.Member;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +26,24 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
 
     Optional<Member> findByMembershipNumber(String membershipNumber);
 
+    @Query(value = "SELECT new com.asystems.read4u.dto.MemberSummary(m.id, m.firstName, m.lastName, m.email, " +
+           "m.membershipNumber, m.membershipType, m.membershipExpiryDate, m.currentBorrowedCount, " +
+           "m.outstandingFines, m.isActive) FROM Member m",
+           countQuery = "SELECT COUNT(m) FROM Member m")
+    Page<MemberSummary> findSummaries(Pageable pageable);
+
+    // Keyset pages over (lastName, id)
+    @Query("SELECT new com.asystems.read4u.dto.MemberSummary(m.id, m.firstName, m.lastName, m.email, " +
+           "m.membershipNumber, m.membershipType, m.membershipExpiryDate, m.currentBorrowedCount, " +
+           "m.outstandingFines, m.isActive) FROM Member m ORDER BY m.lastName, m.id")
+    List<MemberSummary> findSummariesFirst(Pageable pageable);
+
+    @Query("SELECT new com.asystems.read4u.dto.MemberSummary(m.id, m.firstName, m.lastName, m.email, " +
+           "m.membershipNumber, m.membershipType, m.membershipExpiryDate, m.currentBorrowedCount, " +
+           "m.outstandingFines, m.isActive) FROM Member m " +
+           "WHERE m.lastName >= :lastName AND (m.lastName > :lastName OR m.id > :id) ORDER BY m.lastName, m.id")
+    List<MemberSummary> findSummariesAfter(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+
     @Query("SELECT m FROM Member m WHERE m.isActive = true AND m.outstandingFines > 0")
     List<Member> findMembersWithOutstandingFines();
 
@@ -23,4 +51,32 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     List<Member> findMembersWithExpiringMembership(@Param("date") java.time.LocalDate date);
 
     Boolean existsByEmail(String email);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.id IN :ids ORDER BY m.id")
+    List<Member> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.id = :id")
+    Optional<Member> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.id > :afterId ORDER BY m.id")
+    List<Member> findAfterForUpdate(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Native with their own query space so Hibernate does not drop the whole member cache
+    // region on every checkout; callers evict the single row through EntityCacheEvictor
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "member_counters"))
+    @Query(value = "UPDATE members SET current_borrowed_count = current_borrowed_count + 1 " +
+           "WHERE id = :id AND outstanding_fines <= 0 AND current_borrowed_count < max_books_allowed",
+           nativeQuery = true)
+    int incrementBorrowedCount(@Param("id") Long id);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "member_counters"))
+    @Query(value = "UPDATE members SET current_borrowed_count = current_borrowed_count - 1 " +
+           "WHERE id = :id AND current_borrowed_count > 0",
+           nativeQuery = true)
+    int decrementBorrowedCount(@Param("id") Long id);
 }
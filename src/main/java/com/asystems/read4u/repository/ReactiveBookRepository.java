@@ -0,0 +1,84 @@
+package com.asystems.read4u.repository;
+
+import com.asystems.read4u.dto.BookSummary;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+/**
+ * Catalogue reads over R2DBC for the reactive read path. The same rows as the
+ * BookRepository summary queries, in a fixed (title, id) order so that offset
+ * pages and streams are stable. An unpaged request streams every matching row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveBookRepository {
+
+    private static final String SUMMARY = "SELECT id, title, author, isbn, category, cover_image_url, " +
+            "total_copies, available_copies, borrow_count FROM books ";
+
+    private static final String ORDER = " ORDER BY title, id";
+
+    private final DatabaseClient catalogueDatabaseClient;
+
+    public Flux<BookSummary> findActive(Pageable pageable) {
+        return page(SUMMARY + "WHERE is_active = TRUE" + ORDER, pageable)
+                .map(ReactiveBookRepository::summary)
+                .all();
+    }
+
+    // Inactive books included, as on the JPA side
+    public Flux<BookSummary> findByCategory(String category, Pageable pageable) {
+        return page(SUMMARY + "WHERE category = :category" + ORDER, pageable)
+                .bind("category", category)
+                .map(ReactiveBookRepository::summary)
+                .all();
+    }
+
+    public Flux<BookSummary> findAvailable(Pageable pageable) {
+        return page(SUMMARY + "WHERE is_active = TRUE AND available_copies > 0" + ORDER, pageable)
+                .map(ReactiveBookRepository::summary)
+                .all();
+    }
+
+    public Flux<BookSummary> search(String query, Pageable pageable) {
+        return page(SUMMARY + "WHERE is_active = TRUE AND (LOWER(title) LIKE LOWER(CONCAT('%', :query, '%')) " +
+                "OR LOWER(author) LIKE LOWER(CONCAT('%', :query, '%')) " +
+                "OR LOWER(isbn) LIKE LOWER(CONCAT('%', :query, '%')))" + ORDER, pageable)
+                .bind("query", query)
+                .map(ReactiveBookRepository::summary)
+                .all();
+    }
+
+    // Order of the ids is not kept; callers that rank them reorder the rows
+    public Flux<BookSummary> findActiveByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return catalogueDatabaseClient.sql(SUMMARY + "WHERE is_active = TRUE AND id IN (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveBookRepository::summary)
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec page(String sql, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return catalogueDatabaseClient.sql(sql);
+        }
+        return catalogueDatabaseClient.sql(sql + " LIMIT :limit OFFSET :offset")
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset());
+    }
+
+    private static BookSummary summary(Readable row) {
+        return new BookSummary(row.get("id", Long.class), row.get("title", String.class),
+                row.get("author", String.class), row.get("isbn", String.class), row.get("category", String.class),
+                row.get("cover_image_url", String.class), row.get("total_copies", Integer.class),
+                row.get("available_copies", Integer.class), row.get("borrow_count", Long.class));
+    }
+}
@@ -1,29 +1,85 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.BookReviewView;
+import com.asystems.read4u.dto.ReadingHistoryView;
 import com.asystems.read4u.entity.Book;
 import com.asystems.read4u.entity.Member;
 import com.asystems.read4u.entity.ReadingHistory;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ReadingHistoryRepository extends JpaRepository<ReadingHistory, Long> {
 
-    Page<ReadingHistory> findByMemberOrderByCompletedAtDesc(Member member, Pageable pageable);
+    int CACHED_REVIEW_PAGE_SIZE = 20;
 
-    List<ReadingHistory> findByBookOrderByCreatedAtDesc(Book book);
+    @Query(value = "SELECT new com.asystems.read4u.dto.ReadingHistoryView(rh.id, b.id, b.title, b.author, " +
+           "rh.completedAt, rh.rating, rh.review, rh.wouldRecommend) FROM ReadingHistory rh JOIN rh.book b " +
+           "WHERE rh.member.id = :memberId ORDER BY rh.completedAt DESC",
+           countQuery = "SELECT COUNT(rh) FROM ReadingHistory rh WHERE rh.member.id = :memberId")
+    Page<ReadingHistoryView> findViewsByMember(@Param("memberId") Long memberId, Pageable pageable);
 
-    @Query("SELECT AVG(rh.rating) FROM ReadingHistory rh WHERE rh.book = :book AND rh.rating IS NOT NULL")
-    Double getAverageRatingForBook(@Param("book") Book book);
+    // Keyset pages over (completedAt, id), newest first; see BorrowRecordRepository.findViewsByMemberAfter
+    @Query("SELECT new com.asystems.read4u.dto.ReadingHistoryView(rh.id, b.id, b.title, b.author, " +
+           "rh.completedAt, rh.rating, rh.review, rh.wouldRecommend) FROM ReadingHistory rh JOIN rh.book b " +
+           "WHERE rh.member.id = :memberId ORDER BY rh.member.id, rh.completedAt DESC, rh.id DESC")
+    List<ReadingHistoryView> findViewsByMemberFirst(@Param("memberId") Long memberId, Pageable pageable);
 
-    @Query("SELECT rh.book.category, COUNT(rh) FROM ReadingHistory rh WHERE rh.member = :member GROUP BY rh.book.category ORDER BY COUNT(rh) DESC")
-    List<Object[]> getReadingStatsByCategory(@Param("member") Member member);
+    @Query("SELECT new com.asystems.read4u.dto.ReadingHistoryView(rh.id, b.id, b.title, b.author, " +
+           "rh.completedAt, rh.rating, rh.review, rh.wouldRecommend) FROM ReadingHistory rh JOIN rh.book b " +
+           "WHERE rh.member.id = :memberId " +
+           "AND rh.completedAt <= :completedAt AND (rh.completedAt < :completedAt OR rh.id < :id) " +
+           "ORDER BY rh.member.id, rh.completedAt DESC, rh.id DESC")
+    List<ReadingHistoryView> findViewsByMemberAfter(@Param("memberId") Long memberId,
+                                                    @Param("completedAt") LocalDateTime completedAt,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    long countByMemberId(Long memberId);
+
+    @Query("SELECT rh.member.id, COUNT(rh), COUNT(rh.rating), COALESCE(SUM(rh.rating), 0), " +
+           "SUM(CASE WHEN rh.wouldRecommend = true THEN 1 ELSE 0 END) FROM ReadingHistory rh " +
+           "WHERE rh.member.id IN :memberIds GROUP BY rh.member.id")
+    List<Object[]> getReadingTotalsByMember(@Param("memberIds") Collection<Long> memberIds);
+
+    // Keyset pages over (completedAt, id), newest first, like the member history above
+    @Query("SELECT new com.asystems.read4u.dto.BookReviewView(rh.id, m.id, m.firstName, rh.completedAt, " +
+           "rh.rating, rh.review, rh.wouldRecommend) FROM ReadingHistory rh JOIN rh.member m " +
+           "WHERE rh.book.id = :bookId ORDER BY rh.book.id, rh.completedAt DESC, rh.id DESC")
+    List<BookReviewView> findReviewViewsByBookFirst(@Param("bookId") Long bookId, Pageable pageable);
+
+    @Query("SELECT new com.asystems.read4u.dto.BookReviewView(rh.id, m.id, m.firstName, rh.completedAt, " +
+           "rh.rating, rh.review, rh.wouldRecommend) FROM ReadingHistory rh JOIN rh.member m " +
+           "WHERE rh.book.id = :bookId " +
+           "AND rh.completedAt <= :completedAt AND (rh.completedAt < :completedAt OR rh.id < :id) " +
+           "ORDER BY rh.book.id, rh.completedAt DESC, rh.id DESC")
+    List<BookReviewView> findReviewViewsByBookAfter(@Param("bookId") Long bookId,
+                                                   @Param("completedAt") LocalDateTime completedAt,
+                                                   @Param("id") Long id, Pageable pageable);
+
+    // Busy books are asked for their newest reviews far more often than reviews are written;
+    // one row more than a page is cached so the service can tell whether a next page exists
+    @Cacheable(value = "bookReviews", key = "#bookId")
+    default List<BookReviewView> findFirstReviewPage(Long bookId) {
+        return List.copyOf(findReviewViewsByBookFirst(bookId, PageRequest.of(0, CACHED_REVIEW_PAGE_SIZE + 1)));
+    }
+
+    @Query("SELECT rh.book.id, rh.rating, COUNT(rh) FROM ReadingHistory rh " +
+           "WHERE rh.book.id IN :bookIds AND rh.rating BETWEEN 1 AND 5 GROUP BY rh.book.id, rh.rating")
+    List<Object[]> getRatingCountsByBook(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT rh.member.id, rh.book.category, COUNT(rh) FROM ReadingHistory rh " +
+           "WHERE rh.member.id IN :memberIds GROUP BY rh.member.id, rh.book.category")
+    List<Object[]> getCategoryCountsByMember(@Param("memberIds") Collection<Long> memberIds);
 
     boolean existsByMemberAndBook(Member member, Book book);
 }
@@ -1,27 +1,48 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.ReservationView;
 import com.asystems.read4u.entity.Book;
 import com.asystems.read4u.entity.Member;
 import com.asystems.read4u.entity.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
-    List<Reservation> findByMemberAndStatus(Member member, Reservation.ReservationStatus status);
+    @Query("SELECT new com.asystems.read4u.dto.ReservationView(r.id, b.id, b.title, r.reservationDate, " +
+           "r.expiryDate, r.notifiedAt, r.status, r.queuePosition) FROM Reservation r JOIN r.book b " +
+           "WHERE r.member.id = :memberId AND r.status = :status ORDER BY r.reservationDate")
+    List<ReservationView> findViewsByMemberAndStatus(@Param("memberId") Long memberId,
+                                                     @Param("status") Reservation.ReservationStatus status);
 
     List<Reservation> findByBookAndStatusOrderByReservationDateAsc(Book book, Reservation.ReservationStatus status);
 
     @Query("SELECT r FROM Reservation r WHERE r.book = :book AND r.status = 'PENDING' ORDER BY r.queuePosition ASC")
     List<Reservation> findPendingReservationsForBook(@Param("book") Book book);
 
+    @Query("SELECT r.book.id FROM Reservation r WHERE r.id = :id")
+    Optional<Long> findBookIdById(@Param("id") Long id);
+
+    // Declared rather than derived: a derived query is rebuilt from a criteria object that
+    // Spring Data shares under a monitor, which queued every checkout behind it under load
+    @Query("SELECT r FROM Reservation r WHERE r.book = :book AND r.status = :status " +
+           "ORDER BY r.queuePosition ASC LIMIT 1")
+    Optional<Reservation> findFirstByBookAndStatusOrderByQueuePositionAsc(
+            @Param("book") Book book, @Param("status") Reservation.ReservationStatus status);
+
+    @Query("SELECT r FROM Reservation r WHERE r.book.id IN :bookIds AND r.status = 'PENDING' " +
+           "AND r.queuePosition <= :depth ORDER BY r.book.id, r.queuePosition ASC")
+    List<Reservation> findQueueHeadsForBooks(@Param("bookIds") Collection<Long> bookIds, @Param("depth") int depth);
+
     Optional<Reservation> findByBookAndMemberAndStatus(Book book, Member member, Reservation.ReservationStatus status);
 
     @Query("SELECT r FROM Reservation r WHERE r.status = 'AVAILABLE' AND r.expiryDate < :now")
@@ -29,4 +50,9 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.book = :book AND r.status = 'PENDING'")
     int countPendingReservationsForBook(@Param("book") Book book);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.queuePosition = r.queuePosition - :count " +
+           "WHERE r.book.id = :bookId AND r.status = 'PENDING' AND r.queuePosition > :position")
+    int shiftQueue(@Param("bookId") Long bookId, @Param("position") int position, @Param("count") int count);
 }
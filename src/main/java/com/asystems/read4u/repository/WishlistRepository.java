@@ -1,22 +1,47 @@
 package com.asystems.read4u.repository;
 
+import com.asystems.read4u.dto.AvailabilityNotification;
+import com.asystems.read4u.dto.WishlistItemView;
 import com.asystems.read4u.entity.Book;
 import com.asystems.read4u.entity.Member;
 import com.asystems.read4u.entity.WishlistItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WishlistRepository extends JpaRepository<WishlistItem, Long> {
 
-    List<WishlistItem> findByMemberOrderByPriorityDescAddedAtDesc(Member member);
+    @Query("SELECT new com.asystems.read4u.dto.WishlistItemView(w.id, b.id, b.title, b.author, b.availableCopies, " +
+           "w.notes, w.priority, w.notifyWhenAvailable, w.addedAt) FROM WishlistItem w JOIN w.book b " +
+           "WHERE w.member.id = :memberId ORDER BY w.priority DESC, w.addedAt DESC")
+    List<WishlistItemView> findViewsByMember(@Param("memberId") Long memberId);
 
     Optional<WishlistItem> findByMemberAndBook(Member member, Book book);
 
     List<WishlistItem> findByBookAndNotifyWhenAvailableTrue(Book book);
 
+    // Subscribers of a book in id order, skipping those already told since the cutoff
+    @Query("SELECT new com.asystems.read4u.dto.AvailabilityNotification(w.id, m.id, m.email, m.firstName, b.id, " +
+           "b.title) FROM WishlistItem w JOIN w.member m JOIN w.book b " +
+           "WHERE w.book.id = :bookId AND w.notifyWhenAvailable = true AND w.id > :afterId " +
+           "AND (w.notifiedAt IS NULL OR w.notifiedAt < :cutoff) ORDER BY w.id")
+    List<AvailabilityNotification> findNotificationsAfter(@Param("bookId") Long bookId,
+                                                          @Param("afterId") Long afterId,
+                                                          @Param("cutoff") LocalDateTime cutoff,
+                                                          Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE WishlistItem w SET w.notifiedAt = :now WHERE w.id IN :ids")
+    int markNotified(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
     boolean existsByMemberAndBook(Member member, Book book);
 }
@@ -0,0 +1,188 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.AvailabilityNotification;
+import com.asystems.read4u.entity.AvailabilityEvent;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.repository.AvailabilityEventRepository;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.WishlistRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tells wishlist subscribers when a book is back on the shelf. Circulation
+ * writes only add a row to the availability_events outbox in their own
+ * transaction; a poller claims committed events and fans each book out to
+ * its subscribers on a bounded worker pool, in batches, at a capped rate.
+ * Several events for one book in a round make one fan-out, and a member
+ * told about a book within the dedupe window is skipped. Delivery is at
+ * least once: a batch sent just before a crash is sent again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvailabilityNotificationService {
+
+    private static final String CLAIMABLE_SQL =
+            "SELECT COUNT(*) FROM availability_events WHERE claimed_at IS NULL OR claimed_at < ?";
+
+    private final AvailabilityEventRepository availabilityEventRepository;
+    private final WishlistRepository wishlistRepository;
+    private final BookRepository bookRepository;
+    private final NotificationSink notificationSink;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${library.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.notifications.workers:2}")
+    private int workers;
+
+    @Value("${library.notifications.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${library.notifications.rate-per-second:200}")
+    private double ratePerSecond;
+
+    @Value("${library.notifications.dedupe-window-hours:24}")
+    private long dedupeWindowHours;
+
+    @Value("${library.notifications.claim-lease-ms:300000}")
+    private long claimLeaseMs;
+
+    private ExecutorService pool;
+    private RateLimiter rateLimiter;
+    private Counter sent;
+
+    @PostConstruct
+    void start() {
+        // A full queue runs the fan-out on the poller itself, which holds back the next claim
+        pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("notify-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        rateLimiter = new RateLimiter(ratePerSecond);
+        sent = Counter.builder("library.notifications.sent")
+                .description("Wishlist availability notices delivered to the sink").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Records that a returned copy may have put the book back on the shelf.
+     * Nothing is recorded unless it was the book's only available copy.
+     */
+    void copyReturned(Long bookId) {
+        availabilityEventRepository.insertIfFirstCopy(bookId, LocalDateTime.now());
+    }
+
+    void copiesAvailable(Long bookId) {
+        availabilityEventRepository.save(AvailabilityEvent.builder().bookId(bookId).build());
+    }
+
+    @Scheduled(fixedDelayString = "${library.notifications.poll-ms:1000}")
+    public int dispatch() {
+        // An idle poll is one plain query rather than a claim round through the persistence context
+        if (!hasClaimable()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        int events = 0;
+        int notices = 0;
+        while (true) {
+            String token = UUID.randomUUID().toString();
+            List<AvailabilityEvent> claimed = transactionTemplate.execute(status -> claim(token));
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            events += claimed.size();
+
+            Map<Long, List<Long>> eventsByBook = claimed.stream().collect(Collectors.groupingBy(
+                    AvailabilityEvent::getBookId, Collectors.mapping(AvailabilityEvent::getId, Collectors.toList())));
+            List<Future<Integer>> fanOuts = new ArrayList<>();
+            eventsByBook.forEach((bookId, eventIds) -> fanOuts.add(pool.submit(() -> fanOut(bookId, eventIds))));
+            for (Future<Integer> fanOut : fanOuts) {
+                try {
+                    notices += fanOut.get();
+                } catch (ExecutionException e) {
+                    // Its events stay claimed and are picked up again when the lease runs out
+                    log.warn("Availability fan-out failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return events;
+                }
+            }
+        }
+
+        if (events > 0) {
+            log.info("Sent {} availability notices for {} events in {} ms",
+                    notices, events, System.currentTimeMillis() - start);
+        }
+        return events;
+    }
+
+    private boolean hasClaimable() {
+        LocalDateTime expired = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(claimLeaseMs));
+        Long claimable = jdbcTemplate.queryForObject(CLAIMABLE_SQL, Long.class, expired);
+        return claimable != null && claimable > 0;
+    }
+
+    private List<AvailabilityEvent> claim(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expired = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(claimLeaseMs));
+        List<Long> ids = availabilityEventRepository.findClaimableIds(expired, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        availabilityEventRepository.claim(ids, token, now, expired);
+        return availabilityEventRepository.findByClaimedBy(token);
+    }
+
+    private int fanOut(Long bookId, List<Long> eventIds) throws InterruptedException {
+        int notices = 0;
+        // Borrowed again before the events were picked up: nobody is told, and a later return makes a new event
+        boolean onShelf = bookRepository.findById(bookId)
+                .map(Book::getAvailableCopies).orElse(0) > 0;
+        if (onShelf) {
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(dedupeWindowHours);
+            long afterId = 0;
+            while (true) {
+                List<AvailabilityNotification> batch = wishlistRepository.findNotificationsAfter(
+                        bookId, afterId, cutoff, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                rateLimiter.acquire(batch.size());
+                notificationSink.send(batch);
+                List<Long> itemIds = batch.stream().map(AvailabilityNotification::getWishlistItemId).toList();
+                transactionTemplate.executeWithoutResult(
+                        status -> wishlistRepository.markNotified(itemIds, LocalDateTime.now()));
+                sent.increment(batch.size());
+                notices += batch.size();
+                afterId = itemIds.get(itemIds.size() - 1);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> availabilityEventRepository.deleteAllByIdInBatch(eventIds));
+        return notices;
+    }
+}
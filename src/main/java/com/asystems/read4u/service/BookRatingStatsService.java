@@ -0,0 +1,115 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BookRatingSummary;
+import com.asystems.read4u.entity.BookRatingStats;
+import com.asystems.read4u.repository.BookRatingStatsRepository;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.ReadingHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps one row of rating totals per book, updated by every review write
+ * under the row's lock. A book's row is built from its history the first
+ * time it is needed; the nightly rebuild recomputes the existing rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookRatingStatsService {
+
+    private final BookRatingStatsRepository bookRatingStatsRepository;
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.book-ratings.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    public BookRatingSummary getSummary(Long bookId) {
+        return BookRatingSummary.from(load(bookId));
+    }
+
+    BookRatingStats load(Long bookId) {
+        return bookRatingStatsRepository.findById(bookId)
+                .orElseGet(() -> transactionTemplate.execute(status -> lockStats(bookId)));
+    }
+
+    /**
+     * The book's stats row, locked. A missing row is built under the book
+     * row lock, so two first reviews of a book cannot both insert it.
+     */
+    BookRatingStats lockStats(Long bookId) {
+        return bookRatingStatsRepository.findByIdForUpdate(bookId).orElseGet(() -> {
+            bookRepository.findByIdForUpdate(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            return bookRatingStatsRepository.findByIdForUpdate(bookId)
+                    .orElseGet(() -> bookRatingStatsRepository.save(build(List.of(bookId)).get(0)));
+        });
+    }
+
+    @Scheduled(cron = "${library.book-ratings.rebuild-cron:0 50 2 * * *}")
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        long books = 0;
+        while (true) {
+            long after = afterId;
+            List<Long> rebuilt = transactionTemplate.execute(status -> rebuildChunk(after));
+            if (rebuilt == null || rebuilt.isEmpty()) {
+                break;
+            }
+            books += rebuilt.size();
+            afterId = rebuilt.get(rebuilt.size() - 1);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Rebuilt rating stats for {} books in {} ms", books, durationMs);
+        Map<String, Object> result = new HashMap<>();
+        result.put("books", books);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    // Only existing rows are rebuilt; books without one still get theirs built on first use
+    private List<Long> rebuildChunk(long afterId) {
+        List<BookRatingStats> rows = bookRatingStatsRepository.findAfterForUpdate(afterId, PageRequest.of(0, chunkSize));
+        List<Long> bookIds = rows.stream().map(BookRatingStats::getBookId).toList();
+        if (bookIds.isEmpty()) {
+            return bookIds;
+        }
+
+        Iterator<BookRatingStats> rebuilt = build(bookIds).iterator();
+        for (BookRatingStats row : rows) {
+            BookRatingStats fresh = rebuilt.next();
+            row.setRatingCount(fresh.getRatingCount());
+            row.setRatingSum(fresh.getRatingSum());
+            row.setStars1(fresh.getStars1());
+            row.setStars2(fresh.getStars2());
+            row.setStars3(fresh.getStars3());
+            row.setStars4(fresh.getStars4());
+            row.setStars5(fresh.getStars5());
+            row.setUpdatedAt(fresh.getUpdatedAt());
+        }
+        bookRatingStatsRepository.saveAll(rows);
+        return bookIds;
+    }
+
+    private List<BookRatingStats> build(List<Long> bookIds) {
+        Map<Long, BookRatingStats> stats = new LinkedHashMap<>();
+        for (Long bookId : bookIds) {
+            stats.put(bookId, BookRatingStats.builder().bookId(bookId).build());
+        }
+        for (Object[] row : readingHistoryRepository.getRatingCountsByBook(bookIds)) {
+            stats.get((Long) row[0]).addRating((Integer) row[1], (Long) row[2]);
+        }
+        return new ArrayList<>(stats.values());
+    }
+}
@@ -0,0 +1,267 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Embedded Lucene index over the active catalogue. The database stays the
+ * source of truth: the index is rebuilt on startup and kept in sync after
+ * each committed book write.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookSearchService {
+
+    private static final String ID = "id";
+    private static final String ISBN = "isbn";
+
+    // Relevance weight of a match in each analysed field
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            "title", 3.0f,
+            "author", 2.0f,
+            "category", 1.0f,
+            "publisher", 1.0f,
+            "description", 0.5f);
+
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    @Value("${library.search.index-dir:}")
+    private String indexDir;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = indexDir.isBlank() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(indexDir));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        ready = false;
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ready = false;
+        try {
+            writer.deleteAll();
+            long afterId = 0;
+            long indexed = 0;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findActiveAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    writer.addDocument(toDocument(book));
+                    afterId = book.getId();
+                }
+                indexed += batch.size();
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            commit();
+            ready = true;
+            log.info("Indexed {} books for search in {} ms", indexed, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rebuild book search index", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-indexes the book once the surrounding transaction commits; inactive
+     * books are removed from the index.
+     */
+    public void index(Book book) {
+        Document document = book.getIsActive() ? toDocument(book) : null;
+        Long id = book.getId();
+        afterCommit(() -> {
+            Term idTerm = new Term(ID, id.toString());
+            if (document != null) {
+                writer.updateDocument(idTerm, document);
+            } else {
+                writer.deleteDocuments(idTerm);
+            }
+            commit();
+        });
+    }
+
+    /**
+     * Returns ids of matching books ordered by relevance, or empty if the
+     * index is not ready and the caller should fall back to the database.
+     */
+    public Optional<Page<Long>> search(String text, Pageable pageable) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        Query query = buildQuery(text);
+        if (query == null) {
+            return Optional.of(Page.empty(pageable));
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int offset = (int) pageable.getOffset();
+                TopDocs top = searcher.search(query, offset + pageable.getPageSize());
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>();
+                for (int i = offset; i < top.scoreDocs.length; i++) {
+                    ids.add(Long.valueOf(storedFields.document(top.scoreDocs[i].doc).get(ID)));
+                }
+                return Optional.of(new PageImpl<>(ids, pageable, searcher.count(query)));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            log.warn("Book search index query failed, falling back to database", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Every analysed term must match some field. Exact matches score highest,
+     * the last term also matches as a prefix for type-ahead, and longer terms
+     * tolerate one typo. A raw ISBN prefix matches on its own.
+     */
+    private Query buildQuery(String text) {
+        List<String> terms = analyze(text);
+        String isbn = text.matches(".*\\d.*") ? text.replaceAll("[^0-9Xx]", "").toLowerCase() : "";
+        if (terms.isEmpty() && isbn.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (!terms.isEmpty()) {
+            BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                boolean last = i == terms.size() - 1;
+                BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+                FIELD_BOOSTS.forEach((field, boost) -> {
+                    anyField.add(new BoostQuery(new TermQuery(new Term(field, term)), boost),
+                            BooleanClause.Occur.SHOULD);
+                    if (last) {
+                        anyField.add(new BoostQuery(new PrefixQuery(new Term(field, term)), boost * 0.5f),
+                                BooleanClause.Occur.SHOULD);
+                    }
+                    if (term.length() >= FUZZY_MIN_LENGTH) {
+                        anyField.add(new BoostQuery(new FuzzyQuery(new Term(field, term), 1), boost * 0.3f),
+                                BooleanClause.Occur.SHOULD);
+                    }
+                });
+                allTerms.add(anyField.build(), BooleanClause.Occur.MUST);
+            }
+            query.add(allTerms.build(), BooleanClause.Occur.SHOULD);
+        }
+        if (!isbn.isEmpty()) {
+            query.add(new BoostQuery(new PrefixQuery(new Term(ISBN, isbn)), 4.0f), BooleanClause.Occur.SHOULD);
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("title", text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private Document toDocument(Book book) {
+        Document document = new Document();
+        document.add(new StringField(ID, book.getId().toString(), Field.Store.YES));
+        document.add(new StringField(ISBN, book.getIsbn().toLowerCase(), Field.Store.NO));
+        addText(document, "title", book.getTitle());
+        addText(document, "author", book.getAuthor());
+        addText(document, "category", book.getCategory());
+        addText(document, "publisher", book.getPublisher());
+        addText(document, "description", book.getDescription());
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    private void afterCommit(IndexAction action) {
+        AfterCommit.run(() -> run(action));
+    }
+
+    private void run(IndexAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            // The next rebuild repairs the index; searches fall back to stale results until then
+            log.error("Failed to update book search index", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+}
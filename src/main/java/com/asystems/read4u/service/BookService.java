@@ -1,25 +1,48 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.BookDetail;
+import com.asystems.read4u.dto.BookSummary;
+import com.asystems.read4u.dto.CursorPage;
 import com.asystems.read4u.entity.Book;
 import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.ReservationRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchService bookSearchService;
+    private final BookSuggestionService bookSuggestionService;
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityNotificationService availabilityNotificationService;
+    private final InventoryLedgerService inventoryLedgerService;
+
+    public Page<BookSummary> getAllBooks(Pageable pageable) {
+        return bookRepository.findActiveSummaries(pageable);
+    }
 
-    public Page<Book> getAllBooks(Pageable pageable) {
-        return bookRepository.findByIsActiveTrue(pageable);
+    public CursorPage<BookSummary> scrollBooks(String after, int size, boolean includeTotal) {
+        List<BookSummary> rows;
+        if (after == null) {
+            rows = bookRepository.findActiveSummariesFirst(KeysetCursor.fetchSize(size));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = bookRepository.findActiveSummariesAfter(cursor.key(), cursor.id(), KeysetCursor.fetchSize(size));
+        }
+        Long total = includeTotal ? bookRepository.countByIsActiveTrue() : null;
+        return KeysetCursor.page(rows, size, BookSummary::getId, BookSummary::getTitle, total);
     }
 
     public Book getBookById(Long id) {
@@ -27,23 +50,28 @@ public class BookService {
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
 
-    public Book getBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn)
+    public BookDetail getBookByIsbn(String isbn) {
+        return bookRepository.findDetailByIsbn(isbn)
                 .orElseThrow(() -> new RuntimeException("Book not found with ISBN: " + isbn));
     }
 
+    @CacheEvict(value = {"categories", "newArrivalIds"}, allEntries = true)
     @Transactional
     public Book createBook(Book book) {
         if (bookRepository.findByIsbn(book.getIsbn()).isPresent()) {
             throw new RuntimeException("Book with ISBN already exists");
         }
         book.setAvailableCopies(book.getTotalCopies());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchService.index(saved);
+        bookSuggestionService.onBookSaved(saved);
+        return saved;
     }
 
+    @CacheEvict(value = {"categories", "newArrivalIds"}, allEntries = true)
     @Transactional
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = getBookById(id);
+        Book book = getBookByIdForUpdate(id);
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setDescription(bookDetails.getDescription());
@@ -52,12 +80,15 @@ public class BookService {
         book.setPageCount(bookDetails.getPageCount());
         book.setCoverImageUrl(bookDetails.getCoverImageUrl());
         book.setShelfLocation(bookDetails.getShelfLocation());
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchService.index(saved);
+        bookSuggestionService.onBookSaved(saved);
+        return saved;
     }
 
     @Transactional
     public void updateInventory(Long bookId, int adjustment) {
-        Book book = getBookById(bookId);
+        Book book = getBookByIdForUpdate(bookId);
         int newTotal = book.getTotalCopies() + adjustment;
         int newAvailable = book.getAvailableCopies() + adjustment;
 
@@ -65,21 +96,38 @@ public class BookService {
             throw new RuntimeException("Cannot reduce copies below zero");
         }
 
+        // Wishlists hear about new stock only when it ends a shortage that no reservation is waiting on
+        if (book.getAvailableCopies() == 0 && newAvailable > 0
+                && reservationRepository.countPendingReservationsForBook(book) == 0) {
+            availabilityNotificationService.copiesAvailable(bookId);
+        }
+
         book.setTotalCopies(newTotal);
         book.setAvailableCopies(newAvailable);
         bookRepository.save(book);
+        inventoryLedgerService.adjust(bookId, adjustment);
     }
 
     public Page<Book> searchBooks(String query, Pageable pageable) {
+        // Relevance-ranked index search; explicit sorts and an unbuilt index use the database
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            Optional<Page<Long>> hits = bookSearchService.search(query, pageable);
+            if (hits.isPresent()) {
+                List<Book> ranked = bookRepository.findAllByIdCached(hits.get().getContent()).stream()
+                        .filter(Book::getIsActive)
+                        .toList();
+                return new PageImpl<>(ranked, pageable, hits.get().getTotalElements());
+            }
+        }
         return bookRepository.searchBooks(query, pageable);
     }
 
-    public Page<Book> getBooksByCategory(String category, Pageable pageable) {
-        return bookRepository.findByCategory(category, pageable);
+    public Page<BookSummary> getBooksByCategory(String category, Pageable pageable) {
+        return bookRepository.findSummariesByCategory(category, pageable);
     }
 
-    public Page<Book> getAvailableBooks(Pageable pageable) {
-        return bookRepository.findAvailableBooks(pageable);
+    public Page<BookSummary> getAvailableBooks(Pageable pageable) {
+        return bookRepository.findAvailableSummaries(pageable);
     }
 
     public List<String> getAllCategories() {
@@ -87,18 +135,31 @@ public class BookService {
     }
 
     public List<Book> getNewArrivals(int days) {
-        LocalDateTime since = LocalDateTime.now().minusDays(days);
-        return bookRepository.findNewArrivals(since);
+        return bookRepository.findAllByIdCached(bookRepository.findNewArrivalIds(days)).stream()
+                .filter(Book::getIsActive)
+                .toList();
     }
 
-    public List<Book> getPopularBooksByCategory(String category, int limit) {
-        return bookRepository.findPopularBooksByCategory(category, PageRequest.of(0, limit));
+    public List<BookSummary> getPopularBooksByCategory(String category, int limit, boolean recent) {
+        if (recent) {
+            return bookRepository.findRecentlyPopularSummariesByCategory(category, PageRequest.of(0, limit));
+        }
+        return bookRepository.findPopularSummariesByCategory(category, PageRequest.of(0, limit));
     }
 
+    @CacheEvict(value = {"categories", "newArrivalIds"}, allEntries = true)
     @Transactional
     public void deactivateBook(Long id) {
-        Book book = getBookById(id);
+        Book book = getBookByIdForUpdate(id);
         book.setIsActive(false);
         bookRepository.save(book);
+        bookSearchService.index(book);
+        bookSuggestionService.onBookSaved(book);
+    }
+
+    // Saving a book writes its counters back, so the row is locked against concurrent checkouts
+    private Book getBookByIdForUpdate(Long id) {
+        return bookRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
 }
@@ -0,0 +1,320 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.Suggestion;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.BorrowRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Type-ahead suggestions over book titles and authors, served entirely from
+ * an in-memory prefix trie. Every trie node caches its top entries by borrow
+ * popularity, so a lookup is a walk down the prefix plus a copy of that list.
+ * Writers serialise on a lock; readers never lock because children and
+ * top lists are replaced, not mutated.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookSuggestionService {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final BookRepository bookRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+
+    @Value("${library.suggest.top-k:10}")
+    private int topK;
+
+    // A lock rather than a monitor: rebuild reads the database while holding it, which
+    // would pin the carrier of a virtual thread blocked in or waiting on a monitor
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Node root = new Node();
+    private final Map<Long, Entry> titles = new HashMap<>();
+    private final Map<String, Entry> authors = new HashMap<>();
+    private final Map<Long, String> authorOfBook = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, Long> popularity = new HashMap<>();
+            for (Object[] row : borrowRecordRepository.countBorrowsByBook()) {
+                popularity.put((Long) row[0], (Long) row[1]);
+            }
+
+            Node newRoot = new Node();
+            titles.clear();
+            authors.clear();
+            authorOfBook.clear();
+            long afterId = 0;
+            List<Object[]> batch;
+            do {
+                batch = bookRepository.findActiveTitlesAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    addBook(newRoot, afterId, (String) row[1], (String) row[2],
+                            popularity.getOrDefault(afterId, 0L));
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            recomputeAll(newRoot);
+            root = newRoot;
+            log.info("Built suggestion trie for {} titles and {} authors in {} ms",
+                    titles.size(), authors.size(), System.currentTimeMillis() - start);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        Entry[] top = node.top;
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, top.length));
+        for (int i = 0; i < top.length && i < limit; i++) {
+            Entry entry = top[i];
+            suggestions.add(new Suggestion(entry.text, entry.type, entry.bookId, entry.popularity));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Adds or replaces a book's title and author suggestions once the
+     * surrounding transaction commits; inactive books are removed.
+     */
+    public void onBookSaved(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        boolean active = book.getIsActive();
+        AfterCommit.run(() -> {
+            writeLock.lock();
+            try {
+                long popularity = removeBook(id);
+                if (active) {
+                    addBook(root, id, title, author, popularity);
+                    recomputePath(root, normalize(title));
+                    recomputePath(root, normalize(author));
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    public void onBorrowed(Long bookId) {
+        AfterCommit.run(() -> {
+            writeLock.lock();
+            try {
+                Entry title = titles.get(bookId);
+                if (title == null) {
+                    return;
+                }
+                title.popularity++;
+                recomputePath(root, title.key);
+                Entry author = authors.get(authorOfBook.get(bookId));
+                if (author != null) {
+                    author.popularity++;
+                    recomputePath(root, author.key);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    private void addBook(Node root, Long bookId, String title, String author, long popularity) {
+        String titleKey = normalize(title);
+        if (!titleKey.isEmpty()) {
+            Entry entry = new Entry(titleKey, title, Suggestion.SuggestionType.TITLE, bookId, popularity);
+            titles.put(bookId, entry);
+            insert(root, entry);
+        }
+
+        String authorKey = normalize(author);
+        if (!authorKey.isEmpty()) {
+            // One author suggestion shared by all their books, ranked by their combined borrows
+            Entry entry = authors.computeIfAbsent(authorKey, k -> {
+                Entry created = new Entry(k, author, Suggestion.SuggestionType.AUTHOR, null, 0);
+                insert(root, created);
+                return created;
+            });
+            entry.popularity += popularity;
+            entry.books++;
+            authorOfBook.put(bookId, authorKey);
+        }
+    }
+
+    /**
+     * Removes a book's suggestions and returns its popularity so a re-added
+     * title keeps its rank.
+     */
+    private long removeBook(Long bookId) {
+        Entry title = titles.remove(bookId);
+        if (title == null) {
+            return 0;
+        }
+        terminal(root, title.key).entries.remove(title);
+        recomputePath(root, title.key);
+
+        String authorKey = authorOfBook.remove(bookId);
+        Entry author = authors.get(authorKey);
+        if (author != null) {
+            author.popularity -= title.popularity;
+            if (--author.books == 0) {
+                authors.remove(authorKey);
+                terminal(root, authorKey).entries.remove(author);
+            }
+            recomputePath(root, authorKey);
+        }
+        return title.popularity;
+    }
+
+    private void insert(Node root, Entry entry) {
+        Node node = root;
+        for (int i = 0; i < entry.key.length(); i++) {
+            node = node.childOrCreate(entry.key.charAt(i));
+        }
+        node.entries.add(entry);
+    }
+
+    private Node terminal(Node root, String key) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    private void recomputePath(Node root, String key) {
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].children.get(key.charAt(i));
+        }
+        for (int i = path.length - 1; i >= 0; i--) {
+            recompute(path[i]);
+        }
+    }
+
+    private void recomputeAll(Node node) {
+        for (Node child : node.children.nodes) {
+            recomputeAll(child);
+        }
+        recompute(node);
+    }
+
+    /**
+     * A node's top entries are the best of its own entries and its children's
+     * top entries, so only nodes on a changed path ever need recomputing.
+     */
+    private void recompute(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.entries);
+        for (Node child : node.children.nodes) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(Comparator.comparingLong((Entry e) -> e.popularity).reversed()
+                .thenComparing(e -> e.key));
+        node.top = candidates.subList(0, Math.min(topK, candidates.size())).toArray(new Entry[0]);
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N} ]", "")
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String text;
+        private final Suggestion.SuggestionType type;
+        private final Long bookId;
+        private volatile long popularity;
+        private int books;
+
+        private Entry(String key, String text, Suggestion.SuggestionType type, Long bookId, long popularity) {
+            this.key = key;
+            this.text = text;
+            this.type = type;
+            this.bookId = bookId;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Node {
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        private volatile Children children = Children.EMPTY;
+        private volatile Entry[] top = NO_ENTRIES;
+        private final List<Entry> entries = new ArrayList<>(1);
+
+        private Node childOrCreate(char c) {
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children = children.with(c, child);
+            }
+            return child;
+        }
+    }
+
+    /**
+     * Immutable sorted child table, copied on insert so readers always see a
+     * consistent pair of arrays.
+     */
+    private static final class Children {
+        private static final Children EMPTY = new Children(new char[0], new Node[0]);
+
+        private final char[] keys;
+        private final Node[] nodes;
+
+        private Children(char[] keys, Node[] nodes) {
+            this.keys = keys;
+            this.nodes = nodes;
+        }
+
+        private Node get(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? nodes[index] : null;
+        }
+
+        private Children with(char c, Node node) {
+            int insertAt = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newNodes = new Node[nodes.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(nodes, 0, newNodes, 0, insertAt);
+            newKeys[insertAt] = c;
+            newNodes[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(nodes, insertAt, newNodes, insertAt + 1, nodes.length - insertAt);
+            return new Children(newKeys, newNodes);
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.BatchItemResult;
+import com.asystems.read4u.dto.BatchResult;
+import com.asystems.read4u.dto.BorrowRecordView;
+import com.asystems.read4u.dto.BorrowRequest;
+import com.asystems.read4u.dto.CursorPage;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.*;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "library.service")
 @RequiredArgsConstructor
 public class BorrowService {
 
@@ -19,45 +30,71 @@ public class BorrowService {
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
     private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
     private final FineService fineService;
+    private final BookSuggestionService bookSuggestionService;
+    private final TrendingService trendingService;
+    private final EntityCacheEvictor entityCacheEvictor;
+    private final CirculationMetrics circulationMetrics;
+    private final AvailabilityNotificationService availabilityNotificationService;
+    private final CirculationEventLog circulationEventLog;
+    private final InventoryLedgerService inventoryLedgerService;
 
     private static final int DEFAULT_LOAN_DAYS = 14;
     private static final int RENEWAL_DAYS = 7;
+    private static final Set<BorrowRecord.BorrowStatus> ON_LOAN_STATUSES =
+            EnumSet.of(BorrowRecord.BorrowStatus.BORROWED, BorrowRecord.BorrowStatus.OVERDUE);
 
     @Transactional
     public BorrowRecord borrowBook(Long memberId, Long bookId) {
-        Member member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new RuntimeException("Member not found"));
-
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-
-        // Check if member has outstanding fines
-        if (member.getOutstandingFines() > 0) {
-            throw new RuntimeException("Please pay outstanding fines before borrowing");
-        }
+        return circulationMetrics.record(CirculationMetrics.BORROW, () -> checkOut(memberId, bookId));
+    }
 
-        // Check if member has reached max borrow limit
-        int currentBorrows = borrowRecordRepository.countCurrentBorrowsByMember(member);
-        if (currentBorrows >= member.getMaxBooksAllowed()) {
+    private BorrowRecord checkOut(Long memberId, Long bookId) {
+        // Claim a borrow slot with a conditional update so concurrent checkouts
+        // cannot push the member past their limit or around outstanding fines
+        int claimed = memberRepository.incrementBorrowedCount(memberId);
+        entityCacheEvictor.evictMember(memberId);
+        if (claimed == 0) {
+            Member member = memberRepository.findById(memberId)
+                    .orElseThrow(() -> new RuntimeException("Member not found"));
+            if (member.getOutstandingFines().signum() > 0) {
+                throw new RuntimeException("Please pay outstanding fines before borrowing");
+            }
             throw new RuntimeException("Maximum borrow limit reached");
         }
 
-        // Check book availability
-        if (book.getAvailableCopies() <= 0) {
+        // Claim a copy the same way; a failure rolls back the member slot.
+        // A book the ledger knows to be out is refused without the update.
+        if (!inventoryLedgerService.take(bookId)) {
             throw new RuntimeException("No copies available. Please reserve the book.");
         }
+        int copyClaimed = bookRepository.decrementAvailableCopies(bookId);
+        entityCacheEvictor.evictBook(bookId);
+        if (copyClaimed == 0) {
+            bookRepository.findById(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            inventoryLedgerService.refused(bookId);
+            throw new RuntimeException("No copies available. Please reserve the book.");
+        }
+
+        // Loaded after the updates so the returned record reflects the new counts
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found"));
 
-        // Check for active reservations
-        List<Reservation> pendingReservations = reservationRepository.findPendingReservationsForBook(book);
-        if (!pendingReservations.isEmpty()) {
-            Reservation firstInQueue = pendingReservations.get(0);
-            if (!firstInQueue.getMember().getId().equals(memberId)) {
+        // Check for active reservations; only the head of the queue matters
+        Optional<Reservation> firstInQueue = reservationRepository
+                .findFirstByBookAndStatusOrderByQueuePositionAsc(book, Reservation.ReservationStatus.PENDING);
+        if (firstInQueue.isPresent()) {
+            if (!firstInQueue.get().getMember().getId().equals(memberId)) {
                 throw new RuntimeException("Book is reserved by another member");
             }
             // Fulfill the reservation
-            firstInQueue.setStatus(Reservation.ReservationStatus.FULFILLED);
-            reservationRepository.save(firstInQueue);
+            reservationService.dequeue(firstInQueue.get(), Reservation.ReservationStatus.FULFILLED);
+            circulationEventLog.append(CirculationEvent.reservation(
+                    CirculationEvent.EventType.RESERVATION_FULFILLED, firstInQueue.get()));
         }
 
         // Create borrow record
@@ -69,69 +106,270 @@ public class BorrowService {
                 .status(BorrowRecord.BorrowStatus.BORROWED)
                 .build();
 
-        // Update book available copies
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookRepository.save(book);
-
-        // Update member borrowed count
-        member.setCurrentBorrowedCount(member.getCurrentBorrowedCount() + 1);
-        memberRepository.save(member);
-
-        return borrowRecordRepository.save(record);
+        bookSuggestionService.onBorrowed(bookId);
+        trendingService.onBorrowed(bookId, book.getCategory());
+        BorrowRecord saved = borrowRecordRepository.save(record);
+        circulationEventLog.append(CirculationEvent.loan(CirculationEvent.EventType.BORROWED, saved));
+        return saved;
     }
 
     @Transactional
     public BorrowRecord returnBook(Long borrowRecordId) {
-        BorrowRecord record = borrowRecordRepository.findById(borrowRecordId)
+        return circulationMetrics.record(CirculationMetrics.RETURN, () -> checkIn(borrowRecordId));
+    }
+
+    private BorrowRecord checkIn(Long borrowRecordId) {
+        // Locking the record serialises concurrent returns and overdue sweeps of the same loan
+        BorrowRecord record = borrowRecordRepository.findByIdForUpdate(borrowRecordId)
                 .orElseThrow(() -> new RuntimeException("Borrow record not found"));
 
-        if (record.getStatus() != BorrowRecord.BorrowStatus.BORROWED) {
+        if (!record.isOnLoan()) {
             throw new RuntimeException("Book is not currently borrowed");
         }
 
+        // Release the member slot and the copy before the member is loaded, so no
+        // stale counters are written back when the fine updates the member.
+        // Member rows are always locked before book rows to avoid deadlocks.
+        memberRepository.decrementBorrowedCount(record.getMember().getId());
+        bookRepository.incrementAvailableCopies(record.getBook().getId());
+        inventoryLedgerService.adjust(record.getBook().getId(), 1);
+        entityCacheEvictor.evictMember(record.getMember().getId());
+        entityCacheEvictor.evictBook(record.getBook().getId());
+
+        // Charge whatever the overdue sweep has not accrued yet
+        if (record.isOverdue()) {
+            fineService.accrueOverdueFine(record, record.getMember());
+        }
+
         record.setReturnDate(LocalDate.now());
         record.setStatus(BorrowRecord.BorrowStatus.RETURNED);
 
-        // Calculate fine if overdue
-        if (record.isOverdue()) {
-            Double fineAmount = fineService.calculateOverdueFine(record);
-            record.setFineAmount(fineAmount);
-            record.setFinePaid(false);
+        // Check for pending reservations and notify; a copy nobody holds goes to the wishlists
+        if (reservationService.promoteNextInQueue(record.getBook()).isEmpty()) {
+            availabilityNotificationService.copyReturned(record.getBook().getId());
+        }
+
+        circulationEventLog.append(CirculationEvent.loan(CirculationEvent.EventType.RETURNED, record));
+        return borrowRecordRepository.save(record);
+    }
 
-            // Create fine record
-            fineService.createFine(record.getMember(), record, fineAmount, Fine.FineType.OVERDUE,
-                    "Overdue by " + record.getDaysOverdue() + " days");
+    @Transactional
+    public BatchResult borrowBooks(List<BorrowRequest> requests) {
+        Set<Long> memberIds = requests.stream().map(BorrowRequest::getMemberId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> bookIds = requests.stream().map(BorrowRequest::getBookId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+
+        // Lock every referenced row up front, members before books like the single-item path
+        Map<Long, Member> members = lockMembers(memberIds);
+        Map<Long, Book> books = lockBooks(bookIds);
+        Map<Long, List<Reservation>> queues = pendingReservationQueues(bookIds,
+                maxItemsPerBook(requests.stream().map(BorrowRequest::getBookId)));
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<CirculationEvent> events = new ArrayList<>();
+        Map<Long, Integer> copiesTaken = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BorrowRequest request = requests.get(i);
+            try {
+                BorrowRecord record = borrowLocked(members.get(request.getMemberId()),
+                        books.get(request.getBookId()), queues, events);
+                copiesTaken.merge(request.getBookId(), -1, Integer::sum);
+                events.add(CirculationEvent.loan(CirculationEvent.EventType.BORROWED, record));
+                results.add(BatchItemResult.succeeded(i, record.getId()));
+            } catch (RuntimeException e) {
+                results.add(BatchItemResult.failed(i, null, e.getMessage()));
+            }
         }
 
-        // Update book available copies
-        Book book = record.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookRepository.save(book);
+        closeQueueGaps(queues);
+        circulationEventLog.appendAll(events);
+        inventoryLedgerService.adjust(copiesTaken);
+        BatchResult result = BatchResult.of(results);
+        circulationMetrics.record(CirculationMetrics.BORROW, result);
+        return result;
+    }
+
+    @Transactional
+    public BatchResult returnBooks(List<Long> borrowRecordIds) {
+        Map<Long, BorrowRecord> records = borrowRecordRepository
+                .findAllByIdForUpdate(new HashSet<>(borrowRecordIds)).stream()
+                .collect(Collectors.toMap(BorrowRecord::getId, Function.identity()));
+        Map<Long, Member> members = lockMembers(records.values().stream()
+                .map(r -> r.getMember().getId()).collect(Collectors.toSet()));
+        Map<Long, Book> books = lockBooks(records.values().stream()
+                .map(r -> r.getBook().getId()).collect(Collectors.toSet()));
+        Map<Long, List<Reservation>> queues = pendingReservationQueues(books.keySet(),
+                maxItemsPerBook(records.values().stream().map(r -> r.getBook().getId())));
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<CirculationEvent> events = new ArrayList<>();
+        Map<Long, Integer> copiesReturned = new HashMap<>();
+        for (int i = 0; i < borrowRecordIds.size(); i++) {
+            Long id = borrowRecordIds.get(i);
+            BorrowRecord record = records.get(id);
+            if (record == null) {
+                results.add(BatchItemResult.failed(i, id, "Borrow record not found"));
+                continue;
+            }
+            if (!record.isOnLoan()) {
+                results.add(BatchItemResult.failed(i, id, "Book is not currently borrowed"));
+                continue;
+            }
+            events.add(CirculationEvent.loan(CirculationEvent.EventType.RETURNED, record));
+            returnLocked(record, members.get(record.getMember().getId()),
+                    books.get(record.getBook().getId()), queues, events);
+            copiesReturned.merge(record.getBook().getId(), 1, Integer::sum);
+            results.add(BatchItemResult.succeeded(i, id));
+        }
 
-        // Update member borrowed count
-        Member member = record.getMember();
+        closeQueueGaps(queues);
+        circulationEventLog.appendAll(events);
+        inventoryLedgerService.adjust(copiesReturned);
+        BatchResult result = BatchResult.of(results);
+        circulationMetrics.record(CirculationMetrics.RETURN, result);
+        return result;
+    }
+
+    private BorrowRecord borrowLocked(Member member, Book book, Map<Long, List<Reservation>> queues,
+                                      List<CirculationEvent> events) {
+        if (member == null) {
+            throw new RuntimeException("Member not found");
+        }
+        if (book == null) {
+            throw new RuntimeException("Book not found");
+        }
+        if (member.getOutstandingFines().signum() > 0) {
+            throw new RuntimeException("Please pay outstanding fines before borrowing");
+        }
+        if (member.getCurrentBorrowedCount() >= member.getMaxBooksAllowed()) {
+            throw new RuntimeException("Maximum borrow limit reached");
+        }
+        if (book.getAvailableCopies() <= 0) {
+            throw new RuntimeException("No copies available. Please reserve the book.");
+        }
+
+        Reservation firstInQueue = nextPending(queues.get(book.getId()));
+        if (firstInQueue != null) {
+            if (!firstInQueue.getMember().getId().equals(member.getId())) {
+                throw new RuntimeException("Book is reserved by another member");
+            }
+            firstInQueue.setStatus(Reservation.ReservationStatus.FULFILLED);
+            events.add(CirculationEvent.reservation(CirculationEvent.EventType.RESERVATION_FULFILLED, firstInQueue));
+        }
+
+        // Rows are locked, so in-memory changes are flushed as batched updates
+        book.setAvailableCopies(book.getAvailableCopies() - 1);
+        book.setBorrowCount(book.getBorrowCount() + 1);
+        book.setRecentBorrowCount(book.getRecentBorrowCount() + 1);
+        member.setCurrentBorrowedCount(member.getCurrentBorrowedCount() + 1);
+
+        // Sequence ids are assigned on persist, the inserts themselves are batched at flush
+        BorrowRecord record = BorrowRecord.builder()
+                .book(book)
+                .member(member)
+                .borrowDate(LocalDate.now())
+                .dueDate(LocalDate.now().plusDays(DEFAULT_LOAN_DAYS))
+                .status(BorrowRecord.BorrowStatus.BORROWED)
+                .build();
+        bookSuggestionService.onBorrowed(book.getId());
+        trendingService.onBorrowed(book.getId(), book.getCategory());
+        return borrowRecordRepository.save(record);
+    }
+
+    private void returnLocked(BorrowRecord record, Member member, Book book,
+                              Map<Long, List<Reservation>> queues, List<CirculationEvent> events) {
+        if (record.isOverdue()) {
+            fineService.accrueOverdueFine(record, member);
+        }
+
+        record.setReturnDate(LocalDate.now());
+        record.setStatus(BorrowRecord.BorrowStatus.RETURNED);
+        book.setAvailableCopies(book.getAvailableCopies() + 1);
         member.setCurrentBorrowedCount(Math.max(0, member.getCurrentBorrowedCount() - 1));
-        memberRepository.save(member);
 
-        // Check for pending reservations and notify
-        List<Reservation> pendingReservations = reservationRepository.findPendingReservationsForBook(book);
-        if (!pendingReservations.isEmpty()) {
-            Reservation nextReservation = pendingReservations.get(0);
+        // Each returned copy releases the next hold in line
+        Reservation nextReservation = nextPending(queues.get(book.getId()));
+        if (nextReservation != null) {
             nextReservation.setStatus(Reservation.ReservationStatus.AVAILABLE);
-            nextReservation.setNotifiedAt(java.time.LocalDateTime.now());
-            nextReservation.setExpiryDate(java.time.LocalDateTime.now().plusDays(3));
-            reservationRepository.save(nextReservation);
+            nextReservation.setNotifiedAt(LocalDateTime.now());
+            nextReservation.setExpiryDate(LocalDateTime.now().plusDays(3));
+            events.add(CirculationEvent.reservation(CirculationEvent.EventType.RESERVATION_READY, nextReservation));
+        } else if (book.getAvailableCopies() == 1) {
+            availabilityNotificationService.copiesAvailable(book.getId());
         }
+    }
 
-        return borrowRecordRepository.save(record);
+    private Map<Long, Member> lockMembers(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return memberRepository.findAllByIdForUpdate(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+    }
+
+    private Map<Long, Book> lockBooks(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return bookRepository.findAllByIdForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+    }
+
+    /**
+     * Loads only as many queue heads per book as the batch could possibly
+     * consume, instead of every pending hold on a popular title.
+     */
+    private Map<Long, List<Reservation>> pendingReservationQueues(Collection<Long> bookIds, int depth) {
+        if (bookIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return reservationRepository.findQueueHeadsForBooks(bookIds, depth).stream()
+                .collect(Collectors.groupingBy(r -> r.getBook().getId()));
+    }
+
+    private int maxItemsPerBook(java.util.stream.Stream<Long> bookIds) {
+        return bookIds.filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .values().stream().mapToInt(Long::intValue).max().orElse(0);
+    }
+
+    private Reservation nextPending(List<Reservation> queueHeads) {
+        if (queueHeads == null) {
+            return null;
+        }
+        return queueHeads.stream()
+                .filter(r -> r.getStatus() == Reservation.ReservationStatus.PENDING)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Heads taken off a queue during a batch are always its first positions, so
+     * the rest of the queue moves up with one statement per book.
+     */
+    private void closeQueueGaps(Map<Long, List<Reservation>> queues) {
+        queues.forEach((bookId, queueHeads) -> {
+            List<Reservation> dequeued = queueHeads.stream()
+                    .filter(r -> r.getStatus() != Reservation.ReservationStatus.PENDING)
+                    .toList();
+            if (!dequeued.isEmpty()) {
+                int lastPosition = dequeued.get(dequeued.size() - 1).getQueuePosition();
+                reservationRepository.shiftQueue(bookId, lastPosition, dequeued.size());
+            }
+        });
     }
 
     @Transactional
     public BorrowRecord renewBook(Long borrowRecordId) {
+        return circulationMetrics.record(CirculationMetrics.RENEW, () -> renew(borrowRecordId));
+    }
+
+    private BorrowRecord renew(Long borrowRecordId) {
         BorrowRecord record = borrowRecordRepository.findById(borrowRecordId)
                 .orElseThrow(() -> new RuntimeException("Borrow record not found"));
 
-        if (record.getStatus() != BorrowRecord.BorrowStatus.BORROWED) {
+        if (!record.isOnLoan()) {
             throw new RuntimeException("Book is not currently borrowed");
         }
 
@@ -153,46 +391,68 @@ public class BorrowService {
         record.setDueDate(record.getDueDate().plusDays(RENEWAL_DAYS));
         record.setRenewalCount(record.getRenewalCount() + 1);
 
+        circulationEventLog.append(CirculationEvent.loan(CirculationEvent.EventType.RENEWED, record));
         return borrowRecordRepository.save(record);
     }
 
-    public List<BorrowRecord> getCurrentBorrows(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<BorrowRecordView> getCurrentBorrows(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return borrowRecordRepository.findByMemberAndStatus(member, BorrowRecord.BorrowStatus.BORROWED);
+        return borrowRecordRepository.findViewsByMemberAndStatusIn(memberId, ON_LOAN_STATUSES);
     }
 
-    public Page<BorrowRecord> getBorrowHistory(Long memberId, Pageable pageable) {
-        Member member = memberRepository.findById(memberId)
+    public Page<BorrowRecordView> getBorrowHistory(Long memberId, Pageable pageable) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return borrowRecordRepository.findByMember(member, pageable);
+        return borrowRecordRepository.findViewsByMember(memberId, pageable);
     }
 
-    public List<BorrowRecord> getOverdueBooks() {
-        return borrowRecordRepository.findOverdueBooks(LocalDate.now());
+    public CursorPage<BorrowRecordView> scrollBorrowHistory(Long memberId, String after, int size,
+                                                            boolean includeTotal) {
+        memberRepository.findById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+        List<BorrowRecordView> rows;
+        if (after == null) {
+            rows = borrowRecordRepository.findViewsByMemberFirst(memberId, KeysetCursor.fetchSize(size));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = borrowRecordRepository.findViewsByMemberAfter(memberId, LocalDate.parse(cursor.key()),
+                    cursor.id(), KeysetCursor.fetchSize(size));
+        }
+        Long total = includeTotal ? borrowRecordRepository.countByMemberId(memberId) : null;
+        return KeysetCursor.page(rows, size, BorrowRecordView::getId, BorrowRecordView::getBorrowDate, total);
     }
 
-    public List<BorrowRecord> getOverdueByMember(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<BorrowRecordView> getOverdueBooks() {
+        return borrowRecordRepository.findOverdueViews(LocalDate.now());
+    }
+
+    public List<BorrowRecordView> getOverdueByMember(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return borrowRecordRepository.findOverdueByMember(member, LocalDate.now());
+        return borrowRecordRepository.findOverdueViewsByMember(memberId, LocalDate.now());
     }
 
     @Transactional
-    public void markAsLost(Long borrowRecordId, Double replacementCost) {
-        BorrowRecord record = borrowRecordRepository.findById(borrowRecordId)
+    public void markAsLost(Long borrowRecordId, BigDecimal replacementCost) {
+        BorrowRecord record = borrowRecordRepository.findByIdForUpdate(borrowRecordId)
                 .orElseThrow(() -> new RuntimeException("Borrow record not found"));
 
+        if (!record.isOnLoan()) {
+            throw new RuntimeException("Book is not currently borrowed");
+        }
+
         record.setStatus(BorrowRecord.BorrowStatus.LOST);
         borrowRecordRepository.save(record);
+        circulationEventLog.append(CirculationEvent.loan(CirculationEvent.EventType.LOST, record));
 
         // Create fine for lost book
         fineService.createFine(record.getMember(), record, replacementCost, Fine.FineType.LOST_BOOK,
                 "Lost book: " + record.getBook().getTitle());
 
-        // Update book inventory
-        Book book = record.getBook();
-        book.setTotalCopies(book.getTotalCopies() - 1);
-        bookRepository.save(book);
+        // The copy already left the shelf at checkout, so only the total moves; a counter
+        // statement rather than a save, so the book's loaded counts are not written back
+        bookRepository.decrementTotalCopies(record.getBook().getId());
+        entityCacheEvictor.evictBook(record.getBook().getId());
     }
 }
@@ -0,0 +1,20 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+
+import java.util.List;
+
+/**
+ * Receives the circulation event log in id order. Every consumer bean is
+ * fed by CirculationEventRelay and keeps its own offset under its name, so
+ * renaming one starts it over from the beginning of the log. Delivery is at
+ * least once: a batch that throws is offered again, and one delivered just
+ * before a crash may be seen twice, so consumers should tolerate repeats
+ * (event ids are unique).
+ */
+public interface CirculationEventConsumer {
+
+    String name();
+
+    void accept(List<CirculationEvent> events);
+}
@@ -0,0 +1,74 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Appends circulation events to the outbox in the caller's transaction, so
+ * an event is visible exactly when the change it describes commits. Written
+ * with JDBC: the ids are identity values, which Hibernate would not batch.
+ * The relay reads it back the same way, so polling never goes through the
+ * persistence context.
+ */
+@Component
+@RequiredArgsConstructor
+public class CirculationEventLog {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO circulation_events (event_type, member_id, book_id, borrow_record_id, reservation_id, " +
+            "fine_id, amount, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String READ_AFTER_SQL =
+            "SELECT id, event_type, member_id, book_id, borrow_record_id, reservation_id, fine_id, amount, " +
+            "occurred_at FROM circulation_events WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String READ_FILLED_GAPS_SQL =
+            "SELECT e.id, e.event_type, e.member_id, e.book_id, e.borrow_record_id, e.reservation_id, e.fine_id, " +
+            "e.amount, e.occurred_at FROM event_consumer_gaps g JOIN circulation_events e ON e.id = g.event_id " +
+            "WHERE g.consumer = ? ORDER BY e.id LIMIT ?";
+
+    private static final RowMapper<CirculationEvent> EVENT_MAPPER = (rs, row) -> CirculationEvent.builder()
+            .id(rs.getLong("id"))
+            .type(CirculationEvent.EventType.valueOf(rs.getString("event_type")))
+            .memberId(rs.getObject("member_id", Long.class))
+            .bookId(rs.getObject("book_id", Long.class))
+            .borrowRecordId(rs.getObject("borrow_record_id", Long.class))
+            .reservationId(rs.getObject("reservation_id", Long.class))
+            .fineId(rs.getObject("fine_id", Long.class))
+            .amount(rs.getBigDecimal("amount"))
+            .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void append(CirculationEvent event) {
+        jdbcTemplate.update(INSERT_SQL, values(event));
+    }
+
+    void appendAll(List<CirculationEvent> events) {
+        if (!events.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, events.stream().map(CirculationEventLog::values).toList());
+        }
+    }
+
+    List<CirculationEvent> readAfter(long afterId, int limit) {
+        return jdbcTemplate.query(READ_AFTER_SQL, EVENT_MAPPER, afterId, limit);
+    }
+
+    // Events the consumer's offset passed over while they were uncommitted and that have since appeared
+    List<CirculationEvent> readFilledGaps(String consumer, int limit) {
+        return jdbcTemplate.query(READ_FILLED_GAPS_SQL, EVENT_MAPPER, consumer, limit);
+    }
+
+    private static Object[] values(CirculationEvent event) {
+        return new Object[]{event.getType().name(), event.getMemberId(), event.getBookId(),
+                event.getBorrowRecordId(), event.getReservationId(), event.getFineId(), event.getAmount(),
+                Timestamp.valueOf(event.getOccurredAt())};
+    }
+}
@@ -0,0 +1,247 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import com.asystems.read4u.entity.EventConsumerOffset;
+import com.asystems.read4u.repository.CirculationEventRepository;
+import com.asystems.read4u.repository.EventConsumerOffsetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the circulation event log to every CirculationEventConsumer in id
+ * order. Each batch is delivered while the consumer's offset row is locked
+ * and the offset moves in the same transaction, so a consumer that throws
+ * is offered the batch again on the next poll.
+ *
+ * Identity ids are handed out at insert but become visible at commit, so a
+ * missing id may belong to a transaction still in flight. Delivery stops at
+ * such a gap until it fills, or until the event after it is older than the
+ * grace period. The offset then moves past the gap, but its ids are kept and
+ * looked for on every poll: an event whose transaction commits late is
+ * delivered then, ahead of the next batch and out of id order. Only ids still
+ * missing after the gap expiry are taken to have rolled back.
+ *
+ * Offsets only move forward, so a consumer whose last committed offset is
+ * at the newest event id is skipped without touching its row.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CirculationEventRelay {
+
+    private static final String LAST_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM circulation_events";
+
+    private static final String CREATE_OFFSET_SQL =
+            "INSERT INTO event_consumer_offsets (consumer, last_event_id, delivered_count) " +
+            "SELECT ?, 0, 0 FROM (SELECT 1) one WHERE NOT EXISTS " +
+            "(SELECT 1 FROM event_consumer_offsets WHERE consumer = ?)";
+
+    // Held while a batch is delivered, so two relays never hand the same consumer the same batch
+    private static final String LOCK_OFFSET_SQL =
+            "SELECT last_event_id FROM event_consumer_offsets WHERE consumer = ? FOR UPDATE";
+
+    private static final String ADVANCE_OFFSET_SQL =
+            "UPDATE event_consumer_offsets SET last_event_id = ?, delivered_count = delivered_count + ?, " +
+            "updated_at = ? WHERE consumer = ?";
+
+    private final CirculationEventRepository circulationEventRepository;
+    private final CirculationEventLog circulationEventLog;
+    private final EventConsumerOffsetRepository eventConsumerOffsetRepository;
+    private final List<CirculationEventConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // Longer runs are ids pruned before a consumer existed or jumps in the identity, not open transactions
+    private static final long MAX_TRACKED_GAP = 10_000;
+
+    private static final String RECORD_GAP_SQL =
+            "INSERT INTO event_consumer_gaps (consumer, event_id, skipped_at) VALUES (?, ?, ?)";
+
+    private static final String DELETE_GAP_SQL = "DELETE FROM event_consumer_gaps WHERE consumer = ? AND event_id = ?";
+
+    private static final String EXPIRE_GAPS_SQL = "DELETE FROM event_consumer_gaps WHERE consumer = ? AND skipped_at < ?";
+
+    private static final String COUNT_GAPS_SQL = "SELECT COUNT(*) FROM event_consumer_gaps WHERE consumer = ?";
+
+    private final Map<String, Long> knownOffsets = new ConcurrentHashMap<>();
+    private final Map<String, Long> knownGaps = new ConcurrentHashMap<>();
+
+    @Value("${library.events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${library.events.gap-grace-ms:10000}")
+    private long gapGraceMs;
+
+    @Value("${library.events.gap-expiry-minutes:60}")
+    private long gapExpiryMinutes;
+
+    @Value("${library.events.retention-days:30}")
+    private int retentionDays;
+
+    @Scheduled(fixedDelayString = "${library.events.poll-ms:1000}")
+    public int relay() {
+        Long lastId = jdbcTemplate.queryForObject(LAST_ID_SQL, Long.class);
+        int delivered = 0;
+        for (CirculationEventConsumer consumer : consumers) {
+            Long known = knownOffsets.get(consumer.name());
+            if (known == null || known < lastId || knownGaps.getOrDefault(consumer.name(), 0L) > 0) {
+                delivered += relayTo(consumer);
+            }
+        }
+        return delivered;
+    }
+
+    public Map<String, Object> getOffsets() {
+        long lastId = circulationEventRepository.findLastId();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastEventId", lastId);
+        for (CirculationEventConsumer consumer : consumers) {
+            EventConsumerOffset offset = eventConsumerOffsetRepository.findById(consumer.name())
+                    .orElseGet(() -> EventConsumerOffset.builder().consumer(consumer.name()).build());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("lastEventId", offset.getLastEventId());
+            stats.put("lag", lastId - offset.getLastEventId());
+            stats.put("delivered", offset.getDeliveredCount());
+            stats.put("pendingGaps", jdbcTemplate.queryForObject(COUNT_GAPS_SQL, Long.class, consumer.name()));
+            stats.put("updatedAt", offset.getUpdatedAt());
+            result.put(consumer.name(), stats);
+        }
+        return result;
+    }
+
+    // Only events every current consumer has taken are removed
+    @Scheduled(cron = "${library.events.prune-cron:0 10 3 * * *}")
+    public int prune() {
+        long lowest = consumers.stream()
+                .mapToLong(consumer -> eventConsumerOffsetRepository.findById(consumer.name())
+                        .map(EventConsumerOffset::getLastEventId).orElse(0L))
+                .min().orElse(0L);
+        Integer pruned = transactionTemplate.execute(status -> circulationEventRepository
+                .deleteDelivered(lowest, LocalDateTime.now().minusDays(retentionDays)));
+        log.info("Pruned {} circulation events up to id {}", pruned, lowest);
+        return pruned != null ? pruned : 0;
+    }
+
+    private int relayTo(CirculationEventConsumer consumer) {
+        if (!knownOffsets.containsKey(consumer.name())) {
+            createOffset(consumer.name());
+        }
+        Counter counter = Counter.builder("library.events.delivered")
+                .description("Circulation events delivered to a consumer")
+                .tag("consumer", consumer.name())
+                .register(meterRegistry);
+        int delivered = 0;
+        while (true) {
+            Integer batch;
+            try {
+                batch = transactionTemplate.execute(status -> deliverBatch(consumer));
+            } catch (RuntimeException e) {
+                log.warn("Consumer {} failed; its batch is retried on the next poll", consumer.name(), e);
+                break;
+            }
+            if (batch == null || batch == 0) {
+                break;
+            }
+            counter.increment(batch);
+            delivered += batch;
+        }
+        return delivered;
+    }
+
+    private void createOffset(String name) {
+        try {
+            jdbcTemplate.update(CREATE_OFFSET_SQL, name, name);
+        } catch (DataIntegrityViolationException e) {
+            // Another relay created it first
+        }
+    }
+
+    private int deliverBatch(CirculationEventConsumer consumer) {
+        List<Long> locked = jdbcTemplate.queryForList(LOCK_OFFSET_SQL, Long.class, consumer.name());
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Consumer offset not found");
+        }
+        long lastId = locked.get(0);
+        List<CirculationEvent> batch = lateEvents(consumer.name());
+        List<CirculationEvent> next = contiguous(consumer.name(), lastId, circulationEventLog.readAfter(lastId, batchSize));
+        batch.addAll(next);
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            if (!next.isEmpty()) {
+                lastId = next.get(next.size() - 1).getId();
+            }
+            jdbcTemplate.update(ADVANCE_OFFSET_SQL, lastId, batch.size(),
+                    Timestamp.valueOf(LocalDateTime.now()), consumer.name());
+        }
+        long committed = lastId;
+        long gaps = jdbcTemplate.queryForObject(COUNT_GAPS_SQL, Long.class, consumer.name());
+        AfterCommit.run(() -> {
+            knownOffsets.put(consumer.name(), committed);
+            knownGaps.put(consumer.name(), gaps);
+        });
+        return batch.size();
+    }
+
+    // Skipped events that have committed since, removed from the gaps in the delivering transaction
+    private List<CirculationEvent> lateEvents(String consumer) {
+        if (knownGaps.getOrDefault(consumer, 1L) == 0) {
+            return new ArrayList<>();
+        }
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(gapExpiryMinutes);
+        int expired = jdbcTemplate.update(EXPIRE_GAPS_SQL, consumer, Timestamp.valueOf(expiry));
+        if (expired > 0) {
+            log.info("Gave up on {} circulation event ids skipped for {}; taken as rolled back", expired, consumer);
+        }
+        List<CirculationEvent> late = new ArrayList<>(circulationEventLog.readFilledGaps(consumer, batchSize));
+        if (!late.isEmpty()) {
+            log.warn("{} circulation events committed after {} passed them; delivering out of order",
+                    late.size(), consumer);
+            jdbcTemplate.batchUpdate(DELETE_GAP_SQL, late.stream()
+                    .map(event -> new Object[]{consumer, event.getId()})
+                    .toList());
+        }
+        return late;
+    }
+
+    private List<CirculationEvent> contiguous(String consumer, long lastId, List<CirculationEvent> events) {
+        LocalDateTime settled = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(gapGraceMs));
+        List<CirculationEvent> ready = new ArrayList<>();
+        List<Object[]> skipped = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long expected = lastId + 1;
+        for (CirculationEvent event : events) {
+            if (event.getId() != expected && event.getOccurredAt().isAfter(settled)) {
+                break;
+            }
+            if (event.getId() - expected > MAX_TRACKED_GAP) {
+                log.warn("Passing over circulation event ids {} to {} for {} without tracking them",
+                        expected, event.getId() - 1, consumer);
+            } else {
+                for (long missing = expected; missing < event.getId(); missing++) {
+                    skipped.add(new Object[]{consumer, missing, now});
+                }
+            }
+            ready.add(event);
+            expected = event.getId() + 1;
+        }
+        if (!skipped.isEmpty()) {
+            jdbcTemplate.batchUpdate(RECORD_GAP_SQL, skipped);
+        }
+        return ready;
+    }
+}
@@ -0,0 +1,373 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only circulation journal in memory-mapped segment files. Every
+ * record is {@value #RECORD_SIZE} bytes: the event id, time, the ids it
+ * names (0 for none), the amount in cents ({@link Long#MIN_VALUE} for none),
+ * the type ordinal and a
+ * CRC32 of the rest. Segments hold a fixed number of records and are
+ * created at full size, so a record's offset is its slot times the record
+ * size and an all-zero slot marks the end of the data.
+ *
+ * Each event id is journaled once, so a batch the relay delivers twice is
+ * written once. Ids the journal moves past without an event are remembered
+ * for the relay's gap expiry: an event that committed late arrives after
+ * later ones and is written then, out of id order. Any other event at or
+ * below the highest id written is a repeat and is skipped. A record that fails
+ * its CRC at the end of the newest segment is a write torn by a crash and
+ * is overwritten; anywhere else it is corruption and reading stops with an
+ * error. Appends are serialised; readers map the files on their own.
+ */
+final class CirculationJournal implements Closeable {
+
+    static final int RECORD_SIZE = 72;
+
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final CirculationEvent.EventType[] TYPES = CirculationEvent.EventType.values();
+
+    // The relay's own limit: longer runs of missing ids are never delivered late
+    private static final long MAX_TRACKED_GAP = 10_000;
+
+    enum SyncPolicy {
+        // Forced after every appended batch, one fsync for the whole group
+        BATCH,
+        // Forced by sync(), called on a schedule
+        INTERVAL,
+        // Left to the operating system
+        NONE
+    }
+
+    private final Path dir;
+    private final int recordsPerSegment;
+    private final SyncPolicy syncPolicy;
+    private final long gapExpiryMillis;
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final CRC32 crc = new CRC32();
+
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int slot;
+    private long lastEventId;
+    private boolean dirty;
+    // Ids passed over without an event, with when; ids and times rise together
+    private final NavigableMap<Long, Long> passedOver = new TreeMap<>();
+
+    CirculationJournal(Path dir, int recordsPerSegment, SyncPolicy syncPolicy) {
+        this(dir, recordsPerSegment, syncPolicy, Duration.ofMinutes(60));
+    }
+
+    CirculationJournal(Path dir, int recordsPerSegment, SyncPolicy syncPolicy, Duration gapExpiry) {
+        this.dir = dir;
+        this.recordsPerSegment = recordsPerSegment;
+        this.syncPolicy = syncPolicy;
+        this.gapExpiryMillis = gapExpiry.toMillis();
+        try {
+            Files.createDirectories(dir);
+            List<Path> segments = segments(dir);
+            if (segments.isEmpty()) {
+                open(1);
+            } else {
+                open(segmentNumber(segments.get(segments.size() - 1)));
+                recover();
+                recoverPassedOver();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    synchronized long lastEventId() {
+        return lastEventId;
+    }
+
+    synchronized int append(List<CirculationEvent> events) {
+        long now = System.currentTimeMillis();
+        while (!passedOver.isEmpty() && passedOver.firstEntry().getValue() < now - gapExpiryMillis) {
+            passedOver.pollFirstEntry();
+        }
+        int written = 0;
+        for (CirculationEvent event : events) {
+            long id = event.getId();
+            if (id <= lastEventId && passedOver.remove(id) == null) {
+                continue;
+            }
+            if (id > lastEventId + 1) {
+                passOver(lastEventId + 1, id, now);
+            }
+            if (slot == recordsPerSegment) {
+                roll();
+            }
+            encode(event);
+            buffer.put(slot * RECORD_SIZE, scratch);
+            slot++;
+            lastEventId = Math.max(lastEventId, id);
+            written++;
+        }
+        if (written > 0) {
+            dirty = true;
+            if (syncPolicy == SyncPolicy.BATCH) {
+                sync();
+            }
+        }
+        return written;
+    }
+
+    synchronized void sync() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Hands every record with an id above the given one to the reader, in
+     * the order written. Segments removed by prune() while this runs are
+     * passed over.
+     */
+    void read(long afterId, Consumer<CirculationEvent> reader) {
+        read(dir, afterId, reader);
+    }
+
+    // Read-only, so it is safe on the directory of a running journal
+    static void read(Path dir, long afterId, Consumer<CirculationEvent> reader) {
+        read(segments(dir), afterId, reader);
+    }
+
+    private static void read(List<Path> segments, long afterId, Consumer<CirculationEvent> reader) {
+        for (int i = 0; i < segments.size(); i++) {
+            boolean newest = i == segments.size() - 1;
+            try (FileChannel in = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                ByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                byte[] record = new byte[RECORD_SIZE];
+                int slots = (int) (in.size() / RECORD_SIZE);
+                for (int s = 0; s < slots; s++) {
+                    records.get(s * RECORD_SIZE, record);
+                    if (isEmpty(record)) {
+                        break;
+                    }
+                    if (!isIntact(record)) {
+                        if (newest && (s + 1 == slots || isEmpty(records, s + 1))) {
+                            // A record still being written, or torn by a crash
+                            break;
+                        }
+                        throw new IllegalStateException("Corrupt journal record " + s + " in " + segments.get(i));
+                    }
+                    CirculationEvent event = decode(record);
+                    if (event.getId() > afterId) {
+                        reader.accept(event);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Pruned since the listing
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Deletes full segments last written before the cutoff. The segment
+     * being appended to is always kept.
+     */
+    synchronized int prune(LocalDateTime cutoff) {
+        FileTime before = FileTime.from(cutoff.atZone(ZoneId.systemDefault()).toInstant());
+        int deleted = 0;
+        try {
+            for (Path path : segments(dir)) {
+                if (segmentNumber(path) < segment && Files.getLastModifiedTime(path).compareTo(before) < 0) {
+                    Files.delete(path);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return deleted;
+    }
+
+    synchronized int segmentCount() {
+        return segments(dir).size();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            sync();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open(long number) throws IOException {
+        segment = number;
+        channel = FileChannel.open(dir.resolve(String.format("%012d%s", number, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Mapping past the end grows the file to its full size
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        slot = 0;
+    }
+
+    private void roll() {
+        try {
+            buffer.force();
+            dirty = false;
+            channel.close();
+            open(segment + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Finds the write slot of the newest segment and the last event id written
+    private void recover() {
+        byte[] record = new byte[RECORD_SIZE];
+        while (slot < recordsPerSegment) {
+            buffer.get(slot * RECORD_SIZE, record);
+            if (isEmpty(record) || !isIntact(record)) {
+                break;
+            }
+            lastEventId = Math.max(lastEventId, decode(record).getId());
+            slot++;
+        }
+        if (slot < recordsPerSegment) {
+            // Clears a torn record so readers see the end of the data here
+            buffer.put(slot * RECORD_SIZE, new byte[RECORD_SIZE]);
+        }
+        if (slot == 0 && segment > 1) {
+            // Rolled just before a restart; the last id is in an earlier segment
+            read(0, event -> lastEventId = Math.max(lastEventId, event.getId()));
+        }
+    }
+
+    /*
+     * Rebuilds the ids passed over from the segments written within the gap
+     * expiry. Older segments hold only ids passed before it, which the relay
+     * no longer delivers late.
+     */
+    private void recoverPassedOver() throws IOException {
+        FileTime cutoff = FileTime.fromMillis(System.currentTimeMillis() - gapExpiryMillis);
+        List<Path> recent = new ArrayList<>();
+        for (Path path : segments(dir)) {
+            if (segmentNumber(path) == segment || Files.getLastModifiedTime(path).compareTo(cutoff) >= 0) {
+                recent.add(path);
+            }
+        }
+        List<Long> ids = new ArrayList<>();
+        read(recent, 0, event -> ids.add(event.getId()));
+        ids.sort(null);
+        long now = System.currentTimeMillis();
+        for (int i = 1; i < ids.size(); i++) {
+            passOver(ids.get(i - 1) + 1, ids.get(i), now);
+        }
+    }
+
+    private void passOver(long from, long to, long at) {
+        if (to - from <= MAX_TRACKED_GAP) {
+            for (long id = from; id < to; id++) {
+                passedOver.put(id, at);
+            }
+        }
+    }
+
+    private void encode(CirculationEvent event) {
+        ByteBuffer out = ByteBuffer.wrap(scratch);
+        out.putLong(event.getId());
+        out.putLong(event.getOccurredAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        out.putLong(orZero(event.getMemberId()));
+        out.putLong(orZero(event.getBookId()));
+        out.putLong(orZero(event.getBorrowRecordId()));
+        out.putLong(orZero(event.getReservationId()));
+        out.putLong(orZero(event.getFineId()));
+        out.putLong(event.getAmount() != null ? FineLedger.cents(event.getAmount()) : NO_AMOUNT);
+        out.putShort((short) event.getType().ordinal());
+        out.putShort((short) 0);
+        crc.reset();
+        crc.update(scratch, 0, CRC_OFFSET);
+        out.putInt((int) crc.getValue());
+    }
+
+    private static CirculationEvent decode(byte[] record) {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        long id = in.getLong();
+        LocalDateTime occurredAt = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                .plus(in.getLong(), ChronoUnit.MILLIS);
+        Long memberId = orNull(in.getLong());
+        Long bookId = orNull(in.getLong());
+        Long borrowRecordId = orNull(in.getLong());
+        Long reservationId = orNull(in.getLong());
+        Long fineId = orNull(in.getLong());
+        long amount = in.getLong();
+        return CirculationEvent.builder()
+                .id(id).occurredAt(occurredAt).type(TYPES[in.getShort()])
+                .memberId(memberId).bookId(bookId).borrowRecordId(borrowRecordId)
+                .reservationId(reservationId).fineId(fineId)
+                .amount(amount != NO_AMOUNT ? FineLedger.amount(amount) : null)
+                .build();
+    }
+
+    private static boolean isIntact(byte[] record) {
+        CRC32 check = new CRC32();
+        check.update(record, 0, CRC_OFFSET);
+        return (int) check.getValue() == ByteBuffer.wrap(record).getInt(CRC_OFFSET);
+    }
+
+    // Ids start at 1, so a record always has a non-zero first long
+    private static boolean isEmpty(byte[] record) {
+        return isEmpty(ByteBuffer.wrap(record), 0);
+    }
+
+    private static boolean isEmpty(ByteBuffer records, int slot) {
+        return records.getLong(slot * RECORD_SIZE) == 0 && records.getInt(slot * RECORD_SIZE + CRC_OFFSET) == 0;
+    }
+
+    private static List<Path> segments(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long orZero(Long id) {
+        return id != null ? id : 0;
+    }
+
+    private static Long orNull(long id) {
+        return id != 0 ? id : null;
+    }
+}
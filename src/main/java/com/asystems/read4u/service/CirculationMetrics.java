@@ -0,0 +1,117 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BatchItemResult;
+import com.asystems.read4u.dto.BatchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Outcome counters for circulation writes, tagged with the reason a request
+ * was refused, and gauges for reservation queues and unpaid fines. The gauges
+ * are refreshed on a schedule rather than queried on every scrape.
+ */
+@Component
+@RequiredArgsConstructor
+public class CirculationMetrics {
+
+    static final String BORROW = "borrow";
+    static final String RETURN = "return";
+    static final String RENEW = "renew";
+    static final String RESERVE = "reserve";
+
+    private static final String QUEUES_SQL =
+            "SELECT COUNT(*), COALESCE(MAX(queue_position), 0) FROM reservations WHERE status = 'PENDING'";
+
+    private static final String FINES_SQL =
+            "SELECT COALESCE(SUM(outstanding_fines), 0), COUNT(*) FROM members WHERE outstanding_fines > 0";
+
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong pendingReservations = new AtomicLong();
+    private final AtomicLong longestQueue = new AtomicLong();
+    private final AtomicLong membersWithFines = new AtomicLong();
+    private volatile double outstandingFines;
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("library.reservations.pending", pendingReservations, AtomicLong::get)
+                .description("Reservations waiting in a queue").register(meterRegistry);
+        Gauge.builder("library.reservations.queue.longest", longestQueue, AtomicLong::get)
+                .description("Length of the longest reservation queue").register(meterRegistry);
+        Gauge.builder("library.fines.outstanding", this, metrics -> metrics.outstandingFines)
+                .description("Unpaid fines across all members").register(meterRegistry);
+        Gauge.builder("library.fines.members", membersWithFines, AtomicLong::get)
+                .description("Members with unpaid fines").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${library.metrics.gauge-refresh-ms:30000}")
+    public void refreshGauges() {
+        jdbcTemplate.query(QUEUES_SQL, rs -> {
+            pendingReservations.set(rs.getLong(1));
+            longestQueue.set(rs.getLong(2));
+        });
+        jdbcTemplate.query(FINES_SQL, rs -> {
+            outstandingFines = rs.getDouble(1);
+            membersWithFines.set(rs.getLong(2));
+        });
+    }
+
+    /**
+     * Runs a circulation write and counts its outcome. Successes are counted
+     * once the transaction commits, refusals as they are thrown.
+     */
+    <T> T record(String action, Supplier<T> write) {
+        T result;
+        try {
+            result = write.get();
+        } catch (RuntimeException e) {
+            count(action, "failure", reason(e));
+            throw e;
+        }
+        AfterCommit.run(() -> count(action, "success", "none"));
+        return result;
+    }
+
+    void record(String action, BatchResult batch) {
+        int succeeded = batch.getSucceeded();
+        for (BatchItemResult item : batch.getItems()) {
+            if (!item.isSuccess()) {
+                count(action, "failure", item.getError() != null ? item.getError() : "unknown");
+            }
+        }
+        if (succeeded > 0) {
+            AfterCommit.run(() -> counter(action, "success", "none").increment(succeeded));
+        }
+    }
+
+    private void count(String action, String outcome, String reason) {
+        counter(action, outcome, reason).increment();
+    }
+
+    private Counter counter(String action, String outcome, String reason) {
+        return Counter.builder("library.circulation")
+                .description("Circulation requests by outcome")
+                .tag("action", action)
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Business refusals carry fixed messages; anything else could embed ids or SQL, so only its type is kept
+    private static String reason(RuntimeException e) {
+        if (e.getClass() == RuntimeException.class && e.getMessage() != null) {
+            return e.getMessage();
+        }
+        return e.getClass().getSimpleName();
+    }
+}
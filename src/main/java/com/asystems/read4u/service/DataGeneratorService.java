@@ -0,0 +1,588 @@
+package com.asystems.read4u.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Bulk-loads a synthetic library into empty tables: books whose borrows follow
+ * a Zipf distribution over popularity rank, members with loan, fine, reading,
+ * wishlist and reservation histories, and the counters the services keep on
+ * books and members. Rows are written with JDBC batches from a pool of threads,
+ * each chunk of ids drawing from its own seeded stream, so the same settings
+ * produce the same rows whatever the thread count.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataGeneratorService {
+
+    private static final int BOOKS_PER_CHUNK = 10_000;
+    private static final int MEMBERS_PER_CHUNK = 500;
+    private static final int MAX_ACTIVE_LOANS = 3;
+    private static final int MAX_QUEUE_LENGTH = 5;
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final int BOOK_STREAM = 1;
+    private static final int MEMBER_STREAM = 2;
+    private static final int QUEUE_STREAM = 3;
+
+    private static final String INSERT_BOOK_SQL =
+            "INSERT INTO books (id, title, author, isbn, description, publisher, published_date, category, " +
+            "language, page_count, shelf_location, total_copies, available_copies, borrow_count, " +
+            "recent_borrow_count, is_active, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, TRUE, ?)";
+
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO members (id, first_name, last_name, email, phone, address, date_of_birth, " +
+            "membership_number, membership_type, membership_start_date, membership_expiry_date, " +
+            "max_books_allowed, current_borrowed_count, outstanding_fines, is_active, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?)";
+
+    private static final String INSERT_BORROW_RECORD_SQL =
+            "INSERT INTO borrow_records (id, book_id, member_id, borrow_date, due_date, return_date, status, " +
+            "renewal_count, max_renewals, fine_amount, fine_paid, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FINE_SQL =
+            "INSERT INTO fines (id, member_id, borrow_record_id, amount, fine_type, description, is_paid, " +
+            "paid_at, payment_method, created_at) VALUES (?, ?, ?, ?, 'OVERDUE', ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_READING_HISTORY_SQL =
+            "INSERT INTO reading_history (id, member_id, book_id, completed_at, rating, would_recommend, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_WISHLIST_ITEM_SQL =
+            "INSERT INTO wishlist_items (id, member_id, book_id, priority, notify_when_available, added_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RESERVATION_SQL =
+            "INSERT INTO reservations (id, book_id, member_id, reservation_date, expiry_date, notified_at, status, " +
+            "queue_position) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // available_copies is assigned first: MySQL applies SET clauses left to right, H2 all at once
+    private static final String BOOK_COUNTERS_SQL =
+            "UPDATE books SET " +
+            "available_copies = GREATEST(total_copies, (SELECT COUNT(*) FROM borrow_records r " +
+            "WHERE r.book_id = books.id AND r.status IN ('BORROWED', 'OVERDUE'))) - " +
+            "(SELECT COUNT(*) FROM borrow_records r WHERE r.book_id = books.id AND r.status IN ('BORROWED', 'OVERDUE')), " +
+            "total_copies = GREATEST(total_copies, (SELECT COUNT(*) FROM borrow_records r " +
+            "WHERE r.book_id = books.id AND r.status IN ('BORROWED', 'OVERDUE'))), " +
+            "borrow_count = (SELECT COUNT(*) FROM borrow_records r WHERE r.book_id = books.id), " +
+            "recent_borrow_count = (SELECT COUNT(*) FROM borrow_records r " +
+            "WHERE r.book_id = books.id AND r.borrow_date >= ?) " +
+            "WHERE id BETWEEN ? AND ?";
+
+    private static final String MEMBER_COUNTERS_SQL =
+            "UPDATE members SET " +
+            "current_borrowed_count = (SELECT COUNT(*) FROM borrow_records r " +
+            "WHERE r.member_id = members.id AND r.status IN ('BORROWED', 'OVERDUE')), " +
+            "outstanding_fines = (SELECT COALESCE(SUM(f.amount), 0) FROM fines f " +
+            "WHERE f.member_id = members.id AND f.is_paid = FALSE) " +
+            "WHERE id BETWEEN ? AND ?";
+
+    private static final String TRENDING_BUCKETS_SQL =
+            "INSERT INTO trending_buckets (book_id, category, bucket_date, borrow_count) " +
+            "SELECT r.book_id, b.category, r.borrow_date, COUNT(*) FROM borrow_records r " +
+            "JOIN books b ON b.id = r.book_id WHERE r.borrow_date >= ? " +
+            "GROUP BY r.book_id, b.category, r.borrow_date";
+
+    private static final List<String> GENERATED_TABLES = List.of("books", "members", "borrow_records", "fines",
+            "fine_ledger_entries", "reservations", "wishlist_items", "reading_history");
+
+    private static final String[] FIRST_NAMES = {"Ada", "Bram", "Chloe", "Dmitri", "Elif", "Farah", "Gus", "Hana",
+            "Ivan", "Jules", "Kofi", "Lena", "Mateo", "Nia", "Oskar", "Priya", "Quinn", "Rosa", "Sami", "Tess",
+            "Umar", "Vera", "Wen", "Yusuf"};
+    private static final String[] LAST_NAMES = {"Adler", "Bianchi", "Costa", "Dubois", "Eriksen", "Fischer",
+            "Garcia", "Haddad", "Ito", "Jensen", "Kowalski", "Laine", "Moreau", "Novak", "Okafor", "Petrov",
+            "Quist", "Rossi", "Silva", "Tanaka", "Umeh", "Varga", "Weber", "Zhou"};
+    private static final String[] ADJECTIVES = {"Silent", "Hidden", "Winter", "Broken", "Golden", "Last", "Distant",
+            "Crimson", "Quiet", "Burning", "Lost", "Northern", "Glass", "Hollow", "Restless", "Secret"};
+    private static final String[] NOUNS = {"Harbour", "Garden", "River", "Kingdom", "Orchard", "Letters", "Machine",
+            "Lighthouse", "Archive", "Forest", "Empire", "Voyage", "Promise", "Mountain", "Station", "Tide"};
+    private static final String[] CATEGORIES = {"Fiction", "Mystery", "Science Fiction", "Fantasy", "Romance",
+            "History", "Biography", "Science", "Children", "Young Adult", "Poetry", "Travel", "Cooking",
+            "Business", "Computing", "Philosophy"};
+    private static final String[] PUBLISHERS = {"Meridian Press", "Halcyon Books", "Northgate", "Bramble & Finch",
+            "Lantern House", "Orbit Street", "Tideline", "Westmark"};
+    private static final String[] LANGUAGES = {"French", "German", "Spanish", "Italian", "Polish", "Japanese"};
+    private static final String[] PAYMENT_METHODS = {"CASH", "CARD", "ONLINE"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FineLedger fineLedger;
+
+    @Value("${library.datagen.books:100000}")
+    private int books;
+
+    @Value("${library.datagen.members:20000}")
+    private int members;
+
+    @Value("${library.datagen.loans-per-member:20}")
+    private int loansPerMember;
+
+    @Value("${library.datagen.reads-per-member:8}")
+    private int readsPerMember;
+
+    @Value("${library.datagen.wishes-per-member:4}")
+    private int wishesPerMember;
+
+    @Value("${library.datagen.reservations-per-member:2}")
+    private int reservationsPerMember;
+
+    @Value("${library.datagen.history-days:730}")
+    private int historyDays;
+
+    @Value("${library.datagen.zipf-exponent:1.0}")
+    private double zipfExponent;
+
+    @Value("${library.datagen.seed:42}")
+    private long seed;
+
+    @Value("${library.datagen.threads:4}")
+    private int threads;
+
+    @Value("${library.datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${library.fine.daily-rate:0.50}")
+    private BigDecimal dailyFineRate;
+
+    @Value("${library.fine.max-per-book:25.00}")
+    private BigDecimal maxFinePerBook;
+
+    @Value("${library.borrow.default-days:14}")
+    private int borrowDays;
+
+    @Value("${library.borrow.renewal-days:7}")
+    private int renewalDays;
+
+    @Value("${library.borrow.max-renewals:2}")
+    private int maxRenewals;
+
+    @Value("${library.popularity.window-days:30}")
+    private int popularityWindowDays;
+
+    @Value("${library.trending.window-days:30}")
+    private int trendingWindowDays;
+
+    public Map<String, Object> generate() {
+        if (books < 1 || members < 1) {
+            throw new RuntimeException("Data generation needs at least one book and one member");
+        }
+        for (String table : GENERATED_TABLES) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+            if (rows != null && rows > 0) {
+                throw new RuntimeException("Refusing to generate data: table " + table + " already has " + rows + " rows");
+            }
+        }
+
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        Popularity popularity = new Popularity(books, zipfExponent);
+        int bookChunks = chunks(books, BOOKS_PER_CHUNK);
+        int memberChunks = chunks(members, MEMBERS_PER_CHUNK);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            phase("books", () -> inParallel(pool, bookChunks, chunk -> insertBooks(chunk, popularity, today)));
+            phase("members and their histories", () ->
+                    inParallel(pool, memberChunks, chunk -> insertMembers(chunk, popularity, today)));
+
+            Date popularitySince = Date.valueOf(today.minusDays(popularityWindowDays));
+            phase("book counters", () -> inParallel(pool, bookChunks, chunk -> {
+                long[] ids = idRange(chunk, BOOKS_PER_CHUNK, books);
+                jdbcTemplate.update(BOOK_COUNTERS_SQL, popularitySince, ids[0], ids[1]);
+            }));
+            phase("member counters", () -> inParallel(pool, memberChunks, chunk -> {
+                long[] ids = idRange(chunk, MEMBERS_PER_CHUNK, members);
+                jdbcTemplate.update(MEMBER_COUNTERS_SQL, ids[0], ids[1]);
+                fineLedger.recordExistingFines(ids[0], ids[1]);
+            }));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Queues go on books the loans left without a copy on the shelf, so they have to come after the counters
+        phase("reservation queues", () -> insertQueues((long) memberChunks * MEMBERS_PER_CHUNK
+                * 2 * reservationsPerMember + 1, today));
+        phase("trending buckets", () ->
+                jdbcTemplate.update(TRENDING_BUCKETS_SQL, Date.valueOf(today.minusDays(trendingWindowDays))));
+        advanceKeys();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (String table : GENERATED_TABLES) {
+            stats.put(table, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class));
+        }
+        stats.put("durationMs", (System.nanoTime() - start) / 1_000_000);
+        log.info("Generated synthetic library with seed {}: {}", seed, stats);
+        return stats;
+    }
+
+    private void insertBooks(int chunk, Popularity popularity, LocalDate today) {
+        SplittableRandom random = random(BOOK_STREAM, chunk);
+        ZipfSampler categories = new ZipfSampler(CATEGORIES.length, zipfExponent);
+        int authors = Math.max(1, books / 8);
+        long[] ids = idRange(chunk, BOOKS_PER_CHUNK, books);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = ids[0]; id <= ids[1]; id++) {
+            int rank = popularity.rankOf(id);
+            int author = random.nextInt(authors);
+            String authorName = FIRST_NAMES[author % FIRST_NAMES.length] + " "
+                    + LAST_NAMES[(author / FIRST_NAMES.length) % LAST_NAMES.length];
+            String category = CATEGORIES[categories.sample(random) - 1];
+            // Best sellers are stocked deeper, though never deep enough to cover every loan
+            int copies = rank <= books / 100 ? 3 + random.nextInt(6)
+                    : rank <= books / 10 ? 2 + random.nextInt(3) : 1 + random.nextInt(2);
+            rows.add(new Object[]{
+                    id,
+                    "The " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)],
+                    authorName,
+                    String.format("979%010d", id),
+                    "A " + category.toLowerCase() + " title by " + authorName + ".",
+                    PUBLISHERS[random.nextInt(PUBLISHERS.length)],
+                    Date.valueOf(today.minusDays(365 + random.nextInt(365 * 40))),
+                    category,
+                    random.nextInt(5) == 0 ? LANGUAGES[random.nextInt(LANGUAGES.length)] : "English",
+                    80 + random.nextInt(720),
+                    (char) ('A' + random.nextInt(26)) + "-" + (1 + random.nextInt(40)),
+                    copies,
+                    copies,
+                    at(today.minusDays(historyDays + random.nextInt(365)), 9)});
+        }
+        transactionTemplate.executeWithoutResult(status -> insert(INSERT_BOOK_SQL, rows));
+    }
+
+    /**
+     * Writes one chunk of members together with everything they did, in one
+     * transaction. Each member gets id ranges of their own in every table, sized
+     * for the most rows they can have, so ids never depend on another chunk.
+     */
+    private void insertMembers(int chunk, Popularity popularity, LocalDate today) {
+        SplittableRandom random = random(MEMBER_STREAM, chunk);
+        long[] ids = idRange(chunk, MEMBERS_PER_CHUNK, members);
+        long firstSlot = (long) chunk * MEMBERS_PER_CHUNK;
+        int maxLoans = 4 * loansPerMember + MAX_ACTIVE_LOANS;
+        long loanId = firstSlot * maxLoans;
+        long readId = firstSlot * readsPerMember;
+        long wishId = firstSlot * 2 * wishesPerMember;
+        long reservationId = firstSlot * 2 * reservationsPerMember;
+
+        List<Object[]> memberRows = new ArrayList<>();
+        List<Object[]> loans = new ArrayList<>();
+        List<Object[]> fines = new ArrayList<>();
+        List<Object[]> reads = new ArrayList<>();
+        List<Object[]> wishes = new ArrayList<>();
+        List<Object[]> reservations = new ArrayList<>();
+
+        for (long memberId = ids[0]; memberId <= ids[1]; memberId++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            int typeRoll = random.nextInt(100);
+            String type = typeRoll < 60 ? "STANDARD" : typeRoll < 80 ? "STUDENT" : typeRoll < 90 ? "SENIOR" : "PREMIUM";
+            boolean active = random.nextInt(100) < 95;
+            LocalDate joined = today.minusDays(random.nextInt(historyDays + 365) + 1);
+            LocalDate expires = active ? today.plusDays(1 + random.nextInt(365)) : today.minusDays(1 + random.nextInt(180));
+            memberRows.add(new Object[]{
+                    memberId, firstName, lastName,
+                    (firstName + "." + lastName + "." + memberId + "@members.read4u.test").toLowerCase(),
+                    String.format("+44 7%03d %06d", random.nextInt(1000), random.nextInt(1_000_000)),
+                    (1 + random.nextInt(200)) + " " + NOUNS[random.nextInt(NOUNS.length)] + " Road",
+                    Date.valueOf(today.minusYears(16 + random.nextInt(70)).minusDays(random.nextInt(365))),
+                    // Ten digits, so never the eight hex characters MemberService hands out
+                    String.format("MEM%010d", memberId),
+                    type,
+                    Date.valueOf(joined),
+                    Date.valueOf(expires),
+                    maxBooks(type),
+                    active,
+                    at(joined, 10)});
+
+            // Historical loans, exponentially distributed so a few members borrow far more than the rest
+            Map<Long, LocalDate> returnedBooks = new LinkedHashMap<>();
+            LocalDate historyFrom = joined.isAfter(today.minusDays(historyDays)) ? joined : today.minusDays(historyDays);
+            int span = (int) ChronoUnit.DAYS.between(historyFrom, today.minusDays(borrowDays + 1));
+            int loanCount = span <= 0 ? 0
+                    : (int) Math.min(4L * loansPerMember, (long) (-loansPerMember * Math.log(1 - random.nextDouble())));
+            for (int i = 0; i < loanCount; i++) {
+                long bookId = popularity.sample(random);
+                LocalDate borrowed = historyFrom.plusDays(random.nextInt(span));
+                int renewals = random.nextInt(5) == 0 ? 1 + random.nextInt(Math.max(1, maxRenewals)) : 0;
+                LocalDate due = borrowed.plusDays(borrowDays + (long) renewals * renewalDays);
+                LocalDate returned = random.nextInt(100) < 12
+                        ? due.plusDays(1 + random.nextInt(30))
+                        : borrowed.plusDays(1 + random.nextInt((int) ChronoUnit.DAYS.between(borrowed, due)));
+                if (!returned.isBefore(today)) {
+                    returned = today.minusDays(1);
+                }
+                long daysLate = Math.max(0, ChronoUnit.DAYS.between(due, returned));
+                BigDecimal fine = daysLate > 0 ? overdueFine(daysLate) : null;
+                Boolean finePaid = fine != null ? random.nextInt(100) < 85 : null;
+
+                loanId++;
+                loans.add(new Object[]{loanId, bookId, memberId, Date.valueOf(borrowed), Date.valueOf(due),
+                        Date.valueOf(returned), "RETURNED", renewals, maxRenewals, fine, finePaid, at(borrowed, 11)});
+                if (fine != null) {
+                    LocalDate paidOn = returned.plusDays(random.nextInt(10));
+                    fines.add(new Object[]{loanId, memberId, loanId, fine, "Overdue by " + daysLate + " days", finePaid,
+                            finePaid ? at(paidOn.isBefore(today) ? paidOn : returned, 12) : null,
+                            finePaid ? PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)] : null,
+                            at(returned, 12)});
+                }
+                returnedBooks.putIfAbsent(bookId, returned);
+            }
+
+            // Current loans, within the member's limit and some already past due with their fine accrued
+            Set<Long> onLoan = new HashSet<>();
+            if (active && random.nextInt(100) < 35) {
+                int count = 1 + random.nextInt(Math.min(MAX_ACTIVE_LOANS, maxBooks(type)));
+                for (int i = 0; i < count; i++) {
+                    long bookId = popularity.sample(random);
+                    if (!onLoan.add(bookId)) {
+                        continue;
+                    }
+                    LocalDate borrowed = today.minusDays(random.nextInt(2 * borrowDays));
+                    LocalDate due = borrowed.plusDays(borrowDays);
+                    long daysOverdue = Math.max(0, ChronoUnit.DAYS.between(due, today));
+                    BigDecimal fine = daysOverdue > 0 ? overdueFine(daysOverdue) : null;
+
+                    loanId++;
+                    loans.add(new Object[]{loanId, bookId, memberId, Date.valueOf(borrowed), Date.valueOf(due), null,
+                            fine != null ? "OVERDUE" : "BORROWED", 0, maxRenewals, fine, fine != null ? false : null,
+                            at(borrowed, 11)});
+                    if (fine != null) {
+                        fines.add(new Object[]{loanId, memberId, loanId, fine, "Overdue by " + daysOverdue + " days",
+                                false, null, null, at(today.minusDays(1), 0)});
+                    }
+                }
+            }
+
+            // Reading history comes from what the member returned, one entry per title
+            int readCount = 0;
+            for (Map.Entry<Long, LocalDate> read : returnedBooks.entrySet()) {
+                if (readCount++ == readsPerMember) {
+                    break;
+                }
+                int ratingRoll = random.nextInt(100);
+                int rating = ratingRoll < 5 ? 1 : ratingRoll < 15 ? 2 : ratingRoll < 40 ? 3 : ratingRoll < 75 ? 4 : 5;
+                Timestamp completed = at(read.getValue(), 21);
+                reads.add(new Object[]{++readId, memberId, read.getKey(), completed, rating, rating >= 4, completed});
+            }
+
+            Set<Long> wished = new HashSet<>();
+            int wishCount = random.nextInt(2 * wishesPerMember + 1);
+            for (int i = 0; i < wishCount; i++) {
+                long bookId = popularity.sample(random);
+                if (onLoan.contains(bookId) || !wished.add(bookId)) {
+                    continue;
+                }
+                wishes.add(new Object[]{++wishId, memberId, bookId, random.nextInt(3), random.nextInt(10) < 7,
+                        at(historyFrom.plusDays(random.nextInt(Math.max(1, span))), 19)});
+            }
+
+            // Settled reservations only; open queues are built once the shelves are known
+            int reservationCount = span <= 0 ? 0 : random.nextInt(2 * reservationsPerMember + 1);
+            for (int i = 0; i < reservationCount; i++) {
+                LocalDateTime reserved = at(historyFrom.plusDays(random.nextInt(span)), 15).toLocalDateTime();
+                int statusRoll = random.nextInt(100);
+                String status = statusRoll < 60 ? "FULFILLED" : statusRoll < 85 ? "CANCELLED" : "EXPIRED";
+                LocalDateTime notified = status.equals("CANCELLED") ? null : reserved.plusDays(1 + random.nextInt(7));
+                reservations.add(new Object[]{++reservationId, popularity.sample(random), memberId,
+                        Timestamp.valueOf(reserved),
+                        notified != null ? Timestamp.valueOf(notified.plusDays(3)) : null,
+                        notified != null ? Timestamp.valueOf(notified) : null,
+                        status, null});
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(INSERT_MEMBER_SQL, memberRows);
+            insert(INSERT_BORROW_RECORD_SQL, loans);
+            insert(INSERT_FINE_SQL, fines);
+            insert(INSERT_READING_HISTORY_SQL, reads);
+            insert(INSERT_WISHLIST_ITEM_SQL, wishes);
+            insert(INSERT_RESERVATION_SQL, reservations);
+        });
+    }
+
+    /**
+     * Puts a short queue of pending reservations, positions 1..n, on every book
+     * with no copy left on the shelf.
+     */
+    private void insertQueues(long firstId, LocalDate today) {
+        List<Long> emptyShelves = jdbcTemplate.queryForList(
+                "SELECT id FROM books WHERE available_copies = 0 ORDER BY id", Long.class);
+        List<Long> activeMembers = jdbcTemplate.queryForList(
+                "SELECT id FROM members WHERE is_active = TRUE ORDER BY id", Long.class);
+        if (activeMembers.isEmpty()) {
+            return;
+        }
+
+        long reservationId = firstId;
+        List<Object[]> rows = new ArrayList<>();
+        for (long bookId : emptyShelves) {
+            SplittableRandom random = random(QUEUE_STREAM, bookId);
+            int length = Math.min(activeMembers.size(), 1 + random.nextInt(MAX_QUEUE_LENGTH));
+            Set<Long> queued = new HashSet<>();
+            while (queued.size() < length) {
+                long memberId = activeMembers.get(random.nextInt(activeMembers.size()));
+                if (queued.add(memberId)) {
+                    Timestamp reserved = at(today.minusDays(length - queued.size() + 1), 9 + queued.size());
+                    rows.add(new Object[]{reservationId++, bookId, memberId, reserved, null, null, "PENDING",
+                            queued.size()});
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> insert(INSERT_RESERVATION_SQL, rows));
+    }
+
+    /**
+     * Moves the key generators past the explicit ids, so rows the application
+     * creates afterwards don't collide with generated ones.
+     */
+    private void advanceKeys() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        // The pooled optimizer hands out the block below each value it reads, so skip a whole increment
+        long nextBorrowRecordId = maxId("borrow_records") + 1 + SEQUENCE_INCREMENT;
+        if ("H2".equals(product)) {
+            jdbcTemplate.execute("ALTER SEQUENCE borrow_records_seq RESTART WITH " + nextBorrowRecordId);
+            for (String table : GENERATED_TABLES) {
+                if (!table.equals("borrow_records")) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId(table) + 1));
+                }
+            }
+        } else if ("MySQL".equals(product)) {
+            // MySQL moves AUTO_INCREMENT past explicit ids by itself
+            jdbcTemplate.update("UPDATE borrow_records_seq SET next_val = ?", nextBorrowRecordId);
+        } else {
+            throw new RuntimeException("Don't know how to advance key generators on " + product);
+        }
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max != null ? max : 0;
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+    }
+
+    private void inParallel(ExecutorService pool, int chunks, IntConsumer task) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int c = chunk;
+            futures.add(pool.submit(() -> task.accept(c)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Data generation was interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Data generation failed", e.getCause());
+        }
+    }
+
+    private void phase(String name, Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        log.info("Generated {} in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * A random stream for one chunk of one table, independent of which thread
+     * runs it or in what order.
+     */
+    private SplittableRandom random(int stream, long key) {
+        return new SplittableRandom(mix(mix(seed ^ stream) ^ key));
+    }
+
+    // MurmurHash3's finaliser: nearby inputs give unrelated seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static int chunks(int rows, int perChunk) {
+        return (rows + perChunk - 1) / perChunk;
+    }
+
+    private static long[] idRange(int chunk, int perChunk, int rows) {
+        return new long[]{(long) chunk * perChunk + 1, Math.min(rows, (long) (chunk + 1) * perChunk)};
+    }
+
+    private BigDecimal overdueFine(long daysLate) {
+        return dailyFineRate.multiply(BigDecimal.valueOf(daysLate)).min(maxFinePerBook);
+    }
+
+    private static Timestamp at(LocalDate date, int hour) {
+        return Timestamp.valueOf(date.atTime(hour, 0));
+    }
+
+    private static int maxBooks(String membershipType) {
+        return switch (membershipType) {
+            case "PREMIUM" -> 10;
+            case "STUDENT" -> 7;
+            case "SENIOR" -> 8;
+            default -> 5;
+        };
+    }
+
+    /**
+     * Maps popularity ranks onto book ids through a multiplicative permutation,
+     * so the best sellers are spread over the id space rather than all sitting
+     * on the first keyset pages.
+     */
+    private static final class Popularity {
+
+        private final int n;
+        private final long step;
+        private final long inverse;
+        private final ZipfSampler zipf;
+
+        Popularity(int n, double exponent) {
+            this.n = n;
+            // A prime is coprime to n unless it divides it
+            this.step = n % 1_000_003 != 0 ? 1_000_003 : 999_983;
+            this.inverse = n == 1 ? 0 : BigInteger.valueOf(step % n).modInverse(BigInteger.valueOf(n)).longValue();
+            this.zipf = new ZipfSampler(n, exponent);
+        }
+
+        long sample(SplittableRandom random) {
+            return bookAt(zipf.sample(random));
+        }
+
+        long bookAt(int rank) {
+            return (rank - 1) * step % n + 1;
+        }
+
+        int rankOf(long bookId) {
+            return (int) ((bookId - 1) * inverse % n) + 1;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts second-level cache entries for rows written outside Hibernate's
+ * entity tracking: native counter updates and JDBC batches. Entries are
+ * evicted straight away, so the writing transaction re-reads the row, and
+ * again after commit, so a reader that cached the old row in between does
+ * not keep it.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictBook(Long id) {
+        evict(Book.class, List.of(id));
+    }
+
+    public void evictMember(Long id) {
+        evict(Member.class, List.of(id));
+    }
+
+    public void evictMembers(Collection<Long> ids) {
+        evict(Member.class, List.copyOf(ids));
+    }
+
+    public void evictAllBooks() {
+        entityManagerFactory.getCache().evict(Book.class);
+        AfterCommit.run(() -> entityManagerFactory.getCache().evict(Book.class));
+    }
+
+    private void evict(Class<?> type, List<Long> ids) {
+        ids.forEach(id -> entityManagerFactory.getCache().evict(type, id));
+        AfterCommit.run(() -> ids.forEach(id -> entityManagerFactory.getCache().evict(type, id)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.AvailabilityNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends one tab-separated line per notice: wishlist item, member, email,
+ * book and title. Meant for measuring the pipeline without a mail server.
+ */
+@Component
+@ConditionalOnProperty(name = "library.notifications.sink", havingValue = "file")
+public class FileNotificationSink implements NotificationSink {
+
+    private final Path file;
+
+    public FileNotificationSink(@Value("${library.notifications.file}") String file) {
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public synchronized void send(List<AvailabilityNotification> notifications) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (AvailabilityNotification n : notifications) {
+                    writer.write(n.getWishlistItemId() + "\t" + n.getMemberId() + "\t" + n.getEmail() + "\t"
+                            + n.getBookId() + "\t" + n.getBookTitle());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.asystems.read4u.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Append-only ledger of the money behind members' outstanding fines, in
+ * cents. Posting inserts the entries and moves each member's balance with
+ * one atomic increment, in the caller's transaction, so a committed balance
+ * is always the sum of the member's entries. The nightly reconciliation
+ * checks that in parallel chunks of members and resets any balance that
+ * has drifted, such as one written around the ledger.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FineLedger {
+
+    private static final String ADD_BALANCE_SQL =
+            "UPDATE members SET outstanding_fines = COALESCE(outstanding_fines, 0) + ? WHERE id = ?";
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO fine_ledger_entries (member_id, fine_id, entry_type, amount_cents, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FROM_FINES_SQL =
+            "INSERT INTO fine_ledger_entries (member_id, fine_id, entry_type, amount_cents, created_at) " +
+            "SELECT member_id, id, 'CHARGE', ROUND(amount * 100), COALESCE(created_at, CURRENT_TIMESTAMP) " +
+            "FROM fines WHERE member_id BETWEEN ? AND ? " +
+            "UNION ALL " +
+            "SELECT member_id, id, CASE WHEN payment_method LIKE 'WAIVED%' THEN 'WAIVER' ELSE 'PAYMENT' END, " +
+            "-ROUND(amount * 100), COALESCE(paid_at, created_at, CURRENT_TIMESTAMP) " +
+            "FROM fines WHERE member_id BETWEEN ? AND ? AND is_paid = TRUE";
+
+    private static final String MAX_MEMBER_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM members";
+
+    private static final String COMPARE_SQL =
+            "SELECT m.id, COALESCE(m.outstanding_fines, 0), COALESCE(l.cents, 0) FROM members m " +
+            "LEFT JOIN (SELECT member_id, SUM(amount_cents) AS cents FROM fine_ledger_entries " +
+            "WHERE member_id BETWEEN ? AND ? GROUP BY member_id) l ON l.member_id = m.id " +
+            "WHERE m.id BETWEEN ? AND ?";
+
+    private static final String LOCK_BALANCE_SQL =
+            "SELECT COALESCE(outstanding_fines, 0) FROM members WHERE id = ? FOR UPDATE";
+
+    private static final String MEMBER_SUM_SQL =
+            "SELECT COALESCE(SUM(amount_cents), 0) FROM fine_ledger_entries WHERE member_id = ?";
+
+    private static final String SET_BALANCE_SQL = "UPDATE members SET outstanding_fines = ? WHERE id = ?";
+
+    enum EntryType {
+        CHARGE, PAYMENT, WAIVER
+    }
+
+    /** Charges are positive cents, payments and waivers negative. */
+    record Entry(long memberId, Long fineId, EntryType type, long cents) {
+
+        static Entry charge(long memberId, Long fineId, BigDecimal amount) {
+            return new Entry(memberId, fineId, EntryType.CHARGE, FineLedger.cents(amount));
+        }
+
+        static Entry settlement(long memberId, Long fineId, EntryType type, BigDecimal amount) {
+            return new Entry(memberId, fineId, type, -FineLedger.cents(amount));
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    @Value("${library.fine.reconcile-chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${library.fine.reconcile-threads:4}")
+    private int threads;
+
+    void post(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // Sorted by member id so concurrent postings lock members in the same order
+        Map<Long, Long> deltas = new TreeMap<>();
+        entries.forEach(entry -> deltas.merge(entry.memberId(), entry.cents(), Long::sum));
+        List<Object[]> balanceUpdates = new ArrayList<>();
+        deltas.forEach((memberId, cents) -> balanceUpdates.add(new Object[]{BigDecimal.valueOf(cents, 2), memberId}));
+        jdbcTemplate.batchUpdate(ADD_BALANCE_SQL, balanceUpdates);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries.stream()
+                .map(entry -> new Object[]{entry.memberId(), entry.fineId(), entry.type().name(), entry.cents(), now})
+                .toList());
+        entityCacheEvictor.evictMembers(deltas.keySet());
+    }
+
+    /**
+     * Writes the entries for fines inserted around the ledger, for members
+     * whose balances are set from those fines in the same pass.
+     */
+    int recordExistingFines(long fromMemberId, long toMemberId) {
+        return jdbcTemplate.update(INSERT_FROM_FINES_SQL, fromMemberId, toMemberId, fromMemberId, toMemberId);
+    }
+
+    @Scheduled(cron = "${library.fine.reconcile-cron:0 30 3 * * *}")
+    public Map<String, Object> reconcile() {
+        long start = System.currentTimeMillis();
+        long maxMemberId = jdbcTemplate.queryForObject(MAX_MEMBER_ID_SQL, Long.class);
+        List<Future<long[]>> chunks = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long members = 0;
+        long corrected = 0;
+        try {
+            for (long from = 1; from <= maxMemberId; from += chunkSize) {
+                long to = Math.min(maxMemberId, from + chunkSize - 1);
+                long chunkFrom = from;
+                chunks.add(pool.submit(() -> reconcileChunk(chunkFrom, to)));
+            }
+            for (Future<long[]> chunk : chunks) {
+                members += chunk.get()[0];
+                corrected += chunk.get()[1];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Fine reconciliation was interrupted", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(f -> f.cancel(true));
+            throw new RuntimeException("Fine reconciliation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (corrected > 0) {
+            log.warn("Reset {} of {} member fine balances to their ledger totals in {} ms", corrected, members, durationMs);
+        } else {
+            log.info("Checked {} member fine balances against the ledger in {} ms", members, durationMs);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("members", members);
+        result.put("corrected", corrected);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    /**
+     * Compares a chunk of members without locks, then settles each apparent
+     * mismatch under the member's row lock, which postings hold until they
+     * commit. A posting in flight during the comparison shows up as a
+     * mismatch that the locked recheck finds gone.
+     */
+    private long[] reconcileChunk(long fromId, long toId) {
+        long[] members = {0};
+        List<Long> suspects = new ArrayList<>();
+        jdbcTemplate.query(COMPARE_SQL, rs -> {
+            members[0]++;
+            if (cents(rs.getBigDecimal(2)) != rs.getLong(3)) {
+                suspects.add(rs.getLong(1));
+            }
+        }, fromId, toId, fromId, toId);
+
+        long corrected = 0;
+        for (Long memberId : suspects) {
+            Boolean reset = transactionTemplate.execute(status -> {
+                long balance = cents(jdbcTemplate.queryForObject(LOCK_BALANCE_SQL, BigDecimal.class, memberId));
+                long ledger = jdbcTemplate.queryForObject(MEMBER_SUM_SQL, Long.class, memberId);
+                if (balance == ledger) {
+                    return false;
+                }
+                log.warn("Member {} fine balance was {} cents, ledger total is {} cents", memberId, balance, ledger);
+                jdbcTemplate.update(SET_BALANCE_SQL, BigDecimal.valueOf(ledger, 2), memberId);
+                entityCacheEvictor.evictMember(memberId);
+                return true;
+            });
+            if (Boolean.TRUE.equals(reset)) {
+                corrected++;
+            }
+        }
+        return new long[]{members[0], corrected};
+    }
+
+    static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+}
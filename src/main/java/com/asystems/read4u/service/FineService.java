@@ -1,110 +1,115 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.FineView;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.FineRepository;
 import com.asystems.read4u.repository.MemberRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
+@Observed(name = "library.service")
 @RequiredArgsConstructor
 public class FineService {
 
     private final FineRepository fineRepository;
     private final MemberRepository memberRepository;
+    private final CirculationEventLog circulationEventLog;
+    private final FineLedger fineLedger;
 
-    private static final double DAILY_FINE_RATE = 0.50;
-    private static final double MAX_FINE_PER_BOOK = 25.00;
+    private static final BigDecimal DAILY_FINE_RATE = new BigDecimal("0.50");
+    private static final BigDecimal MAX_FINE_PER_BOOK = new BigDecimal("25.00");
 
-    public Double calculateOverdueFine(BorrowRecord record) {
+    public BigDecimal calculateOverdueFine(BorrowRecord record) {
         if (!record.isOverdue()) {
-            return 0.0;
+            return BigDecimal.ZERO;
         }
 
         long daysOverdue = record.getDaysOverdue();
-        double fine = daysOverdue * DAILY_FINE_RATE;
+        BigDecimal fine = DAILY_FINE_RATE.multiply(BigDecimal.valueOf(daysOverdue));
 
-        return Math.min(fine, MAX_FINE_PER_BOOK);
+        return fine.min(MAX_FINE_PER_BOOK);
     }
 
     @Transactional
-    public Fine createFine(Member member, BorrowRecord borrowRecord, Double amount,
+    public Fine accrueOverdueFine(BorrowRecord record, Member member) {
+        long target = FineLedger.cents(calculateOverdueFine(record));
+        long accrued = record.getFineAmount() != null ? FineLedger.cents(record.getFineAmount()) : 0;
+        if (target <= accrued) {
+            return null;
+        }
+
+        record.setFineAmount(FineLedger.amount(target));
+        record.setFinePaid(false);
+        return createFine(member, record, FineLedger.amount(target - accrued), Fine.FineType.OVERDUE,
+                "Overdue by " + record.getDaysOverdue() + " days");
+    }
+
+    @Transactional
+    public Fine createFine(Member member, BorrowRecord borrowRecord, BigDecimal amount,
                            Fine.FineType fineType, String description) {
         Fine fine = Fine.builder()
                 .member(member)
                 .borrowRecord(borrowRecord)
-                .amount(amount)
+                .amount(FineLedger.amount(FineLedger.cents(amount)))
                 .fineType(fineType)
                 .description(description)
                 .build();
 
-        // Update member's outstanding fines
-        member.setOutstandingFines(member.getOutstandingFines() + amount);
-        memberRepository.save(member);
-
-        return fineRepository.save(fine);
+        Fine saved = fineRepository.save(fine);
+        fineLedger.post(List.of(FineLedger.Entry.charge(member.getId(), saved.getId(), saved.getAmount())));
+        circulationEventLog.append(CirculationEvent.fine(CirculationEvent.EventType.FINE_CHARGED, saved));
+        return saved;
     }
 
     @Transactional
     public Fine payFine(Long fineId, String paymentMethod) {
-        Fine fine = fineRepository.findById(fineId)
-                .orElseThrow(() -> new RuntimeException("Fine not found"));
-
-        if (fine.getIsPaid()) {
-            throw new RuntimeException("Fine is already paid");
-        }
-
-        fine.setIsPaid(true);
-        fine.setPaidAt(LocalDateTime.now());
-        fine.setPaymentMethod(paymentMethod);
-
-        // Update member's outstanding fines
-        Member member = fine.getMember();
-        member.setOutstandingFines(Math.max(0, member.getOutstandingFines() - fine.getAmount()));
-        memberRepository.save(member);
-
-        return fineRepository.save(fine);
+        return settle(fineId, paymentMethod, FineLedger.EntryType.PAYMENT, CirculationEvent.EventType.FINE_PAID);
     }
 
     @Transactional
     public void payAllFines(Long memberId, String paymentMethod) {
-        Member member = memberRepository.findById(memberId)
+        // The member lock holds off new charges, so the bulk update settles exactly the fines read here
+        Member member = memberRepository.findByIdForUpdate(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
         List<Fine> unpaidFines = fineRepository.findByMemberAndIsPaidFalse(member);
-
-        for (Fine fine : unpaidFines) {
-            fine.setIsPaid(true);
-            fine.setPaidAt(LocalDateTime.now());
-            fine.setPaymentMethod(paymentMethod);
-            fineRepository.save(fine);
+        if (unpaidFines.isEmpty()) {
+            return;
         }
-
-        member.setOutstandingFines(0.0);
-        memberRepository.save(member);
+        fineRepository.settleUnpaid(memberId, LocalDateTime.now(), paymentMethod);
+
+        fineLedger.post(unpaidFines.stream()
+                .map(fine -> FineLedger.Entry.settlement(memberId, fine.getId(), FineLedger.EntryType.PAYMENT,
+                        fine.getAmount()))
+                .toList());
+        circulationEventLog.appendAll(unpaidFines.stream()
+                .map(fine -> CirculationEvent.fine(CirculationEvent.EventType.FINE_PAID, fine)).toList());
     }
 
-    public List<Fine> getUnpaidFines(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<FineView> getUnpaidFines(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return fineRepository.findByMemberAndIsPaidFalse(member);
+        return fineRepository.findViewsByMember(memberId, true);
     }
 
-    public List<Fine> getAllFines(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<FineView> getAllFines(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return fineRepository.findByMember(member);
+        return fineRepository.findViewsByMember(memberId, false);
     }
 
-    public Double getTotalUnpaidFines(Long memberId) {
+    public BigDecimal getTotalUnpaidFines(Long memberId) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        Double total = fineRepository.getTotalUnpaidFines(member);
-        return total != null ? total : 0.0;
+        BigDecimal total = fineRepository.getTotalUnpaidFines(member);
+        return total != null ? total : BigDecimal.ZERO;
     }
 
     public List<Fine> getAllUnpaidFines() {
@@ -113,6 +118,15 @@ public class FineService {
 
     @Transactional
     public Fine waiveFine(Long fineId, String reason) {
+        return settle(fineId, "WAIVED: " + reason, FineLedger.EntryType.WAIVER, CirculationEvent.EventType.FINE_WAIVED);
+    }
+
+    private Fine settle(Long fineId, String paymentMethod, FineLedger.EntryType entryType,
+                        CirculationEvent.EventType eventType) {
+        // Settlements lock the member first, so two of them cannot both find the fine unpaid
+        Long memberId = fineRepository.findMemberIdById(fineId)
+                .orElseThrow(() -> new RuntimeException("Fine not found"));
+        memberRepository.findByIdForUpdate(memberId);
         Fine fine = fineRepository.findById(fineId)
                 .orElseThrow(() -> new RuntimeException("Fine not found"));
 
@@ -120,24 +134,20 @@ public class FineService {
             throw new RuntimeException("Fine is already paid");
         }
 
-        // Update member's outstanding fines
-        Member member = fine.getMember();
-        member.setOutstandingFines(Math.max(0, member.getOutstandingFines() - fine.getAmount()));
-        memberRepository.save(member);
-
-        // Mark as paid (waived)
         fine.setIsPaid(true);
         fine.setPaidAt(LocalDateTime.now());
-        fine.setPaymentMethod("WAIVED: " + reason);
+        fine.setPaymentMethod(paymentMethod);
 
+        fineLedger.post(List.of(FineLedger.Entry.settlement(memberId, fineId, entryType, fine.getAmount())));
+        circulationEventLog.append(CirculationEvent.fine(eventType, fine));
         return fineRepository.save(fine);
     }
 
-    public double getDailyFineRate() {
+    public BigDecimal getDailyFineRate() {
         return DAILY_FINE_RATE;
     }
 
-    public double getMaxFinePerBook() {
+    public BigDecimal getMaxFinePerBook() {
         return MAX_FINE_PER_BOOK;
     }
 }
@@ -0,0 +1,160 @@
+package com.asystems.read4u.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Available copies per book id in an open-addressed table of primitive
+ * slots. Taking and releasing a copy is a CAS on the book's slot. Adding a
+ * book is locked; growing the table moves each count with an atomic swap
+ * to a marker, so an update racing the move fails its CAS and is retried
+ * on the new table rather than lost.
+ */
+final class InventoryLedger {
+
+    static final int TAKEN = 1;
+    static final int EXHAUSTED = 0;
+    static final int UNKNOWN = -1;
+
+    private static final int MOVED = Integer.MIN_VALUE;
+    // Book ids start at 1, so 0 marks an empty slot
+    private static final long EMPTY = 0;
+
+    private volatile Table table;
+    private int size;
+
+    InventoryLedger(int expectedBooks) {
+        table = new Table(Integer.highestOneBit(Math.max(16, expectedBooks * 2 - 1)) << 1);
+    }
+
+    /** One of TAKEN, EXHAUSTED or UNKNOWN when the book has no slot yet. */
+    int tryTake(long bookId) {
+        while (true) {
+            Table current = table;
+            int slot = current.find(bookId);
+            if (slot < 0) {
+                return UNKNOWN;
+            }
+            int copies = current.counts.get(slot);
+            if (copies == MOVED) {
+                continue;
+            }
+            if (copies <= 0) {
+                return EXHAUSTED;
+            }
+            if (current.counts.compareAndSet(slot, copies, copies - 1)) {
+                return TAKEN;
+            }
+        }
+    }
+
+    /** Adds to a known book's count. Returns false when the book has no slot. */
+    boolean add(long bookId, int delta) {
+        return update(bookId, copies -> copies + delta);
+    }
+
+    /** The count, or UNKNOWN when the book has no slot. */
+    int available(long bookId) {
+        while (true) {
+            Table current = table;
+            int slot = current.find(bookId);
+            if (slot < 0) {
+                return UNKNOWN;
+            }
+            int copies = current.counts.get(slot);
+            if (copies != MOVED) {
+                return copies;
+            }
+        }
+    }
+
+    /** Sets the count, adding the book if it has no slot. */
+    void put(long bookId, int copies) {
+        if (update(bookId, ignored -> copies)) {
+            return;
+        }
+        synchronized (this) {
+            if (update(bookId, ignored -> copies)) {
+                return;
+            }
+            if ((size + 1) * 2 > table.keys.length()) {
+                table = grow(table);
+            }
+            table.insert(bookId, copies);
+            size++;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private boolean update(long bookId, IntUnaryOperator change) {
+        while (true) {
+            Table current = table;
+            int slot = current.find(bookId);
+            if (slot < 0) {
+                return false;
+            }
+            int copies = current.counts.get(slot);
+            if (copies == MOVED) {
+                continue;
+            }
+            if (current.counts.compareAndSet(slot, copies, change.applyAsInt(copies))) {
+                return true;
+            }
+        }
+    }
+
+    private static Table grow(Table old) {
+        Table next = new Table(old.keys.length() * 2);
+        for (int slot = 0; slot < old.keys.length(); slot++) {
+            long bookId = old.keys.get(slot);
+            if (bookId != EMPTY) {
+                next.insert(bookId, old.counts.getAndSet(slot, MOVED));
+            }
+        }
+        return next;
+    }
+
+    private static final class Table {
+
+        final AtomicLongArray keys;
+        final AtomicIntegerArray counts;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            counts = new AtomicIntegerArray(capacity);
+            mask = capacity - 1;
+        }
+
+        int find(long bookId) {
+            for (int slot = hash(bookId) & mask; ; slot = (slot + 1) & mask) {
+                long key = keys.get(slot);
+                if (key == bookId) {
+                    return slot;
+                }
+                if (key == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        // The count is written before the key, so a reader that finds the key sees the count
+        void insert(long bookId, int copies) {
+            int slot = hash(bookId) & mask;
+            while (keys.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            counts.set(slot, copies);
+            keys.set(slot, bookId);
+        }
+
+        private static int hash(long bookId) {
+            long h = bookId * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
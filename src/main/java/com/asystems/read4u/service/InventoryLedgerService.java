@@ -0,0 +1,125 @@
+package com.asystems.read4u.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory count of the copies on the shelf per book, checked before a
+ * checkout claims a copy in the database, so a book that is out is refused
+ * without touching its row. The books table stays authoritative: a take
+ * here is only an admission, and the conditional update still decides.
+ *
+ * A book's count is read with its row locked the first time it is needed,
+ * and kept in step by the circulation writes of this instance. Changes made
+ * by other instances or by hand are not seen, so leave the ledger disabled
+ * when several instances share a database.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryLedgerService {
+
+    private static final String LOCK_COPIES_SQL = "SELECT available_copies FROM books WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${library.inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.inventory.ledger.expected-books:4096}")
+    private int expectedBooks;
+
+    private InventoryLedger ledger;
+    private Counter refusals;
+
+    @PostConstruct
+    void init() {
+        ledger = new InventoryLedger(expectedBooks);
+        refusals = Counter.builder("library.inventory.ledger.refusals")
+                .description("Checkouts refused by the ledger without a database update").register(meterRegistry);
+        Gauge.builder("library.inventory.ledger.books", ledger, InventoryLedger::size)
+                .description("Books with a count in the inventory ledger").register(meterRegistry);
+    }
+
+    /**
+     * Takes a copy for a checkout in the current transaction. False when the
+     * book is known to be out; true otherwise, including for books that do
+     * not exist, which the caller reports. A taken copy is given back if the
+     * transaction rolls back.
+     */
+    boolean take(Long bookId) {
+        if (!enabled) {
+            return true;
+        }
+        int result = ledger.tryTake(bookId);
+        if (result == InventoryLedger.UNKNOWN) {
+            if (!load(bookId)) {
+                return true;
+            }
+            result = ledger.tryTake(bookId);
+        }
+        if (result == InventoryLedger.EXHAUSTED) {
+            refusals.increment();
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ledger.add(bookId, 1);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Called when the database refused a copy the ledger admitted. Reloads
+     * the count with the row locked, less the copy the rollback gives back.
+     */
+    void refused(Long bookId) {
+        if (enabled && load(bookId)) {
+            ledger.add(bookId, -1);
+        }
+    }
+
+    /**
+     * Applies committed changes to the copies on the shelf, by book id.
+     */
+    void adjust(Map<Long, Integer> changes) {
+        if (enabled && !changes.isEmpty()) {
+            AfterCommit.run(() -> changes.forEach((bookId, delta) -> ledger.add(bookId, delta)));
+        }
+    }
+
+    void adjust(Long bookId, int delta) {
+        adjust(Map.of(bookId, delta));
+    }
+
+    /** The ledger's count, or null when the book has none. */
+    Integer available(Long bookId) {
+        int copies = ledger.available(bookId);
+        return copies == InventoryLedger.UNKNOWN ? null : copies;
+    }
+
+    // The row lock holds off returns until the transaction ends, so none can commit between the read and the put
+    private boolean load(Long bookId) {
+        List<Integer> copies = jdbcTemplate.queryForList(LOCK_COPIES_SQL, Integer.class, bookId);
+        if (copies.isEmpty()) {
+            return false;
+        }
+        ledger.put(bookId, copies.get(0));
+        return true;
+    }
+}
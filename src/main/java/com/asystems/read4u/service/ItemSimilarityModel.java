@@ -0,0 +1,501 @@
+package com.asystems.read4u.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Item-to-item co-borrow model. Member profiles and the top-K neighbour table
+ * are CSR arrays over dense indices, so a model over millions of interactions
+ * is a handful of primitive arrays and serving never boxes or allocates maps.
+ */
+final class ItemSimilarityModel {
+
+    // Damps similarities backed by only a few shared readers
+    private static final double SHRINKAGE = 5.0;
+    private static final float MIN_WEIGHT = 0.1f;
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final long[] bookIds;
+    private final int[] neighbourOffsets;
+    private final int[] neighbours;
+    private final float[] neighbourScores;
+
+    private final long[] memberIds;
+    private final int[] profileOffsets;
+    private final int[] profileItems;
+    private final float[] profileWeights;
+
+    private ItemSimilarityModel(long[] bookIds, int[] neighbourOffsets, int[] neighbours, float[] neighbourScores,
+                                long[] memberIds, int[] profileOffsets, int[] profileItems, float[] profileWeights) {
+        this.bookIds = bookIds;
+        this.neighbourOffsets = neighbourOffsets;
+        this.neighbours = neighbours;
+        this.neighbourScores = neighbourScores;
+        this.memberIds = memberIds;
+        this.profileOffsets = profileOffsets;
+        this.profileItems = profileItems;
+        this.profileWeights = profileWeights;
+    }
+
+    /**
+     * Builds the model from raw (member, book, weight) rows. Repeated rows for
+     * the same pair are summed; members with more than
+     * {@code maxItemsPerMember} books keep their profile but are left out of
+     * the similarity pass, where their rows would dominate the cost.
+     */
+    static ItemSimilarityModel build(Interactions interactions, int neighboursPerItem, int maxItemsPerMember,
+                                     ForkJoinPool pool) {
+        long[] memberIds = distinct(interactions.members, interactions.size);
+        long[] bookIds = distinct(interactions.books, interactions.size);
+
+        // Group rows by member, packing (item, weight) into a long so each row sorts as primitives
+        int[] rowOffsets = new int[memberIds.length + 1];
+        int[] rowMember = new int[interactions.size];
+        for (int r = 0; r < interactions.size; r++) {
+            rowMember[r] = Arrays.binarySearch(memberIds, interactions.members[r]);
+            rowOffsets[rowMember[r] + 1]++;
+        }
+        prefixSum(rowOffsets);
+        int[] cursor = Arrays.copyOf(rowOffsets, memberIds.length);
+        long[] packed = new long[interactions.size];
+        for (int r = 0; r < interactions.size; r++) {
+            int item = Arrays.binarySearch(bookIds, interactions.books[r]);
+            packed[cursor[rowMember[r]]++] = pack(item, interactions.weights[r]);
+        }
+
+        int[] rowLengths = new int[memberIds.length];
+        pool.invoke(new MergeRows(packed, rowOffsets, rowLengths, 0, memberIds.length));
+
+        int[] profileOffsets = new int[memberIds.length + 1];
+        for (int m = 0; m < memberIds.length; m++) {
+            profileOffsets[m + 1] = profileOffsets[m] + rowLengths[m];
+        }
+        int[] profileItems = new int[profileOffsets[memberIds.length]];
+        float[] profileWeights = new float[profileItems.length];
+        for (int m = 0; m < memberIds.length; m++) {
+            for (int p = 0; p < rowLengths[m]; p++) {
+                long value = packed[rowOffsets[m] + p];
+                profileItems[profileOffsets[m] + p] = unpackItem(value);
+                profileWeights[profileOffsets[m] + p] = Math.max(MIN_WEIGHT, unpackWeight(value));
+            }
+        }
+
+        // Transpose to item columns for the similarity pass
+        int[] columnOffsets = new int[bookIds.length + 1];
+        for (int m = 0; m < memberIds.length; m++) {
+            if (rowLengths[m] <= maxItemsPerMember) {
+                for (int p = profileOffsets[m]; p < profileOffsets[m + 1]; p++) {
+                    columnOffsets[profileItems[p] + 1]++;
+                }
+            }
+        }
+        prefixSum(columnOffsets);
+        int[] columnMembers = new int[columnOffsets[bookIds.length]];
+        float[] columnWeights = new float[columnMembers.length];
+        double[] norms = new double[bookIds.length];
+        int[] columnCursor = Arrays.copyOf(columnOffsets, bookIds.length);
+        for (int m = 0; m < memberIds.length; m++) {
+            if (rowLengths[m] <= maxItemsPerMember) {
+                for (int p = profileOffsets[m]; p < profileOffsets[m + 1]; p++) {
+                    int item = profileItems[p];
+                    columnMembers[columnCursor[item]] = m;
+                    columnWeights[columnCursor[item]++] = profileWeights[p];
+                    norms[item] += (double) profileWeights[p] * profileWeights[p];
+                }
+            }
+        }
+        for (int i = 0; i < norms.length; i++) {
+            norms[i] = Math.sqrt(norms[i]);
+        }
+
+        int[] neighbourCounts = new int[bookIds.length];
+        int[] slots = new int[bookIds.length * neighboursPerItem];
+        float[] slotScores = new float[slots.length];
+        pool.invoke(new Similarities(new SimilarityInput(profileOffsets, profileItems, profileWeights,
+                columnOffsets, columnMembers, columnWeights, norms, neighboursPerItem),
+                neighbourCounts, slots, slotScores, 0, bookIds.length));
+
+        int[] neighbourOffsets = new int[bookIds.length + 1];
+        for (int i = 0; i < bookIds.length; i++) {
+            neighbourOffsets[i + 1] = neighbourOffsets[i] + neighbourCounts[i];
+        }
+        int[] neighbours = new int[neighbourOffsets[bookIds.length]];
+        float[] neighbourScores = new float[neighbours.length];
+        for (int i = 0; i < bookIds.length; i++) {
+            System.arraycopy(slots, i * neighboursPerItem, neighbours, neighbourOffsets[i], neighbourCounts[i]);
+            System.arraycopy(slotScores, i * neighboursPerItem, neighbourScores, neighbourOffsets[i], neighbourCounts[i]);
+        }
+
+        return new ItemSimilarityModel(bookIds, neighbourOffsets, neighbours, neighbourScores,
+                memberIds, profileOffsets, profileItems, profileWeights);
+    }
+
+    boolean hasMember(long memberId) {
+        return Arrays.binarySearch(memberIds, memberId) >= 0;
+    }
+
+    long[] similar(long bookId, int limit) {
+        int item = Arrays.binarySearch(bookIds, bookId);
+        if (item < 0) {
+            return new long[0];
+        }
+        int from = neighbourOffsets[item];
+        long[] ids = new long[Math.min(limit, neighbourOffsets[item + 1] - from)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bookIds[neighbours[from + i]];
+        }
+        return ids;
+    }
+
+    /**
+     * Scores every neighbour of the member's books by the member's weight times
+     * the similarity, summed across the books that share it.
+     */
+    long[] recommend(long memberId, int limit) {
+        int member = Arrays.binarySearch(memberIds, memberId);
+        if (member < 0) {
+            return new long[0];
+        }
+        int from = profileOffsets[member];
+        int to = profileOffsets[member + 1];
+
+        int total = 0;
+        for (int p = from; p < to; p++) {
+            total += neighbourOffsets[profileItems[p] + 1] - neighbourOffsets[profileItems[p]];
+        }
+        long[] candidates = new long[total];
+        int n = 0;
+        for (int p = from; p < to; p++) {
+            int item = profileItems[p];
+            for (int q = neighbourOffsets[item]; q < neighbourOffsets[item + 1]; q++) {
+                candidates[n++] = pack(neighbours[q], profileWeights[p] * neighbourScores[q]);
+            }
+        }
+        Arrays.sort(candidates);
+
+        TopK top = new TopK(limit);
+        for (int c = 0; c < n; ) {
+            int item = unpackItem(candidates[c]);
+            float score = 0;
+            for (; c < n && unpackItem(candidates[c]) == item; c++) {
+                score += unpackWeight(candidates[c]);
+            }
+            if (Arrays.binarySearch(profileItems, from, to, item) < 0) {
+                top.offer(item, score);
+            }
+        }
+
+        int[] items = new int[top.size()];
+        top.drain(items, new float[items.length], 0);
+        long[] ids = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ids[i] = bookIds[items[i]];
+        }
+        return ids;
+    }
+
+    int bookCount() {
+        return bookIds.length;
+    }
+
+    int memberCount() {
+        return memberIds.length;
+    }
+
+    int interactionCount() {
+        return profileItems.length;
+    }
+
+    int neighbourCount() {
+        return neighbours.length;
+    }
+
+    private static long pack(int item, float weight) {
+        return ((long) item << 32) | (Float.floatToRawIntBits(weight) & 0xffffffffL);
+    }
+
+    private static int unpackItem(long value) {
+        return (int) (value >>> 32);
+    }
+
+    private static float unpackWeight(long value) {
+        return Float.intBitsToFloat((int) value);
+    }
+
+    private static long[] distinct(long[] values, int size) {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.parallelSort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[n - 1] != sorted[i]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+
+    private static void prefixSum(int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+
+    /**
+     * Growable buffer of raw interaction rows.
+     */
+    static final class Interactions {
+
+        private long[] members = new long[1024];
+        private long[] books = new long[1024];
+        private float[] weights = new float[1024];
+        private int size;
+
+        void add(long memberId, long bookId, float weight) {
+            if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+                books = Arrays.copyOf(books, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            members[size] = memberId;
+            books[size] = bookId;
+            weights[size] = weight;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Sorts each member's segment by item and sums repeated items in place,
+     * recording the merged length.
+     */
+    private static final class MergeRows extends RecursiveAction {
+
+        private final long[] packed;
+        private final int[] rowOffsets;
+        private final int[] rowLengths;
+        private final int from;
+        private final int to;
+
+        private MergeRows(long[] packed, int[] rowOffsets, int[] rowLengths, int from, int to) {
+            this.packed = packed;
+            this.rowOffsets = rowOffsets;
+            this.rowLengths = rowLengths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD * 16) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MergeRows(packed, rowOffsets, rowLengths, from, mid),
+                        new MergeRows(packed, rowOffsets, rowLengths, mid, to));
+                return;
+            }
+            for (int m = from; m < to; m++) {
+                int start = rowOffsets[m];
+                int end = rowOffsets[m + 1];
+                Arrays.sort(packed, start, end);
+                int n = start;
+                for (int p = start; p < end; p++) {
+                    if (n > start && unpackItem(packed[n - 1]) == unpackItem(packed[p])) {
+                        packed[n - 1] = pack(unpackItem(packed[p]),
+                                unpackWeight(packed[n - 1]) + unpackWeight(packed[p]));
+                    } else {
+                        packed[n++] = packed[p];
+                    }
+                }
+                rowLengths[m] = n - start;
+            }
+        }
+    }
+
+    private record SimilarityInput(int[] rowOffsets, int[] rowItems, float[] rowWeights,
+                                   int[] columnOffsets, int[] columnMembers, float[] columnWeights,
+                                   double[] norms, int neighboursPerItem, ThreadLocal<Scratch> scratch) {
+
+        private SimilarityInput(int[] rowOffsets, int[] rowItems, float[] rowWeights,
+                                int[] columnOffsets, int[] columnMembers, float[] columnWeights,
+                                double[] norms, int neighboursPerItem) {
+            this(rowOffsets, rowItems, rowWeights, columnOffsets, columnMembers, columnWeights, norms,
+                    neighboursPerItem, ThreadLocal.withInitial(() -> new Scratch(norms.length, neighboursPerItem)));
+        }
+    }
+
+    /**
+     * Per-worker accumulators, sized to the catalogue and reused across leaves.
+     */
+    private static final class Scratch {
+
+        private final double[] dot;
+        private final int[] support;
+        private final int[] touched;
+        private final TopK top;
+
+        private Scratch(int items, int neighboursPerItem) {
+            this.dot = new double[items];
+            this.support = new int[items];
+            this.touched = new int[items];
+            this.top = new TopK(neighboursPerItem);
+        }
+    }
+
+    /**
+     * Computes the top-K shrunk cosine neighbours for a range of items. Leaves
+     * write only their own items' slots, so no result needs merging.
+     */
+    private static final class Similarities extends RecursiveAction {
+
+        private final SimilarityInput input;
+        private final int[] counts;
+        private final int[] slots;
+        private final float[] slotScores;
+        private final int from;
+        private final int to;
+
+        private Similarities(SimilarityInput input, int[] counts, int[] slots, float[] slotScores, int from, int to) {
+            this.input = input;
+            this.counts = counts;
+            this.slots = slots;
+            this.slotScores = slotScores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Similarities(input, counts, slots, slotScores, from, mid),
+                        new Similarities(input, counts, slots, slotScores, mid, to));
+                return;
+            }
+
+            Scratch scratch = input.scratch().get();
+            double[] dot = scratch.dot;
+            int[] support = scratch.support;
+            int[] touched = scratch.touched;
+            TopK top = scratch.top;
+            for (int i = from; i < to; i++) {
+                int touchedCount = 0;
+                for (int c = input.columnOffsets()[i]; c < input.columnOffsets()[i + 1]; c++) {
+                    int member = input.columnMembers()[c];
+                    double weight = input.columnWeights()[c];
+                    for (int p = input.rowOffsets()[member]; p < input.rowOffsets()[member + 1]; p++) {
+                        int j = input.rowItems()[p];
+                        if (j == i) {
+                            continue;
+                        }
+                        if (support[j]++ == 0) {
+                            touched[touchedCount++] = j;
+                        }
+                        dot[j] += weight * input.rowWeights()[p];
+                    }
+                }
+
+                top.clear();
+                for (int t = 0; t < touchedCount; t++) {
+                    int j = touched[t];
+                    double cosine = dot[j] / (input.norms()[i] * input.norms()[j]);
+                    top.offer(j, (float) (cosine * support[j] / (support[j] + SHRINKAGE)));
+                    dot[j] = 0;
+                    support[j] = 0;
+                }
+                counts[i] = top.size();
+                top.drain(slots, slotScores, i * input.neighboursPerItem());
+            }
+        }
+    }
+
+    /**
+     * Bounded min-heap over parallel primitive arrays.
+     */
+    private static final class TopK {
+
+        private final int[] items;
+        private final float[] scores;
+        private int size;
+
+        private TopK(int capacity) {
+            this.items = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int item, float score) {
+            if (size < items.length) {
+                items[size] = item;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && score > scores[0]) {
+                items[0] = item;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Empties the heap into the arrays at the offset, highest score first.
+         */
+        void drain(int[] outItems, float[] outScores, int offset) {
+            for (int i = size - 1; i >= 0; i--) {
+                outItems[offset + i] = items[0];
+                outScores[offset + i] = scores[0];
+                size--;
+                items[0] = items[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps the circulation journal, the long-term audit trail of circulation
+ * changes, as a consumer of the event log. The journal lives on local disk
+ * rather than in the database, and outlives the log's pruning.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.journal.enabled", havingValue = "true")
+public class JournalEventConsumer implements CirculationEventConsumer {
+
+    @Value("${library.journal.dir}")
+    private String dir;
+
+    @Value("${library.journal.records-per-segment:131072}")
+    private int recordsPerSegment;
+
+    @Value("${library.journal.sync:batch}")
+    private String sync;
+
+    @Value("${library.events.gap-expiry-minutes:60}")
+    private long gapExpiryMinutes;
+
+    @Value("${library.journal.retention-days:365}")
+    private int retentionDays;
+
+    private CirculationJournal.SyncPolicy syncPolicy;
+    private CirculationJournal journal;
+
+    @PostConstruct
+    void open() {
+        syncPolicy = CirculationJournal.SyncPolicy.valueOf(sync.toUpperCase(Locale.ROOT));
+        journal = new CirculationJournal(Path.of(dir), recordsPerSegment, syncPolicy,
+                Duration.ofMinutes(gapExpiryMinutes));
+        log.info("Circulation journal at {} resumes after event {}", dir, journal.lastEventId());
+    }
+
+    @PreDestroy
+    void close() {
+        journal.close();
+    }
+
+    @Override
+    public String name() {
+        return "journal";
+    }
+
+    // With the batch policy the records are on disk before the relay moves this consumer's offset
+    @Override
+    public void accept(List<CirculationEvent> events) {
+        journal.append(events);
+    }
+
+    @Scheduled(fixedDelayString = "${library.journal.sync-interval-ms:1000}")
+    public void sync() {
+        if (syncPolicy == CirculationJournal.SyncPolicy.INTERVAL) {
+            journal.sync();
+        }
+    }
+
+    @Scheduled(cron = "${library.journal.prune-cron:0 20 3 * * *}")
+    public int prune() {
+        int deleted = journal.prune(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            log.info("Deleted {} circulation journal segments older than {} days", deleted, retentionDays);
+        }
+        return deleted;
+    }
+
+    public Map<String, Object> replay() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> result = new LinkedHashMap<>(JournalReplay.of(Path.of(dir)).summary());
+        result.put("segments", journal.segmentCount());
+        result.put("durationMs", System.currentTimeMillis() - start);
+        return result;
+    }
+}
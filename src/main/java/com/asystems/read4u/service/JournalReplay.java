@@ -0,0 +1,122 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Circulation state rebuilt from the journal alone. Copy counts are changes
+ * since the first journaled event, since the starting inventory is not in
+ * the journal: a book's available copies are its copies at that point plus
+ * {@link #availableChange}. Fines and queues are exact when the journal
+ * goes back to before the member's first fine or the book's first hold.
+ *
+ * Run as a tool with the journal directory as its argument to print the
+ * rebuilt state without starting the application.
+ */
+final class JournalReplay {
+
+    final Map<Long, Long> availableChange = new TreeMap<>();
+    final Map<Long, Long> onLoan = new TreeMap<>();
+    final Map<Long, Long> lost = new TreeMap<>();
+    // In cents, as the fine ledger keeps them, so long journals add up exactly
+    final Map<Long, Long> outstandingFines = new TreeMap<>();
+    // Pending reservation ids per book in queue order, so a hold's position is its index plus one
+    final Map<Long, List<Long>> queues = new TreeMap<>();
+
+    long events;
+    long lastEventId;
+
+    static JournalReplay of(Path dir) {
+        JournalReplay replay = new JournalReplay();
+        CirculationJournal.read(dir, 0, replay::apply);
+        return replay;
+    }
+
+    void apply(CirculationEvent event) {
+        events++;
+        // An event that committed late is journaled after higher ids
+        lastEventId = Math.max(lastEventId, event.getId());
+        Long bookId = event.getBookId();
+        switch (event.getType()) {
+            case BORROWED -> {
+                add(availableChange, bookId, -1);
+                add(onLoan, bookId, 1);
+            }
+            case RETURNED -> {
+                add(availableChange, bookId, 1);
+                add(onLoan, bookId, -1);
+            }
+            // The copy stays out of the available count and leaves the stock
+            case LOST -> {
+                add(onLoan, bookId, -1);
+                add(lost, bookId, 1);
+            }
+            case RESERVED -> queues.computeIfAbsent(bookId, id -> new ArrayList<>()).add(event.getReservationId());
+            // Cancelling an offered hold finds nothing in the queue, which is correct
+            case RESERVATION_CANCELLED, RESERVATION_READY, RESERVATION_FULFILLED -> {
+                List<Long> queue = queues.get(bookId);
+                if (queue != null) {
+                    queue.remove(event.getReservationId());
+                }
+            }
+            case FINE_CHARGED -> outstandingFines.merge(event.getMemberId(), FineLedger.cents(event.getAmount()), Long::sum);
+            case FINE_PAID, FINE_WAIVED ->
+                    outstandingFines.merge(event.getMemberId(), -FineLedger.cents(event.getAmount()), Long::sum);
+            case RENEWED, RESERVATION_EXPIRED -> {
+            }
+        }
+    }
+
+    int queuePosition(Long bookId, Long reservationId) {
+        List<Long> queue = queues.getOrDefault(bookId, List.of());
+        return queue.indexOf(reservationId) + 1;
+    }
+
+    BigDecimal outstandingFine(Long memberId) {
+        return FineLedger.amount(outstandingFines.getOrDefault(memberId, 0L));
+    }
+
+    Map<String, Object> summary() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("events", events);
+        result.put("lastEventId", lastEventId);
+        result.put("booksOnLoan", onLoan.values().stream().filter(n -> n > 0).count());
+        result.put("copiesOnLoan", onLoan.values().stream().mapToLong(Long::longValue).sum());
+        result.put("copiesLost", lost.values().stream().mapToLong(Long::longValue).sum());
+        result.put("membersWithFines", outstandingFines.values().stream().filter(cents -> cents > 0).count());
+        result.put("outstandingFines", FineLedger.amount(outstandingFines.values().stream()
+                .mapToLong(Long::longValue).sum()));
+        result.put("pendingReservations", queues.values().stream().mapToInt(List::size).sum());
+        return result;
+    }
+
+    private static void add(Map<Long, Long> counts, Long bookId, long delta) {
+        counts.merge(bookId, delta, Long::sum);
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: JournalReplay <journal directory>");
+            System.exit(2);
+        }
+        JournalReplay replay = of(Path.of(args[0]));
+        replay.summary().forEach((key, value) -> System.out.println(key + ": " + value));
+        System.out.println();
+        System.out.println("book\tavailable-change\ton-loan\tlost\tqueue");
+        Set<Long> books = new TreeSet<>(replay.availableChange.keySet());
+        books.addAll(replay.lost.keySet());
+        books.addAll(replay.queues.keySet());
+        for (Long bookId : books) {
+            System.out.println(bookId + "\t" + replay.availableChange.getOrDefault(bookId, 0L)
+                    + "\t" + replay.onLoan.getOrDefault(bookId, 0L) + "\t" + replay.lost.getOrDefault(bookId, 0L)
+                    + "\t" + replay.queues.getOrDefault(bookId, List.of()));
+        }
+        System.out.println();
+        System.out.println("member\toutstanding-fines");
+        replay.outstandingFines.keySet().forEach(memberId ->
+                System.out.println(memberId + "\t" + replay.outstandingFine(memberId)));
+    }
+}
@@ -0,0 +1,58 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Position of the last row served by a keyset page: its sort key and id.
+ * Clients only see it as an opaque base64url token.
+ */
+record KeysetCursor(long id, String key) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    static KeysetCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The id never contains a colon, so the first one splits it from the key
+            int split = decoded.indexOf(':');
+            return new KeysetCursor(Long.parseLong(decoded.substring(0, split)), decoded.substring(split + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + token);
+        }
+    }
+
+    static String encode(long id, Object key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One row more than the page is fetched, so the next cursor is only
+     * handed out when there really is a next page.
+     */
+    static Pageable fetchSize(int size) {
+        return PageRequest.of(0, clamp(size) + 1);
+    }
+
+    static <T> CursorPage<T> page(List<T> rows, int size, ToLongFunction<T> id, Function<T, Object> key, Long total) {
+        int limit = clamp(size);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null, total);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new CursorPage<>(List.copyOf(items), encode(id.applyAsLong(last), key.apply(last)), total);
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,30 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands each event to in-process {@code @EventListener(CirculationEvent.class)}
+ * methods. They run on the relay thread, so they should be quick; one that
+ * throws makes the whole batch go round again for every listener.
+ */
+@Component
+@RequiredArgsConstructor
+public class ListenerEventConsumer implements CirculationEventConsumer {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public String name() {
+        return "listeners";
+    }
+
+    @Override
+    public void accept(List<CirculationEvent> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+}
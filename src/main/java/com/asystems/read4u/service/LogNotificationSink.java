@@ -0,0 +1,22 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.AvailabilityNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "library.notifications.sink", havingValue = "log", matchIfMissing = true)
+public class LogNotificationSink implements NotificationSink {
+
+    @Override
+    public void send(List<AvailabilityNotification> notifications) {
+        for (AvailabilityNotification notification : notifications) {
+            log.info("Notify member {} <{}>: \"{}\" is available", notification.getMemberId(),
+                    notification.getEmail(), notification.getBookTitle());
+        }
+    }
+}
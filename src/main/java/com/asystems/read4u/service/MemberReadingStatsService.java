@@ -0,0 +1,137 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.MemberReadingStats;
+import com.asystems.read4u.repository.MemberReadingStatsRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.repository.ReadingHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Keeps one row of reading totals per member. History writes apply their
+ * change to it, so reads never aggregate the history. A member's row is
+ * built from their history the first time it is needed, and the nightly
+ * rebuild recomputes every row to pick up rows written around the service.
+ * Writers hold the member row lock, which serialises them per member.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MemberReadingStatsService {
+
+    private final MemberReadingStatsRepository memberReadingStatsRepository;
+    private final ReadingHistoryRepository readingHistoryRepository;
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.reading-stats.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    public Map<String, Object> getStats(Long memberId) {
+        MemberReadingStats stats = load(memberId);
+        Double averageRating = stats.getAverageRating();
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalBooksRead", stats.getBooksRead().intValue());
+        result.put("totalBooksRated", stats.getRatedCount().intValue());
+        result.put("averageRating", averageRating != null ? Math.round(averageRating * 10.0) / 10.0 : null);
+        result.put("recommendedCount", stats.getRecommendedCount().intValue());
+        result.put("categoryBreakdown", new HashMap<>(stats.getCategoryCounts()));
+        return result;
+    }
+
+    MemberReadingStats load(Long memberId) {
+        return memberReadingStatsRepository.findById(memberId)
+                .orElseGet(() -> transactionTemplate.execute(status -> {
+                    memberRepository.findByIdForUpdate(memberId)
+                            .orElseThrow(() -> new RuntimeException("Member not found"));
+                    return lockStats(memberId);
+                }));
+    }
+
+    /**
+     * The member's stats row, locked, for a caller that already holds the
+     * member row lock. Built from history and saved if the member has none.
+     */
+    MemberReadingStats lockStats(Long memberId) {
+        return memberReadingStatsRepository.findByIdForUpdate(memberId)
+                .orElseGet(() -> memberReadingStatsRepository.save(build(List.of(memberId)).get(0)));
+    }
+
+    @Scheduled(cron = "${library.reading-stats.rebuild-cron:0 45 2 * * *}")
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        long members = 0;
+        while (true) {
+            long after = afterId;
+            List<Long> rebuilt = transactionTemplate.execute(status -> rebuildChunk(after));
+            if (rebuilt == null || rebuilt.isEmpty()) {
+                break;
+            }
+            members += rebuilt.size();
+            afterId = rebuilt.get(rebuilt.size() - 1);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Rebuilt reading stats for {} members in {} ms", members, durationMs);
+        Map<String, Object> result = new HashMap<>();
+        result.put("members", members);
+        result.put("durationMs", durationMs);
+        return result;
+    }
+
+    private List<Long> rebuildChunk(long afterId) {
+        List<Long> memberIds = memberRepository.findAfterForUpdate(afterId, PageRequest.of(0, chunkSize)).stream()
+                .map(Member::getId).toList();
+        if (memberIds.isEmpty()) {
+            return memberIds;
+        }
+
+        // Existing rows are loaded first, so saving the rebuilt ones updates them without a lookup each
+        Map<Long, MemberReadingStats> existing = new HashMap<>();
+        memberReadingStatsRepository.findAllById(memberIds).forEach(s -> existing.put(s.getMemberId(), s));
+        List<MemberReadingStats> rows = new ArrayList<>();
+        for (MemberReadingStats rebuilt : build(memberIds)) {
+            MemberReadingStats row = existing.get(rebuilt.getMemberId());
+            if (row == null) {
+                rows.add(rebuilt);
+                continue;
+            }
+            row.setBooksRead(rebuilt.getBooksRead());
+            row.setRatedCount(rebuilt.getRatedCount());
+            row.setRatingSum(rebuilt.getRatingSum());
+            row.setRecommendedCount(rebuilt.getRecommendedCount());
+            row.setCategoryCounts(rebuilt.getCategoryCounts());
+            row.setUpdatedAt(rebuilt.getUpdatedAt());
+            rows.add(row);
+        }
+        memberReadingStatsRepository.saveAll(rows);
+        return memberIds;
+    }
+
+    private List<MemberReadingStats> build(List<Long> memberIds) {
+        Map<Long, MemberReadingStats> stats = new LinkedHashMap<>();
+        for (Long memberId : memberIds) {
+            stats.put(memberId, MemberReadingStats.builder().memberId(memberId).build());
+        }
+        for (Object[] row : readingHistoryRepository.getReadingTotalsByMember(memberIds)) {
+            MemberReadingStats member = stats.get((Long) row[0]);
+            member.setBooksRead(((Number) row[1]).longValue());
+            member.setRatedCount(((Number) row[2]).longValue());
+            member.setRatingSum(((Number) row[3]).longValue());
+            member.setRecommendedCount(row[4] != null ? ((Number) row[4]).longValue() : 0L);
+        }
+        for (Object[] row : readingHistoryRepository.getCategoryCountsByMember(memberIds)) {
+            stats.get((Long) row[0]).getCategoryCounts().put((String) row[1], (Long) row[2]);
+        }
+        return new ArrayList<>(stats.values());
+    }
+}
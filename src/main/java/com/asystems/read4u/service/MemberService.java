@@ -1,5 +1,7 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.CursorPage;
+import com.asystems.read4u.dto.MemberSummary;
 import com.asystems.read4u.entity.Member;
 import com.asystems.read4u.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
@@ -18,8 +20,20 @@ public class MemberService {
 
     private final MemberRepository memberRepository;
 
-    public Page<Member> getAllMembers(Pageable pageable) {
-        return memberRepository.findAll(pageable);
+    public Page<MemberSummary> getAllMembers(Pageable pageable) {
+        return memberRepository.findSummaries(pageable);
+    }
+
+    public CursorPage<MemberSummary> scrollMembers(String after, int size, boolean includeTotal) {
+        List<MemberSummary> rows;
+        if (after == null) {
+            rows = memberRepository.findSummariesFirst(KeysetCursor.fetchSize(size));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = memberRepository.findSummariesAfter(cursor.key(), cursor.id(), KeysetCursor.fetchSize(size));
+        }
+        Long total = includeTotal ? memberRepository.count() : null;
+        return KeysetCursor.page(rows, size, MemberSummary::getId, MemberSummary::getLastName, total);
     }
 
     public Member getMemberById(Long id) {
@@ -57,7 +71,7 @@ public class MemberService {
 
     @Transactional
     public Member updateMember(Long id, Member memberDetails) {
-        Member member = getMemberById(id);
+        Member member = getMemberByIdForUpdate(id);
 
         member.setFirstName(memberDetails.getFirstName());
         member.setLastName(memberDetails.getLastName());
@@ -70,7 +84,7 @@ public class MemberService {
 
     @Transactional
     public Member upgradeMembership(Long id, Member.MembershipType newType) {
-        Member member = getMemberById(id);
+        Member member = getMemberByIdForUpdate(id);
         member.setMembershipType(newType);
         setMaxBooksForMembershipType(member);
         return memberRepository.save(member);
@@ -78,7 +92,7 @@ public class MemberService {
 
     @Transactional
     public Member renewMembership(Long id, int years) {
-        Member member = getMemberById(id);
+        Member member = getMemberByIdForUpdate(id);
 
         LocalDate newExpiry;
         if (member.getMembershipExpiryDate().isBefore(LocalDate.now())) {
@@ -93,7 +107,7 @@ public class MemberService {
 
     @Transactional
     public void deactivateMember(Long id) {
-        Member member = getMemberById(id);
+        Member member = getMemberByIdForUpdate(id);
 
         // Check for outstanding borrows
         if (member.getCurrentBorrowedCount() > 0) {
@@ -101,7 +115,7 @@ public class MemberService {
         }
 
         // Check for outstanding fines
-        if (member.getOutstandingFines() > 0) {
+        if (member.getOutstandingFines().signum() > 0) {
             throw new RuntimeException("Cannot deactivate member with outstanding fines");
         }
 
@@ -118,6 +132,12 @@ public class MemberService {
         return memberRepository.findMembersWithExpiringMembership(expiryDate);
     }
 
+    // Saving a member writes its loan count back, so the row is locked against concurrent checkouts
+    private Member getMemberByIdForUpdate(Long id) {
+        return memberRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
+    }
+
     private String generateMembershipNumber() {
         return "MEM" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
@@ -0,0 +1,16 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.AvailabilityNotification;
+
+import java.util.List;
+
+/**
+ * Where availability notices are delivered. The built-in sinks are picked by
+ * library.notifications.sink (log or file); any other value leaves the
+ * choice to a NotificationSink bean defined elsewhere. A sink that throws
+ * fails the batch, which is retried once its events' claim expires.
+ */
+public interface NotificationSink {
+
+    void send(List<AvailabilityNotification> notifications);
+}
@@ -0,0 +1,218 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.*;
+import com.asystems.read4u.repository.*;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@RequiredArgsConstructor
+public class OverdueSweepService {
+
+    private static final String JOB_NAME = "overdue-sweep";
+
+    private static final String MARK_OVERDUE_SQL =
+            "UPDATE borrow_records SET status = 'OVERDUE', fine_amount = ?, fine_paid = false " +
+            "WHERE id = ? AND status IN ('BORROWED', 'OVERDUE')";
+
+    private static final String INSERT_FINE_SQL =
+            "INSERT INTO fines (member_id, borrow_record_id, amount, fine_type, description, is_paid, created_at) " +
+            "VALUES (?, ?, ?, 'OVERDUE', ?, false, ?)";
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final FineService fineService;
+    private final CirculationEventLog circulationEventLog;
+    private final FineLedger fineLedger;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${library.overdue-sweep.chunk-size:500}")
+    private int chunkSize;
+
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastCompletedAt;
+    private volatile long lastRecordsProcessed;
+    private volatile long lastFinesAccrued;
+    private volatile long lastDurationMs;
+
+    @Scheduled(cron = "${library.overdue-sweep.cron:0 15 0 * * *}")
+    public void scheduledSweep() {
+        if (!running.get()) {
+            sweep();
+        }
+    }
+
+    public Map<String, Object> sweep() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Overdue sweep is already running");
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            lastStartedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+
+            // Resume an interrupted run from today's checkpoint, otherwise start a fresh pass
+            JobCheckpoint checkpoint = jobCheckpointRepository.findById(JOB_NAME)
+                    .filter(c -> today.equals(c.getRunDate()) && !c.getCompleted())
+                    .orElseGet(() -> JobCheckpoint.builder().jobName(JOB_NAME).runDate(today).build());
+
+            long records = 0;
+            long fines = 0;
+            while (true) {
+                long[] chunk = transactionTemplate.execute(status -> processChunk(checkpoint, today));
+                if (chunk == null || chunk[0] == 0) {
+                    break;
+                }
+                records += chunk[0];
+                fines += chunk[1];
+            }
+
+            checkpoint.setCompleted(true);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            jobCheckpointRepository.save(checkpoint);
+
+            lastRecordsProcessed = records;
+            lastFinesAccrued = fines;
+            lastDurationMs = (System.nanoTime() - start) / 1_000_000;
+            lastCompletedAt = LocalDateTime.now();
+            return getStats();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Processes the next keyset page after the checkpoint. Returns the number of
+     * records read and the number of fines accrued; the checkpoint advances in
+     * the same transaction so a crash never re-charges a committed chunk.
+     */
+    private long[] processChunk(JobCheckpoint checkpoint, LocalDate today) {
+        List<BorrowRecord> chunk = borrowRecordRepository.findOverdueAfter(today,
+                checkpoint.getLastProcessedId(), PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return new long[]{0, 0};
+        }
+
+        List<BorrowRecord> changed = new ArrayList<>();
+        List<long[]> accruals = new ArrayList<>();
+        List<Object[]> recordUpdates = new ArrayList<>();
+        for (BorrowRecord record : chunk) {
+            long target = FineLedger.cents(fineService.calculateOverdueFine(record));
+            long accrued = record.getFineAmount() != null ? FineLedger.cents(record.getFineAmount()) : 0;
+            if (record.getStatus() == BorrowRecord.BorrowStatus.OVERDUE && target <= accrued) {
+                continue;
+            }
+            changed.add(record);
+            accruals.add(new long[]{Math.max(target, accrued), accrued});
+            recordUpdates.add(new Object[]{FineLedger.amount(Math.max(target, accrued)), record.getId()});
+        }
+
+        // A record returned since it was read no longer matches and accrues nothing
+        int[] updated = jdbcTemplate.batchUpdate(MARK_OVERDUE_SQL, recordUpdates);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<BorrowRecord> fined = new ArrayList<>();
+        List<Object[]> fineInserts = new ArrayList<>();
+        for (int i = 0; i < changed.size(); i++) {
+            BorrowRecord record = changed.get(i);
+            long delta = accruals.get(i)[0] - accruals.get(i)[1];
+            if (updated[i] == 0 || delta <= 0) {
+                continue;
+            }
+            fined.add(record);
+            fineInserts.add(new Object[]{record.getMember().getId(), record.getId(), FineLedger.amount(delta),
+                    "Overdue by " + record.getDaysOverdue() + " days", now});
+        }
+
+        if (!fineInserts.isEmpty()) {
+            List<Long> fineIds = insertFines(fineInserts);
+            List<CirculationEvent> events = new ArrayList<>();
+            List<FineLedger.Entry> entries = new ArrayList<>();
+            for (int i = 0; i < fined.size(); i++) {
+                BorrowRecord record = fined.get(i);
+                Long memberId = record.getMember().getId();
+                BigDecimal amount = (BigDecimal) fineInserts.get(i)[2];
+                events.add(CirculationEvent.builder().type(CirculationEvent.EventType.FINE_CHARGED)
+                        .memberId(memberId).bookId(record.getBook().getId()).borrowRecordId(record.getId())
+                        .fineId(fineIds.get(i)).amount(amount).build());
+                entries.add(FineLedger.Entry.charge(memberId, fineIds.get(i), amount));
+            }
+            circulationEventLog.appendAll(events);
+            fineLedger.post(entries);
+        }
+
+        checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1).getId());
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + chunk.size());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        jobCheckpointRepository.save(checkpoint);
+
+        return new long[]{chunk.size(), fineInserts.size()};
+    }
+
+    // Batched with the generated ids returned, in insert order
+    private List<Long> insertFines(List<Object[]> rows) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_FINE_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = rows.get(i);
+                        for (int column = 0; column < row.length; column++) {
+                            ps.setObject(column + 1, row[column]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        // Drivers name the key column differently, so take each row's only value
+        return keys.getKeyList().stream().map(key -> ((Number) key.values().iterator().next()).longValue()).toList();
+    }
+
+    public Map<String, Object> getStats() {
+        LocalDate today = LocalDate.now();
+        Object[] unswept = borrowRecordRepository.getUnsweptOverdueStats(today).get(0);
+        LocalDate oldestUnswept = (LocalDate) unswept[1];
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("lastStartedAt", lastStartedAt);
+        stats.put("lastCompletedAt", lastCompletedAt);
+        stats.put("recordsProcessed", lastRecordsProcessed);
+        stats.put("finesAccrued", lastFinesAccrued);
+        stats.put("durationMs", lastDurationMs);
+        stats.put("recordsPerSecond", lastDurationMs > 0 ? lastRecordsProcessed * 1000 / lastDurationMs : lastRecordsProcessed);
+        stats.put("secondsSinceLastCompletion", lastCompletedAt != null
+                ? Duration.between(lastCompletedAt, LocalDateTime.now()).getSeconds() : null);
+        stats.put("unsweptOverdueCount", unswept[0]);
+        stats.put("lagDays", oldestUnswept != null ? today.toEpochDay() - oldestUnswept.toEpochDay() : 0);
+        jobCheckpointRepository.findById(JOB_NAME).ifPresent(c -> {
+            stats.put("checkpointRunDate", c.getRunDate());
+            stats.put("checkpointLastId", c.getLastProcessedId());
+            stats.put("checkpointCompleted", c.getCompleted());
+        });
+        return stats;
+    }
+}
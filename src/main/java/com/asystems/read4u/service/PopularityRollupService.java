@@ -0,0 +1,60 @@
+package com.asystems.read4u.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds the rolling-window popularity counter on books. Checkouts bump the
+ * counter as they happen; this nightly pass drops the checkouts that have aged
+ * out of the window.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PopularityRollupService {
+
+    private static final String WINDOW_COUNTS_SQL =
+            "SELECT book_id, COUNT(*) FROM borrow_records WHERE borrow_date >= ? GROUP BY book_id ORDER BY book_id";
+
+    private static final String RESET_SQL =
+            "UPDATE books SET recent_borrow_count = 0 WHERE recent_borrow_count <> 0";
+
+    private static final String SET_COUNT_SQL =
+            "UPDATE books SET recent_borrow_count = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    @Value("${library.popularity.window-days:30}")
+    private int windowDays;
+
+    @Scheduled(cron = "${library.popularity.rollup-cron:0 30 0 * * *}")
+    @Transactional
+    public int rollup() {
+        long start = System.currentTimeMillis();
+        // Reset first so the rows being rewritten stay locked until the new counts commit
+        jdbcTemplate.update(RESET_SQL);
+
+        LocalDate since = LocalDate.now().minusDays(windowDays);
+        List<Object[]> counts = new ArrayList<>();
+        jdbcTemplate.query(WINDOW_COUNTS_SQL, rs -> {
+            counts.add(new Object[]{rs.getInt(2), rs.getLong(1)});
+        }, Date.valueOf(since));
+        jdbcTemplate.batchUpdate(SET_COUNT_SQL, counts);
+        entityCacheEvictor.evictAllBooks();
+
+        log.info("Rolled up {}-day popularity for {} books in {} ms",
+                windowDays, counts.size(), System.currentTimeMillis() - start);
+        return counts.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BookSummary;
+import com.asystems.read4u.repository.ReactiveBookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Non-blocking counterpart of the BookService catalogue reads, for the
+ * reactive read path. Results are streamed as the rows arrive.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveCatalogueService {
+
+    private final ReactiveBookRepository reactiveBookRepository;
+    private final BookSearchService bookSearchService;
+
+    public Flux<BookSummary> getAllBooks(Pageable pageable) {
+        return reactiveBookRepository.findActive(pageable);
+    }
+
+    public Flux<BookSummary> getBooksByCategory(String category, Pageable pageable) {
+        return reactiveBookRepository.findByCategory(category, pageable);
+    }
+
+    public Flux<BookSummary> getAvailableBooks(Pageable pageable) {
+        return reactiveBookRepository.findAvailable(pageable);
+    }
+
+    public Flux<BookSummary> searchBooks(String query, Pageable pageable) {
+        // The index only ranks a page; an unpaged stream is every match in title order
+        if (pageable.isUnpaged()) {
+            return reactiveBookRepository.search(query, pageable);
+        }
+        // Ranked by the index like BookService.searchBooks; Lucene blocks on its directory, so not on an event loop
+        return Mono.fromCallable(() -> bookSearchService.search(query, pageable))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(hits -> hits.isPresent()
+                        ? ranked(hits.get().getContent())
+                        : reactiveBookRepository.search(query, pageable));
+    }
+
+    private Flux<BookSummary> ranked(List<Long> ids) {
+        return reactiveBookRepository.findActiveByIds(ids)
+                .collectMap(BookSummary::getId)
+                .flatMapIterable(byId -> ids.stream().map(byId::get).filter(Objects::nonNull).toList());
+    }
+}
@@ -1,15 +1,18 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.BookReviewView;
+import com.asystems.read4u.dto.CursorPage;
+import com.asystems.read4u.dto.ReadingHistoryView;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -20,10 +23,17 @@ public class ReadingHistoryService {
     private final ReadingHistoryRepository readingHistoryRepository;
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
+    private final MemberReadingStatsRepository memberReadingStatsRepository;
+    private final MemberReadingStatsService memberReadingStatsService;
+    private final BookRatingStatsRepository bookRatingStatsRepository;
+    private final BookRatingStatsService bookRatingStatsService;
+    private final CacheManager cacheManager;
 
     @Transactional
     public ReadingHistory addToHistory(Long memberId, Long bookId, Integer rating, String review, Boolean wouldRecommend) {
-        Member member = memberRepository.findById(memberId)
+        checkRating(rating);
+        // Locked so the duplicate check and the stats update see this member's other writes
+        Member member = memberRepository.findByIdForUpdate(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
         Book book = bookRepository.findById(bookId)
@@ -33,6 +43,10 @@ public class ReadingHistoryService {
             throw new RuntimeException("Book already in reading history");
         }
 
+        // Taken before the new entry is saved, since a row built from history now must not count it yet
+        MemberReadingStats stats = memberReadingStatsService.lockStats(memberId);
+        BookRatingStats bookStats = bookRatingStatsService.lockStats(bookId);
+
         ReadingHistory history = ReadingHistory.builder()
                 .member(member)
                 .book(book)
@@ -42,11 +56,19 @@ public class ReadingHistoryService {
                 .wouldRecommend(wouldRecommend != null ? wouldRecommend : false)
                 .build();
 
+        stats.addRead(book.getCategory(), rating, history.getWouldRecommend());
+        memberReadingStatsRepository.save(stats);
+        bookStats.changeRating(null, rating);
+        bookRatingStatsRepository.save(bookStats);
+        evictReviewPage(bookId);
         return readingHistoryRepository.save(history);
     }
 
     @Transactional
     public ReadingHistory updateReview(Long historyId, Long memberId, Integer rating, String review, Boolean wouldRecommend) {
+        checkRating(rating);
+        // Lock the member before reading the review so its old rating is the one the stats hold
+        memberRepository.findByIdForUpdate(memberId);
         ReadingHistory history = readingHistoryRepository.findById(historyId)
                 .orElseThrow(() -> new RuntimeException("Reading history not found"));
 
@@ -54,6 +76,11 @@ public class ReadingHistoryService {
             throw new RuntimeException("You can only update your own reviews");
         }
 
+        MemberReadingStats stats = memberReadingStatsService.lockStats(memberId);
+        BookRatingStats bookStats = bookRatingStatsService.lockStats(history.getBook().getId());
+        Integer oldRating = history.getRating();
+        boolean oldRecommended = Boolean.TRUE.equals(history.getWouldRecommend());
+
         if (rating != null) {
             history.setRating(rating);
         }
@@ -64,66 +91,60 @@ public class ReadingHistoryService {
             history.setWouldRecommend(wouldRecommend);
         }
 
+        stats.changeReview(oldRating, oldRecommended, history.getRating(),
+                Boolean.TRUE.equals(history.getWouldRecommend()));
+        memberReadingStatsRepository.save(stats);
+        bookStats.changeRating(oldRating, history.getRating());
+        bookRatingStatsRepository.save(bookStats);
+        evictReviewPage(history.getBook().getId());
         return readingHistoryRepository.save(history);
     }
 
-    public Page<ReadingHistory> getMemberHistory(Long memberId, Pageable pageable) {
-        Member member = memberRepository.findById(memberId)
+    public Page<ReadingHistoryView> getMemberHistory(Long memberId, Pageable pageable) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
-        return readingHistoryRepository.findByMemberOrderByCompletedAtDesc(member, pageable);
+        return readingHistoryRepository.findViewsByMember(memberId, pageable);
     }
 
-    public List<ReadingHistory> getBookReviews(Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-
-        return readingHistoryRepository.findByBookOrderByCreatedAtDesc(book);
+    public CursorPage<ReadingHistoryView> scrollMemberHistory(Long memberId, String after, int size,
+                                                              boolean includeTotal) {
+        memberRepository.findById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found"));
+        List<ReadingHistoryView> rows;
+        if (after == null) {
+            rows = readingHistoryRepository.findViewsByMemberFirst(memberId, KeysetCursor.fetchSize(size));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = readingHistoryRepository.findViewsByMemberAfter(memberId, LocalDateTime.parse(cursor.key()),
+                    cursor.id(), KeysetCursor.fetchSize(size));
+        }
+        Long total = includeTotal ? readingHistoryRepository.countByMemberId(memberId) : null;
+        return KeysetCursor.page(rows, size, ReadingHistoryView::getId, ReadingHistoryView::getCompletedAt, total);
     }
 
-    public Double getAverageRating(Long bookId) {
-        Book book = bookRepository.findById(bookId)
+    public CursorPage<BookReviewView> scrollBookReviews(Long bookId, String after, int size) {
+        bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
+        List<BookReviewView> rows;
+        if (after == null && size <= ReadingHistoryRepository.CACHED_REVIEW_PAGE_SIZE) {
+            rows = readingHistoryRepository.findFirstReviewPage(bookId);
+        } else if (after == null) {
+            rows = readingHistoryRepository.findReviewViewsByBookFirst(bookId, KeysetCursor.fetchSize(size));
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = readingHistoryRepository.findReviewViewsByBookAfter(bookId, LocalDateTime.parse(cursor.key()),
+                    cursor.id(), KeysetCursor.fetchSize(size));
+        }
+        return KeysetCursor.page(rows, size, BookReviewView::getId, BookReviewView::getCompletedAt, null);
+    }
 
-        Double avgRating = readingHistoryRepository.getAverageRatingForBook(book);
-        return avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : null;
+    public Double getAverageRating(Long bookId) {
+        return bookRatingStatsService.getSummary(bookId).getAverageRating();
     }
 
     public Map<String, Object> getMemberReadingStats(Long memberId) {
-        Member member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new RuntimeException("Member not found"));
-
-        List<Object[]> categoryStats = readingHistoryRepository.getReadingStatsByCategory(member);
-        Page<ReadingHistory> history = readingHistoryRepository.findByMemberOrderByCompletedAtDesc(member, Pageable.unpaged());
-
-        int totalBooks = (int) history.getTotalElements();
-        int totalRated = 0;
-        int totalRecommended = 0;
-        double totalRatingSum = 0;
-
-        for (ReadingHistory h : history) {
-            if (h.getRating() != null) {
-                totalRated++;
-                totalRatingSum += h.getRating();
-            }
-            if (h.getWouldRecommend()) {
-                totalRecommended++;
-            }
-        }
-
-        Map<String, Long> categoryBreakdown = new HashMap<>();
-        for (Object[] stat : categoryStats) {
-            categoryBreakdown.put((String) stat[0], (Long) stat[1]);
-        }
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalBooksRead", totalBooks);
-        stats.put("totalBooksRated", totalRated);
-        stats.put("averageRating", totalRated > 0 ? Math.round(totalRatingSum / totalRated * 10.0) / 10.0 : null);
-        stats.put("recommendedCount", totalRecommended);
-        stats.put("categoryBreakdown", categoryBreakdown);
-
-        return stats;
+        return memberReadingStatsService.getStats(memberId);
     }
 
     public boolean hasReadBook(Long memberId, Long bookId) {
@@ -135,4 +156,15 @@ public class ReadingHistoryService {
 
         return readingHistoryRepository.existsByMemberAndBook(member, book);
     }
+
+    private static void checkRating(Integer rating) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new RuntimeException("Rating must be between 1 and 5");
+        }
+    }
+
+    // Applied on commit by the transaction-aware cache manager
+    private void evictReviewPage(Long bookId) {
+        cacheManager.getCache("bookReviews").evict(bookId);
+    }
 }
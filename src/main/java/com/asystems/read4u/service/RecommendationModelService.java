@@ -0,0 +1,156 @@
+package com.asystems.read4u.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Builds the item-to-item recommendation model offline from borrow and
+ * reading history and serves it from memory. Until the first build finishes
+ * callers get empty results and fall back to the database queries.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationModelService {
+
+    private static final String BORROWS_SQL = "SELECT member_id, book_id FROM borrow_records";
+
+    private static final String READING_HISTORY_SQL =
+            "SELECT member_id, book_id, rating, would_recommend FROM reading_history";
+
+    private static final float BORROW_WEIGHT = 1.0f;
+    private static final float FINISHED_WEIGHT = 0.5f;
+    private static final float RECOMMEND_WEIGHT = 1.0f;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Boot's application executor, so the startup build runs on a virtual thread when those are enabled
+    private final TaskExecutor taskExecutor;
+
+    @Value("${library.recommendation.neighbours-per-item:50}")
+    private int neighboursPerItem;
+
+    @Value("${library.recommendation.max-items-per-member:1000}")
+    private int maxItemsPerMember;
+
+    @Value("${library.recommendation.parallelism:0}")
+    private int parallelism;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile ItemSimilarityModel model;
+    private volatile LocalDateTime lastBuiltAt;
+    private volatile long lastLoadMs;
+    private volatile long lastBuildMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        CompletableFuture.runAsync(this::rebuild, taskExecutor).exceptionally(e -> {
+            log.error("Failed to build recommendation model", e);
+            return null;
+        });
+    }
+
+    @Scheduled(cron = "${library.recommendation.rebuild-cron:0 0 2 * * *}")
+    public Map<String, Object> rebuild() {
+        // Held across the database load, so a lock rather than a monitor that would pin a virtual thread
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            ItemSimilarityModel.Interactions interactions = loadInteractions();
+            long loaded = System.currentTimeMillis();
+
+            ForkJoinPool pool = new ForkJoinPool(
+                    parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            try {
+                model = ItemSimilarityModel.build(interactions, neighboursPerItem, maxItemsPerMember, pool);
+            } finally {
+                pool.shutdown();
+            }
+
+            lastLoadMs = loaded - start;
+            lastBuildMs = System.currentTimeMillis() - loaded;
+            lastBuiltAt = LocalDateTime.now();
+            log.info("Built recommendation model over {} interactions in {} ms (load {} ms)",
+                    interactions.size(), lastBuildMs, lastLoadMs);
+            return getStats();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return model != null;
+    }
+
+    public List<Long> recommend(Long memberId, int limit) {
+        ItemSimilarityModel current = model;
+        if (current == null) {
+            return List.of();
+        }
+        return Arrays.stream(current.recommend(memberId, limit)).boxed().toList();
+    }
+
+    public List<Long> similar(Long bookId, int limit) {
+        ItemSimilarityModel current = model;
+        if (current == null) {
+            return List.of();
+        }
+        return Arrays.stream(current.similar(bookId, limit)).boxed().toList();
+    }
+
+    public Map<String, Object> getStats() {
+        ItemSimilarityModel current = model;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", current != null);
+        stats.put("lastBuiltAt", lastBuiltAt);
+        stats.put("loadMs", lastLoadMs);
+        stats.put("buildMs", lastBuildMs);
+        if (current != null) {
+            stats.put("books", current.bookCount());
+            stats.put("members", current.memberCount());
+            stats.put("interactions", current.interactionCount());
+            stats.put("neighbours", current.neighbourCount());
+        }
+        return stats;
+    }
+
+    /**
+     * Every borrow counts once; a finished read adds to it, shifted by the
+     * rating around the midpoint and boosted when the reader recommends it.
+     */
+    private ItemSimilarityModel.Interactions loadInteractions() {
+        ItemSimilarityModel.Interactions interactions = new ItemSimilarityModel.Interactions();
+        jdbcTemplate.query(BORROWS_SQL, rs -> {
+            interactions.add(rs.getLong(1), rs.getLong(2), BORROW_WEIGHT);
+        });
+        jdbcTemplate.query(READING_HISTORY_SQL, rs -> {
+            float weight = FINISHED_WEIGHT;
+            int rating = rs.getInt(3);
+            if (!rs.wasNull()) {
+                weight += (rating - 3) * 0.5f;
+            }
+            if (rs.getBoolean(4)) {
+                weight += RECOMMEND_WEIGHT;
+            }
+            interactions.add(rs.getLong(1), rs.getLong(2), weight);
+        });
+        return interactions;
+    }
+}
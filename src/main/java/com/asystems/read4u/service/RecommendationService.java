@@ -2,23 +2,34 @@ package com.asystems.read4u.service;
 
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.*;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "library.service")
 @RequiredArgsConstructor
 public class RecommendationService {
 
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
     private final BorrowRecordRepository borrowRecordRepository;
-    private final ReadingHistoryRepository readingHistoryRepository;
+    private final MemberReadingStatsService memberReadingStatsService;
+    private final TrendingService trendingService;
+    private final RecommendationModelService recommendationModelService;
 
     public List<Book> getRecommendationsForMember(Long memberId, int limit) {
+        // The co-borrow model answers from memory once it knows the member
+        List<Book> modelled = findActiveInOrder(recommendationModelService.recommend(memberId, limit * 2));
+        if (modelled.size() >= limit) {
+            return new ArrayList<>(modelled.subList(0, limit));
+        }
+
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
@@ -31,13 +42,13 @@ public class RecommendationService {
         }
 
         Set<Long> borrowedBookIds = getBorrowedBookIds(member);
-        List<Book> recommendations = new ArrayList<>();
+        List<Book> recommendations = new ArrayList<>(modelled);
 
         // Get recommendations from each favorite category
         for (String category : favoriteCategories) {
             List<Book> categoryBooks = bookRepository.findPopularBooksByCategory(category, PageRequest.of(0, limit));
             for (Book book : categoryBooks) {
-                if (!borrowedBookIds.contains(book.getId()) && book.getIsActive()) {
+                if (!borrowedBookIds.contains(book.getId()) && book.getIsActive() && !recommendations.contains(book)) {
                     recommendations.add(book);
                     if (recommendations.size() >= limit) {
                         return recommendations;
@@ -60,6 +71,12 @@ public class RecommendationService {
     }
 
     public List<Book> getSimilarBooks(Long bookId, int limit) {
+        // Books most often borrowed by the same readers
+        List<Book> modelled = findActiveInOrder(recommendationModelService.similar(bookId, limit * 2));
+        if (modelled.size() >= limit) {
+            return new ArrayList<>(modelled.subList(0, limit));
+        }
+
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
@@ -67,29 +84,27 @@ public class RecommendationService {
         List<Book> similarBooks = bookRepository.findPopularBooksByCategory(book.getCategory(),
                 PageRequest.of(0, limit * 2));
 
-        return similarBooks.stream()
+        Set<Long> seen = new HashSet<>();
+        return Stream.concat(modelled.stream(), similarBooks.stream())
                 .filter(b -> !b.getId().equals(bookId))
                 .filter(Book::getIsActive)
+                .filter(b -> seen.add(b.getId()))
                 .limit(limit)
                 .collect(Collectors.toList());
     }
 
     public List<Book> getBasedOnRating(Long memberId, int minRating, int limit) {
-        Member member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new RuntimeException("Member not found"));
-
-        // Get highly rated books from member's reading history
-        List<Object[]> categoryStats = readingHistoryRepository.getReadingStatsByCategory(member);
+        // The member's most-read category, from their stats row rather than a pass over the history
+        Optional<String> topCategory = memberReadingStatsService.load(memberId).getCategoryCounts().entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey);
 
-        if (categoryStats.isEmpty()) {
+        if (topCategory.isEmpty()) {
             return getPopularBooks(limit);
         }
 
-        // Get the top category
-        String topCategory = (String) categoryStats.get(0)[0];
-
         // Get books from that category with high average ratings
-        return bookRepository.findPopularBooksByCategory(topCategory, PageRequest.of(0, limit));
+        return bookRepository.findPopularBooksByCategory(topCategory.get(), PageRequest.of(0, limit));
     }
 
     private List<String> getFavoriteCategories(Member member) {
@@ -101,7 +116,8 @@ public class RecommendationService {
     }
 
     private Set<Long> getBorrowedBookIds(Member member) {
-        return borrowRecordRepository.findByMemberAndStatus(member, BorrowRecord.BorrowStatus.BORROWED)
+        return borrowRecordRepository.findByMemberAndStatusIn(member,
+                        EnumSet.of(BorrowRecord.BorrowStatus.BORROWED, BorrowRecord.BorrowStatus.OVERDUE))
                 .stream()
                 .map(br -> br.getBook().getId())
                 .collect(Collectors.toSet());
@@ -109,18 +125,36 @@ public class RecommendationService {
 
     private List<Book> getPopularBooks(int limit) {
         // Get books with most borrows
-        return bookRepository.findByIsActiveTrue(PageRequest.of(0, limit)).getContent();
+        return bookRepository.findPopularBooks(PageRequest.of(0, limit));
     }
 
     public List<Book> getNewArrivals(int days, int limit) {
-        return bookRepository.findNewArrivals(java.time.LocalDateTime.now().minusDays(days))
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<Long> ids = bookRepository.findNewArrivalIds(days);
+        return findActiveInOrder(ids.subList(0, Math.min(limit, ids.size())));
     }
 
     public List<Book> getTrendingBooks(int limit) {
-        // Get books that have been borrowed most frequently in the last 30 days
-        return bookRepository.findByIsActiveTrue(PageRequest.of(0, limit)).getContent();
+        return getTrendingBooks(null, limit);
+    }
+
+    public List<Book> getTrendingBooks(String category, int limit) {
+        // Books borrowed most in the recent window, newer borrows weighing more
+        List<Long> ids = trendingService.getTrendingBookIds(category, limit);
+        if (ids.isEmpty()) {
+            return category == null
+                    ? getPopularBooks(limit)
+                    : bookRepository.findRecentlyPopularBooksByCategory(category, PageRequest.of(0, limit));
+        }
+        return findActiveInOrder(ids);
+    }
+
+    // Loads a ranked id list through the entity cache, keeping the ranking
+    private List<Book> findActiveInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findAllByIdCached(ids).stream()
+                .filter(Book::getIsActive)
+                .collect(Collectors.toList());
     }
 }
@@ -1,30 +1,41 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.ReservationView;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.*;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
+@Observed(name = "library.service")
 @RequiredArgsConstructor
 public class ReservationService {
 
     private final ReservationRepository reservationRepository;
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
+    private final CirculationMetrics circulationMetrics;
+    private final CirculationEventLog circulationEventLog;
 
     private static final int RESERVATION_EXPIRY_DAYS = 3;
 
     @Transactional
     public Reservation reserveBook(Long memberId, Long bookId) {
+        return circulationMetrics.record(CirculationMetrics.RESERVE, () -> enqueue(memberId, bookId));
+    }
+
+    private Reservation enqueue(Long memberId, Long bookId) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
-        Book book = bookRepository.findById(bookId)
+        // Locking the book serialises every change to its queue
+        Book book = bookRepository.findByIdForUpdate(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
         // Check if member already has a reservation for this book
@@ -38,9 +49,8 @@ public class ReservationService {
             throw new RuntimeException("Book is currently available. You can borrow it directly.");
         }
 
-        // Get current queue position
-        List<Reservation> existingReservations = reservationRepository.findPendingReservationsForBook(book);
-        int queuePosition = existingReservations.size() + 1;
+        // Positions are kept dense, so the tail is the pending count
+        int queuePosition = reservationRepository.countPendingReservationsForBook(book) + 1;
 
         Reservation reservation = Reservation.builder()
                 .book(book)
@@ -50,11 +60,18 @@ public class ReservationService {
                 .queuePosition(queuePosition)
                 .build();
 
-        return reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        circulationEventLog.append(CirculationEvent.reservation(CirculationEvent.EventType.RESERVED, saved));
+        return saved;
     }
 
     @Transactional
     public void cancelReservation(Long reservationId, Long memberId) {
+        Long bookId = reservationRepository.findBookIdById(reservationId)
+                .orElseThrow(() -> new RuntimeException("Reservation not found"));
+
+        // Lock the book before reading the reservation so its queue position is current
+        bookRepository.findByIdForUpdate(bookId);
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
 
@@ -67,32 +84,55 @@ public class ReservationService {
             throw new RuntimeException("Reservation cannot be cancelled");
         }
 
-        reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-        reservationRepository.save(reservation);
+        if (reservation.getStatus() == Reservation.ReservationStatus.PENDING) {
+            dequeue(reservation, Reservation.ReservationStatus.CANCELLED);
+        } else {
+            reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+            reservationRepository.save(reservation);
+        }
+        circulationEventLog.append(CirculationEvent.reservation(
+                CirculationEvent.EventType.RESERVATION_CANCELLED, reservation));
+    }
 
-        // Update queue positions for remaining reservations
-        updateQueuePositions(reservation.getBook());
+    /**
+     * Takes a pending reservation out of its book's queue and moves everyone
+     * behind it up with a single statement. Callers must hold the book row lock.
+     */
+    @Transactional
+    public void dequeue(Reservation reservation, Reservation.ReservationStatus newStatus) {
+        reservation.setStatus(newStatus);
+        reservationRepository.save(reservation);
+        reservationRepository.shiftQueue(reservation.getBook().getId(), reservation.getQueuePosition(), 1);
     }
 
-    private void updateQueuePositions(Book book) {
-        List<Reservation> pendingReservations = reservationRepository.findPendingReservationsForBook(book);
-        int position = 1;
-        for (Reservation res : pendingReservations) {
-            res.setQueuePosition(position++);
-            reservationRepository.save(res);
-        }
+    /**
+     * Offers the book to the head of its queue, if any. Callers must hold the
+     * book row lock.
+     */
+    @Transactional
+    public Optional<Reservation> promoteNextInQueue(Book book) {
+        Optional<Reservation> next = reservationRepository
+                .findFirstByBookAndStatusOrderByQueuePositionAsc(book, Reservation.ReservationStatus.PENDING);
+        next.ifPresent(reservation -> {
+            reservation.setNotifiedAt(LocalDateTime.now());
+            reservation.setExpiryDate(LocalDateTime.now().plusDays(RESERVATION_EXPIRY_DAYS));
+            dequeue(reservation, Reservation.ReservationStatus.AVAILABLE);
+            circulationEventLog.append(CirculationEvent.reservation(
+                    CirculationEvent.EventType.RESERVATION_READY, reservation));
+        });
+        return next;
     }
 
-    public List<Reservation> getMemberReservations(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<ReservationView> getMemberReservations(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return reservationRepository.findByMemberAndStatus(member, Reservation.ReservationStatus.PENDING);
+        return reservationRepository.findViewsByMemberAndStatus(memberId, Reservation.ReservationStatus.PENDING);
     }
 
-    public List<Reservation> getAvailableReservations(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<ReservationView> getAvailableReservations(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
-        return reservationRepository.findByMemberAndStatus(member, Reservation.ReservationStatus.AVAILABLE);
+        return reservationRepository.findViewsByMemberAndStatus(memberId, Reservation.ReservationStatus.AVAILABLE);
     }
 
     public int getQueuePosition(Long memberId, Long bookId) {
@@ -117,21 +157,19 @@ public class ReservationService {
         List<Reservation> expiredReservations = reservationRepository.findExpiredReservations(LocalDateTime.now());
 
         for (Reservation reservation : expiredReservations) {
+            // Expired offers are already out of the queue; only the next hold moves
+            Book book = bookRepository.findByIdForUpdate(reservation.getBook().getId())
+                    .orElseThrow(() -> new RuntimeException("Book not found"));
+            if (reservation.getStatus() != Reservation.ReservationStatus.AVAILABLE) {
+                continue;
+            }
             reservation.setStatus(Reservation.ReservationStatus.EXPIRED);
             reservationRepository.save(reservation);
+            circulationEventLog.append(CirculationEvent.reservation(
+                    CirculationEvent.EventType.RESERVATION_EXPIRED, reservation));
 
             // Notify next in queue
-            Book book = reservation.getBook();
-            List<Reservation> pendingReservations = reservationRepository.findPendingReservationsForBook(book);
-            if (!pendingReservations.isEmpty()) {
-                Reservation nextReservation = pendingReservations.get(0);
-                nextReservation.setStatus(Reservation.ReservationStatus.AVAILABLE);
-                nextReservation.setNotifiedAt(LocalDateTime.now());
-                nextReservation.setExpiryDate(LocalDateTime.now().plusDays(RESERVATION_EXPIRY_DAYS));
-                reservationRepository.save(nextReservation);
-            }
-
-            updateQueuePositions(book);
+            promoteNextInQueue(book);
         }
     }
 }
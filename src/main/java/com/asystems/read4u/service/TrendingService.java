@@ -0,0 +1,112 @@
+package com.asystems.read4u.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trending books by exponentially decayed borrows over a sliding window of
+ * daily buckets. Borrow events are counted in memory; the leaderboard is
+ * re-ranked on a schedule so reads just copy a precomputed list, and the
+ * buckets are snapshotted to the database so a restart keeps the trend.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingService {
+
+    private static final String DELETE_SNAPSHOT_SQL = "DELETE FROM trending_buckets";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO trending_buckets (book_id, category, bucket_date, borrow_count) VALUES (?, ?, ?, ?)";
+
+    private static final String LOAD_SNAPSHOT_SQL =
+            "SELECT book_id, category, bucket_date, borrow_count FROM trending_buckets WHERE bucket_date > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.trending.window-days:30}")
+    private int windowDays;
+
+    @Value("${library.trending.half-life-days:7}")
+    private double halfLifeDays;
+
+    @Value("${library.trending.max-size:100}")
+    private int maxSize;
+
+    private TrendingWindow window;
+    private volatile TrendingWindow.Leaderboard leaderboard = TrendingWindow.Leaderboard.EMPTY;
+
+    @PostConstruct
+    void init() {
+        window = new TrendingWindow(windowDays, halfLifeDays);
+    }
+
+    @PreDestroy
+    void close() {
+        try {
+            snapshot();
+        } catch (DataAccessException e) {
+            log.warn("Failed to snapshot trending buckets on shutdown", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        LocalDate today = LocalDate.now();
+        int[] loaded = {0};
+        jdbcTemplate.query(LOAD_SNAPSHOT_SQL, rs -> {
+            window.add(rs.getLong(1), rs.getString(2), rs.getDate(3).toLocalDate().toEpochDay(), rs.getLong(4));
+            loaded[0]++;
+        }, Date.valueOf(today.minusDays(windowDays)));
+        refresh();
+        log.info("Restored {} trending buckets for {} books", loaded[0], window.size());
+    }
+
+    /**
+     * Counts a borrow once the surrounding transaction commits.
+     */
+    public void onBorrowed(Long bookId, String category) {
+        AfterCommit.run(() -> window.record(bookId, category, LocalDate.now().toEpochDay()));
+    }
+
+    public List<Long> getTrendingBookIds(String category, int limit) {
+        long[] top = leaderboard.top(category);
+        return Arrays.stream(top, 0, Math.min(limit, top.length)).boxed().toList();
+    }
+
+    @Scheduled(fixedDelayString = "${library.trending.refresh-ms:60000}")
+    public void refresh() {
+        leaderboard = window.rank(LocalDate.now().toEpochDay(), maxSize);
+    }
+
+    @Scheduled(fixedDelayString = "${library.trending.snapshot-ms:300000}")
+    public void snapshot() {
+        long today = LocalDate.now().toEpochDay();
+        List<Object[]> rows = new ArrayList<>();
+        window.forEachBucket(today, (bookId, category, day, count) ->
+                rows.add(new Object[]{bookId, category, Date.valueOf(LocalDate.ofEpochDay(day)), count}));
+
+        // Replaced wholesale so a restore never sees half of an old and half of a new snapshot
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_SNAPSHOT_SQL);
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, rows);
+        });
+    }
+}
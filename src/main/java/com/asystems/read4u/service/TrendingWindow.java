@@ -0,0 +1,164 @@
+package com.asystems.read4u.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-book ring of daily borrow buckets. Each slot packs its epoch day and
+ * count into one long, so recording an event is a single CAS and a slot left
+ * over from an earlier lap of the ring is reset by the same CAS that reuses it.
+ */
+final class TrendingWindow {
+
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final int windowDays;
+    private final double dailyDecay;
+    private final ConcurrentHashMap<Long, BookWindow> books = new ConcurrentHashMap<>();
+
+    TrendingWindow(int windowDays, double halfLifeDays) {
+        this.windowDays = windowDays;
+        this.dailyDecay = Math.pow(0.5, 1.0 / halfLifeDays);
+    }
+
+    void record(long bookId, String category, long day) {
+        add(bookId, category, day, 1);
+    }
+
+    void add(long bookId, String category, long day, long count) {
+        BookWindow window = books.get(bookId);
+        if (window == null) {
+            window = books.computeIfAbsent(bookId, id -> new BookWindow(windowDays));
+        }
+        window.category = category;
+        window.add(day, count);
+    }
+
+    /**
+     * Builds a leaderboard of the highest decayed scores as of the given day,
+     * keeping at most {@code size} books overall and per category.
+     */
+    Leaderboard rank(long today, int size) {
+        Comparator<long[]> byScore = Comparator.comparingDouble(e -> Double.longBitsToDouble(e[1]));
+        PriorityQueue<long[]> overall = new PriorityQueue<>(byScore);
+        Map<String, PriorityQueue<long[]>> byCategory = new HashMap<>();
+
+        books.forEach((bookId, window) -> {
+            double score = window.score(today);
+            if (score <= 0) {
+                return;
+            }
+            long[] entry = {bookId, Double.doubleToLongBits(score)};
+            offer(overall, entry, size);
+            if (window.category != null) {
+                offer(byCategory.computeIfAbsent(window.category, c -> new PriorityQueue<>(byScore)), entry, size);
+            }
+        });
+
+        Map<String, long[]> categories = new HashMap<>();
+        byCategory.forEach((category, heap) -> categories.put(category, drain(heap)));
+        return new Leaderboard(drain(overall), categories);
+    }
+
+    /**
+     * Visits every live bucket as (bookId, category, day, count).
+     */
+    void forEachBucket(long today, BucketVisitor visitor) {
+        books.forEach((bookId, window) -> {
+            for (int i = 0; i < window.slots.length(); i++) {
+                long slot = window.slots.get(i);
+                long day = slot >>> COUNT_BITS;
+                long count = slot & COUNT_MASK;
+                if (count > 0 && today - day < windowDays && day <= today) {
+                    visitor.visit(bookId, window.category, day, count);
+                }
+            }
+        });
+    }
+
+    int size() {
+        return books.size();
+    }
+
+    private double decay(long age) {
+        return Math.pow(dailyDecay, age);
+    }
+
+    private static void offer(PriorityQueue<long[]> heap, long[] entry, int size) {
+        if (heap.size() < size) {
+            heap.add(entry);
+        } else if (Double.longBitsToDouble(heap.peek()[1]) < Double.longBitsToDouble(entry[1])) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    private static long[] drain(PriorityQueue<long[]> heap) {
+        long[] ids = new long[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = heap.poll()[0];
+        }
+        return ids;
+    }
+
+    @FunctionalInterface
+    interface BucketVisitor {
+        void visit(long bookId, String category, long day, long count);
+    }
+
+    /**
+     * Immutable top lists, highest score first.
+     */
+    record Leaderboard(long[] overall, Map<String, long[]> byCategory) {
+
+        static final Leaderboard EMPTY = new Leaderboard(new long[0], Map.of());
+
+        long[] top(String category) {
+            return category == null ? overall : byCategory.getOrDefault(category, new long[0]);
+        }
+    }
+
+    private final class BookWindow {
+
+        private final AtomicLongArray slots;
+        private volatile String category;
+
+        private BookWindow(int windowDays) {
+            this.slots = new AtomicLongArray(windowDays);
+        }
+
+        private void add(long day, long count) {
+            int index = (int) (day % slots.length());
+            while (true) {
+                long current = slots.get(index);
+                long slotDay = current >>> COUNT_BITS;
+                long next;
+                if (slotDay == day) {
+                    next = current + count;
+                } else if (slotDay < day) {
+                    next = (day << COUNT_BITS) | count;
+                } else {
+                    // The slot already holds a newer lap, so this event is outside the window
+                    return;
+                }
+                if (slots.compareAndSet(index, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private double score(long today) {
+            double score = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                long slot = slots.get(i);
+                long age = today - (slot >>> COUNT_BITS);
+                if (age >= 0 && age < windowDays) {
+                    score += (slot & COUNT_MASK) * decay(age);
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.asystems.read4u.service;
 
+import com.asystems.read4u.dto.WishlistItemView;
 import com.asystems.read4u.entity.*;
 import com.asystems.read4u.repository.*;
 import lombok.RequiredArgsConstructor;
@@ -53,11 +54,11 @@ public class WishlistService {
         wishlistRepository.delete(item);
     }
 
-    public List<WishlistItem> getWishlist(Long memberId) {
-        Member member = memberRepository.findById(memberId)
+    public List<WishlistItemView> getWishlist(Long memberId) {
+        memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found"));
 
-        return wishlistRepository.findByMemberOrderByPriorityDescAddedAtDesc(member);
+        return wishlistRepository.findViewsByMember(memberId);
     }
 
     @Transactional
@@ -0,0 +1,9 @@
+-- Ids a consumer's offset moved past while they were still invisible. Each is
+-- rechecked on every poll and delivered if its transaction commits late; one
+-- still missing at the expiry is taken to have rolled back.
+CREATE TABLE event_consumer_gaps (
+    consumer   VARCHAR(100) NOT NULL,
+    event_id   BIGINT NOT NULL,
+    skipped_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (consumer, event_id)
+);
@@ -0,0 +1,148 @@
+-- Schema as Hibernate generated it before migrations took over, written so it
+-- runs unchanged on H2 and MySQL 8. Foreign keys follow in V3, after the indexes.
+
+CREATE TABLE books (
+    id                  BIGINT AUTO_INCREMENT NOT NULL,
+    title               VARCHAR(255) NOT NULL,
+    author              VARCHAR(255) NOT NULL,
+    isbn                VARCHAR(13) NOT NULL,
+    description         VARCHAR(2000),
+    publisher           VARCHAR(255),
+    published_date      DATE,
+    category            VARCHAR(255) NOT NULL,
+    language            VARCHAR(255),
+    page_count          INTEGER,
+    cover_image_url     VARCHAR(255),
+    total_copies        INTEGER NOT NULL,
+    available_copies    INTEGER NOT NULL,
+    shelf_location      VARCHAR(255),
+    borrow_count        BIGINT DEFAULT 0 NOT NULL,
+    recent_borrow_count INTEGER DEFAULT 0 NOT NULL,
+    is_active           BOOLEAN,
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_books_isbn UNIQUE (isbn)
+);
+
+CREATE TABLE members (
+    id                     BIGINT AUTO_INCREMENT NOT NULL,
+    first_name             VARCHAR(255) NOT NULL,
+    last_name              VARCHAR(255) NOT NULL,
+    email                  VARCHAR(255) NOT NULL,
+    phone                  VARCHAR(255),
+    address                VARCHAR(255),
+    date_of_birth          DATE,
+    membership_number      VARCHAR(255) NOT NULL,
+    membership_type        VARCHAR(255),
+    membership_start_date  DATE,
+    membership_expiry_date DATE,
+    max_books_allowed      INTEGER,
+    current_borrowed_count INTEGER,
+    outstanding_fines      DOUBLE PRECISION,
+    is_active              BOOLEAN,
+    created_at             DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_members_email UNIQUE (email),
+    CONSTRAINT uk_members_membership_number UNIQUE (membership_number),
+    CONSTRAINT ck_members_membership_type
+        CHECK (membership_type IN ('STANDARD', 'PREMIUM', 'STUDENT', 'SENIOR'))
+);
+
+-- Ids come from a pooled sequence, created per vendor in V1_1
+CREATE TABLE borrow_records (
+    id            BIGINT NOT NULL,
+    book_id       BIGINT NOT NULL,
+    member_id     BIGINT NOT NULL,
+    borrow_date   DATE NOT NULL,
+    due_date      DATE NOT NULL,
+    return_date   DATE,
+    status        VARCHAR(255),
+    renewal_count INTEGER,
+    max_renewals  INTEGER,
+    fine_amount   DOUBLE PRECISION,
+    fine_paid     BOOLEAN,
+    created_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT ck_borrow_records_status CHECK (status IN ('BORROWED', 'RETURNED', 'OVERDUE', 'LOST'))
+);
+
+CREATE TABLE fines (
+    id               BIGINT AUTO_INCREMENT NOT NULL,
+    member_id        BIGINT NOT NULL,
+    borrow_record_id BIGINT,
+    amount           DOUBLE PRECISION NOT NULL,
+    fine_type        VARCHAR(255) NOT NULL,
+    description      VARCHAR(500),
+    is_paid          BOOLEAN,
+    paid_at          DATETIME(6),
+    payment_method   VARCHAR(255),
+    created_at       DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT ck_fines_fine_type CHECK (fine_type IN ('OVERDUE', 'LOST_BOOK', 'DAMAGED_BOOK', 'OTHER'))
+);
+
+CREATE TABLE reservations (
+    id               BIGINT AUTO_INCREMENT NOT NULL,
+    book_id          BIGINT NOT NULL,
+    member_id        BIGINT NOT NULL,
+    reservation_date DATETIME(6) NOT NULL,
+    expiry_date      DATETIME(6),
+    notified_at      DATETIME(6),
+    status           VARCHAR(255),
+    queue_position   INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT ck_reservations_status
+        CHECK (status IN ('PENDING', 'AVAILABLE', 'FULFILLED', 'CANCELLED', 'EXPIRED'))
+);
+
+CREATE TABLE wishlist_items (
+    id                    BIGINT AUTO_INCREMENT NOT NULL,
+    member_id             BIGINT NOT NULL,
+    book_id               BIGINT NOT NULL,
+    notes                 VARCHAR(255),
+    priority              INTEGER,
+    notify_when_available BOOLEAN,
+    added_at              DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE reading_history (
+    id              BIGINT AUTO_INCREMENT NOT NULL,
+    member_id       BIGINT NOT NULL,
+    book_id         BIGINT NOT NULL,
+    completed_at    DATETIME(6) NOT NULL,
+    rating          INTEGER,
+    review          VARCHAR(2000),
+    would_recommend BOOLEAN,
+    created_at      DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE trending_buckets (
+    id           BIGINT AUTO_INCREMENT NOT NULL,
+    book_id      BIGINT NOT NULL,
+    category     VARCHAR(255),
+    bucket_date  DATE NOT NULL,
+    borrow_count BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE job_checkpoints (
+    job_name          VARCHAR(100) NOT NULL,
+    run_date          DATE NOT NULL,
+    last_processed_id BIGINT,
+    processed_count   BIGINT,
+    completed         BOOLEAN,
+    updated_at        DATETIME(6),
+    PRIMARY KEY (job_name)
+);
+
+CREATE INDEX idx_books_popularity ON books (is_active, borrow_count);
+CREATE INDEX idx_books_category_popularity ON books (category, is_active, borrow_count);
+CREATE INDEX idx_books_category_recent_popularity ON books (category, is_active, recent_borrow_count);
+CREATE INDEX idx_books_title_keyset ON books (is_active, title, id);
+CREATE INDEX idx_members_last_name_keyset ON members (last_name, id);
+CREATE INDEX idx_borrow_records_borrow_date ON borrow_records (borrow_date, book_id);
+CREATE INDEX idx_borrow_records_member_history ON borrow_records (member_id, borrow_date DESC, id DESC);
+CREATE INDEX idx_reading_history_member_completed ON reading_history (member_id, completed_at DESC, id DESC);
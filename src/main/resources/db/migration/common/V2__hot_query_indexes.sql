@@ -0,0 +1,32 @@
+-- Composite indexes for the predicates the request paths filter on. Neither H2
+-- nor MySQL has partial indexes, so the selective column leads instead of
+-- being a WHERE clause on the index.
+
+-- Overdue listing and the nightly sweep: status IN (...) AND due_date < today
+CREATE INDEX idx_borrow_records_status_due ON borrow_records (status, due_date);
+
+-- Current loans and loan counts per member
+CREATE INDEX idx_borrow_records_member_status ON borrow_records (member_id, status);
+
+-- Pending queue for a book, read in queue order
+CREATE INDEX idx_reservations_book_queue ON reservations (book_id, status, queue_position);
+
+CREATE INDEX idx_reservations_member_status ON reservations (member_id, status);
+
+-- Expiry job: status = 'AVAILABLE' AND expiry_date < now
+CREATE INDEX idx_reservations_status_expiry ON reservations (status, expiry_date);
+
+-- Unpaid fines and their total per member
+CREATE INDEX idx_fines_member_paid ON fines (member_id, is_paid);
+
+CREATE INDEX idx_fines_paid_created ON fines (is_paid, created_at);
+
+-- Wishlist page, already in display order
+CREATE INDEX idx_wishlist_items_member_priority ON wishlist_items (member_id, priority DESC, added_at DESC);
+
+CREATE INDEX idx_wishlist_items_book_notify ON wishlist_items (book_id, notify_when_available);
+
+-- New arrivals: is_active = true AND created_at >= since
+CREATE INDEX idx_books_active_created ON books (is_active, created_at);
+
+CREATE INDEX idx_trending_buckets_bucket_date ON trending_buckets (bucket_date);
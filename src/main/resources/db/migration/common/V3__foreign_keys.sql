@@ -0,0 +1,18 @@
+-- Added after the indexes so MySQL enforces each key through the composite index
+-- that leads with its column instead of creating a single-column one. H2 always
+-- creates its own, but when two indexes cost the same it plans with the older one.
+
+ALTER TABLE borrow_records ADD CONSTRAINT fk_borrow_records_book FOREIGN KEY (book_id) REFERENCES books (id);
+ALTER TABLE borrow_records ADD CONSTRAINT fk_borrow_records_member FOREIGN KEY (member_id) REFERENCES members (id);
+
+ALTER TABLE fines ADD CONSTRAINT fk_fines_member FOREIGN KEY (member_id) REFERENCES members (id);
+ALTER TABLE fines ADD CONSTRAINT fk_fines_borrow_record FOREIGN KEY (borrow_record_id) REFERENCES borrow_records (id);
+
+ALTER TABLE reservations ADD CONSTRAINT fk_reservations_book FOREIGN KEY (book_id) REFERENCES books (id);
+ALTER TABLE reservations ADD CONSTRAINT fk_reservations_member FOREIGN KEY (member_id) REFERENCES members (id);
+
+ALTER TABLE wishlist_items ADD CONSTRAINT fk_wishlist_items_member FOREIGN KEY (member_id) REFERENCES members (id);
+ALTER TABLE wishlist_items ADD CONSTRAINT fk_wishlist_items_book FOREIGN KEY (book_id) REFERENCES books (id);
+
+ALTER TABLE reading_history ADD CONSTRAINT fk_reading_history_member FOREIGN KEY (member_id) REFERENCES members (id);
+ALTER TABLE reading_history ADD CONSTRAINT fk_reading_history_book FOREIGN KEY (book_id) REFERENCES books (id);
@@ -0,0 +1,14 @@
+-- Reading totals per member, kept current as history is added and reviewed, so
+-- the stats endpoint reads one row. Category counts are a small JSON object in
+-- the row itself; a member reads from a few dozen categories at most.
+CREATE TABLE member_reading_stats (
+    member_id         BIGINT NOT NULL,
+    books_read        BIGINT NOT NULL,
+    rated_count       BIGINT NOT NULL,
+    rating_sum        BIGINT NOT NULL,
+    recommended_count BIGINT NOT NULL,
+    category_counts   VARCHAR(4000) NOT NULL,
+    updated_at        DATETIME(6),
+    PRIMARY KEY (member_id),
+    CONSTRAINT fk_member_reading_stats_member FOREIGN KEY (member_id) REFERENCES members (id)
+);
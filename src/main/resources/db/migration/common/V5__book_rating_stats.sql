@@ -0,0 +1,18 @@
+-- Rating totals per book, kept current as reviews are added and changed, so a
+-- book page reads its average and histogram from one row.
+CREATE TABLE book_rating_stats (
+    book_id      BIGINT NOT NULL,
+    rating_count BIGINT NOT NULL,
+    rating_sum   BIGINT NOT NULL,
+    stars_1      BIGINT NOT NULL,
+    stars_2      BIGINT NOT NULL,
+    stars_3      BIGINT NOT NULL,
+    stars_4      BIGINT NOT NULL,
+    stars_5      BIGINT NOT NULL,
+    updated_at   DATETIME(6),
+    PRIMARY KEY (book_id),
+    CONSTRAINT fk_book_rating_stats_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+-- Review feed for a book, newest first
+CREATE INDEX idx_reading_history_book_completed ON reading_history (book_id, completed_at DESC, id DESC);
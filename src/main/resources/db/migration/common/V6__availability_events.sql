@@ -0,0 +1,18 @@
+-- Outbox of "a copy is on the shelf again" events. Rows are written in the
+-- transaction that frees the copy, so they only become visible once it commits;
+-- the notification dispatcher claims them, fans out to the book's wishlist
+-- subscribers and deletes them. A claim older than the lease is taken over.
+CREATE TABLE availability_events (
+    id         BIGINT AUTO_INCREMENT NOT NULL,
+    book_id    BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    claimed_by VARCHAR(36),
+    claimed_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_availability_events_book FOREIGN KEY (book_id) REFERENCES books (id)
+);
+
+CREATE INDEX idx_availability_events_claimed ON availability_events (claimed_by);
+
+-- Last availability notice sent for the item, so repeated events inside the dedupe window are not resent
+ALTER TABLE wishlist_items ADD COLUMN notified_at DATETIME(6);
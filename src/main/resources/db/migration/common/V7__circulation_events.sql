@@ -0,0 +1,24 @@
+-- Append-only log of circulation changes, written in the transaction that makes
+-- them. Ids give the delivery order. There are no foreign keys: events may name
+-- rows inserted later in the same flush, and the log outlives the rows.
+CREATE TABLE circulation_events (
+    id               BIGINT AUTO_INCREMENT NOT NULL,
+    event_type       VARCHAR(30) NOT NULL,
+    member_id        BIGINT,
+    book_id          BIGINT,
+    borrow_record_id BIGINT,
+    reservation_id   BIGINT,
+    fine_id          BIGINT,
+    amount           DOUBLE,
+    occurred_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- How far each consumer has read the log; advanced in the transaction that delivers a batch
+CREATE TABLE event_consumer_offsets (
+    consumer        VARCHAR(100) NOT NULL,
+    last_event_id   BIGINT NOT NULL,
+    delivered_count BIGINT NOT NULL,
+    updated_at      DATETIME(6),
+    PRIMARY KEY (consumer)
+);
@@ -0,0 +1,25 @@
+-- Append-only money movements behind members.outstanding_fines, in cents: charges
+-- are positive, payments and waivers negative. No foreign keys, like the event
+-- log: entries are the financial record and outlive the rows they name.
+CREATE TABLE fine_ledger_entries (
+    id           BIGINT AUTO_INCREMENT NOT NULL,
+    member_id    BIGINT NOT NULL,
+    fine_id      BIGINT,
+    entry_type   VARCHAR(20) NOT NULL,
+    amount_cents BIGINT NOT NULL,
+    created_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Covers the per-member sums the reconciliation takes
+CREATE INDEX idx_fine_ledger_member ON fine_ledger_entries (member_id, amount_cents);
+
+-- Opening entries from the fines already charged and settled
+INSERT INTO fine_ledger_entries (member_id, fine_id, entry_type, amount_cents, created_at)
+SELECT member_id, id, 'CHARGE', ROUND(amount * 100), COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM fines;
+
+INSERT INTO fine_ledger_entries (member_id, fine_id, entry_type, amount_cents, created_at)
+SELECT member_id, id, CASE WHEN payment_method LIKE 'WAIVED%' THEN 'WAIVER' ELSE 'PAYMENT' END,
+       -ROUND(amount * 100), COALESCE(paid_at, created_at, CURRENT_TIMESTAMP)
+FROM fines WHERE is_paid = TRUE;
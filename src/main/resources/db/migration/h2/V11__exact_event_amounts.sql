@@ -0,0 +1,2 @@
+-- Event amounts are exact cents like the fines they come from; existing values are rounded to the nearest cent
+ALTER TABLE circulation_events ALTER COLUMN amount SET DATA TYPE DECIMAL(12, 2);
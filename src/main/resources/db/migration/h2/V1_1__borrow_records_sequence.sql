@@ -0,0 +1 @@
+CREATE SEQUENCE borrow_records_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Money columns hold exact cents; existing values are rounded to the nearest cent
+ALTER TABLE members ALTER COLUMN outstanding_fines SET DATA TYPE DECIMAL(12, 2);
+ALTER TABLE borrow_records ALTER COLUMN fine_amount SET DATA TYPE DECIMAL(12, 2);
+ALTER TABLE fines ALTER COLUMN amount SET DATA TYPE DECIMAL(12, 2);
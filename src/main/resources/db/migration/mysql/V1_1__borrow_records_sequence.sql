@@ -0,0 +1,6 @@
+-- MySQL has no sequences; Hibernate falls back to a one-row table of the same name
+CREATE TABLE borrow_records_seq (
+    next_val BIGINT
+);
+
+INSERT INTO borrow_records_seq VALUES (1);
@@ -0,0 +1,4 @@
+-- Money columns hold exact cents; existing values are rounded to the nearest cent
+ALTER TABLE members MODIFY outstanding_fines DECIMAL(12, 2);
+ALTER TABLE borrow_records MODIFY fine_amount DECIMAL(12, 2);
+ALTER TABLE fines MODIFY amount DECIMAL(12, 2) NOT NULL;
@@ -0,0 +1,180 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.Read4UApplication;
+import com.asystems.read4u.config.ReactiveCatalogueServer;
+import com.asystems.read4u.service.BookSearchService;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Catalogue reads on the servlet endpoints against the same reads on the
+ * reactive read path, in one application over one database. Both sides see
+ * the same simulated round trip per statement: JDBC sleeps on the request
+ * thread, R2DBC waits on a timer as a networked driver would. The large
+ * request is a 500 book category page on the servlet side and the whole
+ * category as NDJSON on the reactive one. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.asystems.read4u.controller.CatalogueReadBenchmark};
+ * tuned through the {@code read4u.load.*} system properties read below.
+ */
+public class CatalogueReadBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("read4u.load.concurrency", 400);
+    private static final int WARMUP_SECONDS = Integer.getInteger("read4u.load.warmup-seconds", 5);
+    private static final int SECONDS = Integer.getInteger("read4u.load.seconds", 20);
+    private static final long DB_LATENCY_MS = Long.getLong("read4u.load.db-latency-ms", 5);
+    // Both sides get the same number of connections
+    private static final int POOL_SIZE = Integer.getInteger("read4u.load.pool-size", 20);
+
+    private static final long SEEDED_ID_BASE = 1_000_000L;
+    private static final int BOOKS = 6_000;
+    private static final int CATEGORIES = 12;
+    private static final String[] WORDS = {"harbour", "winter", "garden", "river", "silent", "orchard", "copper",
+            "lantern", "meadow", "falcon", "granite", "willow", "ember", "tide", "summit", "hollow"};
+
+    public static void main(String[] args) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Read4UApplication.class)
+                .initializers(context -> {
+                    context.getBeanFactory().addBeanPostProcessor(new LoadDriver.DatabaseLatency(DB_LATENCY_MS));
+                    context.getBeanFactory().addBeanPostProcessor(new R2dbcLatency(DB_LATENCY_MS));
+                });
+
+        List<String> report = new ArrayList<>();
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = builder.run("--server.port=0",
+                "--library.reactive.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:catalogue-load;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.datasource.hikari.minimum-idle=" + POOL_SIZE,
+                "--library.reactive.pool-size=" + POOL_SIZE,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off")) {
+            seed(context.getBean(JdbcTemplate.class));
+            context.getBean(BookSearchService.class).rebuild();
+
+            LoadDriver driver = new LoadDriver(CONCURRENCY, WARMUP_SECONDS, SECONDS);
+            int servletPort = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            report.addAll(driver.drive("servlet", servletPort, random -> next(random, false)));
+            report.add(threads("servlet", "http-nio-"));
+            report.addAll(driver.drive("reactive", context.getBean(ReactiveCatalogueServer.class).getPort(),
+                    random -> next(random, true)));
+            report.add(threads("reactive", "reactor-http-"));
+        }
+
+        System.out.printf("%nconcurrency=%d seconds=%d db-latency=%dms pool=%d%n",
+                CONCURRENCY, SECONDS, DB_LATENCY_MS, POOL_SIZE);
+        System.out.println(LoadDriver.HEADER);
+        report.forEach(System.out::println);
+    }
+
+    private static LoadDriver.Request next(ThreadLocalRandom random, boolean reactive) {
+        String category = "Load%20" + random.nextInt(CATEGORIES);
+        int pick = random.nextInt(20);
+        if (pick == 0) {
+            return reactive
+                    ? new LoadDriver.Request("large", "GET", "/api/books/category/" + category,
+                            "application/x-ndjson")
+                    : LoadDriver.Request.get("large", "/api/books/category/" + category + "?size=500");
+        }
+        if (pick < 8) {
+            return LoadDriver.Request.get("list", "/api/books?size=20&page=" + random.nextInt(50));
+        }
+        if (pick < 12) {
+            return LoadDriver.Request.get("category", "/api/books/category/" + category + "?size=20&page="
+                    + random.nextInt(10));
+        }
+        if (pick < 15) {
+            return LoadDriver.Request.get("available", "/api/books/available?size=20&page=" + random.nextInt(50));
+        }
+        return LoadDriver.Request.get("search", "/api/books/search?size=20&q="
+                + WORDS[random.nextInt(WORDS.length)]);
+    }
+
+    private static String threads(String mode, String prefix) {
+        long count = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith(prefix))
+                .count();
+        return String.format("%-9s %d %s* threads", mode, count, prefix);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 1; i <= BOOKS; i++) {
+            String title = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            books.add(new Object[]{SEEDED_ID_BASE + i, title, "Load Author " + (i % 400),
+                    String.valueOf(9787000000000L + i), "Load " + (i % CATEGORIES), i % 7 == 0 ? 0 : 2});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, isbn, category, total_copies, " +
+                "available_copies, borrow_count, recent_borrow_count, is_active, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 2, ?, 0, 0, TRUE, CURRENT_TIMESTAMP)", books);
+    }
+
+    /**
+     * Swaps the catalogue DatabaseClient for one whose statements are issued
+     * only after the configured round trip has passed on a timer.
+     */
+    private static final class R2dbcLatency implements BeanPostProcessor {
+
+        private final long latencyMs;
+
+        R2dbcLatency(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DatabaseClient client) || latencyMs <= 0) {
+                return bean;
+            }
+            return DatabaseClient.create(delayed(ConnectionFactory.class, client.getConnectionFactory()));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T delayed(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (type == Statement.class && method.getName().equals("execute")) {
+                    return Mono.delay(Duration.ofMillis(latencyMs))
+                            .thenMany(Flux.defer(() -> (Publisher<?>) invoke(target, method, args)));
+                }
+                Object result = invoke(target, method, args);
+                if (type == ConnectionFactory.class && method.getName().equals("create")) {
+                    return Mono.from((Publisher<Connection>) result)
+                            .map(connection -> delayed(Connection.class, connection));
+                }
+                // Statements handed out by a connection, or returned by their own builder methods
+                if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                    return delayed(Statement.class, statement);
+                }
+                return result;
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
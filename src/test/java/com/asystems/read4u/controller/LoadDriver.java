@@ -0,0 +1,186 @@
+package com.asystems.read4u.controller;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load for the request benchmarks: a fixed number of client
+ * threads, each sending its next request as soon as the last one is answered.
+ */
+final class LoadDriver {
+
+    static final String HEADER = String.format("%-9s %-9s %9s %7s %9s %8s %8s",
+            "mode", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+
+    record Request(String endpoint, String method, String path, String accept) {
+
+        static Request get(String endpoint, String path) {
+            return new Request(endpoint, "GET", path, null);
+        }
+    }
+
+    private final int concurrency;
+    private final int warmupSeconds;
+    private final int seconds;
+
+    LoadDriver(int concurrency, int warmupSeconds, int seconds) {
+        this.concurrency = concurrency;
+        this.warmupSeconds = warmupSeconds;
+        this.seconds = seconds;
+        // Keep a connection per client thread alive instead of the default five
+        System.setProperty("http.maxConnections", String.valueOf(concurrency));
+    }
+
+    /**
+     * One line per endpoint, in the order they were first requested.
+     */
+    List<String> drive(String mode, int port, Function<ThreadLocalRandom, Request> next)
+            throws InterruptedException {
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        // One blocking client thread per request in flight; the JDK HttpClient serialises on its own
+        // monitors at this concurrency and became the bottleneck instead of the server
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Thread client = new Thread(() -> {
+                while (System.nanoTime() < measureTo) {
+                    Request request = next.apply(ThreadLocalRandom.current());
+                    long sent = System.nanoTime();
+                    boolean ok = send(port, request);
+                    if (sent >= measureFrom) {
+                        Endpoint endpoint;
+                        synchronized (endpoints) {
+                            endpoint = endpoints.computeIfAbsent(request.endpoint(), Endpoint::new);
+                        }
+                        endpoint.record(System.nanoTime() - sent, ok);
+                    }
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            client.start();
+            clients.add(client);
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        return endpoints.values().stream().map(endpoint -> endpoint.summary(mode, seconds)).toList();
+    }
+
+    private static boolean send(int port, Request request) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + request.path())
+                    .toURL().openConnection();
+            connection.setRequestMethod(request.method());
+            if (request.accept() != null) {
+                connection.setRequestProperty("Accept", request.accept());
+            }
+            int status = connection.getResponseCode();
+            // Draining the body hands the socket back to the keep-alive cache
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (body != null) {
+                    body.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            return status < 300;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static final class Endpoint {
+
+        private final String name;
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+
+        private Endpoint(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        String summary(String mode, int seconds) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            return String.format("%-9s %-9s %9d %7d %9.1f %8.1f %8.1f", mode, name, sorted.length, errors.get(),
+                    (double) sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Wraps the pool's connections so every statement execution first waits out
+     * the given round trip, as a networked database would.
+     */
+    static final class DatabaseLatency implements BeanPostProcessor {
+
+        private final long latencyMs;
+
+        DatabaseLatency(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || latencyMs <= 0) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return delayed(Connection.class, super.getConnection());
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T delayed(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute")) {
+                    Thread.sleep(latencyMs);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                // Statements handed out by a connection are delayed the same way
+                if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    return delayed((Class<Object>) method.getReturnType(), result);
+                }
+                return result;
+            });
+        }
+    }
+}
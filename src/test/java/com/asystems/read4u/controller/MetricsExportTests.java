@@ -0,0 +1,110 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.config.SqlStatementCounter;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.service.BorrowService;
+import com.asystems.read4u.service.CirculationMetrics;
+import com.asystems.read4u.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private CirculationMetrics circulationMetrics;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void circulationOutcomesTimersAndGaugesAreScraped() throws Exception {
+        Member reader = memberRepository.save(member("metrics.reader@metrics.read4u.test", "METRICS1"));
+        Member waiter = memberRepository.save(member("metrics.waiter@metrics.read4u.test", "METRICS2"));
+        Book book = bookRepository.save(Book.builder()
+                .title("Measured Reading").author("Metrics Author").isbn("9785540000001")
+                .category("Metrics").totalCopies(1).availableCopies(1).build());
+
+        mockMvc.perform(post("/api/borrows")
+                        .param("memberId", reader.getId().toString()).param("bookId", book.getId().toString()))
+                .andExpect(status().isOk());
+        assertThatThrownBy(() -> borrowService.borrowBook(waiter.getId(), book.getId()))
+                .hasMessage("No copies available. Please reserve the book.");
+        reservationService.reserveBook(waiter.getId(), book.getId());
+        mockMvc.perform(get("/api/books/{id}", book.getId())).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("library.circulation").tag("action", "borrow").tag("outcome", "failure")
+                .tag("reason", "No copies available. Please reserve the book.").counter().count()).isPositive();
+        circulationMetrics.refreshGauges();
+        assertThat(meterRegistry.get("library.reservations.pending").gauge().value()).isGreaterThanOrEqualTo(1);
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(scrape)
+                .contains("library_circulation_total{action=\"borrow\"")
+                .contains("library_circulation_total{action=\"reserve\"")
+                .containsPattern("library_service_seconds_bucket\\{.*method=\"borrowBook\"")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{.*repository=\"BookRepository\"")
+                .containsPattern("library_http_sql_statements_count\\{.*uri=\"/api/books/\\{id}\"")
+                .contains("library_reservations_pending")
+                .contains("library_fines_outstanding")
+                .contains("hibernate_statements_total")
+                .contains("hikaricp_connections_active");
+    }
+
+    @Test
+    void statementCountCoversJdbcTemplateAsWellAsHibernate() {
+        int[] count = SqlStatementCounter.start();
+        try {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM members", Long.class);
+            memberRepository.count();
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        assertThat(count[0]).isEqualTo(2);
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Metrics").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+}
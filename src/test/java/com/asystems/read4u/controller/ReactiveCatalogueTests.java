@@ -0,0 +1,114 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.config.ReactiveCatalogueServer;
+import com.asystems.read4u.dto.BookSummary;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "library.reactive.port=0"
+})
+class ReactiveCatalogueTests {
+
+    @Autowired
+    private ReactiveCatalogueServer reactiveCatalogueServer;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void bindClient() {
+        client = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveCatalogueServer.getPort()).build();
+    }
+
+    @Test
+    void catalogueIsPagedAsJsonAndStreamedAsNdjson() {
+        // Saved directly: BookService.createBook would restock the book that is out on loan
+        for (int i = 1; i <= 7; i++) {
+            bookRepository.save(book("Flux Volume " + i, "978553000000" + i, "Reactive Streams", i == 3 ? 0 : 2));
+        }
+
+        List<BookSummary> page = client.get().uri("/api/books/category/{category}?page=1&size=3", "Reactive Streams")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(BookSummary.class).returnResult().getResponseBody();
+        assertThat(page).extracting(BookSummary::getTitle)
+                .containsExactly("Flux Volume 4", "Flux Volume 5", "Flux Volume 6");
+
+        // No size on a stream: every row, one line each, in page order
+        Flux<BookSummary> stream = client.get().uri("/api/books/category/{category}", "Reactive Streams")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BookSummary.class).getResponseBody();
+        assertThat(stream.map(BookSummary::getTitle).collectList().block()).containsExactly(
+                "Flux Volume 1", "Flux Volume 2", "Flux Volume 3", "Flux Volume 4",
+                "Flux Volume 5", "Flux Volume 6", "Flux Volume 7");
+
+        // Other tests share the database, so the whole set is streamed rather than paged
+        List<BookSummary> available = client.get().uri("/api/books/available")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BookSummary.class).getResponseBody().collectList().block();
+        assertThat(available).extracting(BookSummary::getTitle)
+                .contains("Flux Volume 2").doesNotContain("Flux Volume 3");
+    }
+
+    @Test
+    void searchRanksLikeTheServletEndpoint() {
+        bookService.createBook(book("Quixotic Backpressure", "9785530000101", "Reactive Search", 1));
+        bookService.createBook(book("A Study of Quixotic Readers", "9785530000102", "Reactive Search", 1));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> servlet = (List<Map<String, Object>>) restTemplate
+                .getForObject("/api/books/search?q=quixotic", Map.class).get("content");
+        List<BookSummary> reactive = client.get().uri("/api/books/search?q=quixotic")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BookSummary.class).returnResult().getResponseBody();
+
+        assertThat(reactive).extracting(BookSummary::getTitle)
+                .hasSize(2)
+                .containsExactlyElementsOf(servlet.stream().map(row -> (String) row.get("title")).toList());
+
+        client.get().uri("/api/books/search").exchange().expectStatus().isBadRequest();
+    }
+
+    private static Book book(String title, String isbn, String category, int copies) {
+        return Book.builder()
+                .title(title)
+                .author("Reactive Author")
+                .isbn(isbn)
+                .category(category)
+                .totalCopies(2)
+                .availableCopies(copies)
+                .build();
+    }
+}
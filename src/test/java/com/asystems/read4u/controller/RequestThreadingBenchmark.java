@@ -0,0 +1,111 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.Read4UApplication;
+import com.asystems.read4u.service.BookSearchService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput and p99 of {@code GET /api/books/search} and {@code POST /api/borrows}
+ * with Tomcat on its platform thread pool and on virtual threads. Each mode boots
+ * the application against its own in-memory H2 database in MySQL mode, seeds a
+ * catalogue and drives a fixed number of requests in flight. Every JDBC statement
+ * is delayed by a simulated round trip, which is what keeps request threads parked
+ * on the database. Run with
+ * {@code mvn -Pvirtual-threads test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.asystems.read4u.controller.RequestThreadingBenchmark}
+ * on Java 21; on Java 17 (without the profile) only the platform run happens.
+ * Tuned through the {@code read4u.load.*} system properties read below.
+ */
+public class RequestThreadingBenchmark {
+
+    private static final int CONCURRENCY = Integer.getInteger("read4u.load.concurrency", 400);
+    private static final int WARMUP_SECONDS = Integer.getInteger("read4u.load.warmup-seconds", 5);
+    private static final int SECONDS = Integer.getInteger("read4u.load.seconds", 20);
+    private static final double BORROW_SHARE =
+            Double.parseDouble(System.getProperty("read4u.load.borrow-share", "0.3"));
+    private static final long DB_LATENCY_MS = Long.getLong("read4u.load.db-latency-ms", 5);
+    // The same pool for both modes, so only the request threading differs
+    private static final int POOL_SIZE = Integer.getInteger("read4u.load.pool-size", 50);
+
+    private static final long SEEDED_ID_BASE = 1_000_000L;
+    private static final int BOOKS = 5_000;
+    private static final int MEMBERS = 2_000;
+    private static final String[] WORDS = {"harbour", "winter", "garden", "river", "silent", "orchard", "copper",
+            "lantern", "meadow", "falcon", "granite", "willow", "ember", "tide", "summit", "hollow"};
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = new ArrayList<>(List.of("platform"));
+        if (Runtime.version().feature() >= 21) {
+            modes.add("virtual");
+        } else {
+            System.out.println("Virtual threads need Java 21; measuring platform threads only");
+        }
+
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            report.addAll(run(mode));
+        }
+        System.out.printf("%nconcurrency=%d seconds=%d db-latency=%dms pool=%d borrow-share=%.2f%n",
+                CONCURRENCY, SECONDS, DB_LATENCY_MS, POOL_SIZE, BORROW_SHARE);
+        System.out.println(LoadDriver.HEADER);
+        report.forEach(System.out::println);
+    }
+
+    private static List<String> run(String mode) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(Read4UApplication.class)
+                .initializers(context -> context.getBeanFactory()
+                        .addBeanPostProcessor(new LoadDriver.DatabaseLatency(DB_LATENCY_MS)));
+        if (mode.equals("virtual")) {
+            builder.profiles("virtual-threads");
+        }
+
+        // Passed as arguments so they win over application.properties
+        try (ConfigurableApplicationContext context = builder.run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode
+                        + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--spring.datasource.hikari.minimum-idle=" + POOL_SIZE,
+                "--spring.jpa.show-sql=false",
+                "--library.reactive.port=-1",
+                "--logging.level.root=WARN",
+                "--spring.main.banner-mode=off")) {
+            seed(context.getBean(JdbcTemplate.class));
+            context.getBean(BookSearchService.class).rebuild();
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            return new LoadDriver(CONCURRENCY, WARMUP_SECONDS, SECONDS).drive(mode, port, random ->
+                    random.nextDouble() < BORROW_SHARE
+                            ? new LoadDriver.Request("borrow", "POST", "/api/borrows?memberId="
+                                    + (SEEDED_ID_BASE + 1 + random.nextInt(MEMBERS))
+                                    + "&bookId=" + (SEEDED_ID_BASE + 1 + random.nextInt(BOOKS)), null)
+                            : LoadDriver.Request.get("search", "/api/books/search?q="
+                                    + WORDS[random.nextInt(WORDS.length)] + "&size=20"));
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 1; i <= BOOKS; i++) {
+            String title = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i;
+            books.add(new Object[]{SEEDED_ID_BASE + i, title, "Load Author " + (i % 400),
+                    String.valueOf(9787000000000L + i), "Load " + (i % 12)});
+        }
+        // Copies and borrow limits high enough that no request fails on stock or quota
+        jdbcTemplate.batchUpdate("INSERT INTO books (id, title, author, isbn, category, total_copies, " +
+                "available_copies, borrow_count, recent_borrow_count, is_active, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 1000000, 1000000, 0, 0, TRUE, CURRENT_TIMESTAMP)", books);
+
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 1; i <= MEMBERS; i++) {
+            members.add(new Object[]{SEEDED_ID_BASE + i, "Reader " + i, "load" + i + "@load.read4u.test", "LOAD-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO members (id, first_name, last_name, email, membership_number, " +
+                "membership_type, max_books_allowed, current_borrowed_count, outstanding_fines, is_active, " +
+                "created_at) VALUES (?, 'Load', ?, ?, ?, 'STANDARD', 1000000, 0, 0, TRUE, CURRENT_TIMESTAMP)",
+                members);
+    }
+}
@@ -0,0 +1,131 @@
+package com.asystems.read4u.controller;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Fine;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.service.BookService;
+import com.asystems.read4u.service.FineService;
+import com.asystems.read4u.service.ReservationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class ResponseQueryBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void everyReadEndpointStaysWithinItsStatementBudget() throws Exception {
+        Member reader = memberRepository.save(member("budget.reader@budget.read4u.test", "BUDGET1"));
+        Member waiter = memberRepository.save(member("budget.waiter@budget.read4u.test", "BUDGET2"));
+        Book book = bookService.createBook(book("Budgeted Reading", "9785510000001"));
+
+        // Writes go through the endpoints too, so their responses are checked with open-in-view off
+        String borrow = mockMvc.perform(post("/api/borrows")
+                        .param("memberId", reader.getId().toString()).param("bookId", book.getId().toString()))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        assertThat(borrow).contains("\"bookTitle\":\"Budgeted Reading\"").doesNotContain("borrowRecords");
+        mockMvc.perform(post("/api/members/{id}/wishlist", waiter.getId()).param("bookId", book.getId().toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/members/{id}/reading-history", reader.getId())
+                        .param("bookId", book.getId().toString()).param("rating", "4"))
+                .andExpect(status().isOk());
+        reservationService.reserveBook(waiter.getId(), book.getId());
+        fineService.createFine(memberRepository.findById(waiter.getId()).orElseThrow(), null, new BigDecimal("2.00"),
+                Fine.FineType.OTHER, "Budget fine");
+
+        // Page endpoints may add a count query once a page is full
+        Map<String, Integer> budgets = new LinkedHashMap<>();
+        budgets.put("/api/books", 2);
+        budgets.put("/api/books/" + book.getId(), 1);
+        budgets.put("/api/books/isbn/9785510000001", 1);
+        budgets.put("/api/books/" + book.getId() + "/reviews", 0);
+        budgets.put("/api/books/" + book.getId() + "/ratings", 1);
+        budgets.put("/api/books/category/Budget", 2);
+        budgets.put("/api/books/available", 2);
+        budgets.put("/api/books/new-arrivals", 1);
+        budgets.put("/api/books/popular/Budget", 1);
+        budgets.put("/api/members", 2);
+        budgets.put("/api/members/" + reader.getId(), 1);
+        budgets.put("/api/members/" + waiter.getId() + "/fines", 1);
+        budgets.put("/api/members/" + waiter.getId() + "/fines/unpaid", 1);
+        budgets.put("/api/members/" + waiter.getId() + "/reservations", 1);
+        budgets.put("/api/members/" + reader.getId() + "/reservations/available", 1);
+        budgets.put("/api/members/" + waiter.getId() + "/wishlist", 1);
+        budgets.put("/api/members/" + reader.getId() + "/reading-history", 2);
+        budgets.put("/api/members/" + reader.getId() + "/reading-stats", 1);
+        budgets.put("/api/borrows/member/" + reader.getId() + "/current", 1);
+        budgets.put("/api/borrows/member/" + reader.getId() + "/history", 2);
+        budgets.put("/api/borrows/overdue", 1);
+        budgets.put("/api/borrows/member/" + reader.getId() + "/overdue", 1);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (Map.Entry<String, Integer> budget : budgets.entrySet()) {
+            // The first call warms the entity cache used for the member and book lookups
+            mockMvc.perform(get(budget.getKey())).andExpect(status().isOk());
+
+            statistics.clear();
+            String body = mockMvc.perform(get(budget.getKey()))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+            assertThat(statistics.getPrepareStatementCount())
+                    .as("SQL statements for GET %s", budget.getKey())
+                    .isLessThanOrEqualTo(budget.getValue());
+            assertThat(body).as("body of GET %s", budget.getKey())
+                    .doesNotContain("borrowRecords", "wishlistItems", "\"fines\"", "\"member\"");
+        }
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Budget").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+
+    private static Book book(String title, String isbn) {
+        return Book.builder()
+                .title(title)
+                .author("Budget Author")
+                .isbn(isbn)
+                .category("Budget")
+                .totalCopies(1)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.AvailabilityNotification;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.WishlistItem;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.repository.WishlistRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class AvailabilityNotificationTests {
+
+    @Autowired
+    private AvailabilityNotificationService availabilityNotificationService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void returningTheLastCopyNotifiesSubscribersOnceInsideTheDedupeWindow() throws Exception {
+        Book book = bookRepository.save(book("9785570000001", 1));
+        List<Member> members = members("notify.return", 4);
+        List<WishlistItem> items = new ArrayList<>();
+        for (Member member : members.subList(1, 4)) {
+            items.add(wishlistService.addToWishlist(member.getId(), book.getId(), null, null));
+        }
+        wishlistService.toggleNotification(members.get(3).getId(), book.getId());
+
+        BorrowRecord loan = borrowService.borrowBook(members.get(0).getId(), book.getId());
+        borrowService.returnBook(loan.getId());
+        awaitDispatched(() -> notifiedAt(items.get(0)) != null && notifiedAt(items.get(1)) != null);
+        assertThat(notifiedAt(items.get(2))).isNull();
+
+        // Back on the shelf a second time the same day: the event is consumed without a second notice
+        LocalDateTime first = notifiedAt(items.get(0));
+        loan = borrowService.borrowBook(members.get(0).getId(), book.getId());
+        borrowService.returnBook(loan.getId());
+        awaitDispatched(() -> pendingEvents(book) == 0);
+        assertThat(notifiedAt(items.get(0))).isEqualTo(first);
+    }
+
+    @Test
+    void copiesHeldForReservationsOrAlreadyOnTheShelfRecordNoEvent() {
+        Book held = bookRepository.save(book("9785570000002", 1));
+        Book stocked = bookRepository.save(book("9785570000003", 2));
+        List<Member> members = members("notify.held", 3);
+        wishlistService.addToWishlist(members.get(2).getId(), held.getId(), null, null);
+
+        BorrowRecord loan = borrowService.borrowBook(members.get(0).getId(), held.getId());
+        reservationService.reserveBook(members.get(1).getId(), held.getId());
+        borrowService.returnBook(loan.getId());
+        assertThat(pendingEvents(held)).isZero();
+
+        loan = borrowService.borrowBook(members.get(0).getId(), stocked.getId());
+        borrowService.returnBook(loan.getId());
+        assertThat(pendingEvents(stocked)).isZero();
+    }
+
+    @Test
+    void restockingAnEmptyShelfNotifiesSubscribers() throws Exception {
+        Book book = bookRepository.save(book("9785570000004", 1));
+        List<Member> members = members("notify.restock", 2);
+        WishlistItem item = wishlistService.addToWishlist(members.get(1).getId(), book.getId(), null, null);
+        borrowService.borrowBook(members.get(0).getId(), book.getId());
+
+        bookService.updateInventory(book.getId(), 1);
+        awaitDispatched(() -> notifiedAt(item) != null);
+    }
+
+    @Test
+    void fileSinkAppendsOneLinePerNotice(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("out/notifications.log");
+        FileNotificationSink sink = new FileNotificationSink(file.toString());
+        sink.send(List.of(new AvailabilityNotification(1L, 2L, "a@read4u.test", "A", 3L, "Title")));
+        sink.send(List.of(new AvailabilityNotification(4L, 5L, "b@read4u.test", "B", 3L, "Title")));
+
+        assertThat(Files.readAllLines(file))
+                .containsExactly("1\t2\ta@read4u.test\t3\tTitle", "4\t5\tb@read4u.test\t3\tTitle");
+    }
+
+    @Test
+    void rateLimiterSpacesBatchesOut() throws Exception {
+        RateLimiter limiter = new RateLimiter(100);
+        long start = System.nanoTime();
+        limiter.acquire(10);
+        limiter.acquire(10);
+        limiter.acquire(1);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(190_000_000L);
+    }
+
+    // Every context polls the shared outbox, so whichever one claims the event, the outcome is checked in the database
+    private void awaitDispatched(BooleanSupplier done) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!done.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("dispatch finished in time").isLessThan(deadline);
+            availabilityNotificationService.dispatch();
+            Thread.sleep(50);
+        }
+    }
+
+    private LocalDateTime notifiedAt(WishlistItem item) {
+        return wishlistRepository.findById(item.getId()).orElseThrow().getNotifiedAt();
+    }
+
+    private int pendingEvents(Book book) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM availability_events WHERE book_id = ?",
+                Integer.class, book.getId());
+    }
+
+    private List<Member> members(String prefix, int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(memberRepository.save(Member.builder()
+                    .firstName("Notify").lastName("Reader " + i)
+                    .email(prefix + i + "@notify.read4u.test").membershipNumber((prefix + i).toUpperCase())
+                    .build()));
+        }
+        return members;
+    }
+
+    private static Book book(String isbn, int copies) {
+        return Book.builder()
+                .title("Wished " + isbn).author("Notify Author").isbn(isbn)
+                .category("Notify").totalCopies(copies).availableCopies(copies).build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BookRatingSummary;
+import com.asystems.read4u.dto.BookReviewView;
+import com.asystems.read4u.dto.CursorPage;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.ReadingHistory;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class BookRatingStatsServiceTests {
+
+    @Autowired
+    private ReadingHistoryService readingHistoryService;
+
+    @Autowired
+    private BookRatingStatsService bookRatingStatsService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reviewWritesKeepTheHistogramInStepWithARebuild() {
+        Book book = bookRepository.save(book("9785560000001"));
+        List<Member> readers = members("ratings", 4);
+        ReadingHistory first = readingHistoryService.addToHistory(readers.get(0).getId(), book.getId(), 5, "Loved it", true);
+        readingHistoryService.addToHistory(readers.get(1).getId(), book.getId(), 4, null, true);
+        readingHistoryService.addToHistory(readers.get(2).getId(), book.getId(), null, "No stars", false);
+        readingHistoryService.addToHistory(readers.get(3).getId(), book.getId(), 1, null, false);
+        readingHistoryService.updateReview(first.getId(), readers.get(0).getId(), 3, null, null);
+        assertThatThrownBy(() -> readingHistoryService.updateReview(first.getId(), readers.get(0).getId(), 6, null, null))
+                .hasMessage("Rating must be between 1 and 5");
+
+        BookRatingSummary summary = bookRatingStatsService.getSummary(book.getId());
+        assertThat(summary.getRatingCount()).isEqualTo(3);
+        assertThat(summary.getAverageRating()).isEqualTo(2.7);
+        assertThat(summary.getHistogram()).isEqualTo(Map.of(1, 1L, 2, 0L, 3, 1L, 4, 1L, 5, 0L));
+        assertThat(readingHistoryService.getAverageRating(book.getId())).isEqualTo(2.7);
+
+        bookRatingStatsService.rebuild();
+        assertThat(bookRatingStatsService.getSummary(book.getId())).isEqualTo(summary);
+    }
+
+    @Test
+    void statsAreBuiltOnFirstReadForHistoryWrittenAroundTheService() {
+        Book book = bookRepository.save(book("9785560000002"));
+        Member reader = members("ratings.lazy", 1).get(0);
+        jdbcTemplate.update("INSERT INTO reading_history (member_id, book_id, completed_at, rating, would_recommend, created_at) "
+                + "VALUES (?, ?, CURRENT_TIMESTAMP, 2, FALSE, CURRENT_TIMESTAMP)", reader.getId(), book.getId());
+
+        BookRatingSummary summary = bookRatingStatsService.getSummary(book.getId());
+        assertThat(summary.getRatingCount()).isEqualTo(1);
+        assertThat(summary.getHistogram()).containsEntry(2, 1L);
+        assertThatThrownBy(() -> bookRatingStatsService.getSummary(Long.MAX_VALUE)).hasMessage("Book not found");
+    }
+
+    @Test
+    void reviewFeedPagesNewestFirstAndTheCachedPageSeesNewReviews() {
+        Book book = bookRepository.save(book("9785560000003"));
+        List<Member> readers = members("feed", 25);
+        for (int i = 0; i < 24; i++) {
+            readingHistoryService.addToHistory(readers.get(i).getId(), book.getId(), 1 + i % 5, "Review " + i, false);
+        }
+
+        List<Long> seen = new ArrayList<>();
+        CursorPage<BookReviewView> page = readingHistoryService.scrollBookReviews(book.getId(), null, 10);
+        while (true) {
+            page.getItems().forEach(review -> seen.add(review.getId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = readingHistoryService.scrollBookReviews(book.getId(), page.getNextCursor(), 10);
+        }
+        assertThat(seen).hasSize(24).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+
+        // Served from the cache, then refreshed once a new review commits
+        assertThat(readingHistoryService.scrollBookReviews(book.getId(), null, 20).getNextCursor()).isNotNull();
+        ReadingHistory latest = readingHistoryService.addToHistory(readers.get(24).getId(), book.getId(), 5, "Newest", true);
+        CursorPage<BookReviewView> first = readingHistoryService.scrollBookReviews(book.getId(), null, 20);
+        assertThat(first.getItems()).hasSize(20);
+        assertThat(first.getItems().get(0).getId()).isEqualTo(latest.getId());
+        assertThat(first.getItems().get(0).getMemberFirstName()).isEqualTo("Feed");
+    }
+
+    private List<Member> members(String prefix, int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(memberRepository.save(Member.builder()
+                    .firstName("Feed").lastName("Reader " + i)
+                    .email(prefix + i + "@ratings.read4u.test").membershipNumber((prefix + i).toUpperCase())
+                    .build()));
+        }
+        return members;
+    }
+
+    private static Book book(String isbn) {
+        return Book.builder()
+                .title("Rated " + isbn).author("Ratings Author").isbn(isbn)
+                .category("Ratings").totalCopies(1).availableCopies(1).build();
+    }
+}
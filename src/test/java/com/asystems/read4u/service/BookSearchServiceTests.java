@@ -0,0 +1,73 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookSearchServiceTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void searchRanksPrefixAndFuzzyMatchesAndTracksWrites() {
+        Book pragmatic = bookService.createBook(book("The Pragmatic Programmer", "Andrew Hunt", "9780201616224"));
+        Book pearls = bookService.createBook(book("Programming Pearls", "Jon Bentley", "9780201657883"));
+
+        assertThat(titles("pragmatic")).first().isEqualTo("The Pragmatic Programmer");
+        assertThat(titles("pragm")).contains("The Pragmatic Programmer");
+        assertThat(titles("progammer")).contains("The Pragmatic Programmer");
+        assertThat(titles("bentley")).containsExactly("Programming Pearls");
+        assertThat(titles("978020165")).containsExactly("Programming Pearls");
+
+        Book renamed = book("Pearls of Programming", "Jon Bentley", pearls.getIsbn());
+        bookService.updateBook(pearls.getId(), renamed);
+        assertThat(titles("pearls of")).first().isEqualTo("Pearls of Programming");
+
+        bookService.deactivateBook(pragmatic.getId());
+        assertThat(titles("pragmatic")).isEmpty();
+    }
+
+    @Test
+    void rebuildIndexesBooksWrittenAroundTheService() {
+        jdbcTemplate.update("INSERT INTO books (title, author, isbn, category, total_copies, available_copies, " +
+                "is_active, created_at) VALUES ('Velvet Lantern Orchard', 'Bulk Author', '9790000000001', " +
+                "'Fiction', 3, 3, TRUE, CURRENT_TIMESTAMP)");
+        assertThat(titles("lantern orchard")).doesNotContain("Velvet Lantern Orchard");
+
+        bookSearchService.rebuild();
+        assertThat(titles("lantern orchard")).first().isEqualTo("Velvet Lantern Orchard");
+    }
+
+    private List<String> titles(String query) {
+        return bookService.searchBooks(query, PageRequest.of(0, 10)).map(Book::getTitle).getContent();
+    }
+
+    private static Book book(String title, String author, String isbn) {
+        return Book.builder()
+                .title(title)
+                .author(author)
+                .isbn(isbn)
+                .category("Computing")
+                .publisher("Addison-Wesley")
+                .totalCopies(2)
+                .build();
+    }
+}
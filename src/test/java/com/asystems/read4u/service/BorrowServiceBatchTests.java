@@ -0,0 +1,135 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BatchResult;
+import com.asystems.read4u.dto.BorrowRequest;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BorrowServiceBatchTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowServiceBatchTests.class);
+
+    private static final int ITEMS = 50;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void batchCheckoutAndReturnUseFewerRoundTripsThanSingleItemPath() {
+        List<BorrowRequest> singleRequests = seed("single", ITEMS);
+        List<BorrowRequest> batchRequests = seed("batch", ITEMS);
+
+        statistics.clear();
+        List<Long> singleRecordIds = new ArrayList<>();
+        for (BorrowRequest request : singleRequests) {
+            singleRecordIds.add(borrowService.borrowBook(request.getMemberId(), request.getBookId()).getId());
+        }
+        long singleBorrowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        BatchResult borrowed = borrowService.borrowBooks(batchRequests);
+        long batchBorrowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        for (Long id : singleRecordIds) {
+            borrowService.returnBook(id);
+        }
+        long singleReturnStatements = statistics.getPrepareStatementCount();
+
+        List<Long> batchRecordIds = borrowed.getItems().stream().map(i -> i.getBorrowRecordId()).toList();
+        statistics.clear();
+        BatchResult returned = borrowService.returnBooks(batchRecordIds);
+        long batchReturnStatements = statistics.getPrepareStatementCount();
+
+        log.info("checkout round trips per item: single={} batch={}",
+                (double) singleBorrowStatements / ITEMS, (double) batchBorrowStatements / ITEMS);
+        log.info("return round trips per item: single={} batch={}",
+                (double) singleReturnStatements / ITEMS, (double) batchReturnStatements / ITEMS);
+
+        assertThat(borrowed.getSucceeded()).isEqualTo(ITEMS);
+        assertThat(returned.getSucceeded()).isEqualTo(ITEMS);
+        assertThat(batchBorrowStatements * 5).isLessThan(singleBorrowStatements);
+        assertThat(batchReturnStatements * 5).isLessThan(singleReturnStatements);
+    }
+
+    @Test
+    void batchReportsPerItemFailuresWithoutRollingBackTheRest() {
+        List<BorrowRequest> requests = seed("partial", 3);
+        requests.add(new BorrowRequest(requests.get(0).getMemberId(), -1L));
+        requests.add(new BorrowRequest(requests.get(1).getMemberId(), requests.get(0).getBookId()));
+
+        BatchResult result = borrowService.borrowBooks(requests);
+
+        assertThat(result.getSucceeded()).isEqualTo(3);
+        assertThat(result.getItems().get(3).getError()).isEqualTo("Book not found");
+        assertThat(result.getItems().get(4).getError()).isEqualTo("No copies available. Please reserve the book.");
+        assertThat(bookRepository.findById(requests.get(0).getBookId()).orElseThrow().getAvailableCopies()).isZero();
+
+        BatchResult returned = borrowService.returnBooks(List.of(
+                result.getItems().get(0).getBorrowRecordId(),
+                result.getItems().get(0).getBorrowRecordId(),
+                -1L));
+
+        assertThat(returned.getItems()).extracting(i -> i.getError())
+                .containsExactly(null, "Book is not currently borrowed", "Borrow record not found");
+    }
+
+    private List<BorrowRequest> seed(String prefix, int count) {
+        List<BorrowRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Member member = memberRepository.save(Member.builder()
+                    .firstName("Batch")
+                    .lastName(String.valueOf(i))
+                    .email(prefix + i + "@batch.read4u.test")
+                    .membershipNumber("B" + prefix.toUpperCase() + i)
+                    .build());
+            Book book = bookRepository.save(Book.builder()
+                    .title("Batch " + prefix + " " + i)
+                    .author("Circulation Desk")
+                    .isbn(String.format("97%s%04d", Integer.toHexString(prefix.hashCode() & 0xffffff), i))
+                    .category("Testing")
+                    .totalCopies(1)
+                    .availableCopies(1)
+                    .build());
+            requests.add(new BorrowRequest(member.getId(), book.getId()));
+        }
+        return requests;
+    }
+}
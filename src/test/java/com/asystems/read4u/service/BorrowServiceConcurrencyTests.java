@@ -0,0 +1,193 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.BorrowRecordRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BorrowServiceConcurrencyTests {
+
+    private static final Logger log = LoggerFactory.getLogger(BorrowServiceConcurrencyTests.class);
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Test
+    void parallelBorrowsOfOneBookNeverOversellCopies() throws Exception {
+        int copies = 100;
+        int borrowers = 2000;
+        Book book = bookRepository.save(book("9780000000101", copies));
+        List<Member> members = memberRepository.saveAll(members("oversell", borrowers));
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Member member : members) {
+            tasks.add(() -> borrowService.borrowBook(member.getId(), book.getId()) != null);
+        }
+        int succeeded = runConcurrently("same-book borrows", tasks);
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        long activeLoans = borrowRecordRepository.findAll().stream()
+                .filter(r -> r.getBook().getId().equals(book.getId()))
+                .filter(r -> r.getStatus() == BorrowRecord.BorrowStatus.BORROWED)
+                .count();
+
+        assertThat(reloaded.getAvailableCopies()).isGreaterThanOrEqualTo(0);
+        assertThat(succeeded).isLessThanOrEqualTo(copies);
+        assertThat(reloaded.getAvailableCopies()).isEqualTo(copies - succeeded);
+        assertThat(activeLoans).isEqualTo(succeeded);
+    }
+
+    @Test
+    void parallelBorrowsByOneMemberRespectBorrowLimit() throws Exception {
+        Member member = memberRepository.saveAll(members("limit", 1)).get(0);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            books.add(bookRepository.save(book(String.format("978000001%04d", i), 3)));
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (Book book : books) {
+            tasks.add(() -> borrowService.borrowBook(member.getId(), book.getId()) != null);
+        }
+        int succeeded = runConcurrently("one-member borrows", tasks);
+
+        Member reloaded = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(succeeded).isLessThanOrEqualTo(reloaded.getMaxBooksAllowed());
+        assertThat(reloaded.getCurrentBorrowedCount()).isEqualTo(succeeded);
+    }
+
+    @Test
+    void catalogueAndProfileEditsDoNotWriteOverCheckoutCounts() throws Exception {
+        int copies = 100;
+        Book book = bookRepository.save(book("9780000000118", copies));
+        List<Member> members = memberRepository.saveAll(members("editrace", 150));
+        Member regular = members.get(0);
+        List<Book> shelf = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            shelf.add(bookRepository.save(book(String.format("978000002%04d", i), 1)));
+        }
+
+        // Edits read the rows the checkouts are counting on and save them whole
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 1; i < members.size(); i++) {
+            Member member = members.get(i);
+            Book edit = book("9780000000118", copies);
+            edit.setShelfLocation("Aisle " + i);
+            tasks.add(() -> borrowService.borrowBook(member.getId(), book.getId()) != null);
+            tasks.add(() -> bookService.updateBook(book.getId(), edit) == null);
+        }
+        for (Book copy : shelf) {
+            tasks.add(() -> borrowService.borrowBook(regular.getId(), copy.getId()) != null);
+            for (int i = 0; i < 10; i++) {
+                Member edit = members("editrace", 1).get(0);
+                edit.setPhone("555-01" + i + copy.getId());
+                tasks.add(() -> memberService.updateMember(regular.getId(), edit) == null);
+            }
+        }
+        int succeeded = runConcurrently("checkouts alongside edits", tasks);
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        long activeLoans = borrowRecordRepository.findAll().stream()
+                .filter(r -> r.getBook().getId().equals(book.getId()))
+                .filter(r -> r.getStatus() == BorrowRecord.BorrowStatus.BORROWED)
+                .count();
+        assertThat(reloaded.getAvailableCopies()).isEqualTo(copies - (int) activeLoans);
+        assertThat(reloaded.getBorrowCount()).isEqualTo(activeLoans);
+        assertThat(memberRepository.findById(regular.getId()).orElseThrow().getCurrentBorrowedCount())
+                .isEqualTo(succeeded - (int) activeLoans)
+                .isEqualTo(shelf.size());
+    }
+
+    private int runConcurrently(String label, List<Callable<Boolean>> tasks) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        if (task.call()) {
+                            succeeded.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        // Rejected checkouts are expected once copies or slots run out
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("{}: {} attempts, {} succeeded, {} ops/sec on {} threads",
+                label, tasks.size(), succeeded.get(), Math.round(tasks.size() / seconds), THREADS);
+        return succeeded.get();
+    }
+
+    private static Book book(String isbn, int copies) {
+        return Book.builder()
+                .title("Stress Test " + isbn)
+                .author("Load Generator")
+                .isbn(isbn)
+                .category("Testing")
+                .totalCopies(copies)
+                .availableCopies(copies)
+                .build();
+    }
+
+    private static List<Member> members(String prefix, int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(Member.builder()
+                    .firstName("Reader")
+                    .lastName(String.valueOf(i))
+                    .email(prefix + i + "@read4u.test")
+                    .membershipNumber(prefix.toUpperCase() + i)
+                    .build());
+        }
+        return members;
+    }
+}
@@ -0,0 +1,106 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class CatalogueCachingTests {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void checkoutEvictsOnlyTheRowsItChanged() {
+        Member member = memberRepository.save(Member.builder()
+                .firstName("Cached").lastName("Reader")
+                .email("cached.reader@cache.read4u.test").membershipNumber("CACHE1")
+                .build());
+        Book borrowed = bookService.createBook(book("Cached Checkout", "9785500000001", "Caching"));
+        Book untouched = bookService.createBook(book("Cached Bystander", "9785500000002", "Caching"));
+        bookService.getBookById(borrowed.getId());
+        bookService.getBookById(untouched.getId());
+        memberService.getMemberById(member.getId());
+
+        borrowService.borrowBook(member.getId(), borrowed.getId());
+
+        statistics.clear();
+        assertThat(bookService.getBookById(untouched.getId()).getAvailableCopies()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThat(bookService.getBookById(borrowed.getId()).getAvailableCopies()).isEqualTo(1);
+        assertThat(memberService.getMemberById(member.getId()).getCurrentBorrowedCount()).isEqualTo(1);
+
+        statistics.clear();
+        bookService.getBookById(borrowed.getId());
+        memberService.getMemberById(member.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void categoriesAreCachedUntilTheCatalogueChanges() {
+        bookService.createBook(book("Cached Atlas", "9785500000003", "Cartography"));
+        assertThat(bookService.getAllCategories()).contains("Cartography");
+        bookService.getNewArrivals(30);
+
+        statistics.clear();
+        bookService.getAllCategories();
+        bookService.getNewArrivals(30);
+        long cachedStatements = statistics.getPrepareStatementCount();
+
+        Book created = bookService.createBook(book("Cached Almanac", "9785500000004", "Almanacs"));
+
+        assertThat(cachedStatements).isZero();
+        assertThat(bookService.getAllCategories()).contains("Almanacs");
+        assertThat(bookService.getNewArrivals(30)).extracting(Book::getId).contains(created.getId());
+        assertThat(meterRegistry.find("cache.gets").tag("cache", "categories").tag("result", "hit")
+                .functionCounter().count()).isPositive();
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("result", "hit")
+                .functionCounter()).isNotNull();
+    }
+
+    private static Book book(String title, String isbn, String category) {
+        return Book.builder()
+                .title(title)
+                .author("Cache Author")
+                .isbn(isbn)
+                .category(category)
+                .totalCopies(2)
+                .build();
+    }
+}
@@ -0,0 +1,275 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.CirculationEvent;
+import com.asystems.read4u.entity.CirculationEvent.EventType;
+import com.asystems.read4u.entity.Fine;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.Reservation;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.CirculationEventRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "library.events.poll-ms=3600000",
+        "library.events.gap-grace-ms=500"
+})
+class CirculationEventTests {
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private CirculationEventRelay circulationEventRelay;
+
+    @Autowired
+    private CirculationEventLog circulationEventLog;
+
+    @Autowired
+    private CirculationEventRepository circulationEventRepository;
+
+    @Autowired
+    private ListenerEventConsumer listenerEventConsumer;
+
+    @Autowired
+    private RecordingConsumer recorder;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void committedCirculationChangesAreLoggedInOrder() {
+        Book book = bookRepository.save(book("9785580000001"));
+        Member reader = memberRepository.save(member("events.reader@events.read4u.test", "EVENTS1"));
+        Member other = memberRepository.save(member("events.other@events.read4u.test", "EVENTS2"));
+
+        BorrowRecord loan = borrowService.borrowBook(reader.getId(), book.getId());
+        borrowService.renewBook(loan.getId());
+        borrowService.returnBook(loan.getId());
+        borrowService.borrowBook(other.getId(), book.getId());
+        Reservation hold = reservationService.reserveBook(reader.getId(), book.getId());
+        reservationService.cancelReservation(hold.getId(), reader.getId());
+        Fine fine = fineService.createFine(memberRepository.findById(reader.getId()).orElseThrow(), null, new BigDecimal("1.50"),
+                Fine.FineType.OTHER, "Events fine");
+        fineService.payFine(fine.getId(), "CASH");
+        assertThatThrownBy(() -> borrowService.borrowBook(reader.getId(), book.getId()))
+                .hasMessage("No copies available. Please reserve the book.");
+
+        List<CirculationEvent> events = circulationEventRepository.findByMemberIdOrderById(reader.getId());
+        assertThat(events).extracting(CirculationEvent::getType).containsExactly(
+                EventType.BORROWED, EventType.RENEWED, EventType.RETURNED, EventType.RESERVED,
+                EventType.RESERVATION_CANCELLED, EventType.FINE_CHARGED, EventType.FINE_PAID);
+        assertThat(events.get(0).getBorrowRecordId()).isEqualTo(loan.getId());
+        assertThat(events.get(3).getReservationId()).isEqualTo(hold.getId());
+        assertThat(events.get(6).getFineId()).isEqualTo(fine.getId());
+        assertThat(events.get(6).getAmount()).isEqualByComparingTo("1.50");
+    }
+
+    @Test
+    void onlyALoanStillOutCanBeLost() {
+        Book book = bookRepository.save(book("9785580000003"));
+        Member reader = memberRepository.save(member("events.lost@events.read4u.test", "EVENTS4"));
+        BorrowRecord returned = borrowService.borrowBook(reader.getId(), book.getId());
+        borrowService.returnBook(returned.getId());
+        BorrowRecord lost = borrowService.borrowBook(reader.getId(), book.getId());
+
+        assertThatThrownBy(() -> borrowService.markAsLost(returned.getId(), new BigDecimal("20.00")))
+                .hasMessage("Book is not currently borrowed");
+        borrowService.markAsLost(lost.getId(), new BigDecimal("20.00"));
+        assertThatThrownBy(() -> borrowService.markAsLost(lost.getId(), new BigDecimal("20.00")))
+                .hasMessage("Book is not currently borrowed");
+
+        assertThat(circulationEventRepository.findByMemberIdOrderById(reader.getId()))
+                .extracting(CirculationEvent::getType)
+                .containsExactly(EventType.BORROWED, EventType.RETURNED, EventType.BORROWED, EventType.LOST,
+                        EventType.FINE_CHARGED);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTotalCopies()).isZero();
+    }
+
+    @Test
+    void relayRedeliversAFailedBatchAndWaitsOutGaps() throws Exception {
+        Book book = bookRepository.save(book("9785580000002"));
+        Member reader = memberRepository.save(member("events.relay@events.read4u.test", "EVENTS3"));
+        BorrowRecord loan = borrowService.borrowBook(reader.getId(), book.getId());
+        relayUntilDelivered(lastEventId());
+
+        // The consumer takes the batch and then fails, so it sees the event again
+        recorder.failNext.set(true);
+        borrowService.returnBook(loan.getId());
+        long returned = lastEventId();
+        circulationEventRelay.relay();
+        circulationEventRelay.relay();
+        assertThat(recorder.events).filteredOn(e -> e.getId() == returned).hasSize(2);
+
+        // A rolled-back append leaves a hole in the ids that holds back the event after it
+        transactionTemplate.executeWithoutResult(status -> {
+            circulationEventLog.append(CirculationEvent.builder().type(EventType.RENEWED).build());
+            status.setRollbackOnly();
+        });
+        loan = borrowService.borrowBook(reader.getId(), book.getId());
+        long afterGap = lastEventId();
+        circulationEventRelay.relay();
+        assertThat(recorder.events).noneMatch(e -> e.getId() == afterGap);
+        Thread.sleep(600);
+        relayUntilDelivered(afterGap);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> offsets = (Map<String, Object>) circulationEventRelay.getOffsets().get(RecordingConsumer.NAME);
+        assertThat((Long) offsets.get("lastEventId")).isGreaterThanOrEqualTo(afterGap);
+    }
+
+    @Test
+    void anEventCommittedAfterItsGapWasPassedIsStillDelivered() throws Exception {
+        Book book = bookRepository.save(book("9785580000005"));
+        Member reader = memberRepository.save(member("events.late@events.read4u.test", "EVENTS5"));
+
+        // A long transaction holds its event's id while later events commit and outlive the grace period
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong lateId = new AtomicLong();
+        Thread slow = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            circulationEventLog.append(CirculationEvent.builder().type(EventType.RENEWED)
+                    .memberId(reader.getId()).build());
+            lateId.set(lastEventId());
+            appended.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        slow.start();
+        appended.await();
+        borrowService.borrowBook(reader.getId(), book.getId());
+        long afterGap = lastEventId();
+        Thread.sleep(600);
+        relayUntilDelivered(afterGap);
+        assertThat(recorder.events).noneMatch(e -> e.getId() == lateId.get());
+
+        release.countDown();
+        slow.join();
+        relayUntilDelivered(lateId.get());
+        circulationEventRelay.relay();
+        assertThat(recorder.events).filteredOn(e -> e.getId() == lateId.get()).hasSize(1);
+    }
+
+    @Test
+    void listenerConsumerPublishesApplicationEvents() {
+        CirculationEvent event = CirculationEvent.builder().id(-1L).type(EventType.LOST).build();
+        listenerEventConsumer.accept(List.of(event));
+        assertThat(recorder.heard).contains(event);
+    }
+
+    @Test
+    void fileConsumerAppendsJsonLines(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("events.jsonl");
+        FileEventConsumer consumer = new FileEventConsumer(objectMapper, file.toString());
+        consumer.accept(List.of(CirculationEvent.builder().id(7L).type(EventType.BORROWED).memberId(3L).build()));
+        consumer.accept(List.of(CirculationEvent.builder().id(8L).type(EventType.RETURNED).memberId(3L).build()));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(1), CirculationEvent.class).getType()).isEqualTo(EventType.RETURNED);
+    }
+
+    private void relayUntilDelivered(long eventId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (recorder.events.stream().noneMatch(e -> e.getId() == eventId)) {
+            assertThat(System.currentTimeMillis()).as("event %d relayed in time", eventId).isLessThan(deadline);
+            circulationEventRelay.relay();
+            Thread.sleep(50);
+        }
+    }
+
+    private long lastEventId() {
+        return circulationEventRepository.findLastId();
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Events").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+
+    private static Book book(String isbn) {
+        return Book.builder()
+                .title("Logged " + isbn).author("Events Author").isbn(isbn)
+                .category("Events").totalCopies(1).availableCopies(1).build();
+    }
+
+    @TestConfiguration
+    static class RecordingConsumerConfig {
+
+        @Bean
+        RecordingConsumer recordingConsumer() {
+            return new RecordingConsumer();
+        }
+    }
+
+    static class RecordingConsumer implements CirculationEventConsumer {
+
+        static final String NAME = "test-recorder";
+
+        final List<CirculationEvent> events = new CopyOnWriteArrayList<>();
+        final List<CirculationEvent> heard = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failNext = new AtomicBoolean();
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public void accept(List<CirculationEvent> batch) {
+            events.addAll(batch);
+            if (failNext.compareAndSet(true, false)) {
+                throw new IllegalStateException("Consumer failed");
+            }
+        }
+
+        @EventListener
+        void on(CirculationEvent event) {
+            heard.add(event);
+        }
+    }
+}
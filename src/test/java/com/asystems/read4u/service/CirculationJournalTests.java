@@ -0,0 +1,187 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.CirculationEvent;
+import com.asystems.read4u.entity.CirculationEvent.EventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CirculationJournalTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Test
+    void recordsRoundTripAcrossSegmentsAndReopens(@TempDir Path dir) {
+        List<CirculationEvent> written = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            written.add(CirculationEvent.builder().id(id * 2).type(EventType.values()[(int) id % 12])
+                    .memberId(id).bookId(id % 3 == 0 ? null : id + 100).fineId(id % 2 == 0 ? id + 200 : null)
+                    .amount(id % 2 == 0 ? BigDecimal.valueOf(id * 25, 2) : null).occurredAt(NOW.plusSeconds(id)).build());
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(dir, 4, CirculationJournal.SyncPolicy.BATCH)) {
+            assertThat(journal.append(written.subList(0, 6))).isEqualTo(6);
+            // A redelivered batch overlapping what is already written only adds the new events
+            assertThat(journal.append(written.subList(3, 10))).isEqualTo(4);
+            assertThat(journal.segmentCount()).isEqualTo(3);
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(dir, 4, CirculationJournal.SyncPolicy.BATCH)) {
+            assertThat(journal.lastEventId()).isEqualTo(20);
+            assertThat(journal.append(written)).isZero();
+            assertThat(read(journal, 0)).isEqualTo(written);
+            assertThat(read(journal, 15)).extracting(CirculationEvent::getId).containsExactly(16L, 18L, 20L);
+        }
+    }
+
+    @Test
+    void anEventCommittedLateIsWrittenOnceOutOfOrder(@TempDir Path dir) {
+        try (CirculationJournal journal = new CirculationJournal(dir, 4, CirculationJournal.SyncPolicy.BATCH)) {
+            assertThat(journal.append(List.of(event(1), event(3), event(4)))).isEqualTo(3);
+            assertThat(journal.append(List.of(event(2), event(5)))).isEqualTo(2);
+            assertThat(journal.append(List.of(event(2), event(5)))).isZero();
+            assertThat(journal.append(List.of(event(8)))).isEqualTo(1);
+        }
+
+        try (CirculationJournal journal = new CirculationJournal(dir, 4, CirculationJournal.SyncPolicy.BATCH)) {
+            assertThat(journal.lastEventId()).isEqualTo(8);
+            // Still missing across the restart, unlike 2, which was written before it
+            assertThat(journal.append(List.of(event(2), event(7), event(6)))).isEqualTo(2);
+            assertThat(read(journal, 0)).extracting(CirculationEvent::getId)
+                    .containsExactly(1L, 3L, 4L, 2L, 5L, 8L, 7L, 6L);
+        }
+        JournalReplay replay = JournalReplay.of(dir);
+        assertThat(replay.events).isEqualTo(8);
+        assertThat(replay.lastEventId).isEqualTo(8);
+    }
+
+    @Test
+    void tornTailIsOverwrittenAndEarlierCorruptionIsReported(@TempDir Path dir) throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(dir, 8, CirculationJournal.SyncPolicy.BATCH)) {
+            journal.append(List.of(event(1), event(2), event(3)));
+        }
+        Path segment = onlySegment(dir);
+        flipByte(segment, 2 * CirculationJournal.RECORD_SIZE + 20);
+
+        try (CirculationJournal journal = new CirculationJournal(dir, 8, CirculationJournal.SyncPolicy.BATCH)) {
+            assertThat(journal.lastEventId()).isEqualTo(2);
+            journal.append(List.of(event(3), event(4)));
+            assertThat(read(journal, 0)).extracting(CirculationEvent::getId).containsExactly(1L, 2L, 3L, 4L);
+        }
+
+        flipByte(segment, CirculationJournal.RECORD_SIZE + 20);
+        assertThatThrownBy(() -> CirculationJournal.read(dir, 0, event -> { }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Corrupt journal record 1");
+    }
+
+    @Test
+    void pruneKeepsRecentSegmentsAndTheOneBeingWritten(@TempDir Path dir) throws Exception {
+        try (CirculationJournal journal = new CirculationJournal(dir, 2, CirculationJournal.SyncPolicy.NONE)) {
+            for (long id = 1; id <= 5; id++) {
+                journal.append(List.of(event(id)));
+            }
+            List<Path> segments = segments(dir);
+            assertThat(segments).hasSize(3);
+            FileTime old = FileTime.from(Instant.now().minus(40, ChronoUnit.DAYS));
+            Files.setLastModifiedTime(segments.get(0), old);
+            Files.setLastModifiedTime(segments.get(2), old);
+
+            assertThat(journal.prune(LocalDateTime.now().minusDays(30))).isEqualTo(1);
+            assertThat(segments(dir)).containsExactly(segments.get(1), segments.get(2));
+            assertThat(read(journal, 0)).extracting(CirculationEvent::getId).containsExactly(3L, 4L, 5L);
+        }
+    }
+
+    @Test
+    void replayRebuildsCopiesFinesAndQueues() {
+        JournalReplay replay = new JournalReplay();
+        replay.apply(loan(1, EventType.BORROWED, 10));
+        replay.apply(loan(2, EventType.BORROWED, 10));
+        replay.apply(loan(3, EventType.RETURNED, 10));
+        replay.apply(loan(4, EventType.LOST, 10));
+        replay.apply(hold(5, EventType.RESERVED, 10, 100));
+        replay.apply(hold(6, EventType.RESERVED, 10, 101));
+        replay.apply(hold(7, EventType.RESERVED, 10, 102));
+        replay.apply(hold(8, EventType.RESERVED, 10, 103));
+        replay.apply(hold(9, EventType.RESERVATION_READY, 10, 100));
+        replay.apply(hold(10, EventType.RESERVATION_CANCELLED, 10, 102));
+        replay.apply(fine(11, EventType.FINE_CHARGED, 7, "2.50"));
+        replay.apply(fine(12, EventType.FINE_CHARGED, 7, "1.25"));
+        replay.apply(fine(13, EventType.FINE_PAID, 7, "2.50"));
+        replay.apply(fine(14, EventType.FINE_CHARGED, 8, "3.00"));
+        replay.apply(fine(15, EventType.FINE_WAIVED, 8, "3.00"));
+        replay.apply(fine(16, EventType.FINE_CHARGED, 9, "0.10"));
+        replay.apply(fine(17, EventType.FINE_CHARGED, 9, "0.20"));
+        replay.apply(fine(18, EventType.FINE_PAID, 9, "0.30"));
+
+        assertThat(replay.availableChange).containsEntry(10L, -1L);
+        assertThat(replay.onLoan).containsEntry(10L, 0L);
+        assertThat(replay.lost).containsEntry(10L, 1L);
+        assertThat(replay.queuePosition(10L, 101L)).isEqualTo(1);
+        assertThat(replay.queuePosition(10L, 103L)).isEqualTo(2);
+        assertThat(replay.queuePosition(10L, 100L)).isZero();
+        assertThat(replay.outstandingFine(7L)).isEqualByComparingTo("1.25");
+        assertThat(replay.outstandingFine(8L)).isZero();
+        assertThat(replay.outstandingFines).containsEntry(9L, 0L);
+        assertThat(replay.summary()).containsEntry("events", 18L).containsEntry("pendingReservations", 2);
+    }
+
+    private static List<CirculationEvent> read(CirculationJournal journal, long afterId) {
+        List<CirculationEvent> events = new ArrayList<>();
+        journal.read(afterId, events::add);
+        return events;
+    }
+
+    private static CirculationEvent event(long id) {
+        return CirculationEvent.builder().id(id).type(EventType.RENEWED).memberId(1L).occurredAt(NOW).build();
+    }
+
+    private static CirculationEvent loan(long id, EventType type, long bookId) {
+        return CirculationEvent.builder().id(id).type(type).memberId(1L).bookId(bookId).borrowRecordId(id).build();
+    }
+
+    private static CirculationEvent hold(long id, EventType type, long bookId, long reservationId) {
+        return CirculationEvent.builder().id(id).type(type).memberId(reservationId).bookId(bookId)
+                .reservationId(reservationId).build();
+    }
+
+    private static CirculationEvent fine(long id, EventType type, long memberId, String amount) {
+        return CirculationEvent.builder().id(id).type(type).memberId(memberId).fineId(id).amount(new BigDecimal(amount)).build();
+    }
+
+    private static void flipByte(Path file, long position) throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+    }
+
+    private static Path onlySegment(Path dir) throws Exception {
+        List<Path> segments = segments(dir);
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private static List<Path> segments(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A database of its own, since the generator only loads into empty tables
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datagen",
+        "spring.jpa.show-sql=false",
+        "library.datagen.books=3000",
+        "library.datagen.members=1200",
+        "library.datagen.loans-per-member=10",
+        "library.datagen.threads=3",
+        "library.datagen.batch-size=200"
+})
+class DataGeneratorServiceTests {
+
+    @Autowired
+    private DataGeneratorService dataGeneratorService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private FineLedger fineLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generatesConsistentSkewedLibraryAndLeavesKeysFree() {
+        Map<String, Object> stats = dataGeneratorService.generate();
+
+        assertThat(stats.get("books")).isEqualTo(3000L);
+        assertThat(stats.get("members")).isEqualTo(1200L);
+        for (String table : new String[]{"borrow_records", "fines", "reservations", "wishlist_items", "reading_history"}) {
+            assertThat((Long) stats.get(table)).as(table).isPositive();
+        }
+
+        // Counters agree with the rows they summarise
+        assertThat(count("SELECT COUNT(*) FROM books b WHERE b.available_copies < 0 OR b.available_copies <> " +
+                "b.total_copies - (SELECT COUNT(*) FROM borrow_records r WHERE r.book_id = b.id " +
+                "AND r.status IN ('BORROWED', 'OVERDUE')) OR b.borrow_count <> " +
+                "(SELECT COUNT(*) FROM borrow_records r WHERE r.book_id = b.id)")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM members m WHERE m.current_borrowed_count > m.max_books_allowed " +
+                "OR m.current_borrowed_count <> (SELECT COUNT(*) FROM borrow_records r WHERE r.member_id = m.id " +
+                "AND r.status IN ('BORROWED', 'OVERDUE'))")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM members m WHERE ABS(m.outstanding_fines - (SELECT COALESCE(SUM(f.amount), 0) " +
+                "FROM fines f WHERE f.member_id = m.id AND f.is_paid = FALSE)) > 0.001")).isZero();
+        assertThat(fineLedger.reconcile().get("corrected")).isEqualTo(0L);
+
+        // Pending queues only on empty shelves, numbered 1..n
+        assertThat(count("SELECT COUNT(*) FROM reservations r JOIN books b ON b.id = r.book_id " +
+                "WHERE r.status = 'PENDING' AND b.available_copies > 0")).isZero();
+        assertThat(count("SELECT COUNT(*) FROM (SELECT book_id FROM reservations WHERE status = 'PENDING' " +
+                "GROUP BY book_id HAVING MIN(queue_position) <> 1 OR MAX(queue_position) <> COUNT(*) " +
+                "OR COUNT(DISTINCT member_id) <> COUNT(*)) q")).isZero();
+
+        // The hundredth of the catalogue at the head of the distribution takes a large share of all loans
+        long loans = count("SELECT COUNT(*) FROM borrow_records");
+        long headLoans = count("SELECT COALESCE(SUM(borrow_count), 0) FROM (SELECT borrow_count FROM books " +
+                "ORDER BY borrow_count DESC LIMIT 30) t");
+        assertThat((double) headLoans / loans).isGreaterThan(0.3);
+
+        assertThatThrownBy(() -> dataGeneratorService.generate())
+                .hasMessageContaining("already has");
+
+        // New rows get keys past the generated ones
+        long maxRecordId = count("SELECT MAX(id) FROM borrow_records");
+        long maxMemberId = count("SELECT MAX(id) FROM members");
+        Long bookId = jdbcTemplate.queryForObject(
+                "SELECT id FROM books WHERE available_copies > 0 ORDER BY id LIMIT 1", Long.class);
+        Member member = memberService.registerMember(Member.builder()
+                .firstName("Fresh").lastName("Reader")
+                .email("fresh@datagen.read4u.test").membershipNumber("FRESH1")
+                .build());
+        BorrowRecord record = borrowService.borrowBook(member.getId(), bookId);
+        assertThat(member.getId()).isGreaterThan(maxMemberId);
+        assertThat(record.getId()).isGreaterThan(maxRecordId);
+    }
+
+    private long count(String sql) {
+        Long value = jdbcTemplate.queryForObject(sql, Long.class);
+        return value != null ? value : 0;
+    }
+}
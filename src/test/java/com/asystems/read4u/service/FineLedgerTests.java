@@ -0,0 +1,150 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Fine;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.FineRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class FineLedgerTests {
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private FineLedger fineLedger;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentChargesAndPaymentsKeepTheBalanceExact() throws Exception {
+        Member member = memberRepository.save(member("ledgerexact"));
+
+        // A thousand dimes, which sum to 99.9999999999986 in doubles
+        List<Callable<Boolean>> charges = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            charges.add(() -> fineService.createFine(member, null, new BigDecimal("0.10"), Fine.FineType.OTHER, "Dime") != null);
+        }
+        assertThat(runConcurrently(charges)).isEqualTo(1000);
+        assertThat(balance(member)).isEqualByComparingTo("100.00");
+
+        // Every other fine is paid twice at once; only one of each pair goes through
+        List<Callable<Boolean>> payments = new ArrayList<>();
+        List<Fine> fines = fineRepository.findByMember(member);
+        for (int i = 0; i < fines.size(); i += 2) {
+            Long fineId = fines.get(i).getId();
+            payments.add(() -> fineService.payFine(fineId, "CARD") != null);
+            payments.add(() -> fineService.payFine(fineId, "CASH") != null);
+        }
+        assertThat(runConcurrently(payments)).isEqualTo(500);
+        assertThat(balance(member)).isEqualByComparingTo("50.00");
+        assertThat(ledgerCents(member)).isEqualTo(5000);
+    }
+
+    @Test
+    void payAllSettlesEveryUnpaidFineAndClearsTheBalance() {
+        Member member = memberRepository.save(member("ledgerpayall"));
+        Fine first = fineService.createFine(member, null, new BigDecimal("0.10"), Fine.FineType.OTHER, "First");
+        fineService.createFine(member, null, new BigDecimal("0.20"), Fine.FineType.OTHER, "Second");
+        fineService.createFine(member, null, new BigDecimal("4.75"), Fine.FineType.DAMAGED_BOOK, "Third");
+        fineService.waiveFine(first.getId(), "Goodwill");
+        assertThat(balance(member)).isEqualByComparingTo("4.95");
+
+        fineService.payAllFines(member.getId(), "ONLINE");
+
+        assertThat(fineRepository.findByMemberAndIsPaidFalse(member)).isEmpty();
+        assertThat(fineRepository.findByMember(member)).filteredOn(f -> "ONLINE".equals(f.getPaymentMethod()))
+                .hasSize(2);
+        assertThat(balance(member)).isEqualByComparingTo("0.00");
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getOutstandingFines()).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT entry_type FROM fine_ledger_entries WHERE member_id = ? " +
+                "ORDER BY id", String.class, member.getId()))
+                .containsExactly("CHARGE", "CHARGE", "CHARGE", "WAIVER", "PAYMENT", "PAYMENT");
+        assertThat(ledgerCents(member)).isZero();
+    }
+
+    @Test
+    void reconciliationResetsADriftedBalance() {
+        Member member = memberRepository.save(member("ledgerdrift"));
+        fineService.createFine(member, null, new BigDecimal("3.30"), Fine.FineType.OTHER, "Drift");
+
+        // Written around the ledger
+        jdbcTemplate.update("UPDATE members SET outstanding_fines = 9.99 WHERE id = ?", member.getId());
+
+        Map<String, Object> result = fineLedger.reconcile();
+
+        assertThat((Long) result.get("corrected")).isPositive();
+        assertThat((Long) result.get("members")).isGreaterThanOrEqualTo(1L);
+        assertThat(balance(member)).isEqualByComparingTo("3.30");
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getOutstandingFines()).isEqualByComparingTo("3.30");
+    }
+
+    private BigDecimal balance(Member member) {
+        return jdbcTemplate.queryForObject("SELECT outstanding_fines FROM members WHERE id = ?",
+                BigDecimal.class, member.getId());
+    }
+
+    private long ledgerCents(Member member) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount_cents), 0) FROM fine_ledger_entries " +
+                "WHERE member_id = ?", Long.class, member.getId());
+    }
+
+    private static int runConcurrently(List<Callable<Boolean>> tasks) throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        if (task.call()) {
+                            succeeded.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        // The second payment of a fine is refused
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return succeeded.get();
+    }
+
+    private static Member member(String prefix) {
+        return Member.builder()
+                .firstName("Ledger")
+                .lastName(prefix)
+                .email(prefix + "@read4u.test")
+                .membershipNumber(prefix.toUpperCase())
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "library.inventory.ledger.enabled=true"
+})
+class InventoryLedgerServiceTests {
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private InventoryLedgerService inventoryLedgerService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentCheckoutsTakeEachCopyOnce() throws Exception {
+        Book book = bookRepository.save(book("9785600000011", 3));
+        List<Member> members = memberRepository.saveAll(members("ledgerrace", 12));
+
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Member member : members) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        borrowService.borrowBook(member.getId(), book.getId());
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Refused once the copies are gone
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(succeeded.get()).isEqualTo(3);
+        assertThat(availableInDatabase(book.getId())).isZero();
+        assertThat(inventoryLedgerService.available(book.getId())).isZero();
+    }
+
+    @Test
+    void ledgerFollowsReturnsRollbacksAndInventoryChanges() {
+        Book book = bookRepository.save(book("9785600000028", 1));
+        List<Member> members = memberRepository.saveAll(members("ledgerflow", 4));
+        Member borrower = members.get(0);
+
+        BorrowRecord loan = borrowService.borrowBook(borrower.getId(), book.getId());
+        assertThat(inventoryLedgerService.available(book.getId())).isZero();
+
+        double refusals = refusals();
+        assertThatThrownBy(() -> borrowService.borrowBook(members.get(1).getId(), book.getId()))
+                .hasMessage("No copies available. Please reserve the book.");
+        assertThat(refusals()).isEqualTo(refusals + 1);
+
+        // The first hold is offered the returned copy, the second keeps a stranger from taking it
+        reservationService.reserveBook(members.get(1).getId(), book.getId());
+        reservationService.reserveBook(members.get(2).getId(), book.getId());
+        borrowService.returnBook(loan.getId());
+        assertThat(inventoryLedgerService.available(book.getId())).isEqualTo(1);
+
+        assertThatThrownBy(() -> borrowService.borrowBook(members.get(3).getId(), book.getId()))
+                .hasMessage("Book is reserved by another member");
+        assertThat(inventoryLedgerService.available(book.getId())).isEqualTo(1);
+        assertThat(availableInDatabase(book.getId())).isEqualTo(1);
+
+        bookService.updateInventory(book.getId(), 2);
+        assertThat(inventoryLedgerService.available(book.getId())).isEqualTo(3);
+        assertThat(availableInDatabase(book.getId())).isEqualTo(3);
+    }
+
+    @Test
+    void databaseRefusalCorrectsAnOverCount() {
+        Book book = bookRepository.save(book("9785600000035", 1));
+        List<Member> members = memberRepository.saveAll(members("ledgerdrift", 2));
+        BorrowRecord loan = borrowService.borrowBook(members.get(0).getId(), book.getId());
+        borrowService.returnBook(loan.getId());
+        assertThat(inventoryLedgerService.available(book.getId())).isEqualTo(1);
+
+        // A change made around the service leaves the ledger one copy over
+        jdbcTemplate.update("UPDATE books SET available_copies = 0 WHERE id = ?", book.getId());
+
+        assertThatThrownBy(() -> borrowService.borrowBook(members.get(1).getId(), book.getId()))
+                .hasMessage("No copies available. Please reserve the book.");
+        assertThat(inventoryLedgerService.available(book.getId())).isZero();
+    }
+
+    private int availableInDatabase(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT available_copies FROM books WHERE id = ?", Integer.class, bookId);
+    }
+
+    private double refusals() {
+        return meterRegistry.get("library.inventory.ledger.refusals").counter().count();
+    }
+
+    private static Book book(String isbn, int copies) {
+        return Book.builder()
+                .title("Ledger Test " + isbn)
+                .author("Inventory Ledger")
+                .isbn(isbn)
+                .category("Testing")
+                .totalCopies(copies)
+                .availableCopies(copies)
+                .build();
+    }
+
+    private static List<Member> members(String prefix, int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(Member.builder()
+                    .firstName("Reader")
+                    .lastName(String.valueOf(i))
+                    .email(prefix + i + "@read4u.test")
+                    .membershipNumber(prefix.toUpperCase() + i)
+                    .build());
+        }
+        return members;
+    }
+}
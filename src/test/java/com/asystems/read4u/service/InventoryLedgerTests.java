@@ -0,0 +1,97 @@
+package com.asystems.read4u.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryLedgerTests {
+
+    @Test
+    void takesStopAtZeroAndUnknownBooksAreReported() {
+        InventoryLedger ledger = new InventoryLedger(4);
+        ledger.put(7, 2);
+
+        assertThat(ledger.tryTake(7)).isEqualTo(InventoryLedger.TAKEN);
+        assertThat(ledger.tryTake(7)).isEqualTo(InventoryLedger.TAKEN);
+        assertThat(ledger.tryTake(7)).isEqualTo(InventoryLedger.EXHAUSTED);
+        assertThat(ledger.tryTake(8)).isEqualTo(InventoryLedger.UNKNOWN);
+        assertThat(ledger.add(8, 1)).isFalse();
+
+        assertThat(ledger.add(7, 1)).isTrue();
+        ledger.put(7, 5);
+        assertThat(ledger.available(7)).isEqualTo(5);
+        assertThat(ledger.available(8)).isEqualTo(InventoryLedger.UNKNOWN);
+    }
+
+    @Test
+    void concurrentTakesNeverOversell() throws Exception {
+        InventoryLedger ledger = new InventoryLedger(16);
+        ledger.put(1, 1000);
+        AtomicInteger taken = new AtomicInteger();
+
+        run(8, thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                if (ledger.tryTake(1) == InventoryLedger.TAKEN) {
+                    taken.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(taken.get()).isEqualTo(1000);
+        assertThat(ledger.available(1)).isZero();
+    }
+
+    @Test
+    void updatesRacingTableGrowthAreNotLost() throws Exception {
+        InventoryLedger ledger = new InventoryLedger(16);
+        for (long bookId = 1; bookId <= 8; bookId++) {
+            ledger.put(bookId, 0);
+        }
+
+        // Four threads add books and force several resizes while four others release copies
+        run(8, thread -> {
+            if (thread < 4) {
+                for (long bookId = 1000 + thread; bookId < 50_000; bookId += 4) {
+                    ledger.put(bookId, 1);
+                }
+            } else {
+                for (int i = 0; i < 100_000; i++) {
+                    ledger.add(1 + i % 8, 1);
+                }
+            }
+        });
+
+        for (long bookId = 1; bookId <= 8; bookId++) {
+            assertThat(ledger.available(bookId)).isEqualTo(50_000);
+        }
+        assertThat(ledger.size()).isEqualTo(8 + 49_000);
+        assertThat(ledger.available(49_999)).isEqualTo(1);
+    }
+
+    private static void run(int threads, ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> body.run(thread)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,75 @@
+package com.asystems.read4u.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSimilarityModelTests {
+
+    @Test
+    void coBorrowedBooksAreNeighboursAndOwnBooksAreNotRecommended() {
+        ItemSimilarityModel.Interactions interactions = new ItemSimilarityModel.Interactions();
+        // Readers 1-3 share 10 and 11, readers 4 and 7 pair 10 with 12, reader 5 disliked 13
+        for (long member = 1; member <= 3; member++) {
+            interactions.add(member, 10, 1);
+            interactions.add(member, 11, 1);
+        }
+        interactions.add(4, 10, 1);
+        interactions.add(4, 12, 1);
+        interactions.add(7, 10, 1);
+        interactions.add(7, 12, 1);
+        interactions.add(5, 10, 1);
+        interactions.add(5, 13, -1);
+        interactions.add(6, 11, 1);
+        interactions.add(6, 11, 1);
+
+        ItemSimilarityModel model = build(interactions);
+
+        assertThat(model.similar(10, 3)).containsExactly(11, 12, 13);
+        assertThat(model.similar(99, 3)).isEmpty();
+        assertThat(model.recommend(6, 5)).startsWith(10L);
+        assertThat(model.recommend(4, 5)).doesNotContain(10L, 12L).contains(11L);
+        assertThat(model.recommend(99, 5)).isEmpty();
+        assertThat(model.interactionCount()).isEqualTo(13);
+    }
+
+    @Test
+    void neighboursShareTheGenreTheirReadersStayIn() {
+        int members = 2_000;
+        int books = 1_000;
+        int genres = 50;
+
+        // Each reader mostly stays in one genre, so neighbours should share it
+        Random random = new Random(5);
+        ItemSimilarityModel.Interactions interactions = new ItemSimilarityModel.Interactions();
+        for (long member = 0; member < members; member++) {
+            int genre = random.nextInt(genres);
+            for (int i = 0; i < 20; i++) {
+                int book = random.nextDouble() < 0.8
+                        ? genre + genres * random.nextInt(books / genres)
+                        : random.nextInt(books);
+                interactions.add(member, book, 1 + random.nextInt(2));
+            }
+        }
+
+        ItemSimilarityModel model = build(interactions);
+
+        long[] similar = model.similar(7, 10);
+        assertThat(similar).hasSize(10);
+        assertThat(Arrays.stream(similar).filter(id -> id % genres == 7).count()).isGreaterThanOrEqualTo(8);
+        assertThat(model.recommend(0, 10)).hasSize(10);
+    }
+
+    private static ItemSimilarityModel build(ItemSimilarityModel.Interactions interactions) {
+        ForkJoinPool pool = new ForkJoinPool();
+        try {
+            return ItemSimilarityModel.build(interactions, 50, 1000, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
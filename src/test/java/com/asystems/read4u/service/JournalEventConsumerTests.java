@@ -0,0 +1,185 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.CirculationEvent;
+import com.asystems.read4u.entity.CirculationEvent.EventType;
+import com.asystems.read4u.entity.Fine;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.Reservation;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.CirculationEventRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "library.journal.enabled=true",
+        "library.journal.records-per-segment=64",
+        "library.journal.prune-cron=-",
+        "library.events.poll-ms=3600000",
+        "library.events.gap-grace-ms=500"
+})
+// The cached context outlives the journal directory, so nothing may touch the journal on a schedule
+class JournalEventConsumerTests {
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private FineService fineService;
+
+    @Autowired
+    private CirculationEventRelay circulationEventRelay;
+
+    @Autowired
+    private CirculationEventRepository circulationEventRepository;
+
+    @Autowired
+    private CirculationEventLog circulationEventLog;
+
+    @Autowired
+    private JournalEventConsumer journalEventConsumer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) {
+        registry.add("library.journal.dir", journalDir::toString);
+    }
+
+    @Test
+    void replayedJournalMatchesTheCirculationTables() throws Exception {
+        Book book = bookRepository.save(Book.builder()
+                .title("Journaled Reading").author("Journal Author").isbn("9785590000001")
+                .category("Journal").totalCopies(2).availableCopies(2).build());
+        Member first = memberRepository.save(member("journal.first@journal.read4u.test", "JOURNAL1"));
+        Member second = memberRepository.save(member("journal.second@journal.read4u.test", "JOURNAL2"));
+        Member third = memberRepository.save(member("journal.third@journal.read4u.test", "JOURNAL3"));
+        Member fourth = memberRepository.save(member("journal.fourth@journal.read4u.test", "JOURNAL4"));
+
+        BorrowRecord firstLoan = borrowService.borrowBook(first.getId(), book.getId());
+        BorrowRecord secondLoan = borrowService.borrowBook(second.getId(), book.getId());
+        Reservation thirdHold = reservationService.reserveBook(third.getId(), book.getId());
+        Reservation fourthHold = reservationService.reserveBook(fourth.getId(), book.getId());
+        borrowService.returnBook(firstLoan.getId());
+        Fine paid = fineService.createFine(memberRepository.findById(second.getId()).orElseThrow(), secondLoan,
+                new BigDecimal("2.00"), Fine.FineType.OTHER, "Journal fine");
+        fineService.createFine(memberRepository.findById(second.getId()).orElseThrow(), secondLoan,
+                new BigDecimal("0.50"), Fine.FineType.OTHER, "Journal fine");
+        fineService.payFine(paid.getId(), "CASH");
+
+        JournalReplay replay = relayUntilJournaled(circulationEventRepository.findLastId());
+
+        Book current = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(2 + replay.availableChange.get(book.getId())).isEqualTo(current.getAvailableCopies().longValue());
+        assertThat(replay.onLoan).containsEntry(book.getId(), 1L);
+        // The return offered the copy to the third member, so the fourth is now first in line
+        assertThat(replay.queuePosition(book.getId(), thirdHold.getId())).isZero();
+        assertThat(replay.queuePosition(book.getId(), fourthHold.getId()))
+                .isEqualTo(reservationService.getQueuePosition(fourth.getId(), book.getId()))
+                .isEqualTo(1);
+        assertThat(replay.outstandingFine(second.getId()))
+                .isEqualByComparingTo(memberRepository.findById(second.getId()).orElseThrow().getOutstandingFines());
+        assertThat(journalEventConsumer.replay()).containsKey("segments")
+                .extractingByKey("events").satisfies(events -> assertThat((Long) events).isPositive());
+    }
+
+    @Test
+    void anEventCommittedOutOfIdOrderIsJournaled() throws Exception {
+        Book book = bookRepository.save(Book.builder()
+                .title("Late Reading").author("Journal Author").isbn("9785590000002")
+                .category("Journal").totalCopies(1).availableCopies(1).build());
+        Member reader = memberRepository.save(member("journal.late@journal.read4u.test", "JOURNAL5"));
+
+        // The slow transaction's event takes its id first and commits after the journal has passed it
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong lateId = new AtomicLong();
+        Thread slow = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            circulationEventLog.append(CirculationEvent.builder().type(EventType.FINE_CHARGED)
+                    .memberId(reader.getId()).amount(new BigDecimal("1.50")).build());
+            lateId.set(circulationEventRepository.findLastId());
+            appended.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        slow.start();
+        appended.await();
+        borrowService.borrowBook(reader.getId(), book.getId());
+        long afterGap = circulationEventRepository.findLastId();
+        Thread.sleep(600);
+        relayUntilJournaled(afterGap);
+        assertThat(journaledIds()).doesNotContain(lateId.get());
+
+        release.countDown();
+        slow.join();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!journaledIds().contains(lateId.get())) {
+            assertThat(System.currentTimeMillis()).as("late event journaled in time").isLessThan(deadline);
+            circulationEventRelay.relay();
+            Thread.sleep(50);
+        }
+        circulationEventRelay.relay();
+        assertThat(journaledIds()).filteredOn(id -> id == lateId.get()).hasSize(1);
+        JournalReplay replay = JournalReplay.of(journalDir);
+        assertThat(replay.outstandingFine(reader.getId())).isEqualByComparingTo("1.50");
+        assertThat(replay.lastEventId).isEqualTo(afterGap);
+    }
+
+    private JournalReplay relayUntilJournaled(long eventId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        JournalReplay replay = JournalReplay.of(journalDir);
+        while (replay.lastEventId < eventId) {
+            assertThat(System.currentTimeMillis()).as("journal caught up in time").isLessThan(deadline);
+            circulationEventRelay.relay();
+            Thread.sleep(50);
+            replay = JournalReplay.of(journalDir);
+        }
+        return replay;
+    }
+
+    private static List<Long> journaledIds() {
+        List<Long> ids = new ArrayList<>();
+        CirculationJournal.read(journalDir, 0, event -> ids.add(event.getId()));
+        return ids;
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Journal").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BorrowRecordView;
+import com.asystems.read4u.dto.CursorPage;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.BorrowRecordRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class KeysetPaginationTests {
+
+    private static final long SEEDED_ID_BASE = 2_000_000_000L;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cursorsVisitEveryRowOnceInKeyOrder() {
+        Member member = memberRepository.save(member("keyset.walker@keyset.read4u.test", "KEYSET1"));
+        Book book = bookRepository.save(book("Keyset Walk", "9785520000001"));
+        // Several loans share a borrow date, so the id tie-break decides their order
+        seedBorrows(SEEDED_ID_BASE, 45, 4, member.getId(), book.getId());
+
+        List<Long> expected = jdbcTemplate.queryForList("SELECT id FROM borrow_records WHERE member_id = ? " +
+                "ORDER BY borrow_date DESC, id DESC", Long.class, member.getId());
+        List<Long> walked = new ArrayList<>();
+        CursorPage<BorrowRecordView> page = borrowService.scrollBorrowHistory(member.getId(), null, 7, true);
+        assertThat(page.getTotal()).isEqualTo(45);
+        while (true) {
+            page.getItems().forEach(view -> walked.add(view.getId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            page = borrowService.scrollBorrowHistory(member.getId(), page.getNextCursor(), 7, false);
+            assertThat(page.getTotal()).isNull();
+        }
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+        assertThat(page.getItems()).hasSize(3);
+
+        List<String> titles = new ArrayList<>();
+        CursorPage<?> first = bookService.scrollBooks(null, 5, false);
+        bookService.scrollBooks(first.getNextCursor(), 5, false).getItems()
+                .forEach(summary -> titles.add(summary.getTitle()));
+        assertThat(titles).isSorted();
+    }
+
+    @Test
+    void deepKeysetPageMatchesOffsetPage() {
+        int size = 20;
+        int pageNumber = 30;
+        Member member = memberRepository.save(member("keyset.deep@keyset.read4u.test", "KEYSET2"));
+        Book book = bookRepository.save(book("Keyset Deep", "9785520000002"));
+        seedBorrows(SEEDED_ID_BASE + 1_000, 700, 15, member.getId(), book.getId());
+
+        // Cursor of the last row on the page before, as a client walking the pages would hold it
+        Map<String, Object> last = jdbcTemplate.queryForMap("SELECT id, borrow_date FROM borrow_records " +
+                "WHERE member_id = ? ORDER BY borrow_date DESC, id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                member.getId(), pageNumber * size - 1);
+        String cursor = KeysetCursor.encode(((Number) last.get("ID")).longValue(),
+                ((Date) last.get("BORROW_DATE")).toLocalDate());
+
+        PageRequest offsetPage = PageRequest.of(pageNumber, size, Sort.by(Sort.Direction.DESC, "borrowDate", "id"));
+        assertThat(borrowService.scrollBorrowHistory(member.getId(), cursor, size, false).getItems())
+                .extracting(BorrowRecordView::getId)
+                .hasSize(size)
+                .containsExactlyElementsOf(borrowRecordRepository.findViewsByMember(member.getId(), offsetPage)
+                        .map(BorrowRecordView::getId).getContent());
+    }
+
+    private void seedBorrows(long firstId, int count, int perDay, Long memberId, Long bookId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Date borrowed = Date.valueOf(LocalDate.now().minusDays(30 + i / perDay));
+            rows.add(new Object[]{firstId + i, bookId, memberId, borrowed, borrowed, borrowed});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO borrow_records (id, book_id, member_id, borrow_date, due_date, " +
+                "return_date, status, renewal_count, max_renewals, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'RETURNED', 0, 2, CURRENT_TIMESTAMP)", rows);
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Keyset").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+
+    private static Book book(String title, String isbn) {
+        return Book.builder()
+                .title(title)
+                .author("Keyset Author")
+                .isbn(isbn)
+                .category("Keyset")
+                .totalCopies(1)
+                .availableCopies(1)
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.dto.BookRatingSummary;
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.ReadingHistory;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberReadingStatsRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false"
+})
+class MemberReadingStatsServiceTests {
+
+    @Autowired
+    private ReadingHistoryService readingHistoryService;
+
+    @Autowired
+    private MemberReadingStatsService memberReadingStatsService;
+
+    @Autowired
+    private BookRatingStatsService bookRatingStatsService;
+
+    @Autowired
+    private MemberReadingStatsRepository memberReadingStatsRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void historyWritesKeepStatsInStepWithARebuild() {
+        Member reader = memberRepository.save(member("stats.reader@stats.read4u.test", "STATS1"));
+        Book novel = bookRepository.save(book("9785550000001", "Fiction"));
+        Book essay = bookRepository.save(book("9785550000002", "Essays"));
+        Book poems = bookRepository.save(book("9785550000003", "Fiction"));
+
+        ReadingHistory first = readingHistoryService.addToHistory(reader.getId(), novel.getId(), 4, null, true);
+        readingHistoryService.addToHistory(reader.getId(), essay.getId(), null, null, false);
+        readingHistoryService.addToHistory(reader.getId(), poems.getId(), 2, null, false);
+        readingHistoryService.updateReview(first.getId(), reader.getId(), 5, "Better on reread", false);
+
+        Map<String, Object> incremental = memberReadingStatsService.getStats(reader.getId());
+        assertThat(incremental)
+                .containsEntry("totalBooksRead", 3)
+                .containsEntry("totalBooksRated", 2)
+                .containsEntry("averageRating", 3.5)
+                .containsEntry("recommendedCount", 0)
+                .containsEntry("categoryBreakdown", Map.of("Fiction", 2L, "Essays", 1L));
+
+        memberReadingStatsService.rebuild();
+        assertThat(memberReadingStatsService.getStats(reader.getId())).isEqualTo(incremental);
+    }
+
+    @Test
+    void statsAreBuiltOnFirstReadAndRealignedByTheRebuild() {
+        Member reader = memberRepository.save(member("stats.lazy@stats.read4u.test", "STATS2"));
+        Book book = bookRepository.save(book("9785550000004", "History"));
+        Book other = bookRepository.save(book("9785550000005", "History"));
+        insertHistory(reader, book, 3);
+
+        assertThat(memberReadingStatsRepository.findById(reader.getId())).isEmpty();
+        assertThat(memberReadingStatsService.getStats(reader.getId()))
+                .containsEntry("totalBooksRead", 1)
+                .containsEntry("averageRating", 3.0);
+
+        // Written around the service, so the row only catches up on the rebuild
+        insertHistory(reader, other, 5);
+        assertThat(memberReadingStatsService.getStats(reader.getId())).containsEntry("totalBooksRead", 1);
+        memberReadingStatsService.rebuild();
+        assertThat(memberReadingStatsService.getStats(reader.getId()))
+                .containsEntry("totalBooksRead", 2)
+                .containsEntry("averageRating", 4.0)
+                .containsEntry("categoryBreakdown", Map.of("History", 2L));
+    }
+
+    @Test
+    void concurrentEditsOfOneReviewKeepStatsInStepWithARebuild() throws Exception {
+        Member reader = memberRepository.save(member("stats.edits@stats.read4u.test", "STATS3"));
+        Book book = bookRepository.save(book("9785550000006", "Drama"));
+        ReadingHistory review = readingHistoryService.addToHistory(reader.getId(), book.getId(), 1, null, false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> edits = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int rating = 1 + i % 5;
+                boolean recommended = i % 2 == 0;
+                edits.add(executor.submit(() -> readingHistoryService.updateReview(
+                        review.getId(), reader.getId(), rating, null, recommended)));
+            }
+            for (Future<?> edit : edits) {
+                edit.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        Map<String, Object> incremental = memberReadingStatsService.getStats(reader.getId());
+        BookRatingSummary summary = bookRatingStatsService.getSummary(book.getId());
+        assertThat(incremental).containsEntry("totalBooksRated", 1);
+        assertThat(summary.getRatingCount()).isEqualTo(1);
+        assertThat(summary.getHistogram().values()).allMatch(count -> count >= 0);
+
+        memberReadingStatsService.rebuild();
+        bookRatingStatsService.rebuild();
+        assertThat(memberReadingStatsService.getStats(reader.getId())).isEqualTo(incremental);
+        assertThat(bookRatingStatsService.getSummary(book.getId())).isEqualTo(summary);
+    }
+
+    private void insertHistory(Member member, Book book, int rating) {
+        jdbcTemplate.update("INSERT INTO reading_history (member_id, book_id, completed_at, rating, would_recommend, created_at) "
+                + "VALUES (?, ?, CURRENT_TIMESTAMP, ?, FALSE, CURRENT_TIMESTAMP)", member.getId(), book.getId(), rating);
+    }
+
+    private static Book book(String isbn, String category) {
+        return Book.builder()
+                .title("Stats " + isbn).author("Stats Author").isbn(isbn)
+                .category(category).totalCopies(1).availableCopies(1).build();
+    }
+
+    private static Member member(String email, String membershipNumber) {
+        return Member.builder()
+                .firstName("Stats").lastName("Reader")
+                .email(email).membershipNumber(membershipNumber)
+                .build();
+    }
+}
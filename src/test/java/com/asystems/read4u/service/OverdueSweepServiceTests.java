@@ -0,0 +1,91 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.BorrowRecordRepository;
+import com.asystems.read4u.repository.FineRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OverdueSweepServiceTests {
+
+    @Autowired
+    private OverdueSweepService overdueSweepService;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private FineRepository fineRepository;
+
+    @Test
+    void sweepMarksOverdueLoansAndAccruesFinesOnce() {
+        ReflectionTestUtils.setField(overdueSweepService, "chunkSize", 2);
+        Member member = memberRepository.save(Member.builder()
+                .firstName("Late").lastName("Reader")
+                .email("late.reader@sweep.read4u.test").membershipNumber("SWEEP1")
+                .maxBooksAllowed(10).build());
+        Book book = bookRepository.save(Book.builder()
+                .title("Overdue Classics").author("Sweeper").isbn("9780000099001")
+                .category("Testing").totalCopies(10).availableCopies(5).build());
+
+        List<BorrowRecord> overdue = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            overdue.add(borrowRecordRepository.save(BorrowRecord.builder()
+                    .book(book).member(member)
+                    .borrowDate(LocalDate.now().minusDays(20))
+                    .dueDate(LocalDate.now().minusDays(6))
+                    .build()));
+        }
+        BorrowRecord current = borrowRecordRepository.save(BorrowRecord.builder()
+                .book(book).member(member)
+                .borrowDate(LocalDate.now())
+                .dueDate(LocalDate.now().plusDays(14))
+                .build());
+
+        Map<String, Object> stats = overdueSweepService.sweep();
+        overdueSweepService.sweep();
+
+        assertThat(stats.get("unsweptOverdueCount")).isEqualTo(0L);
+        assertThat(stats.get("checkpointCompleted")).isEqualTo(true);
+        for (BorrowRecord record : overdue) {
+            BorrowRecord reloaded = borrowRecordRepository.findById(record.getId()).orElseThrow();
+            assertThat(reloaded.getStatus()).isEqualTo(BorrowRecord.BorrowStatus.OVERDUE);
+            assertThat(reloaded.getFineAmount()).isEqualByComparingTo("3.00");
+        }
+        assertThat(borrowRecordRepository.findById(current.getId()).orElseThrow().getStatus())
+                .isEqualTo(BorrowRecord.BorrowStatus.BORROWED);
+        assertThat(fineRepository.findByMember(member)).hasSize(5);
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getOutstandingFines()).isEqualByComparingTo("15.00");
+
+        // Returning a swept loan on the same day charges nothing further
+        BorrowRecord returned = borrowService.returnBook(overdue.get(0).getId());
+        assertThat(returned.getStatus()).isEqualTo(BorrowRecord.BorrowStatus.RETURNED);
+        assertThat(fineRepository.findByMember(member)).hasSize(5);
+    }
+}
@@ -0,0 +1,90 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.BorrowRecord;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.BorrowRecordRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class PopularityRollupServiceTests {
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private PopularityRollupService popularityRollupService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void checkoutsBumpCountersAndRollupDropsAgedOutBorrows() {
+        Member member = memberRepository.save(Member.builder()
+                .firstName("Popular").lastName("Reader")
+                .email("popular.reader@popularity.read4u.test").membershipNumber("POP1")
+                .maxBooksAllowed(10).build());
+        Book classic = bookRepository.save(book("Old Favourite", "9786600000001"));
+        Book hit = bookRepository.save(book("New Hit", "9786600000002"));
+
+        // Borrowed heavily two months ago, so only the all-time counter keeps it on top
+        borrowRecordRepository.save(BorrowRecord.builder()
+                .book(classic).member(member)
+                .borrowDate(LocalDate.now().minusDays(60))
+                .dueDate(LocalDate.now().minusDays(46))
+                .returnDate(LocalDate.now().minusDays(50))
+                .status(BorrowRecord.BorrowStatus.RETURNED)
+                .build());
+        jdbcTemplate.update("UPDATE books SET borrow_count = 3, recent_borrow_count = 3 WHERE id = ?", classic.getId());
+
+        borrowService.borrowBook(member.getId(), hit.getId());
+        borrowService.returnBook(borrowService.getCurrentBorrows(member.getId()).get(0).getId());
+        borrowService.borrowBook(member.getId(), hit.getId());
+
+        Book reloaded = bookRepository.findById(hit.getId()).orElseThrow();
+        assertThat(reloaded.getBorrowCount()).isEqualTo(2L);
+        assertThat(reloaded.getRecentBorrowCount()).isEqualTo(2);
+
+        popularityRollupService.rollup();
+
+        assertThat(bookRepository.findById(classic.getId()).orElseThrow().getRecentBorrowCount()).isZero();
+        assertThat(bookRepository.findById(hit.getId()).orElseThrow().getRecentBorrowCount()).isEqualTo(2);
+        assertThat(bookRepository.findPopularBooksByCategory("Popularity", PageRequest.of(0, 2)))
+                .extracting(Book::getTitle).containsExactly("Old Favourite", "New Hit");
+        assertThat(bookRepository.findRecentlyPopularBooksByCategory("Popularity", PageRequest.of(0, 2)))
+                .extracting(Book::getTitle).containsExactly("New Hit", "Old Favourite");
+    }
+
+    private static Book book(String title, String isbn) {
+        return Book.builder()
+                .title(title)
+                .author("Popular Author")
+                .isbn(isbn)
+                .category("Popularity")
+                .totalCopies(3)
+                .availableCopies(3)
+                .build();
+    }
+}
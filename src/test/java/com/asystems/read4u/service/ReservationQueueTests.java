@@ -0,0 +1,105 @@
+package com.asystems.read4u.service;
+
+import com.asystems.read4u.entity.Book;
+import com.asystems.read4u.entity.Member;
+import com.asystems.read4u.entity.Reservation;
+import com.asystems.read4u.repository.BookRepository;
+import com.asystems.read4u.repository.MemberRepository;
+import com.asystems.read4u.repository.ReservationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ReservationQueueTests {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationQueueTests.class);
+
+    private static final int HOLDS = 1000;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void queueOperationsOnThousandHoldQueueUseConstantRoundTrips() {
+        Book book = bookRepository.save(Book.builder()
+                .title("Hot Title").author("Queue Bench").isbn("9780000077001")
+                .category("Testing").totalCopies(1).availableCopies(0).build());
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < HOLDS; i++) {
+            members.add(Member.builder()
+                    .firstName("Holder").lastName(String.valueOf(i))
+                    .email("holder" + i + "@queue.read4u.test").membershipNumber("QUEUE" + i)
+                    .build());
+        }
+        members = memberRepository.saveAll(members);
+
+        List<Reservation> holds = new ArrayList<>();
+        for (Member member : members) {
+            holds.add(reservationService.reserveBook(member.getId(), book.getId()));
+        }
+        assertThat(holds.get(HOLDS - 1).getQueuePosition()).isEqualTo(HOLDS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        reservationService.cancelReservation(holds.get(0).getId(), members.get(0).getId());
+        long cancelHeadMicros = (System.nanoTime() - start) / 1000;
+        long cancelHeadStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        reservationService.cancelReservation(holds.get(HOLDS / 2).getId(), members.get(HOLDS / 2).getId());
+        long cancelMiddleMicros = (System.nanoTime() - start) / 1000;
+        long cancelMiddleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        Reservation promoted = reservationService.promoteNextInQueue(book).orElseThrow();
+        long promoteMicros = (System.nanoTime() - start) / 1000;
+        long promoteStatements = statistics.getPrepareStatementCount();
+
+        log.info("{}-hold queue: cancel head {} stmts/{}us, cancel middle {} stmts/{}us, promote head {} stmts/{}us",
+                HOLDS, cancelHeadStatements, cancelHeadMicros, cancelMiddleStatements, cancelMiddleMicros,
+                promoteStatements, promoteMicros);
+
+        assertThat(promoted.getMember().getId()).isEqualTo(members.get(1).getId());
+        assertThat(cancelHeadStatements).isLessThanOrEqualTo(5);
+        assertThat(cancelMiddleStatements).isLessThanOrEqualTo(5);
+        assertThat(promoteStatements).isLessThanOrEqualTo(4);
+
+        List<Integer> positions = reservationRepository.findPendingReservationsForBook(book).stream()
+                .map(Reservation::getQueuePosition)
+                .toList();
+        assertThat(positions).containsExactlyElementsOf(IntStream.rangeClosed(1, HOLDS - 3).boxed().toList());
+        assertThat(reservationService.getQueuePosition(members.get(HOLDS - 1).getId(), book.getId()))
+                .isEqualTo(HOLDS - 3);
+    }
+}
@@ -0,0 +1,70 @@
+package com.asystems.read4u.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingWindowTests {
+
+    private static final long TODAY = 20_000;
+
+    @Test
+    void recentBorrowsOutrankOlderOnesAndExpireWithTheWindow() {
+        TrendingWindow window = new TrendingWindow(30, 7);
+        window.add(1, "Fiction", TODAY - 20, 10);
+        window.add(2, "Fiction", TODAY, 3);
+        window.add(3, "Science", TODAY - 1, 2);
+        window.add(4, "Science", TODAY - 30, 100);
+
+        TrendingWindow.Leaderboard board = window.rank(TODAY, 10);
+
+        // 10 borrows decayed over 20 days weigh about 1.4, below 3 borrows today
+        assertThat(board.top(null)).containsExactly(2, 3, 1);
+        assertThat(board.top("Fiction")).containsExactly(2, 1);
+        assertThat(board.top("Science")).containsExactly(3);
+        assertThat(board.top("Poetry")).isEmpty();
+    }
+
+    @Test
+    void slotReusedOnTheNextLapStartsFromZero() {
+        TrendingWindow window = new TrendingWindow(30, 7);
+        window.add(1, "Fiction", TODAY - 30, 50);
+        window.add(2, "Fiction", TODAY - 29, 1);
+        window.record(1, "Fiction", TODAY);
+        window.record(1, "Fiction", TODAY - 30);
+
+        List<long[]> buckets = new ArrayList<>();
+        window.forEachBucket(TODAY, (bookId, category, day, count) -> buckets.add(new long[]{bookId, day, count}));
+
+        assertThat(buckets).extracting(b -> b[0] + "@" + b[1] + "=" + b[2])
+                .containsExactlyInAnyOrder("1@" + TODAY + "=1", "2@" + (TODAY - 29) + "=1");
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        TrendingWindow window = new TrendingWindow(30, 7);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    window.record(i % 4, "Fiction", TODAY);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long[] total = {0};
+        window.forEachBucket(TODAY, (bookId, category, day, count) -> total[0] += count);
+        assertThat(total[0]).isEqualTo(800_000);
+    }
+}
@@ -0,0 +1,37 @@
+package com.asystems.read4u.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class ZipfSamplerTests {
+
+    @Test
+    void rankFrequenciesFollowThePowerLaw() {
+        ZipfSampler sampler = new ZipfSampler(1000, 1.2);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] counts = new int[1001];
+        for (int i = 0; i < 500_000; i++) {
+            int rank = sampler.sample(random);
+            assertThat(rank).isBetween(1, 1000);
+            counts[rank]++;
+        }
+
+        // Rank 1 is drawn 2^1.2 and 10^1.2 times as often as ranks 2 and 10
+        assertThat((double) counts[1] / counts[2]).isCloseTo(Math.pow(2, 1.2), offset(0.1));
+        assertThat((double) counts[1] / counts[10]).isCloseTo(Math.pow(10, 1.2), offset(1.5));
+    }
+
+    @Test
+    void sameSeedDrawsTheSameRanks() {
+        ZipfSampler sampler = new ZipfSampler(1_000_000, 1.0);
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(sampler.sample(first)).isEqualTo(sampler.sample(second));
+        }
+    }
+}